@@ -9,6 +9,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.sourceforge.argparse4j.helper.HelpScreenException;
+import reposense.git.GitBackends;
 import reposense.git.GitConfig;
 import reposense.model.CliArguments;
 import reposense.model.RepoConfiguration;
@@ -19,6 +20,8 @@ import reposense.parser.exceptions.InvalidCsvException;
 import reposense.parser.exceptions.InvalidHeaderException;
 import reposense.parser.exceptions.ParseException;
 import reposense.report.ReportGenerator;
+import reposense.system.CommandRunner;
+import reposense.system.CommandTelemetry;
 import reposense.system.LogsManager;
 import reposense.system.ReportServer;
 import reposense.util.FileUtil;
@@ -65,6 +68,10 @@ public class RepoSense {
                     cliArguments.isShallowCloningPerformed());
             RepoConfiguration.setIsFindingPreviousAuthorsPerformedToRepoConfigs(configs,
                     cliArguments.isFindingPreviousAuthorsPerformed());
+            RepoConfiguration.setIsCheckoutFreeToRepoConfigs(configs, cliArguments.isCheckoutFree());
+
+            CommandRunner.setTimeouts(cliArguments.getGitTimeouts());
+            GitBackends.set(cliArguments.getGitBackendType());
 
             List<String[]> globalGitConfig = GitConfig.getGlobalGitLfsConfig();
             if (globalGitConfig.size() != 0) {
@@ -80,7 +87,8 @@ public class RepoSense {
                     cliArguments.isSinceDateProvided(), cliArguments.isUntilDateProvided(),
                     cliArguments.getNumCloningThreads(), cliArguments.getNumAnalysisThreads(),
                     TimeUtil::getElapsedTime, cliArguments.getZoneId(), cliArguments.isFreshClonePerformed(),
-                    cliArguments.isAuthorshipAnalyzed(), cliArguments.getOriginalityThreshold());
+                    cliArguments.isRepoOptimizationPerformed(), cliArguments.isAuthorshipAnalyzed(),
+                    cliArguments.getOriginalityThreshold());
 
             FileUtil.zipFoldersAndFiles(reportFoldersAndFiles, cliArguments.getOutputFilePath().toAbsolutePath(),
                     ".json");
@@ -88,6 +96,10 @@ public class RepoSense {
             // Set back to user's initial global git lfs config
             GitConfig.setGlobalGitLfsConfig(globalGitConfig);
 
+            if (cliArguments.isSlowestCommandsLogged()) {
+                logger.info(CommandTelemetry.getSlowestCommandsTable());
+            }
+
             logger.info(TimeUtil.getElapsedTimeMessage());
 
             if (cliArguments.isAutomaticallyLaunching()) {
@@ -1,14 +1,21 @@
 package reposense.authorship;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import reposense.authorship.analyzer.AuthorshipAnalyzer;
 import reposense.authorship.model.AuthorshipSummary;
 import reposense.authorship.model.FileInfo;
 import reposense.authorship.model.FileResult;
+import reposense.git.GitBackends;
+import reposense.git.model.LineRange;
 import reposense.model.RepoConfiguration;
+import reposense.system.CommandClass;
+import reposense.system.CommandRunner;
 import reposense.system.LogsManager;
 
 /**
@@ -18,8 +25,10 @@ public class AuthorshipReporter {
     private static final Logger logger = LogsManager.getLogger(AuthorshipReporter.class);
 
     private static final int HIGH_NUMBER_LINES_THRESHOLD = 500000;
+    // the typical length of a line of source code, used when no file has been read to measure it
+    private static final double DEFAULT_BYTES_PER_LINE = 40;
     private static final String HIGH_NUMBER_LINES_MESSAGE = "There are a large number (%s) of text files to be "
-            + "analyzed, comprising a total of %s lines. As such, RepoSense may take a long time to generate the "
+            + "analyzed, comprising a total of about %s lines. As such, RepoSense may take a long time to generate the "
             + "report. Performance may be improved by setting values for the \"File formats\" and "
             + " \"Ignore Glob List\" columns in the repo-config.csv so as to reduce the number of files to be "
             + " analyzed.";
@@ -37,31 +46,71 @@ public class AuthorshipReporter {
             double originalityThreshold) {
         List<FileInfo> textFileInfos = fileInfoExtractor.extractTextFileInfos(config);
 
-        int numFiles = textFileInfos.size();
-        int totalNumLines = textFileInfos.stream()
-                .mapToInt(FileInfo::getNumOfLines)
-                .sum();
-
+        long totalNumLines = estimateTotalNumLines(textFileInfos);
         if (totalNumLines > HIGH_NUMBER_LINES_THRESHOLD) {
-            logger.warning(String.format(HIGH_NUMBER_LINES_MESSAGE, numFiles, totalNumLines));
+            logger.warning(String.format(HIGH_NUMBER_LINES_MESSAGE, textFileInfos.size(), totalNumLines));
         }
 
-        List<FileResult> fileResults = textFileInfos.stream()
-                .map(fileInfo -> fileInfoAnalyzer.analyzeTextFile(config, fileInfo, shouldAnalyzeAuthorship,
-                        originalityThreshold))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        if (!config.isFindingPreviousAuthorsPerformed()) {
+            // where the git backend supports it, all the files are blamed together in a single walk of the history,
+            // which only goes as far back as the lines to blame need, and no further back than the since date
+            Map<String, List<LineRange>> lineRangesByFile = new HashMap<>();
+            textFileInfos.stream()
+                    .filter(fileInfo -> FileInfoAnalyzer.isBlameNeeded(config, fileInfo))
+                    .forEach(fileInfo -> lineRangesByFile.put(fileInfo.getPath(),
+                            FileInfoAnalyzer.getLineRangesToBlame(config, fileInfo)));
+            GitBackends.get().prepareBlame(config.getRepoRoot(), lineRangesByFile,
+                    FileInfoAnalyzer.getBlameSinceCommitHash(config));
+        }
 
-        List<FileInfo> binaryFileInfos = fileInfoExtractor.extractBinaryFileInfos(config);
+        // a single circuit breaker is shared by all files of the repo, so that slow files are detected repo-wide
+        BlameCircuitBreaker circuitBreaker = new BlameCircuitBreaker(config.getDisplayName(),
+                CommandRunner.getTimeout(CommandClass.BLAME));
+        if (shouldAnalyzeAuthorship) {
+            // the diffs of the commits that the lines are traced back through are taken from a single git log, which
+            // is run before any file is analyzed so that it does not take up the time limit of the first file
+            AuthorshipAnalyzer.prepareCommitDiffIndex(config);
+        }
+        List<FileResult> fileResults;
+        try {
+            fileResults = textFileInfos.stream()
+                    .map(fileInfo -> fileInfoAnalyzer.analyzeTextFile(config, fileInfo, shouldAnalyzeAuthorship,
+                            originalityThreshold, circuitBreaker))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } finally {
+            AuthorshipAnalyzer.releaseCommitDiffIndex(config);
+        }
 
-        List<FileResult> binaryFileResults = binaryFileInfos.stream()
-                .map(fileInfo -> fileInfoAnalyzer.analyzeBinaryFile(config, fileInfo))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<FileInfo> binaryFileInfos = fileInfoExtractor.extractBinaryFileInfos(config);
 
-        fileResults.addAll(binaryFileResults);
+        fileResults.addAll(fileInfoAnalyzer.analyzeBinaryFiles(config, binaryFileInfos));
 
         return fileResultAggregator.aggregateFileResult(fileResults, config.getAuthorList(),
                 config.getAllFileTypes());
     }
+
+    /**
+     * Returns the total number of lines of {@code textFileInfos} before they are analyzed.
+     * The lines of the files whose content is taken from git blame are only known once they are blamed, so they are
+     * estimated from the size of each such file and the average length of the lines of the files already read.
+     */
+    static long estimateTotalNumLines(List<FileInfo> textFileInfos) {
+        long numLinesRead = 0;
+        long numBytesRead = 0;
+        long numBytesFromBlame = 0;
+        for (FileInfo fileInfo : textFileInfos) {
+            if (fileInfo.isContentFromBlame()) {
+                numBytesFromBlame += fileInfo.getFileSize();
+            } else {
+                numLinesRead += fileInfo.getNumOfLines();
+                numBytesRead += fileInfo.getFileSize();
+            }
+        }
+
+        double bytesPerLine = (numLinesRead > 0 && numBytesRead > 0)
+                ? (double) numBytesRead / numLinesRead
+                : DEFAULT_BYTES_PER_LINE;
+        return numLinesRead + Math.round(numBytesFromBlame / bytesPerLine);
+    }
 }
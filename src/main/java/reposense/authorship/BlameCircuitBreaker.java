@@ -0,0 +1,102 @@
+package reposense.authorship;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import reposense.report.ErrorSummary;
+import reposense.system.CancellationToken;
+import reposense.system.LogsManager;
+
+/**
+ * Tracks the files of a single repo whose analysis ran past its deadline, and trips once too many of them have done
+ * so, after which the remaining files of the repo are given a shorter deadline for their full analysis before they
+ * are analyzed in a cheaper mode.
+ * Every file analyzed in the cheaper mode is recorded in the {@link ErrorSummary}, as its results are less accurate
+ * than usual.
+ */
+public class BlameCircuitBreaker {
+    private static final Logger logger = LogsManager.getLogger(BlameCircuitBreaker.class);
+
+    private static final int MAX_NUM_SLOW_FILES = 3;
+    private static final int TRIPPED_DEADLINE_DIVISOR = 4;
+    private static final String MESSAGE_FILE_DOWNGRADED = "Analysis of file \"%s\" ran past its deadline of %s "
+            + "seconds, so it was analyzed again in a cheaper mode, without authorship analysis or ignoring "
+            + "whitespace changes.";
+    private static final String MESSAGE_FILE_SKIPPED = "Analysis of file \"%s\" ran past its deadline of %s "
+            + "seconds even in the cheaper mode, so it was skipped.";
+    private static final String MESSAGE_BREAKER_TRIPPED = "%d files of %s ran past their deadline. The remaining "
+            + "files will be given a deadline of %s seconds before being analyzed in a cheaper mode.";
+
+    private final String repoName;
+    private final Duration fileTimeout;
+    private final AtomicInteger numSlowFiles = new AtomicInteger();
+
+    /**
+     * Creates a {@link BlameCircuitBreaker} for the repo with the display name {@code repoName}, in which the analysis
+     * of each file has to complete within {@code fileTimeout}. A zero {@code fileTimeout} means that there is no
+     * deadline.
+     */
+    public BlameCircuitBreaker(String repoName, Duration fileTimeout) {
+        this.repoName = repoName;
+        this.fileTimeout = fileTimeout;
+    }
+
+    /**
+     * Returns true if too many files have run past their deadline, so that the full analysis of the remaining files
+     * is given a shorter deadline.
+     */
+    public boolean isTripped() {
+        return numSlowFiles.get() >= MAX_NUM_SLOW_FILES;
+    }
+
+    /**
+     * Returns the deadline for the full analysis of a single file, which is shorter once the breaker has tripped, so
+     * that a repo with many slow files does not take up the whole deadline for each of them.
+     * A zero deadline means that there is no deadline.
+     */
+    public Duration getFullModeTimeout() {
+        return isTripped() ? fileTimeout.dividedBy(TRIPPED_DEADLINE_DIVISOR) : fileTimeout;
+    }
+
+    /**
+     * Returns a {@link CancellationToken} that is cancelled once the deadline for analyzing a single file in the
+     * cheaper mode has passed.
+     */
+    public CancellationToken createFileToken() {
+        return new CancellationToken(fileTimeout);
+    }
+
+    /**
+     * Records that the full analysis of the file at {@code filePath} ran past its deadline of {@code timeout} and is
+     * redone in the cheaper mode.
+     */
+    public void recordDowngradedFile(String filePath, Duration timeout) {
+        String message = String.format(MESSAGE_FILE_DOWNGRADED, filePath, formatSeconds(timeout));
+        logger.warning(message);
+        ErrorSummary.getInstance().addErrorMessage(repoName, message);
+
+        if (numSlowFiles.incrementAndGet() == MAX_NUM_SLOW_FILES) {
+            logger.warning(String.format(MESSAGE_BREAKER_TRIPPED, MAX_NUM_SLOW_FILES, repoName,
+                    formatSeconds(getFullModeTimeout())));
+        }
+    }
+
+    /**
+     * Records that the analysis of the file at {@code filePath} ran past its deadline in the cheaper mode, and the
+     * file is left out of the report.
+     */
+    public void recordSkippedFile(String filePath) {
+        String message = String.format(MESSAGE_FILE_SKIPPED, filePath, formatSeconds(fileTimeout));
+        logger.warning(message);
+        ErrorSummary.getInstance().addErrorMessage(repoName, message);
+    }
+
+    /**
+     * Returns {@code duration} in seconds, with its fraction of a second if it has one.
+     */
+    private static String formatSeconds(Duration duration) {
+        return BigDecimal.valueOf(duration.toMillis(), 3).stripTrailingZeros().toPlainString();
+    }
+}
@@ -1,29 +1,41 @@
 package reposense.authorship;
 
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import reposense.authorship.analyzer.AnnotatorAnalyzer;
 import reposense.authorship.analyzer.AuthorshipAnalyzer;
 import reposense.authorship.model.FileInfo;
 import reposense.authorship.model.FileResult;
 import reposense.authorship.model.LineInfo;
-import reposense.git.GitBlame;
-import reposense.git.GitLog;
+import reposense.git.GitBackends;
+import reposense.git.GitBlameParser;
+import reposense.git.GitLsTree;
+import reposense.git.model.GitBlameCommit;
+import reposense.git.model.LineRange;
 import reposense.model.Author;
 import reposense.model.CommitHash;
 import reposense.model.RepoConfiguration;
+import reposense.system.CancellationToken;
+import reposense.system.CommandClass;
+import reposense.system.CommandRunner;
+import reposense.system.CommandTimeoutException;
 import reposense.system.LogsManager;
 import reposense.util.FileUtil;
-import reposense.util.StringsUtil;
 
 /**
  * Analyzes the target and information given in the {@link FileInfo}.
@@ -31,12 +43,6 @@ import reposense.util.StringsUtil;
 public class FileInfoAnalyzer {
     private static final Logger logger = LogsManager.getLogger(FileInfoAnalyzer.class);
 
-    private static final int AUTHOR_NAME_OFFSET = "author ".length();
-    private static final int AUTHOR_EMAIL_OFFSET = "author-mail ".length();
-    private static final int AUTHOR_TIME_OFFSET = "author-time ".length();
-    private static final int AUTHOR_TIMEZONE_OFFSET = "author-tz ".length();
-    private static final int FULL_COMMIT_HASH_LENGTH = 40;
-
     private static final String MESSAGE_FILE_MISSING = "Unable to analyze the file located at \"%s\" "
             + "as the file is missing from your system. Skipping this file.";
 
@@ -53,18 +59,39 @@ public class FileInfoAnalyzer {
      */
     public FileResult analyzeTextFile(RepoConfiguration config, FileInfo fileInfo, boolean shouldAnalyzeAuthorship,
             double originalityThreshold) {
+        BlameCircuitBreaker circuitBreaker = new BlameCircuitBreaker(config.getDisplayName(),
+                CommandRunner.getTimeout(CommandClass.BLAME));
+        return analyzeTextFile(config, fileInfo, shouldAnalyzeAuthorship, originalityThreshold, circuitBreaker);
+    }
+
+    /**
+     * Analyzes the lines of the file, given in the {@code fileInfo}, that has changed in the time period provided
+     * by {@code config}, within the deadline for a single file given by {@code circuitBreaker}.
+     * Further analyzes the authorship of each line in the commit if {@code shouldAnalyzeAuthorship} is true, based on
+     * {@code originalityThreshold}.
+     * If the analysis runs past its deadline, or {@code circuitBreaker} has tripped, the file is analyzed in a
+     * cheaper mode instead, and the file is recorded in {@code circuitBreaker}.
+     * Returns null if the file is missing from the local system, none of the {@link Author} specified in
+     * {@code config} contributed to the file in {@code fileInfo}, or the file cannot be analyzed within the deadline
+     * even in the cheaper mode.
+     */
+    public FileResult analyzeTextFile(RepoConfiguration config, FileInfo fileInfo, boolean shouldAnalyzeAuthorship,
+            double originalityThreshold, BlameCircuitBreaker circuitBreaker) {
         String relativePath = fileInfo.getPath();
 
-        if (Files.notExists(Paths.get(config.getRepoRoot(), relativePath))) {
+        if (isFileMissing(config, relativePath)) {
             logger.severe(String.format(MESSAGE_FILE_MISSING, relativePath));
             return null;
         }
 
-        if (FileUtil.isEmptyFile(config.getRepoRoot(), relativePath)) {
+        if (isFileEmpty(config, relativePath)) {
             return null;
         }
 
-        aggregateBlameAuthorModifiedAndDateInfo(config, fileInfo, shouldAnalyzeAuthorship, originalityThreshold);
+        if (!aggregateBlameInfoWithinDeadline(config, fileInfo, shouldAnalyzeAuthorship, originalityThreshold,
+                circuitBreaker)) {
+            return null;
+        }
         fileInfo.setFileType(config.getFileType(fileInfo.getPath()));
 
         AnnotatorAnalyzer.aggregateAnnotationAuthorInfo(fileInfo, config.getAuthorConfig(), shouldAnalyzeAuthorship);
@@ -83,16 +110,118 @@ public class FileInfoAnalyzer {
      * {@link Author} specified in {@code config} contributed to the file in {@code fileInfo}.
      */
     public FileResult analyzeBinaryFile(RepoConfiguration config, FileInfo fileInfo) {
-        String relativePath = fileInfo.getPath();
+        List<FileResult> fileResults = analyzeBinaryFiles(config, Collections.singletonList(fileInfo));
+        return fileResults.isEmpty() ? null : fileResults.get(0);
+    }
 
-        if (Files.notExists(Paths.get(config.getRepoRoot(), relativePath))) {
-            logger.severe(String.format(MESSAGE_FILE_MISSING, relativePath));
-            return null;
+    /**
+     * Analyzes the binary files, given in {@code fileInfos}, that have changed in the time period provided by
+     * {@code config}, looking up the authors of all of them in a single pass over the history of the repository.
+     * Returns the results of the files in the order of {@code fileInfos}, without those of the files that are missing
+     * from the local system, or that none of the {@link Author} specified in {@code config} contributed to.
+     */
+    public List<FileResult> analyzeBinaryFiles(RepoConfiguration config, List<FileInfo> fileInfos) {
+        List<FileInfo> presentFileInfos = new ArrayList<>();
+        for (FileInfo fileInfo : fileInfos) {
+            String relativePath = fileInfo.getPath();
+
+            if (isFileMissing(config, relativePath)) {
+                logger.severe(String.format(MESSAGE_FILE_MISSING, relativePath));
+                continue;
+            }
+
+            fileInfo.setFileType(config.getFileType(fileInfo.getPath()));
+            presentFileInfos.add(fileInfo);
         }
 
-        fileInfo.setFileType(config.getFileType(fileInfo.getPath()));
+        if (presentFileInfos.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        return generateBinaryFileResult(config, fileInfo);
+        Map<String, List<String[]>> fileAuthors = GitBackends.get().getFileAuthors(config,
+                presentFileInfos.stream().map(FileInfo::getPath).collect(Collectors.toList()));
+        List<FileResult> fileResults = new ArrayList<>();
+        for (FileInfo fileInfo : presentFileInfos) {
+            FileResult fileResult = generateBinaryFileResult(config, fileInfo,
+                    fileAuthors.getOrDefault(fileInfo.getPath(), Collections.emptyList()));
+            if (fileResult != null) {
+                fileResults.add(fileResult);
+            }
+        }
+        return fileResults;
+    }
+
+    /**
+     * Returns true if the file at {@code relativePath} is missing from the repository given by {@code config}, which is
+     * checked at the checked out commit if {@code config} is checkout-free, or in the working tree otherwise.
+     */
+    private static boolean isFileMissing(RepoConfiguration config, String relativePath) {
+        if (config.isCheckoutFree()) {
+            return GitLsTree.getFileInfo(config.getRepoRoot(), relativePath).isEmpty();
+        }
+        return Files.notExists(Paths.get(config.getRepoRoot(), relativePath));
+    }
+
+    /**
+     * Returns true if the file at {@code relativePath} in the repository given by {@code config} is empty, which is
+     * checked at the checked out commit if {@code config} is checkout-free, or in the working tree otherwise.
+     */
+    private static boolean isFileEmpty(RepoConfiguration config, String relativePath) {
+        if (config.isCheckoutFree()) {
+            return GitLsTree.getFileInfo(config.getRepoRoot(), relativePath)
+                    .map(fileObject -> fileObject.getSize() == 0)
+                    .orElse(true);
+        }
+        return FileUtil.isEmptyFile(config.getRepoRoot(), relativePath);
+    }
+
+    /**
+     * Returns true if any line of {@code fileInfo} needs to be blamed, which is not the case if none of its lines are
+     * tracked, unless the last modified date of every line is included as given by {@code config}.
+     */
+    public static boolean isBlameNeeded(RepoConfiguration config, FileInfo fileInfo) {
+        return config.isLastModifiedDateIncluded() || fileInfo.isContentFromBlame()
+                || fileInfo.getLines().stream().anyMatch(LineInfo::isTracked);
+    }
+
+    /**
+     * Returns the ranges of the lines of {@code fileInfo} to blame, or an empty list if every line is to be blamed.
+     * Only the tracked lines are blamed, as the other lines are attributed to {@link Author#UNKNOWN_AUTHOR} anyway,
+     * unless the last modified date of every line is included as given by {@code config}.
+     */
+    public static List<LineRange> getLineRangesToBlame(RepoConfiguration config, FileInfo fileInfo) {
+        List<LineInfo> lines = fileInfo.getLines();
+        if (config.isLastModifiedDateIncluded() || fileInfo.isContentFromBlame()
+                || lines.stream().allMatch(LineInfo::isTracked)) {
+            return Collections.emptyList();
+        }
+
+        List<LineRange> lineRanges = new ArrayList<>();
+        int rangeStart = -1;
+        for (int i = 0; i <= lines.size(); i++) {
+            boolean isTracked = i < lines.size() && lines.get(i).isTracked();
+            if (isTracked && rangeStart < 0) {
+                rangeStart = i;
+            } else if (!isTracked && rangeStart >= 0) {
+                lineRanges.add(new LineRange(rangeStart + 1, i));
+                rangeStart = -1;
+            }
+        }
+        return lineRanges;
+    }
+
+    /**
+     * Returns the commit that the history of the files of the repository given by {@code config} is blamed from,
+     * which is the latest commit before its since date, as the lines that were last changed at or before that commit
+     * are attributed to {@link Author#UNKNOWN_AUTHOR} anyway. Returns an empty {@code String} if the whole history is
+     * to be blamed, which is the case if there is no such commit, or the last modified date of every line is included.
+     */
+    public static String getBlameSinceCommitHash(RepoConfiguration config) {
+        if (config.isLastModifiedDateIncluded()) {
+            return "";
+        }
+        return GitBackends.get().getCommitHashUntilDate(config.getRepoRoot(), config.getBranch(),
+                config.getSinceDate(), config.getZoneId()).trim();
     }
 
     /**
@@ -110,13 +239,14 @@ public class FileInfoAnalyzer {
     }
 
     /**
-     * Generates and returns a {@link FileResult} with the authorship results from binary {@code fileInfo} consolidated.
+     * Generates and returns a {@link FileResult} with the authorship results from binary {@code fileInfo}, whose
+     * authors are given by the name and email in each of {@code authorsString}, consolidated.
      * Authorship results are indicated in the {@code authorContributionMap} as contributions with zero line counts.
      * Returns {@code null} if none of the {@link Author} specified in {@code config} contributed to the file in
      * {@code fileInfo}.
      */
-    private FileResult generateBinaryFileResult(RepoConfiguration config, FileInfo fileInfo) {
-        List<String[]> authorsString = GitLog.getFileAuthors(config, fileInfo.getPath());
+    private FileResult generateBinaryFileResult(RepoConfiguration config, FileInfo fileInfo,
+            List<String[]> authorsString) {
         if (authorsString.size() == 0) {
             return null;
         }
@@ -137,6 +267,49 @@ public class FileInfoAnalyzer {
         return FileResult.createBinaryFileResult(fileInfo.getPath(), fileInfo.getFileType(), authorContributionMap);
     }
 
+    /**
+     * Sets the blame information of each line in {@code fileInfo} as in
+     * {@link #aggregateBlameAuthorModifiedAndDateInfo}, within the deadline for a single file given by
+     * {@code circuitBreaker}. The cheaper mode is used as a retry if the full analysis runs past its deadline, which
+     * is shorter once {@code circuitBreaker} has tripped.
+     * Returns false if the analysis runs past its deadline even in the cheaper mode.
+     */
+    private boolean aggregateBlameInfoWithinDeadline(RepoConfiguration config, FileInfo fileInfo,
+            boolean shouldAnalyzeAuthorship, double originalityThreshold, BlameCircuitBreaker circuitBreaker) {
+        Duration fullModeTimeout = circuitBreaker.getFullModeTimeout();
+        try {
+            aggregateBlameAuthorModifiedAndDateInfo(config, fileInfo, shouldAnalyzeAuthorship,
+                    originalityThreshold, false, new CancellationToken(fullModeTimeout));
+            return true;
+        } catch (RuntimeException re) {
+            rethrowIfNotDeadlineExceeded(re);
+        }
+
+        circuitBreaker.recordDowngradedFile(fileInfo.getPath(), fullModeTimeout);
+        fileInfo.getLines().forEach(line -> line.setIsFullCredit(false));
+
+        try {
+            aggregateBlameAuthorModifiedAndDateInfo(config, fileInfo, false, originalityThreshold, true,
+                    circuitBreaker.createFileToken());
+            return true;
+        } catch (RuntimeException re) {
+            rethrowIfNotDeadlineExceeded(re);
+        }
+
+        circuitBreaker.recordSkippedFile(fileInfo.getPath());
+        return false;
+    }
+
+    /**
+     * Rethrows {@code re} unless it signals that an analysis was cancelled or a git command was terminated because
+     * it ran past its deadline.
+     */
+    private void rethrowIfNotDeadlineExceeded(RuntimeException re) throws RuntimeException {
+        if (!(re instanceof CancellationException) && !CommandTimeoutException.isCausedByTimeout(re)) {
+            throw re;
+        }
+    }
+
     /**
      * Sets the {@link Author} and {@link LocalDateTime} for each line in {@code fileInfo} based on the git blame
      * analysis of the file.
@@ -145,71 +318,137 @@ public class FileInfoAnalyzer {
      * {@code lineInfo}.
      * Further analyzes the authorship of each line in the commit if {@code shouldAnalyzeAuthorship} is true, based on
      * {@code originalityThreshold}.
+     * Uses a cheaper git blame that does not ignore whitespace changes or find previous authors if
+     * {@code isCheapMode} is true. Stops once {@code cancellationToken} is cancelled.
+     * Only the lines given by {@link #getLineRangesToBlame} are blamed, the others are attributed to
+     * {@link Author#UNKNOWN_AUTHOR} without running git. The lines of {@code fileInfo} are added as they are blamed if
+     * its content is taken from the blame result.
+     *
+     * @throws CancellationException if {@code cancellationToken} is cancelled before the analysis completes.
      */
     private void aggregateBlameAuthorModifiedAndDateInfo(RepoConfiguration config, FileInfo fileInfo,
-            boolean shouldAnalyzeAuthorship, double originalityThreshold) {
-        String blameResults;
+            boolean shouldAnalyzeAuthorship, double originalityThreshold, boolean isCheapMode,
+            CancellationToken cancellationToken) throws CancellationException {
+        if (fileInfo.isContentFromBlame()) {
+            // discards the lines added by an earlier analysis that ran past its deadline
+            fileInfo.getLines().clear();
+        }
+        for (int i = 0; i < fileInfo.getNumOfLines(); i++) {
+            if (!fileInfo.isFileLineTracked(i)) {
+                fileInfo.setLineAuthor(i, Author.UNKNOWN_AUTHOR);
+            }
+        }
+        if (!isBlameNeeded(config, fileInfo)) {
+            return;
+        }
 
-        if (!config.isFindingPreviousAuthorsPerformed()) {
-            blameResults = getGitBlameResult(config, fileInfo.getPath());
+        List<LineRange> lineRanges = getLineRangesToBlame(config, fileInfo);
+        String sinceCommitHash = getBlameSinceCommitHash(config);
+        List<Integer> lineNumbersToAnalyze = new ArrayList<>();
+        List<String> commitHashesToAnalyze = new ArrayList<>();
+
+        // the blame result is processed as it is streamed, so that it is never held in memory as a whole
+        GitBlameParser<BlamedCommit> blameParser = new GitBlameParser<>(
+                commit -> processBlamedCommit(config, fileInfo, commit), (commit, lineNumber, content) -> {
+                    if (fileInfo.isContentFromBlame()) {
+                        // the whole file is blamed, in the order of its lines
+                        fileInfo.addLine(new LineInfo(lineNumber + 1, removeCarriageReturn(content)));
+                    }
+                    Author author = aggregateBlamedLine(config, fileInfo, commit, lineNumber);
+                    if (shouldAnalyzeAuthorship && !author.equals(Author.UNKNOWN_AUTHOR)) {
+                        lineNumbersToAnalyze.add(lineNumber);
+                        commitHashesToAnalyze.add(commit.commitHash);
+                    }
+                });
+        Consumer<String> blameLineConsumer = blameLine -> {
+            cancellationToken.throwIfCancelled();
+            blameParser.accept(blameLine);
+        };
+
+        if (isCheapMode) {
+            GitBackends.get().blameFast(config.getRepoRoot(), fileInfo.getPath(), lineRanges, sinceCommitHash,
+                    blameLineConsumer);
+        } else if (!config.isFindingPreviousAuthorsPerformed()) {
+            GitBackends.get().blame(config.getRepoRoot(), fileInfo.getPath(), lineRanges, sinceCommitHash,
+                    blameLineConsumer);
         } else {
-            blameResults = getGitBlameWithPreviousAuthorsResult(config, fileInfo.getPath());
-        }
-
-        String[] blameResultLines = StringsUtil.NEWLINE.split(blameResults);
-        Path filePath = Paths.get(fileInfo.getPath());
-        LocalDateTime sinceDate = config.getSinceDate();
-        LocalDateTime untilDate = config.getUntilDate();
-
-        for (int lineCount = 0; lineCount < blameResultLines.length; lineCount += 5) {
-            String commitHash = blameResultLines[lineCount].substring(0, FULL_COMMIT_HASH_LENGTH);
-            String authorName = blameResultLines[lineCount + 1].substring(AUTHOR_NAME_OFFSET);
-            String authorEmail = blameResultLines[lineCount + 2]
-                    .substring(AUTHOR_EMAIL_OFFSET).replaceAll("<|>", "");
-            long commitDateInMs = Long.parseLong(blameResultLines[lineCount + 3].substring(AUTHOR_TIME_OFFSET)) * 1000;
-            LocalDateTime commitDate = LocalDateTime.ofInstant(Instant.ofEpochMilli(commitDateInMs),
-                    config.getZoneId());
-            Author author = config.getAuthor(authorName, authorEmail);
-
-            int lineNumber = lineCount / 5;
-            if (!fileInfo.isFileLineTracked(lineNumber) || author.isIgnoringFile(filePath)
-                    || CommitHash.isInsideCommitList(commitHash, config.getIgnoreCommitList())
-                    || commitDate.isBefore(sinceDate) || commitDate.isAfter(untilDate)) {
-                author = Author.UNKNOWN_AUTHOR;
-            }
+            GitBackends.get().blameWithPreviousAuthors(config.getRepoRoot(), fileInfo.getPath(), lineRanges,
+                    sinceCommitHash, blameLineConsumer);
+        }
 
-            if (config.isLastModifiedDateIncluded()) {
-                if (config.isShallowCloningPerformed()) {
-                    logger.warning(String.format(
-                            MESSAGE_SHALLOW_CLONING_LAST_MODIFIED_DATE_CONFLICT, config.getRepoName()));
-                }
+        // authorship analysis runs further git commands, so it is only done after the blame process has ended
+        List<LineInfo> linesToAnalyze = new ArrayList<>();
+        for (int lineNumber : lineNumbersToAnalyze) {
+            linesToAnalyze.add(fileInfo.getLine(lineNumber + 1));
+        }
+        boolean[] isFullCredit = AuthorshipAnalyzer.analyzeAuthorship(config, fileInfo.getPath(), linesToAnalyze,
+                commitHashesToAnalyze, originalityThreshold, cancellationToken);
+        for (int i = 0; i < lineNumbersToAnalyze.size(); i++) {
+            fileInfo.setIsFullCredit(lineNumbersToAnalyze.get(i), isFullCredit[i]);
+        }
+    }
 
-                fileInfo.setLineLastModifiedDate(lineNumber, commitDate);
-            }
-            fileInfo.setLineAuthor(lineNumber, author);
+    /**
+     * Returns the {@link Author} that the lines of {@code fileInfo} attributed to {@code commit} are credited to, and
+     * the date of {@code commit} in the time zone given by {@code config}.
+     * The lines are credited to {@link Author#UNKNOWN_AUTHOR} if {@code commit} is a boundary commit, as they were last
+     * changed before the history that was blamed, or if the commit or its author is ignored, or the commit is outside
+     * the time period given by {@code config}.
+     */
+    private BlamedCommit processBlamedCommit(RepoConfiguration config, FileInfo fileInfo, GitBlameCommit commit) {
+        LocalDateTime commitDate = LocalDateTime.ofInstant(Instant.ofEpochSecond(commit.getAuthorTimeSeconds()),
+                config.getZoneId());
+        Author author = config.getAuthor(commit.getAuthorName(), commit.getAuthorEmail());
+
+        if (commit.isBoundary() || author.isIgnoringFile(Paths.get(fileInfo.getPath()))
+                || CommitHash.isInsideCommitList(commit.getCommitHash(), config.getIgnoreCommitList())
+                || commitDate.isBefore(config.getSinceDate()) || commitDate.isAfter(config.getUntilDate())) {
+            author = Author.UNKNOWN_AUTHOR;
+        }
 
-            if (shouldAnalyzeAuthorship && !author.equals(Author.UNKNOWN_AUTHOR)) {
-                String lineContent = fileInfo.getLine(lineNumber + 1).getContent();
-                boolean isFullCredit = AuthorshipAnalyzer.analyzeAuthorship(config, fileInfo.getPath(), lineContent,
-                        commitHash, author, originalityThreshold);
-                fileInfo.setIsFullCredit(lineNumber, isFullCredit);
-            }
+        if (config.isLastModifiedDateIncluded() && config.isShallowCloningPerformed()) {
+            logger.warning(String.format(MESSAGE_SHALLOW_CLONING_LAST_MODIFIED_DATE_CONFLICT, config.getRepoName()));
+        }
+        return new BlamedCommit(commit.getCommitHash(), author, commitDate);
+    }
+
+    /**
+     * Sets the {@link Author} and, if required by {@code config}, the last modified date of the line at
+     * {@code lineNumber} (0-indexed) in {@code fileInfo}, based on the {@code commit} it is attributed to.
+     * Returns the {@link Author} set.
+     */
+    private Author aggregateBlamedLine(RepoConfiguration config, FileInfo fileInfo, BlamedCommit commit,
+            int lineNumber) {
+        Author author = fileInfo.isFileLineTracked(lineNumber) ? commit.author : Author.UNKNOWN_AUTHOR;
+
+        if (config.isLastModifiedDateIncluded()) {
+            fileInfo.setLineLastModifiedDate(lineNumber, commit.commitDate);
         }
+        fileInfo.setLineAuthor(lineNumber, author);
+        return author;
     }
 
     /**
-     * Returns the analysis result from running git blame on {@code filePath} with reference to the root directory
-     * given in {@code config}.
+     * Returns {@code content} without the carriage return at its end, if any, in the same way as when the lines of
+     * a file are read on their own, as git only splits lines at line feeds.
      */
-    private String getGitBlameResult(RepoConfiguration config, String filePath) {
-        return GitBlame.blame(config.getRepoRoot(), filePath);
+    private static String removeCarriageReturn(String content) {
+        return content.endsWith("\r") ? content.substring(0, content.length() - 1) : content;
     }
 
     /**
-     * Returns the analysis result from running git blame with finding previous authors enabled on {@code filePath}
-     * with reference to the root directory given in {@code config}.
+     * Stores the details of a commit in a blame result of a file that are needed to analyze the lines attributed
+     * to it.
      */
-    private String getGitBlameWithPreviousAuthorsResult(RepoConfiguration config, String filePath) {
-        return GitBlame.blameWithPreviousAuthors(config.getRepoRoot(), filePath);
+    private static class BlamedCommit {
+        private final String commitHash;
+        private final Author author;
+        private final LocalDateTime commitDate;
+
+        BlamedCommit(String commitHash, Author author, LocalDateTime commitDate) {
+            this.commitHash = commitHash;
+            this.author = author;
+            this.commitDate = commitDate;
+        }
     }
 }
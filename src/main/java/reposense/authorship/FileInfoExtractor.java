@@ -1,8 +1,10 @@
 package reposense.authorship;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
@@ -11,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,14 +23,14 @@ import java.util.stream.Collectors;
 
 import reposense.authorship.model.FileInfo;
 import reposense.authorship.model.LineInfo;
+import reposense.git.GitBackends;
 import reposense.git.GitCheckout;
-import reposense.git.GitDiff;
-import reposense.git.GitRevList;
+import reposense.git.GitLsTree;
 import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitObject;
 import reposense.model.RepoConfiguration;
 import reposense.system.LogsManager;
 import reposense.util.FileUtil;
-import reposense.util.StringsUtil;
 
 /**
  * Extracts out all the relevant {@code FileInfo} from the repository.
@@ -42,20 +45,18 @@ public class FileInfoExtractor {
     private static final String MESSAGE_FILE_ANALYSIS_SKIPPED = "Skipping analysis of this file...";
     private static final String MESSAGE_FILE_EXCLUDED_FROM_REPORT = "Exact line diffs will be excluded from report...";
 
-    private static final String DIFF_FILE_CHUNK_SEPARATOR = "\ndiff --git \"?\'?a/.*\n";
-    private static final String LINE_CHUNKS_SEPARATOR = "\n@@ ";
+    private static final String DIFF_FILE_HEADER_PREFIX = "diff --git ";
+    private static final String LINE_CHUNK_HEADER_PREFIX = "@@ ";
     private static final String LINE_INSERTED_SYMBOL = "+";
     private static final String STARTING_LINE_NUMBER_GROUP_NAME = "startingLineNumber";
     private static final String FILE_CHANGED_GROUP_NAME = "filePath";
     private static final String FILE_DELETED_SYMBOL = "dev/null";
+    private static final String FILE_ADDED_LINE = "--- /dev/null";
     private static final String MATCH_GROUP_FAIL_MESSAGE_FORMAT = "Failed to match the %s group for:\n%s";
-    private static final String BINARY_FILE_LINE_DIFF_RESULT = "-\t-\t";
-
-    private static final int LINE_CHANGED_HEADER_INDEX = 0;
 
     private static final Pattern STARTING_LINE_NUMBER_PATTERN = Pattern.compile(
             "-(\\d)+(,)?(\\d)* \\+(?<startingLineNumber>\\d+)(,)?(\\d)* @@");
-    private static final Pattern FILE_CHANGED_PATTERN = Pattern.compile("\n(\\+){3} b?/(?<filePath>.*?)\t?\n");
+    private static final Pattern FILE_CHANGED_PATTERN = Pattern.compile("^(\\+){3} b?/(?<filePath>.*?)\t?$");
 
     /**
      * Extracts a list of relevant non-binary files given in {@code config}.
@@ -68,12 +69,17 @@ public class FileInfoExtractor {
         // checks out to the latest commit of the date range to ensure the FileInfo generated correspond to the
         // git blame file analyze output
         try {
-            GitCheckout.checkoutDate(config.getRepoRoot(), config.getBranch(), config.getUntilDate(),
-                    config.getZoneId());
+            if (config.isCheckoutFree()) {
+                GitCheckout.checkoutDateWithoutFiles(config.getRepoRoot(), config.getBranch(), config.getUntilDate(),
+                        config.getZoneId());
+            } else {
+                GitCheckout.checkoutDate(config.getRepoRoot(), config.getBranch(), config.getUntilDate(),
+                        config.getZoneId());
+            }
         } catch (CommitNotFoundException cnfe) {
             return fileInfos;
         }
-        String lastCommitHash = GitRevList.getCommitHashUntilDate(
+        String lastCommitHash = GitBackends.get().getCommitHashUntilDate(
                 config.getRepoRoot(), config.getBranch(), config.getSinceDate(), config.getZoneId());
 
         fileInfos = (lastCommitHash.isEmpty())
@@ -99,26 +105,50 @@ public class FileInfoExtractor {
      * The repo is given by {@code config}.
      */
     public List<FileInfo> getEditedFileInfos(RepoConfiguration config, String lastCommitHash) {
+        List<FileDiffResult> fileDiffResults = new ArrayList<>();
+
+        // the diff result is parsed as it is streamed, so that it is never held in memory as a whole
+        GitBackends.get().diffCommit(config.getRepoRoot(), lastCommitHash, line -> {
+            if (line.startsWith(DIFF_FILE_HEADER_PREFIX)) {
+                fileDiffResults.add(new FileDiffResult());
+                return;
+            }
+            if (fileDiffResults.isEmpty()) {
+                return;
+            }
+
+            FileDiffResult fileDiffResult = fileDiffResults.get(fileDiffResults.size() - 1);
+            if (line.startsWith(LINE_CHUNK_HEADER_PREFIX)) {
+                fileDiffResult.addLineChunk(getStartingLineNumber(line));
+            } else if (fileDiffResult.isInHeader()) {
+                if (line.equals(FILE_ADDED_LINE)) {
+                    fileDiffResult.setAdded();
+                }
+                Matcher filePathMatcher = FILE_CHANGED_PATTERN.matcher(line);
+                if (filePathMatcher.find()) {
+                    fileDiffResult.setFilePath(filePathMatcher.group(FILE_CHANGED_GROUP_NAME));
+                }
+            } else if (line.startsWith(LINE_INSERTED_SYMBOL)) {
+                fileDiffResult.addInsertedLine();
+            }
+        });
+
         List<FileInfo> fileInfos = new ArrayList<>();
-        String fullDiffResult = GitDiff.diffCommit(config.getRepoRoot(), lastCommitHash);
         // no diff between the 2 commits, return an empty list
-        if (fullDiffResult.isEmpty()) {
+        if (fileDiffResults.isEmpty()) {
             return fileInfos;
         }
 
-        String[] fileDiffResultList = fullDiffResult.split(DIFF_FILE_CHUNK_SEPARATOR);
-        Set<Path> textFilesSet = getFiles(config, false);
+        Set<Path> textFilesSet = getRelevantFiles(config, false);
 
-        for (String fileDiffResult : fileDiffResultList) {
-            Matcher filePathMatcher = FILE_CHANGED_PATTERN.matcher(fileDiffResult);
+        for (FileDiffResult fileDiffResult : fileDiffResults) {
+            String filePath = fileDiffResult.getFilePath();
 
             // diff result does not have the markers to indicate that file has any line changes, skip it
-            if (!filePathMatcher.find()) {
+            if (filePath == null) {
                 continue;
             }
 
-            String filePath = filePathMatcher.group(FILE_CHANGED_GROUP_NAME);
-
             if (filePath.equals(FILE_DELETED_SYMBOL) // file is deleted, skip it as well
                     || !isValidTextFile(filePath, textFilesSet)
                     || !config.getFileTypeManager().isInsideWhitelistedFormats(filePath)
@@ -126,8 +156,14 @@ public class FileInfoExtractor {
                 continue;
             }
 
-            FileInfo currentFileInfo = generateFileInfo(config, filePath);
-            setLinesToTrack(currentFileInfo, fileDiffResult);
+            // every line of an added file is tracked
+            FileInfo currentFileInfo;
+            if (fileDiffResult.isAdded()) {
+                currentFileInfo = generateFileInfoWithoutLines(config, filePath);
+            } else {
+                currentFileInfo = generateFileInfo(config, filePath);
+                setLinesToTrack(currentFileInfo, fileDiffResult);
+            }
             if (currentFileInfo.isFileAnalyzed()) {
                 fileInfos.add(currentFileInfo);
             }
@@ -142,13 +178,34 @@ public class FileInfoExtractor {
      * Otherwise, returns a {@link Set} of binary files for the repo {@code repoConfig}.
      */
     public Set<Path> getFiles(RepoConfiguration repoConfig, boolean isBinaryFile) {
-        List<String> modifiedFileList = GitDiff.getModifiedFilesList(Paths.get(repoConfig.getRepoRoot()));
+        List<String> filePaths = GitBackends.get().getFilePaths(repoConfig.getRepoRoot()).stream()
+                .filter(FileUtil::isValidPathWithLogging)
+                .collect(Collectors.toList());
+        return getFiles(repoConfig, filePaths, isBinaryFile);
+    }
 
-        // Gets rid of files with invalid directory name and filters by the {@code isBinaryFile} flag
-        return modifiedFileList.stream()
-                .filter(file -> isBinaryFile == file.startsWith(BINARY_FILE_LINE_DIFF_RESULT))
-                .map(file -> StringsUtil.TAB.split(file)[2])
+    /**
+     * Returns a {@link Set} of the non-binary files for the repo {@code config} that are in the whitelisted formats and
+     * not ignored by the ignore globs of {@code config}, if {@code isBinaryFiles} is set to `false`.
+     * Otherwise, returns a {@link Set} of such binary files. Only these files are checked for whether they are binary.
+     */
+    private Set<Path> getRelevantFiles(RepoConfiguration config, boolean isBinaryFiles) {
+        List<String> relevantFilePaths = GitBackends.get().getFilePaths(config.getRepoRoot()).stream()
                 .filter(FileUtil::isValidPathWithLogging)
+                .filter(filePath -> config.getFileTypeManager().isInsideWhitelistedFormats(filePath))
+                .filter(filePath -> !FileUtil.isFileIgnoredByGlob(config, Paths.get(filePath)))
+                .collect(Collectors.toList());
+        return getFiles(config, relevantFilePaths, isBinaryFiles);
+    }
+
+    /**
+     * Returns a {@link Set} of the non-binary files among {@code filePaths} in the repo {@code config} if
+     * {@code isBinaryFiles} is set to `false`. Otherwise, returns a {@link Set} of the binary files among them.
+     */
+    private Set<Path> getFiles(RepoConfiguration config, List<String> filePaths, boolean isBinaryFiles) {
+        Set<String> binaryFilePaths = GitBackends.get().getBinaryFilePaths(config.getRepoRoot(), filePaths);
+        return filePaths.stream()
+                .filter(filePath -> isBinaryFiles == binaryFilePaths.contains(filePath))
                 .map(Paths::get)
                 .collect(Collectors.toCollection(HashSet::new));
     }
@@ -157,29 +214,23 @@ public class FileInfoExtractor {
      * Analyzes the {@code fileDiffResult} and marks each {@link LineInfo} in {@code fileInfo} on whether they were
      * inserted in between the commit range.
      */
-    private void setLinesToTrack(FileInfo fileInfo, String fileDiffResult) {
-        String[] linesChangedChunk = fileDiffResult.split(LINE_CHUNKS_SEPARATOR);
+    private void setLinesToTrack(FileInfo fileInfo, FileDiffResult fileDiffResult) {
         List<LineInfo> lineInfos = fileInfo.getLines();
+        List<Integer> startingLineNumbers = fileDiffResult.getStartingLineNumbers();
+        List<Integer> insertedLineCounts = fileDiffResult.getInsertedLineCounts();
         int fileLinePointer = 0;
 
-        // skips the header, index starts from 1
-        for (int sectionIndex = 1; sectionIndex < linesChangedChunk.length; sectionIndex++) {
-            String linesChangedInSection = linesChangedChunk[sectionIndex];
-            String[] linesChanged = StringsUtil.NEWLINE.split(linesChangedInSection);
-            int startingLineNumber = getStartingLineNumber(linesChanged[LINE_CHANGED_HEADER_INDEX]);
+        for (int chunkIndex = 0; chunkIndex < startingLineNumbers.size(); chunkIndex++) {
+            int startingLineNumber = startingLineNumbers.get(chunkIndex);
 
             // mark all untouched lines between sections as untracked
             while (fileLinePointer < startingLineNumber - 1) {
                 lineInfos.get(fileLinePointer++).setTracked(false);
             }
 
-            // skips the header, index starts from 1
-            for (int lineIndex = 1; lineIndex < linesChanged.length; lineIndex++) {
-                String lineChanged = linesChanged[lineIndex];
-                // set line added to be tracked
-                if (lineChanged.startsWith(LINE_INSERTED_SYMBOL)) {
-                    lineInfos.get(fileLinePointer++).setTracked(true);
-                }
+            // set line added to be tracked
+            for (int i = 0; i < insertedLineCounts.get(chunkIndex); i++) {
+                lineInfos.get(fileLinePointer++).setTracked(true);
             }
         }
 
@@ -197,7 +248,7 @@ public class FileInfoExtractor {
      */
     private List<FileInfo> getAllFileInfo(RepoConfiguration config, boolean isBinaryFiles) {
         List<FileInfo> fileInfos = new ArrayList<>();
-        Set<Path> files = getFiles(config, isBinaryFiles);
+        Set<Path> files = getRelevantFiles(config, isBinaryFiles);
 
         for (Path relativePath : files) {
             if (!config.getFileTypeManager().isInsideWhitelistedFormats(relativePath.toString())
@@ -207,7 +258,7 @@ public class FileInfoExtractor {
 
             FileInfo fileInfo = (isBinaryFiles)
                     ? new FileInfo(relativePath.toString())
-                    : generateFileInfo(config, relativePath.toString());
+                    : generateFileInfoWithoutLines(config, relativePath.toString());
 
             if (fileInfo.isFileAnalyzed()) {
                 fileInfos.add(fileInfo);
@@ -219,8 +270,13 @@ public class FileInfoExtractor {
     /**
      * Returns a {@link FileInfo} with a list of {@link LineInfo} for each line content in the
      * file located in the repository given by {@code config}/{@code relativePath}.
+     * The file is read as committed at the checked out commit if {@code config} is checkout-free.
      */
     public FileInfo generateFileInfo(RepoConfiguration config, String relativePath) {
+        if (config.isCheckoutFree()) {
+            return generateCheckedOutFileInfo(config.getRepoRoot(), relativePath, config.getFileSizeLimit(),
+                    config.isFileSizeLimitIgnored(), config.isIgnoredFileAnalysisSkipped());
+        }
         return generateFileInfo(config.getRepoRoot(), relativePath, config.getFileSizeLimit(),
             config.isFileSizeLimitIgnored(), config.isIgnoredFileAnalysisSkipped());
     }
@@ -238,22 +294,9 @@ public class FileInfoExtractor {
 
         try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
             long fileSize = Files.size(path);
-            fileInfo.setFileSize(fileSize);
-            if (!ignoreFileSizeLimit && fileSize > fileSizeLimit) {
-                fileInfo.setExceedsSizeLimit(true);
-                if (skipIgnoredFileAnalysis) {
-                    logger.log(Level.WARNING, String.format(MESSAGE_FILE_SIZE_LIMIT_EXCEEDED,
-                            fileInfo.getPath(), fileSize, fileSizeLimit, MESSAGE_FILE_ANALYSIS_SKIPPED));
-                    fileInfo.setFileAnalyzed(false);
-                    return fileInfo;
-                }
-                logger.log(Level.WARNING, String.format(MESSAGE_FILE_SIZE_LIMIT_EXCEEDED,
-                        fileInfo.getPath(), fileSize, fileSizeLimit, MESSAGE_FILE_EXCLUDED_FROM_REPORT));
-            }
-            String line;
-            int lineNum = 1;
-            while ((line = br.readLine()) != null) {
-                fileInfo.addLine(new LineInfo(lineNum++, line));
+            if (recordFileSize(fileInfo, fileSize, fileSizeLimit, ignoreFileSizeLimit,
+                    skipIgnoredFileAnalysis)) {
+                addLines(fileInfo, br);
             }
         } catch (IOException ioe) {
             logger.log(Level.SEVERE, ioe.getMessage(), ioe);
@@ -261,6 +304,89 @@ public class FileInfoExtractor {
         return fileInfo;
     }
 
+    /**
+     * Returns a {@link FileInfo} for the file located in the repository given by {@code config}/{@code relativePath},
+     * all of whose lines are tracked, without reading the file. As the whole file is blamed, its lines are added from
+     * the blame result instead, so that the file is only read once. Its size is taken from the files committed at the
+     * checked out commit.
+     * A symbolic link is read as in {@link #generateFileInfo(RepoConfiguration, String)} instead, as git blames the
+     * path that it links to rather than the file.
+     */
+    private FileInfo generateFileInfoWithoutLines(RepoConfiguration config, String relativePath) {
+        Optional<GitObject> fileObject = GitLsTree.getFileInfo(config.getRepoRoot(), relativePath);
+        if (fileObject.isEmpty() || GitLsTree.isSymbolicLink(config.getRepoRoot(), relativePath)) {
+            return generateFileInfo(config, relativePath);
+        }
+
+        FileInfo fileInfo = new FileInfo(relativePath);
+        if (recordFileSize(fileInfo, fileObject.get().getSize(), config.getFileSizeLimit(),
+                config.isFileSizeLimitIgnored(), config.isIgnoredFileAnalysisSkipped())) {
+            fileInfo.setContentFromBlame(true);
+        }
+        return fileInfo;
+    }
+
+    /**
+     * Returns a {@link FileInfo} in the same way as {@link #generateFileInfo(String, String, long, boolean, boolean)},
+     * but with the file read as committed at the checked out commit of the repository at {@code repoRoot} rather than
+     * from its working tree. The content of the file is not read if its analysis is skipped.
+     */
+    private FileInfo generateCheckedOutFileInfo(String repoRoot, String relativePath, long fileSizeLimit,
+            boolean ignoreFileSizeLimit, boolean skipIgnoredFileAnalysis) {
+        FileInfo fileInfo = new FileInfo(relativePath);
+
+        try {
+            Optional<GitObject> fileObject = GitLsTree.getFileInfo(repoRoot, fileInfo.getPath());
+            if (fileObject.isEmpty() || !recordFileSize(fileInfo, fileObject.get().getSize(), fileSizeLimit,
+                    ignoreFileSizeLimit, skipIgnoredFileAnalysis)) {
+                return fileInfo;
+            }
+
+            fileObject = GitLsTree.getFile(repoRoot, fileInfo.getPath());
+            if (fileObject.isPresent()) {
+                try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                        new ByteArrayInputStream(fileObject.get().getContent())))) {
+                    addLines(fileInfo, br);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, e.getMessage(), e);
+        }
+        return fileInfo;
+    }
+
+    /**
+     * Records {@code fileSize} as the size of the file of {@code fileInfo}, and whether it exceeds
+     * {@code fileSizeLimit}. Returns false if the analysis of the file is skipped as a result.
+     */
+    private boolean recordFileSize(FileInfo fileInfo, long fileSize, long fileSizeLimit,
+            boolean ignoreFileSizeLimit, boolean skipIgnoredFileAnalysis) {
+        fileInfo.setFileSize(fileSize);
+        if (!ignoreFileSizeLimit && fileSize > fileSizeLimit) {
+            fileInfo.setExceedsSizeLimit(true);
+            if (skipIgnoredFileAnalysis) {
+                logger.log(Level.WARNING, String.format(MESSAGE_FILE_SIZE_LIMIT_EXCEEDED,
+                        fileInfo.getPath(), fileSize, fileSizeLimit, MESSAGE_FILE_ANALYSIS_SKIPPED));
+                fileInfo.setFileAnalyzed(false);
+                return false;
+            }
+            logger.log(Level.WARNING, String.format(MESSAGE_FILE_SIZE_LIMIT_EXCEEDED,
+                    fileInfo.getPath(), fileSize, fileSizeLimit, MESSAGE_FILE_EXCLUDED_FROM_REPORT));
+        }
+        return true;
+    }
+
+    /**
+     * Adds a {@link LineInfo} to {@code fileInfo} for each line read from {@code reader}.
+     */
+    private void addLines(FileInfo fileInfo, BufferedReader reader) throws IOException {
+        String line;
+        int lineNum = 1;
+        while ((line = reader.readLine()) != null) {
+            fileInfo.addLine(new LineInfo(lineNum++, line));
+        }
+    }
+
     /**
      * Returns the starting line changed number, within the file diff result, by matching the pattern inside
      * {@code linesChanged}.
@@ -292,4 +418,60 @@ public class FileInfoExtractor {
 
         return isValidFilePath && textFilesSet.contains(Paths.get(filePath));
     }
+
+    /**
+     * Holds the parts of the git diff result of a single file that are needed to mark its lines as tracked.
+     */
+    private static class FileDiffResult {
+        private final List<Integer> startingLineNumbers = new ArrayList<>();
+        private final List<Integer> insertedLineCounts = new ArrayList<>();
+        private String filePath;
+        private boolean isAdded = false;
+
+        /**
+         * Returns true if no line chunk of this file has been read yet.
+         */
+        boolean isInHeader() {
+            return startingLineNumbers.isEmpty();
+        }
+
+        void setFilePath(String filePath) {
+            if (this.filePath == null) {
+                this.filePath = filePath;
+            }
+        }
+
+        String getFilePath() {
+            return filePath;
+        }
+
+        void setAdded() {
+            isAdded = true;
+        }
+
+        /**
+         * Returns true if the file is added, rather than modified, in between the commit range.
+         */
+        boolean isAdded() {
+            return isAdded;
+        }
+
+        void addLineChunk(int startingLineNumber) {
+            startingLineNumbers.add(startingLineNumber);
+            insertedLineCounts.add(0);
+        }
+
+        void addInsertedLine() {
+            int lastIndex = insertedLineCounts.size() - 1;
+            insertedLineCounts.set(lastIndex, insertedLineCounts.get(lastIndex) + 1);
+        }
+
+        List<Integer> getStartingLineNumbers() {
+            return startingLineNumbers;
+        }
+
+        List<Integer> getInsertedLineCounts() {
+            return insertedLineCounts;
+        }
+    }
 }
@@ -3,94 +3,171 @@ package reposense.authorship.analyzer;
 import java.nio.file.Paths;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import reposense.authorship.model.CandidateLine;
+import reposense.authorship.model.DiffHunk;
 import reposense.authorship.model.FileDiffInfo;
-import reposense.git.GitBlame;
-import reposense.git.GitDiff;
-import reposense.git.GitLog;
+import reposense.authorship.model.LineInfo;
+import reposense.git.GitBackends;
 import reposense.git.model.GitBlameLineInfo;
 import reposense.model.Author;
 import reposense.model.CommitHash;
 import reposense.model.RepoConfiguration;
-import reposense.system.LogsManager;
+import reposense.system.CancellationToken;
 import reposense.util.StringsUtil;
 
 /**
- * Analyzes a line to find out if the author should be assigned partial or full credit.
+ * Analyzes the lines of a file to find out if their authors should be assigned partial or full credit.
  */
 public class AuthorshipAnalyzer {
-    private static final Logger logger = LogsManager.getLogger(AuthorshipAnalyzer.class);
-    private static final Pattern DIFF_FILE_CHUNK_PATTERN = Pattern.compile("\ndiff --git a/.*\n");
-    private static final Pattern FILE_CHANGED_PATTERN =
-            Pattern.compile("\n(-){3} a?/(?<preImageFilePath>.*)\n(\\+){3} b?/(?<postImageFilePath>.*)\n");
-    private static final String PRE_IMAGE_FILE_PATH_GROUP_NAME = "preImageFilePath";
-    private static final String POST_IMAGE_FILE_PATH_GROUP_NAME = "postImageFilePath";
-    private static final String FILE_ADDED_SYMBOL = "dev/null";
-    private static final Pattern HUNK_PATTERN = Pattern.compile("\n@@ ");
-    private static final int LINES_CHANGED_HEADER_INDEX = 0;
-    private static final Pattern STARTING_LINE_NUMBER_PATTERN =
-            Pattern.compile("-(?<preImageStartLine>\\d+),?\\d* \\+\\d+,?\\d* @@");
-    private static final String PREIMAGE_START_LINE_GROUP_NAME = "preImageStartLine";
-    private static final String MATCH_GROUP_FAIL_MESSAGE_FORMAT = "Failed to match the %s group for:\n%s";
-    private static final String ADDED_LINE_SYMBOL = "+";
-    private static final String DELETED_LINE_SYMBOL = "-";
-
-    private static final ConcurrentHashMap<String, String[]> GIT_LOG_CACHE = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, ArrayList<FileDiffInfo>> GIT_DIFF_CACHE = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, CommitDiffIndex> COMMIT_DIFF_INDEXES = new ConcurrentHashMap<>();
 
     /**
-     * Analyzes the authorship of {@code lineContent} in {@code filePath} based on {@code originalityThreshold}.
-     * Returns {@code true} if {@code currentAuthor} should be assigned full credit, {@code false} otherwise.
+     * Builds the index of the diffs of the commits in the date range of the repository specified in {@code config},
+     * with a single git command, so that the authorship analysis of its lines looks them up rather than diffing each
+     * commit on its own. Should be called before the lines of any file are analyzed, so that the time taken to build
+     * the index does not count towards the time limit of the analysis of a file. The index, and the diffs produced
+     * for the commits that it does not cover, are kept until {@link #releaseCommitDiffIndex} is called.
      */
-    public static boolean analyzeAuthorship(RepoConfiguration config, String filePath, String lineContent,
-            String commitHash, Author currentAuthor, double originalityThreshold) {
-        // Empty lines are ignored and given full credit
-        if (lineContent.isEmpty()) {
-            return true;
-        }
+    public static void prepareCommitDiffIndex(RepoConfiguration config) {
+        COMMIT_DIFF_INDEXES.put(config.getRepoRoot(), new CommitDiffIndex(config));
+    }
 
-        Optional<CandidateLine> deletedLineOptional = getDeletedLineWithLowestOriginality(config, filePath, lineContent,
-                commitHash);
+    /**
+     * Discards the index of the diffs of the commits of the repository specified in {@code config}, if any, together
+     * with the diffs produced for the commits that it does not cover.
+     */
+    public static void releaseCommitDiffIndex(RepoConfiguration config) {
+        COMMIT_DIFF_INDEXES.remove(config.getRepoRoot());
+    }
 
-        // Give full credit if there are no deleted lines found
-        if (!deletedLineOptional.isPresent()) {
-            return true;
+    /**
+     * Analyzes the authorship of each of {@code lines} in {@code filePath}, last changed in the commit at the same
+     * index of {@code commitHashes}, based on {@code originalityThreshold}.
+     * Returns, for each line, {@code true} if its author should be assigned full credit, {@code false} otherwise.
+     * The lines are traced back through their previous versions together, one version at a time, so that the
+     * previous versions found in the same file at the same commit are blamed by a single git command, and each of
+     * them is blamed at most once. Stops once {@code cancellationToken} is cancelled.
+     *
+     * @throws CancellationException if {@code cancellationToken} is cancelled before the analysis completes.
+     */
+    public static boolean[] analyzeAuthorship(RepoConfiguration config, String filePath, List<LineInfo> lines,
+            List<String> commitHashes, double originalityThreshold, CancellationToken cancellationToken)
+            throws CancellationException {
+        boolean[] isFullCredit = new boolean[lines.size()];
+        long sinceDateInSeconds = ZonedDateTime.of(config.getSinceDate(), config.getZoneId()).toEpochSecond();
+        Map<String, Map<Integer, GitBlameLineInfo>> blameResultCache = new HashMap<>();
+
+        List<PendingLine> pendingLines = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            LineInfo line = lines.get(i);
+            pendingLines.add(new PendingLine(i, filePath, line.getContent(), commitHashes.get(i), line.getAuthor()));
         }
 
-        CandidateLine deletedLine = deletedLineOptional.get();
+        while (!pendingLines.isEmpty()) {
+            List<PendingLine> tracedLines = new ArrayList<>();
+            for (PendingLine pendingLine : pendingLines) {
+                cancellationToken.throwIfCancelled();
+
+                // Empty lines are ignored and given full credit
+                if (pendingLine.lineContent.isEmpty()) {
+                    isFullCredit[pendingLine.index] = true;
+                    continue;
+                }
+
+                Optional<CandidateLine> deletedLineOptional = getDeletedLineWithLowestOriginality(config,
+                        pendingLine.filePath, pendingLine.lineContent, pendingLine.commitHash);
+
+                // Give full credit if there are no deleted lines found, or if the deleted line's originality score
+                // exceeds the originality threshold
+                if (!deletedLineOptional.isPresent()
+                        || deletedLineOptional.get().getOriginalityScore() > originalityThreshold) {
+                    isFullCredit[pendingLine.index] = true;
+                    continue;
+                }
+
+                pendingLine.deletedLine = deletedLineOptional.get();
+                tracedLines.add(pendingLine);
+            }
 
-        // Give full credit if deleted line's originality score exceeds the originality threshold
-        if (deletedLine.getOriginalityScore() > originalityThreshold) {
-            return true;
+            blameDeletedLines(config, tracedLines, blameResultCache);
+
+            List<PendingLine> nextPendingLines = new ArrayList<>();
+            for (PendingLine tracedLine : tracedLines) {
+                CandidateLine deletedLine = tracedLine.deletedLine;
+                GitBlameLineInfo deletedLineInfo = blameResultCache.get(getBlameResultCacheKey(deletedLine))
+                        .get(deletedLine.getLineNumber());
+                Author previousAuthor = config.getAuthor(deletedLineInfo.getAuthorName(),
+                        deletedLineInfo.getAuthorEmail());
+
+                // Give full credit if author is unknown, is before since date, is in ignored list, or is an ignored
+                // file
+                if (previousAuthor.equals(Author.UNKNOWN_AUTHOR)
+                        || deletedLineInfo.getTimestampMilliseconds() < sinceDateInSeconds
+                        || CommitHash.isInsideCommitList(deletedLineInfo.getCommitHash(), config.getIgnoreCommitList())
+                        || previousAuthor.isIgnoringFile(Paths.get(deletedLine.getFilePath()))) {
+                    isFullCredit[tracedLine.index] = true;
+                    continue;
+                }
+
+                // Give partial credit if the current author is not the author of the previous version
+                if (!tracedLine.author.equals(previousAuthor)) {
+                    isFullCredit[tracedLine.index] = false;
+                    continue;
+                }
+
+                // Check the previous version as the current author is the same as author of the previous version
+                nextPendingLines.add(new PendingLine(tracedLine.index, deletedLine.getFilePath(),
+                        deletedLine.getLineContent(), deletedLineInfo.getCommitHash(), previousAuthor));
+            }
+            pendingLines = nextPendingLines;
         }
 
-        GitBlameLineInfo deletedLineInfo = GitBlame.blameLine(config.getRepoRoot(), deletedLine.getGitBlameCommitHash(),
-                deletedLine.getFilePath(), deletedLine.getLineNumber());
-        Author previousAuthor = config.getAuthor(deletedLineInfo.getAuthorName(), deletedLineInfo.getAuthorEmail());
-        long sinceDateInMilliseconds = ZonedDateTime.of(config.getSinceDate(), config.getZoneId()).toEpochSecond();
-
-        // Give full credit if author is unknown, is before since date, is in ignored list, or is an ignored file
-        if (previousAuthor.equals(Author.UNKNOWN_AUTHOR)
-                || deletedLineInfo.getTimestampMilliseconds() < sinceDateInMilliseconds
-                || CommitHash.isInsideCommitList(deletedLineInfo.getCommitHash(), config.getIgnoreCommitList())
-                || previousAuthor.isIgnoringFile(Paths.get(deletedLine.getFilePath()))) {
-            return true;
+        return isFullCredit;
+    }
+
+    /**
+     * Blames the deleted lines of {@code tracedLines} that are not in {@code blameResultCache} yet, with a single git
+     * command for the deleted lines of each file at each commit, and adds their blame results to it.
+     */
+    private static void blameDeletedLines(RepoConfiguration config, List<PendingLine> tracedLines,
+            Map<String, Map<Integer, GitBlameLineInfo>> blameResultCache) {
+        Map<String, List<CandidateLine>> deletedLinesToBlame = new LinkedHashMap<>();
+        for (PendingLine tracedLine : tracedLines) {
+            String cacheKey = getBlameResultCacheKey(tracedLine.deletedLine);
+            Map<Integer, GitBlameLineInfo> blameResults =
+                    blameResultCache.computeIfAbsent(cacheKey, key -> new HashMap<>());
+            if (!blameResults.containsKey(tracedLine.deletedLine.getLineNumber())) {
+                deletedLinesToBlame.computeIfAbsent(cacheKey, key -> new ArrayList<>()).add(tracedLine.deletedLine);
+            }
         }
 
-        // Give partial credit if currentAuthor is not the author of the previous version
-        if (!currentAuthor.equals(previousAuthor)) {
-            return false;
+        for (Map.Entry<String, List<CandidateLine>> entry : deletedLinesToBlame.entrySet()) {
+            CandidateLine firstDeletedLine = entry.getValue().get(0);
+            Set<Integer> lineNumbers = entry.getValue().stream()
+                    .map(CandidateLine::getLineNumber)
+                    .collect(Collectors.toSet());
+            blameResultCache.get(entry.getKey()).putAll(GitBackends.get().blameLines(config.getRepoRoot(),
+                    firstDeletedLine.getGitBlameCommitHash(), firstDeletedLine.getFilePath(), lineNumbers));
         }
+    }
 
-        // Check the previous version as currentAuthor is the same as author of the previous version
-        return analyzeAuthorship(config, deletedLine.getFilePath(), deletedLine.getLineContent(),
-                deletedLineInfo.getCommitHash(), previousAuthor, originalityThreshold);
+    /**
+     * Returns the key of the blame results of the file that {@code deletedLine} was deleted from, at the commit that
+     * it was deleted after.
+     */
+    private static String getBlameResultCacheKey(CandidateLine deletedLine) {
+        return deletedLine.getGitBlameCommitHash() + deletedLine.getFilePath();
     }
 
     /**
@@ -100,36 +177,15 @@ public class AuthorshipAnalyzer {
             String filePath, String lineContent, String commitHash) {
         CandidateLine lowestOriginalityLine = null;
 
-        String gitLogCacheKey = config.getRepoRoot() + commitHash;
-        String[] parentCommits;
-        if (GIT_LOG_CACHE.containsKey(gitLogCacheKey)) {
-            parentCommits = GIT_LOG_CACHE.get(gitLogCacheKey);
-        } else {
-            String gitLogResults = GitLog.getParentCommits(config.getRepoRoot(), commitHash);
-            parentCommits = StringsUtil.SPACE.split(gitLogResults);
-            GIT_LOG_CACHE.put(gitLogCacheKey, parentCommits);
-        }
+        String gitLogResults = GitBackends.get().getParentCommits(config.getRepoRoot(), commitHash);
+        String[] parentCommits = StringsUtil.SPACE.split(gitLogResults);
 
         for (String parentCommit : parentCommits) {
-            String gitDiffCacheKey = config.getRepoRoot() + parentCommit + commitHash;
-            ArrayList<FileDiffInfo> fileDiffInfoList;
-
-            if (GIT_DIFF_CACHE.containsKey(gitDiffCacheKey)) {
-                fileDiffInfoList = GIT_DIFF_CACHE.get(gitDiffCacheKey);
-            } else {
-                fileDiffInfoList = getFileDiffInfoList(config, parentCommit, commitHash);
-                GIT_DIFF_CACHE.put(gitDiffCacheKey, fileDiffInfoList);
-            }
+            Map<String, List<FileDiffInfo>> fileDiffInfos = getFileDiffInfos(config, parentCommit, commitHash);
 
-            for (FileDiffInfo fileDiffInfo : fileDiffInfoList) {
-                // If file name does not match
-                if (!fileDiffInfo.getPostImageFilePath().equals(filePath)) {
-                    continue;
-                }
-
-                CandidateLine candidateLine = getDeletedLineWithLowestOriginalityInDiff(
-                        fileDiffInfo.getFileDiffResult(), lineContent, parentCommit,
-                        fileDiffInfo.getPreImageFilePath());
+            for (FileDiffInfo fileDiffInfo : fileDiffInfos.getOrDefault(filePath, Collections.emptyList())) {
+                CandidateLine candidateLine = getDeletedLineWithLowestOriginalityInDiff(fileDiffInfo, lineContent,
+                        parentCommit);
                 if (candidateLine == null) {
                     continue;
                 }
@@ -144,77 +200,44 @@ public class AuthorshipAnalyzer {
         return Optional.ofNullable(lowestOriginalityLine);
     }
 
-    private static ArrayList<FileDiffInfo> getFileDiffInfoList(RepoConfiguration config, String parentCommit,
+    /**
+     * Returns the {@link FileDiffInfo} of each file changed in {@code commitHash} compared to {@code parentCommit},
+     * keyed by its post-image path. The diff is looked up in the index of the repository if it has one, and produced
+     * by git otherwise.
+     */
+    private static Map<String, List<FileDiffInfo>> getFileDiffInfos(RepoConfiguration config, String parentCommit,
             String commitHash) {
-        ArrayList<FileDiffInfo> fileDiffInfoList = new ArrayList<>();
-
-        // Generate diff between commit and parent commit
-        String gitDiffResult = GitDiff.diffCommits(config.getRepoRoot(), parentCommit, commitHash);
-        String[] fileDiffResults = DIFF_FILE_CHUNK_PATTERN.split(gitDiffResult);
-
-        for (String fileDiffResult : fileDiffResults) {
-            Matcher filePathMatcher = FILE_CHANGED_PATTERN.matcher(fileDiffResult);
-            if (!filePathMatcher.find()) {
-                continue;
-            }
-
-            // If file was added in the commit
-            String preImageFilePath = filePathMatcher.group(PRE_IMAGE_FILE_PATH_GROUP_NAME);
-            if (preImageFilePath.equals(FILE_ADDED_SYMBOL)) {
-                continue;
-            }
-
-            String postImageFilePath = filePathMatcher.group(POST_IMAGE_FILE_PATH_GROUP_NAME);
-
-            fileDiffInfoList.add(new FileDiffInfo(fileDiffResult, preImageFilePath, postImageFilePath));
-        }
-
-        return fileDiffInfoList;
+        CommitDiffIndex commitDiffIndex = COMMIT_DIFF_INDEXES.get(config.getRepoRoot());
+        return (commitDiffIndex != null)
+                ? commitDiffIndex.getFileDiffInfos(parentCommit, commitHash)
+                : CommitDiffIndex.diffCommits(config, parentCommit, commitHash);
     }
 
     /**
-     * Returns the deleted line in {@code fileDiffResult} that has the lowest originality with {@code lineContent}.
+     * Returns the deleted line in {@code fileDiffInfo} that has the lowest originality with {@code lineContent}.
      */
-    private static CandidateLine getDeletedLineWithLowestOriginalityInDiff(String fileDiffResult, String lineContent,
-            String commitHash, String filePath) {
+    private static CandidateLine getDeletedLineWithLowestOriginalityInDiff(FileDiffInfo fileDiffInfo,
+            String lineContent, String commitHash) {
         CandidateLine lowestOriginalityLine = null;
 
-        String[] hunks = HUNK_PATTERN.split(fileDiffResult);
-
-        // skip the diff header, index starts from 1
-        for (int index = 1; index < hunks.length; index++) {
-            String hunk = hunks[index];
-
+        for (DiffHunk hunk : fileDiffInfo.getHunks()) {
             // skip hunk if lines added in the hunk does not include lineContent
-            if (!hunk.contains(ADDED_LINE_SYMBOL + lineContent)) {
+            if (!hunk.containsTextAfterPlusSign(lineContent)) {
                 continue;
             }
 
-            String[] linesChanged = StringsUtil.NEWLINE.split(hunk);
-            int currentPreImageLineNumber = getPreImageStartingLineNumber(linesChanged[LINES_CHANGED_HEADER_INDEX]);
-
-            // skip the lines changed header, index starts from 1
-            for (int lineIndex = 1; lineIndex < linesChanged.length; lineIndex++) {
-                String lineChanged = linesChanged[lineIndex];
-
-                if (lineChanged.startsWith(DELETED_LINE_SYMBOL)) {
-                    String deletedLineContent = lineChanged.substring(DELETED_LINE_SYMBOL.length());
-                    double lowestOriginalityScore = lowestOriginalityLine == null
-                            ? Integer.MAX_VALUE
-                            : lowestOriginalityLine.getOriginalityScore();
-                    double originalityScore = computeOriginalityScore(lineContent, deletedLineContent,
-                            lowestOriginalityScore);
-
-                    if (lowestOriginalityLine == null
-                            || originalityScore < lowestOriginalityLine.getOriginalityScore()) {
-                        lowestOriginalityLine = new CandidateLine(
-                                currentPreImageLineNumber, deletedLineContent, filePath, commitHash,
-                                originalityScore);
-                    }
-                }
-
-                if (!lineChanged.startsWith(ADDED_LINE_SYMBOL)) {
-                    currentPreImageLineNumber++;
+            String[] deletedLines = hunk.getDeletedLines();
+            int[] deletedLineNumbers = hunk.getDeletedLineNumbers();
+            for (int i = 0; i < deletedLines.length; i++) {
+                double lowestOriginalityScore = lowestOriginalityLine == null
+                        ? Integer.MAX_VALUE
+                        : lowestOriginalityLine.getOriginalityScore();
+                double originalityScore = computeOriginalityScore(lineContent, deletedLines[i],
+                        lowestOriginalityScore);
+
+                if (lowestOriginalityLine == null || originalityScore < lowestOriginalityLine.getOriginalityScore()) {
+                    lowestOriginalityLine = new CandidateLine(deletedLineNumbers[i], deletedLines[i],
+                            fileDiffInfo.getPreImageFilePath(), commitHash, originalityScore);
                 }
             }
         }
@@ -222,24 +245,6 @@ public class AuthorshipAnalyzer {
         return lowestOriginalityLine;
     }
 
-    /**
-     * Returns the pre-image starting line number by matching the pattern inside {@code linesChangedHeader}.
-     *
-     * @throws AssertionError if lines changed header matcher failed to find anything.
-     */
-    private static int getPreImageStartingLineNumber(String linesChangedHeader) {
-        Matcher linesChangedHeaderMatcher = STARTING_LINE_NUMBER_PATTERN.matcher(linesChangedHeader);
-
-        if (!linesChangedHeaderMatcher.find()) {
-            logger.severe(
-                    String.format(MATCH_GROUP_FAIL_MESSAGE_FORMAT, PREIMAGE_START_LINE_GROUP_NAME, linesChangedHeader));
-            throw new AssertionError(
-                    "Should not have error matching line number pattern inside lines changed header!");
-        }
-
-        return Integer.parseInt(linesChangedHeaderMatcher.group(PREIMAGE_START_LINE_GROUP_NAME));
-    }
-
     /**
      * Calculates the originality score of {@code s} with {@code baseString}.
      */
@@ -247,4 +252,26 @@ public class AuthorshipAnalyzer {
         double levenshteinDistance = StringsUtil.getLevenshteinDistance(s, baseString, limit * baseString.length());
         return levenshteinDistance / baseString.length();
     }
+
+    /**
+     * Stores a line whose authorship is being analyzed, at one of its versions.
+     */
+    private static class PendingLine {
+        private final int index;
+        private final String filePath;
+        private final String lineContent;
+        private final String commitHash;
+        private final Author author;
+
+        // the deleted line that this version is most likely to have been changed from
+        private CandidateLine deletedLine;
+
+        PendingLine(int index, String filePath, String lineContent, String commitHash, Author author) {
+            this.index = index;
+            this.filePath = filePath;
+            this.lineContent = lineContent;
+            this.commitHash = commitHash;
+            this.author = author;
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package reposense.authorship.analyzer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reposense.authorship.model.FileDiffInfo;
+import reposense.git.GitBackends;
+import reposense.git.GitLog;
+import reposense.model.RepoConfiguration;
+import reposense.util.StringsUtil;
+
+/**
+ * Indexes the diff of each commit in the date range of a repository against its parent, parsed from a single streamed
+ * git log, so that the diffs of the commits analyzed are looked up rather than produced by a git command each.
+ * Merge commits and root commits are not indexed. Their diffs are produced by git when they are first looked up, and
+ * kept with the index, so that they are released together with it.
+ */
+public class CommitDiffIndex {
+    private final RepoConfiguration config;
+    // only written to while the index is built
+    private final Map<String, Map<String, List<FileDiffInfo>>> fileDiffInfosByCommit = new HashMap<>();
+    private final Map<String, Map<String, List<FileDiffInfo>>> unindexedFileDiffInfos = new ConcurrentHashMap<>();
+
+    // the commit whose patch is being read, if it is indexed
+    private String currentKey;
+    private FileDiffParser currentParser;
+
+    /**
+     * Builds the index of the commits in the date range of the repository specified in {@code config}, from a single
+     * git log of the repository.
+     */
+    public CommitDiffIndex(RepoConfiguration config) {
+        this.config = config;
+        GitBackends.get().getLogWithPatches(config, this::readPatchLine);
+        finishCommit();
+    }
+
+    /**
+     * Returns the {@link FileDiffInfo} of each file changed in {@code commitHash} compared to {@code parentCommit},
+     * keyed by its post-image path. The diff is produced by git if it is not indexed.
+     */
+    public Map<String, List<FileDiffInfo>> getFileDiffInfos(String parentCommit, String commitHash) {
+        String key = toKey(parentCommit, commitHash);
+        Map<String, List<FileDiffInfo>> fileDiffInfos = fileDiffInfosByCommit.get(key);
+        if (fileDiffInfos != null) {
+            return fileDiffInfos;
+        }
+
+        fileDiffInfos = unindexedFileDiffInfos.get(key);
+        if (fileDiffInfos == null) {
+            fileDiffInfos = diffCommits(config, parentCommit, commitHash);
+            unindexedFileDiffInfos.put(key, fileDiffInfos);
+        }
+        return fileDiffInfos;
+    }
+
+    /**
+     * Returns the {@link FileDiffInfo} of each file changed in {@code commitHash} compared to {@code parentCommit} in
+     * the repository specified in {@code config}, keyed by its post-image path, as produced by git.
+     */
+    public static Map<String, List<FileDiffInfo>> diffCommits(RepoConfiguration config, String parentCommit,
+            String commitHash) {
+        String gitDiffResult = GitBackends.get().diffCommits(config.getRepoRoot(), parentCommit, commitHash);
+        FileDiffParser fileDiffParser = new FileDiffParser();
+        Arrays.stream(StringsUtil.NEWLINE.split(gitDiffResult)).forEach(fileDiffParser);
+        return fileDiffParser.getFileDiffInfos();
+    }
+
+    /**
+     * Reads {@code line} of the log in the format of {@link GitLog#getWithPatches}.
+     */
+    private void readPatchLine(String line) {
+        if (!line.startsWith(GitLog.PATCH_COMMIT_MARKER)) {
+            if (currentParser != null) {
+                currentParser.accept(line);
+            }
+            return;
+        }
+
+        finishCommit();
+        String[] commitHashes = StringsUtil.SPACE.split(line.substring(GitLog.PATCH_COMMIT_MARKER.length()));
+        // the patch of a root commit is not against any parent
+        if (commitHashes.length == 2) {
+            currentKey = toKey(commitHashes[1], commitHashes[0]);
+            currentParser = new FileDiffParser();
+        }
+    }
+
+    /**
+     * Adds the diff of the commit whose patch is being read, if it is indexed.
+     */
+    private void finishCommit() {
+        if (currentParser != null) {
+            fileDiffInfosByCommit.put(currentKey, currentParser.getFileDiffInfos());
+        }
+        currentKey = null;
+        currentParser = null;
+    }
+
+    private static String toKey(String parentCommit, String commitHash) {
+        return parentCommit + commitHash;
+    }
+}
@@ -0,0 +1,177 @@
+package reposense.authorship.analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import reposense.authorship.model.DiffHunk;
+import reposense.authorship.model.FileDiffInfo;
+import reposense.system.LogsManager;
+
+/**
+ * Parses a diff in the format of "git diff" as it is streamed, line by line, into the {@link FileDiffInfo} of each
+ * file that was changed rather than added.
+ * Only the hunks that delete lines are kept, as the deleted lines are the only ones that the authorship of a line can
+ * be traced back to.
+ */
+public class FileDiffParser implements Consumer<String> {
+    private static final Logger logger = LogsManager.getLogger(FileDiffParser.class);
+
+    private static final String FILE_DIFF_HEADER_PREFIX = "diff --git a/";
+    private static final Pattern PRE_IMAGE_FILE_PATH_PATTERN = Pattern.compile("(-){3} a?/(?<preImageFilePath>.*)");
+    private static final Pattern POST_IMAGE_FILE_PATH_PATTERN =
+            Pattern.compile("(\\+){3} b?/(?<postImageFilePath>.*)");
+    private static final String PRE_IMAGE_FILE_PATH_GROUP_NAME = "preImageFilePath";
+    private static final String POST_IMAGE_FILE_PATH_GROUP_NAME = "postImageFilePath";
+    private static final String FILE_ADDED_SYMBOL = "dev/null";
+    private static final String HUNK_HEADER_PREFIX = "@@ ";
+    private static final Pattern STARTING_LINE_NUMBER_PATTERN =
+            Pattern.compile("-(?<preImageStartLine>\\d+),?\\d* \\+\\d+,?\\d* @@");
+    private static final String PREIMAGE_START_LINE_GROUP_NAME = "preImageStartLine";
+    private static final String MATCH_GROUP_FAIL_MESSAGE_FORMAT = "Failed to match the %s group for:\n%s";
+    private static final String ADDED_LINE_SYMBOL = "+";
+    private static final String DELETED_LINE_SYMBOL = "-";
+
+    private final Map<String, List<FileDiffInfo>> fileDiffInfos = new HashMap<>();
+
+    // the file diff being read, whose paths are null until its header is read
+    private String preImageFilePath;
+    private String postImageFilePath;
+    private boolean isFileAdded;
+    private List<DiffHunk> hunks = new ArrayList<>();
+
+    // the hunk being read, if any
+    private boolean isInHunk;
+    private int currentPreImageLineNumber;
+    private final List<String> deletedLines = new ArrayList<>();
+    private final List<Integer> deletedLineNumbers = new ArrayList<>();
+    private final List<String> addedLines = new ArrayList<>();
+    private final List<String> otherLinesWithPlusSign = new ArrayList<>();
+
+    @Override
+    public void accept(String line) {
+        if (line.startsWith(FILE_DIFF_HEADER_PREFIX)) {
+            finishFileDiff();
+        } else if (postImageFilePath == null) {
+            readFileDiffHeader(line);
+        } else if (line.startsWith(HUNK_HEADER_PREFIX)) {
+            finishHunk();
+            startHunk(line);
+        } else if (isInHunk) {
+            readHunkLine(line);
+        }
+    }
+
+    /**
+     * Returns the {@link FileDiffInfo} of each file that was changed in the diff passed so far, keyed by its
+     * post-image path, in the order of the diff.
+     */
+    public Map<String, List<FileDiffInfo>> getFileDiffInfos() {
+        finishFileDiff();
+        return fileDiffInfos;
+    }
+
+    /**
+     * Reads {@code line} of the header of the file diff being read, which gives the pre-image path of the file on
+     * the line right before the one that gives its post-image path.
+     */
+    private void readFileDiffHeader(String line) {
+        if (preImageFilePath != null) {
+            Matcher postImageFilePathMatcher = POST_IMAGE_FILE_PATH_PATTERN.matcher(line);
+            if (postImageFilePathMatcher.matches()) {
+                postImageFilePath = postImageFilePathMatcher.group(POST_IMAGE_FILE_PATH_GROUP_NAME);
+                isFileAdded = preImageFilePath.equals(FILE_ADDED_SYMBOL);
+                return;
+            }
+        }
+
+        Matcher preImageFilePathMatcher = PRE_IMAGE_FILE_PATH_PATTERN.matcher(line);
+        preImageFilePath = preImageFilePathMatcher.matches()
+                ? preImageFilePathMatcher.group(PRE_IMAGE_FILE_PATH_GROUP_NAME)
+                : null;
+    }
+
+    /**
+     * Starts reading the hunk with {@code hunkHeader}.
+     */
+    private void startHunk(String hunkHeader) {
+        isInHunk = true;
+        currentPreImageLineNumber = getPreImageStartingLineNumber(hunkHeader);
+        otherLinesWithPlusSign.add(hunkHeader);
+    }
+
+    /**
+     * Reads {@code line} of the hunk being read.
+     */
+    private void readHunkLine(String line) {
+        if (line.startsWith(DELETED_LINE_SYMBOL)) {
+            deletedLines.add(line.substring(DELETED_LINE_SYMBOL.length()));
+            deletedLineNumbers.add(currentPreImageLineNumber);
+        } else if (line.startsWith(ADDED_LINE_SYMBOL)) {
+            addedLines.add(line.substring(ADDED_LINE_SYMBOL.length()));
+        } else if (line.contains(ADDED_LINE_SYMBOL)) {
+            otherLinesWithPlusSign.add(line);
+        }
+
+        if (!line.startsWith(ADDED_LINE_SYMBOL)) {
+            currentPreImageLineNumber++;
+        }
+    }
+
+    /**
+     * Adds the hunk being read, if it deleted any lines, to the file diff being read.
+     */
+    private void finishHunk() {
+        if (isInHunk && !deletedLines.isEmpty()) {
+            hunks.add(new DiffHunk(deletedLines.toArray(new String[0]),
+                    deletedLineNumbers.stream().mapToInt(Integer::intValue).toArray(),
+                    addedLines.toArray(new String[0]), otherLinesWithPlusSign.toArray(new String[0])));
+        }
+
+        isInHunk = false;
+        deletedLines.clear();
+        deletedLineNumbers.clear();
+        addedLines.clear();
+        otherLinesWithPlusSign.clear();
+    }
+
+    /**
+     * Adds the file diff being read, if the file was changed rather than added and any of its hunks were kept, to
+     * the result.
+     */
+    private void finishFileDiff() {
+        finishHunk();
+        if (postImageFilePath != null && !isFileAdded && !hunks.isEmpty()) {
+            fileDiffInfos.computeIfAbsent(postImageFilePath, path -> new ArrayList<>())
+                    .add(new FileDiffInfo(preImageFilePath, postImageFilePath, hunks));
+        }
+
+        preImageFilePath = null;
+        postImageFilePath = null;
+        isFileAdded = false;
+        hunks = new ArrayList<>();
+    }
+
+    /**
+     * Returns the pre-image starting line number by matching the pattern inside {@code hunkHeader}.
+     *
+     * @throws AssertionError if lines changed header matcher failed to find anything.
+     */
+    private static int getPreImageStartingLineNumber(String hunkHeader) {
+        Matcher linesChangedHeaderMatcher = STARTING_LINE_NUMBER_PATTERN.matcher(hunkHeader);
+
+        if (!linesChangedHeaderMatcher.find()) {
+            logger.severe(
+                    String.format(MATCH_GROUP_FAIL_MESSAGE_FORMAT, PREIMAGE_START_LINE_GROUP_NAME, hunkHeader));
+            throw new AssertionError(
+                    "Should not have error matching line number pattern inside lines changed header!");
+        }
+
+        return Integer.parseInt(linesChangedHeaderMatcher.group(PREIMAGE_START_LINE_GROUP_NAME));
+    }
+}
@@ -0,0 +1,61 @@
+package reposense.authorship.model;
+
+/**
+ * Stores the lines deleted and added by a hunk of a file diff used in {@code AuthorshipAnalyzer}.
+ */
+public class DiffHunk {
+    private static final String PLUS_SIGN = "+";
+
+    private final String[] deletedLines;
+    private final int[] deletedLineNumbers;
+    private final String[] addedLines;
+    // the other lines of the hunk, including its header, that contain a plus sign
+    private final String[] otherLinesWithPlusSign;
+
+    public DiffHunk(String[] deletedLines, int[] deletedLineNumbers, String[] addedLines,
+            String[] otherLinesWithPlusSign) {
+        this.deletedLines = deletedLines;
+        this.deletedLineNumbers = deletedLineNumbers;
+        this.addedLines = addedLines;
+        this.otherLinesWithPlusSign = otherLinesWithPlusSign;
+    }
+
+    /**
+     * Returns the content of each deleted line, in the order of the hunk.
+     */
+    public String[] getDeletedLines() {
+        return deletedLines;
+    }
+
+    /**
+     * Returns the line number in the pre-image file of each deleted line, in the same order as
+     * {@link #getDeletedLines()}.
+     */
+    public int[] getDeletedLineNumbers() {
+        return deletedLineNumbers;
+    }
+
+    /**
+     * Returns true if {@code text} follows a plus sign anywhere in the text of the hunk, as the content of each added
+     * line does.
+     */
+    public boolean containsTextAfterPlusSign(String text) {
+        String plusSignAndText = PLUS_SIGN + text;
+        for (String addedLine : addedLines) {
+            if (addedLine.startsWith(text) || addedLine.contains(plusSignAndText)) {
+                return true;
+            }
+        }
+        for (String deletedLine : deletedLines) {
+            if (deletedLine.contains(plusSignAndText)) {
+                return true;
+            }
+        }
+        for (String line : otherLinesWithPlusSign) {
+            if (line.contains(plusSignAndText)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,21 +1,19 @@
 package reposense.authorship.model;
 
+import java.util.List;
+
 /**
  * Stores the information of processed file diff used in {@code AuthorshipAnalyzer}.
  */
 public class FileDiffInfo {
-    private final String fileDiffResult;
     private final String preImageFilePath;
     private final String postImageFilePath;
+    private final List<DiffHunk> hunks;
 
-    public FileDiffInfo(String fileDiffResult, String preImageFilePath, String postImageFilePath) {
-        this.fileDiffResult = fileDiffResult;
+    public FileDiffInfo(String preImageFilePath, String postImageFilePath, List<DiffHunk> hunks) {
         this.preImageFilePath = preImageFilePath;
         this.postImageFilePath = postImageFilePath;
-    }
-
-    public String getFileDiffResult() {
-        return fileDiffResult;
+        this.hunks = hunks;
     }
 
     public String getPreImageFilePath() {
@@ -25,4 +23,8 @@ public class FileDiffInfo {
     public String getPostImageFilePath() {
         return postImageFilePath;
     }
+
+    public List<DiffHunk> getHunks() {
+        return hunks;
+    }
 }
@@ -19,6 +19,7 @@ public class FileInfo {
     private long fileSize;
     private boolean exceedsFileLimit = false;
     private boolean isFileAnalyzed = true;
+    private boolean isContentFromBlame = false;
 
     public FileInfo(String path) {
         if (SystemUtil.isWindows()) {
@@ -81,6 +82,18 @@ public class FileInfo {
         this.isFileAnalyzed = isFileAnalyzed;
     }
 
+    /**
+     * Returns true if the lines of this file are not read from the file, but added as the whole file is blamed, in
+     * which case every line is tracked.
+     */
+    public boolean isContentFromBlame() {
+        return isContentFromBlame;
+    }
+
+    public void setContentFromBlame(boolean isContentFromBlame) {
+        this.isContentFromBlame = isContentFromBlame;
+    }
+
     public boolean exceedsFileLimit() {
         return exceedsFileLimit;
     }
@@ -1,17 +1,38 @@
 package reposense.commits;
 
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import reposense.commits.model.CommitInfo;
+import reposense.commits.model.FileChange;
+import reposense.git.CommitGraph;
+import reposense.git.GitBackends;
 import reposense.git.GitCheckout;
 import reposense.git.GitLog;
 import reposense.model.Author;
+import reposense.model.AuthorConfiguration;
 import reposense.model.RepoConfiguration;
+import reposense.system.CommandTelemetry;
 import reposense.system.LogsManager;
 
 /**
@@ -20,53 +41,372 @@ import reposense.system.LogsManager;
 public class CommitInfoExtractor {
     private static final Logger logger = LogsManager.getLogger(CommitInfoExtractor.class);
     private static final String MESSAGE_START_EXTRACTING_COMMIT_INFO = "Extracting commits info for %s (%s)...";
-    private static final String INFO_STAT_SEPARATOR = "|";
+    private static final String HEAD_REF = "HEAD";
 
-    private static final Pattern TRAILING_NEWLINES_PATTERN = Pattern.compile("\n+$");
+    // a partition with fewer commits costs more to run as a git process of its own than it saves
+    private static final int MIN_NUM_COMMITS_PER_PARTITION = 1000;
+    // git only detects the renames in a commit with at most as many added and as many deleted files as its rename
+    // limit, the smallest default of which is 400, so a commit that changes more files may have renames detected
+    // among its filtered files that are not detected among all of its files
+    private static final int MAX_NUM_FILE_CHANGES_FILTERED_IN_MEMORY = 2 * 400;
+
+    private final Executor executor;
+    private final int maxNumPartitions;
+    private final int minNumCommitsPerPartition;
+
+    // the commits with all of their files walked by the last call to discoverAuthors, and the config that they are of
+    private RepoConfiguration discoveredConfig = null;
+    private List<CommitInfo> discoveredCommitInfos = null;
+
+    /**
+     * Creates an extractor that walks the history of a repo in a single git process.
+     */
+    public CommitInfoExtractor() {
+        this(Runnable::run, 1);
+    }
+
+    /**
+     * Creates an extractor that splits the date range of a repo with many commits into up to
+     * {@code maxNumPartitions} partitions of about the same number of commits, whose commits are extracted by a git
+     * process each, on {@code executor}. The partitions that {@code executor} has not started on by the time that they
+     * are needed are extracted on the calling thread, so {@code executor} may be the one that the calling thread runs
+     * on, even if all of its threads are busy.
+     */
+    public CommitInfoExtractor(Executor executor, int maxNumPartitions) {
+        this(executor, maxNumPartitions, MIN_NUM_COMMITS_PER_PARTITION);
+    }
+
+    CommitInfoExtractor(Executor executor, int maxNumPartitions, int minNumCommitsPerPartition) {
+        this.executor = executor;
+        this.maxNumPartitions = maxNumPartitions;
+        this.minNumCommitsPerPartition = minNumCommitsPerPartition;
+    }
+
+    /**
+     * Returns the authors of the commits for the repo in {@code config} within its date range, in the order of their
+     * names, as authors without any configuration.
+     * Every commit counts, including those that only change files of other formats or files that are ignored, as the
+     * authors of the repo are discovered before their own formats and ignore globs are known. The commits are walked
+     * with all of the files that they changed, and kept for {@link #extractCommitInfos} on the same {@code config},
+     * so that the history of a repo whose authors are discovered is walked only once.
+     */
+    public List<Author> discoverAuthors(RepoConfiguration config) {
+        checkoutBranch(config);
+
+        discoveredCommitInfos = walkCommits(config, partition -> walkPartitionWithAllFiles(config, partition));
+        discoveredConfig = config;
+
+        Set<String> authorNames = discoveredCommitInfos.stream()
+                .map(CommitInfo::getAuthorName)
+                .collect(Collectors.toCollection(TreeSet::new));
+        return authorNames.stream()
+                .map(Author::new)
+                .collect(Collectors.toList());
+    }
 
     /**
      * Extracts out and returns the raw information of each commit for the repo in {@code config}.
+     * The commits of all the authors are extracted in a single pass over the history of the repo, unless the
+     * authors of {@code config} were discovered by {@link #discoverAuthors}, in which case the commits that it walked
+     * are filtered instead, as {@link #filterWalkedCommitInfos} does.
      */
     public List<CommitInfo> extractCommitInfos(RepoConfiguration config) {
         logger.info(String.format(MESSAGE_START_EXTRACTING_COMMIT_INFO, config.getLocation(), config.getBranch()));
 
-        GitCheckout.checkoutBranch(config.getRepoRoot(), config.getBranch());
+        checkoutBranch(config);
 
-        List<CommitInfo> repoCommitInfos = new ArrayList<>();
+        List<CommitInfo> walkedCommitInfos = (config == discoveredConfig) ? discoveredCommitInfos : null;
+        discoveredConfig = null;
+        discoveredCommitInfos = null;
 
-        for (Author author : config.getAuthorList()) {
-            String gitLogResult = GitLog.getWithFiles(config, author);
-            List<CommitInfo> authorCommitInfos = parseGitLogResults(gitLogResult);
-            repoCommitInfos.addAll(authorCommitInfos);
+        List<Author> authors = config.getAuthorList();
+        if (authors.isEmpty()) {
+            return new ArrayList<>();
         }
 
+        // the git log result is not filtered by author, so the author of each commit is looked up in the author list
+        AuthorConfiguration authorConfig = new AuthorConfiguration(config.getLocation(), config.getBranch());
+        authorConfig.setAuthorList(authors);
+        authorConfig.buildFromAuthorList();
+
+        List<String> sharedIgnoreGlobList = getSharedIgnoreGlobList(authors);
+
+        Predicate<CommitInfo> commitInfoFilter = commitInfo -> {
+            Author author = authorConfig.getAuthor(commitInfo.getAuthorName(), commitInfo.getAuthorEmail());
+            return !author.equals(Author.UNKNOWN_AUTHOR)
+                    && removeIgnoredFileChanges(commitInfo, author, sharedIgnoreGlobList);
+        };
+
+        List<CommitInfo> repoCommitInfos;
+        if (walkedCommitInfos == null) {
+            repoCommitInfos = walkCommits(config, partition ->
+                    walkPartition(config, partition, sharedIgnoreGlobList, commitInfoFilter));
+        } else {
+            repoCommitInfos = filterWalkedCommitInfos(config, walkedCommitInfos, sharedIgnoreGlobList);
+            repoCommitInfos.removeIf(commitInfoFilter.negate());
+        }
+        Collections.reverse(repoCommitInfos);
         return repoCommitInfos;
     }
 
     /**
-     * Parses the {@code gitLogResult} into a list of {@link CommitInfo} and returns it.
+     * Returns the commits for the repo in {@code config}, from the most recent one, as "git log" lists them.
+     * The commits are walked in time partitions of the date range of {@code config}, if it has enough commits to
+     * split, each of which is walked by {@code partitionWalk}, as {@link #getPartitions} gives them.
      */
-    private ArrayList<CommitInfo> parseGitLogResults(String gitLogResult) {
-        ArrayList<CommitInfo> commitInfos = new ArrayList<>();
-        String[] rawCommitInfos = gitLogResult.split(GitLog.COMMIT_INFO_DELIMITER);
+    private List<CommitInfo> walkCommits(RepoConfiguration config,
+            Function<ZonedDateTime[], List<CommitInfo>> partitionWalk) {
+        List<ZonedDateTime[]> partitions = getPartitions(config);
+        if (partitions.size() == 1) {
+            return partitionWalk.apply(partitions.get(0));
+        }
+
+        List<PartitionJob> jobs = partitions.stream()
+                .map(partition -> new PartitionJob(() -> partitionWalk.apply(partition)))
+                .collect(Collectors.toList());
+        String repo = CommandTelemetry.getCurrentRepo();
+        for (PartitionJob job : jobs) {
+            try {
+                executor.execute(() -> job.runForRepo(repo));
+            } catch (RejectedExecutionException ree) {
+                // the job is run on this thread below
+            }
+        }
+
+        // the jobs that no thread of the executor has started on are run on this thread, so that it never waits on a
+        // job that is queued behind the jobs of other repos, or behind itself
+        jobs.forEach(PartitionJob::run);
 
-        if (rawCommitInfos.length < 2) {
-            //no log (maybe because no contribution for that file type)
-            return commitInfos;
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        for (PartitionJob job : jobs) {
+            commitInfos.addAll(job.join());
         }
+        return commitInfos;
+    }
+
+    /**
+     * Returns the commits committed within {@code partition} for the repo in {@code config} that pass
+     * {@code commitInfoFilter}, with the files changed other than those matching {@code ignoreGlobList}, from the
+     * most recent one.
+     */
+    private static List<CommitInfo> walkPartition(RepoConfiguration config, ZonedDateTime[] partition,
+            List<String> ignoreGlobList, Predicate<CommitInfo> commitInfoFilter) {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        // the git log result is parsed as it is streamed, so that it is never held in memory as a whole
+        CommitInfoParser parser = new CommitInfoParser(commitInfo -> {
+            if (commitInfoFilter.test(commitInfo)) {
+                commitInfos.add(commitInfo);
+            }
+        });
+        GitBackends.get().getLogWithFiles(config, partition[0], partition[1], ignoreGlobList, parser);
+        parser.finish();
+        return commitInfos;
+    }
+
+    /**
+     * Returns every commit committed within {@code partition} for the repo in {@code config}, with all of the files
+     * changed, regardless of the formats of {@code config}, from the most recent one.
+     */
+    private static List<CommitInfo> walkPartitionWithAllFiles(RepoConfiguration config, ZonedDateTime[] partition) {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfos::add);
+        GitBackends.get().getLogWithAllFiles(config, partition[0], partition[1], parser);
+        parser.finish();
+        return commitInfos;
+    }
 
-        // Starts from 1 as index 0 is always empty.
-        for (int i = 1; i < rawCommitInfos.length; i++) {
-            Matcher matcher = TRAILING_NEWLINES_PATTERN.matcher(rawCommitInfos[i]);
-            String rawCommitInfo = matcher.replaceAll("");
+    /**
+     * Returns the commits in {@code walkedCommitInfos}, which have all of their files, with the files changed
+     * other than those of other formats of {@code config} or matching {@code ignoreGlobList}, from the most recent
+     * one, as {@link #walkPartition} gives them without filtering by author.
+     * The files are filtered in memory, as git filters them, and the commits that no longer change any file are left
+     * out. The commits whose filtered files cannot be told from all of their files are looked up again with the files
+     * filtered by git, without walking the history: the merge commits, whose files are not listed, as well as the
+     * commits that rename a file that is filtered out to one that is not, or the other way around, or that change too
+     * many files for their renames to be detected in the same way.
+     */
+    private static List<CommitInfo> filterWalkedCommitInfos(RepoConfiguration config,
+            List<CommitInfo> walkedCommitInfos, List<String> ignoreGlobList) {
+        Optional<Predicate<String>> pathFilter = GitLog.getPathFilter(config, ignoreGlobList);
+        if (pathFilter.isEmpty()) {
+            return walkedCommitInfos;
+        }
 
-            int statLineSeparatorIndex = rawCommitInfo.lastIndexOf(INFO_STAT_SEPARATOR);
-            String infoLine = rawCommitInfo.substring(0, statLineSeparatorIndex);
-            String statLine = rawCommitInfo.substring(statLineSeparatorIndex + 1).trim();
-            commitInfos.add(new CommitInfo(infoLine, statLine));
+        Set<String> commitHashesToLookUp = walkedCommitInfos.stream()
+                .filter(commitInfo -> !isFilterableInMemory(commitInfo, pathFilter.get()))
+                .map(CommitInfo::getHash)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, CommitInfo> lookedUpCommitInfos = new HashMap<>();
+        if (!commitHashesToLookUp.isEmpty()) {
+            CommitInfoParser parser = new CommitInfoParser(commitInfo ->
+                    lookedUpCommitInfos.put(commitInfo.getHash(), commitInfo));
+            GitBackends.get().getLogOfCommitsWithFiles(config, commitHashesToLookUp, ignoreGlobList, parser);
+            parser.finish();
         }
 
-        Collections.reverse(commitInfos);
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        for (CommitInfo commitInfo : walkedCommitInfos) {
+            if (commitHashesToLookUp.contains(commitInfo.getHash())) {
+                // git leaves out a commit that changes none of the filtered files
+                if (lookedUpCommitInfos.containsKey(commitInfo.getHash())) {
+                    commitInfos.add(lookedUpCommitInfos.get(commitInfo.getHash()));
+                }
+                continue;
+            }
+
+            commitInfo.getFileChanges().removeIf(fileChange -> !pathFilter.get().test(fileChange.getFilePath()));
+            if (!commitInfo.getFileChanges().isEmpty()) {
+                commitInfos.add(commitInfo);
+            }
+        }
         return commitInfos;
     }
+
+    /**
+     * Returns true if the files of {@code commitInfo} filtered by {@code pathFilter} are the same as those that git
+     * lists for it when it filters them.
+     */
+    private static boolean isFilterableInMemory(CommitInfo commitInfo, Predicate<String> pathFilter) {
+        return !commitInfo.isMergeCommit()
+                && commitInfo.getFileChanges().size() <= MAX_NUM_FILE_CHANGES_FILTERED_IN_MEMORY
+                && commitInfo.getFileChanges().stream().allMatch(fileChange ->
+                        pathFilter.test(fileChange.getFilePath())
+                                == pathFilter.test(fileChange.getPreviousFilePath()));
+    }
+
+    /**
+     * Returns the since and until dates, both inclusive and null if the range is open at that end, of each time
+     * partition that the date range of {@code config} is split into, from the most recent one. The date range is only
+     * split if it has at least {@code minNumCommitsPerPartition} commits reachable from the checked out commit for
+     * each partition, at times that "git log" finds the same commits across the partitions as it does across the
+     * whole date range, as {@link CommitGraph#getPartitionTimes} gives them.
+     */
+    private List<ZonedDateTime[]> getPartitions(RepoConfiguration config) {
+        ZonedDateTime sinceDate = (config.getSinceDate() == null)
+                ? null
+                : ZonedDateTime.of(config.getSinceDate(), config.getZoneId());
+        ZonedDateTime untilDate = (config.getUntilDate() == null)
+                ? null
+                : ZonedDateTime.of(config.getUntilDate(), config.getZoneId());
+
+        List<ZonedDateTime[]> partitions = new ArrayList<>();
+        if (maxNumPartitions > 1) {
+            CommitGraph graph = CommitGraph.of(config.getRepoRoot());
+            int head = graph.indexOfRef(HEAD_REF);
+            long[] partitionTimes = (head == CommitGraph.NOT_FOUND)
+                    ? new long[0]
+                    : graph.getPartitionTimes(head,
+                            (sinceDate == null) ? Long.MIN_VALUE : sinceDate.toEpochSecond(),
+                            (untilDate == null) ? Long.MAX_VALUE : untilDate.toEpochSecond(),
+                            maxNumPartitions, minNumCommitsPerPartition);
+
+            for (int i = partitionTimes.length - 1; i >= 0; i--) {
+                ZonedDateTime partitionSinceDate =
+                        ZonedDateTime.ofInstant(Instant.ofEpochSecond(partitionTimes[i]), config.getZoneId());
+                partitions.add(new ZonedDateTime[] {partitionSinceDate, untilDate});
+                untilDate = partitionSinceDate.minusSeconds(1);
+            }
+        }
+        partitions.add(new ZonedDateTime[] {sinceDate, untilDate});
+        return partitions;
+    }
+
+    /**
+     * Checks out the branch of the repo in {@code config}, without the files if {@code config} is checkout-free.
+     */
+    private static void checkoutBranch(RepoConfiguration config) {
+        if (config.isCheckoutFree()) {
+            GitCheckout.checkoutBranchWithoutFiles(config.getRepoRoot(), config.getBranch());
+        } else {
+            GitCheckout.checkoutBranch(config.getRepoRoot(), config.getBranch());
+        }
+    }
+
+    /**
+     * Returns the ignore globs that are in the ignore glob list of every author in {@code authors}.
+     */
+    private static List<String> getSharedIgnoreGlobList(List<Author> authors) {
+        List<String> sharedIgnoreGlobList = new ArrayList<>(authors.get(0).getIgnoreGlobList());
+        authors.forEach(author -> sharedIgnoreGlobList.retainAll(author.getIgnoreGlobList()));
+        return sharedIgnoreGlobList;
+    }
+
+    /**
+     * Removes the file changes of {@code commitInfo} that are ignored by {@code author}. The files matching
+     * {@code sharedIgnoreGlobList} are already left out of the git log result.
+     * Returns false if {@code commitInfo} is not a merge commit and no longer has any file changes, as the commit only
+     * changes files ignored by {@code author}.
+     */
+    private static boolean removeIgnoredFileChanges(CommitInfo commitInfo, Author author,
+            List<String> sharedIgnoreGlobList) {
+        if (commitInfo.isMergeCommit() || sharedIgnoreGlobList.containsAll(author.getIgnoreGlobList())) {
+            return true;
+        }
+
+        List<FileChange> fileChanges = commitInfo.getFileChanges();
+        fileChanges.removeIf(fileChange -> author.isIgnoringFile(Paths.get(fileChange.getFilePath())));
+        return !fileChanges.isEmpty();
+    }
+
+    /**
+     * Walks the commits of a time partition once, either on a thread of the executor or on the thread that needs
+     * them, whichever starts on it first.
+     */
+    private static class PartitionJob {
+        private final Supplier<List<CommitInfo>> walk;
+        private final AtomicBoolean isStarted = new AtomicBoolean(false);
+        private final CompletableFuture<List<CommitInfo>> result = new CompletableFuture<>();
+
+        PartitionJob(Supplier<List<CommitInfo>> walk) {
+            this.walk = walk;
+        }
+
+        /**
+         * Walks the commits of the partition, unless another thread has started on it.
+         */
+        void run() {
+            if (!isStarted.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                result.complete(walk.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Runs the job as {@link #run} does, attributing the git commands that it runs to {@code repo}.
+         */
+        void runForRepo(String repo) {
+            String previousRepo = CommandTelemetry.getCurrentRepo();
+            CommandTelemetry.setCurrentRepo(repo);
+            try {
+                run();
+            } finally {
+                if (previousRepo == null) {
+                    CommandTelemetry.clearCurrentRepo();
+                } else {
+                    CommandTelemetry.setCurrentRepo(previousRepo);
+                }
+            }
+        }
+
+        /**
+         * Returns the commits of the partition, waiting for the thread that walks them to finish.
+         *
+         * @throws RuntimeException if the walk failed.
+         */
+        List<CommitInfo> join() {
+            try {
+                return result.join();
+            } catch (CompletionException ce) {
+                if (ce.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ce.getCause();
+                }
+                throw ce;
+            }
+        }
+    }
 }
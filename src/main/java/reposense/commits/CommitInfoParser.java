@@ -0,0 +1,111 @@
+package reposense.commits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import reposense.commits.model.CommitInfo;
+import reposense.commits.model.FileChange;
+import reposense.git.GitLog;
+
+/**
+ * Parses the tokens of the git log result streamed by {@link GitLog#getWithFiles} into a {@link CommitInfo} for each
+ * commit, in a single pass over the tokens.
+ */
+public class CommitInfoParser implements Consumer<String> {
+    private static final char STAT_START = '\n';
+    private static final char SHORTSTAT_START = ' ';
+    private static final char NUMSTAT_SEPARATOR = '\t';
+    private static final String BINARY_FILE_CONTRIBUTION = "-";
+
+    private static final int HASH_INDEX = 0;
+    private static final int PARENT_HASHES_INDEX = 1;
+    private static final int AUTHOR_INDEX = 2;
+    private static final int EMAIL_INDEX = 3;
+    private static final int DATE_INDEX = 4;
+    private static final int MESSAGE_TITLE_INDEX = 5;
+    private static final int MESSAGE_BODY_INDEX = 6;
+    private static final int REF_NAMES_INDEX = 7;
+
+    private final Consumer<CommitInfo> commitInfoConsumer;
+    private final String[] fields = new String[GitLog.NUM_COMMIT_INFO_FIELDS];
+    private int numFieldsRead = 0;
+    private List<FileChange> fileChanges = new ArrayList<>();
+
+    // the numstat token of a renamed file, whose old and new paths are in the next two tokens
+    private String renamedFileStat = null;
+    private String renamedFileOldPath = null;
+
+    public CommitInfoParser(Consumer<CommitInfo> commitInfoConsumer) {
+        this.commitInfoConsumer = commitInfoConsumer;
+    }
+
+    @Override
+    public void accept(String token) {
+        if (numFieldsRead < fields.length) {
+            fields[numFieldsRead++] = token;
+            return;
+        }
+
+        if (renamedFileStat != null) {
+            if (renamedFileOldPath == null) {
+                renamedFileOldPath = token;
+                return;
+            }
+            addFileChange(renamedFileStat, token, renamedFileOldPath);
+            renamedFileStat = null;
+            renamedFileOldPath = null;
+            return;
+        }
+
+        if (token.isEmpty() || token.charAt(0) == SHORTSTAT_START) {
+            // a commit without files changed ends with an empty token, and one with files changed with its shortstat
+            emitCommitInfo();
+            return;
+        }
+
+        String stat = (token.charAt(0) == STAT_START) ? token.substring(1) : token;
+        int pathStart = stat.indexOf(NUMSTAT_SEPARATOR, stat.indexOf(NUMSTAT_SEPARATOR) + 1) + 1;
+        if (pathStart == stat.length()) {
+            renamedFileStat = stat;
+        } else {
+            String filePath = stat.substring(pathStart);
+            addFileChange(stat, filePath, filePath);
+        }
+    }
+
+    /**
+     * Emits the commit being parsed, if any, as the tokens have ended.
+     */
+    public void finish() {
+        if (numFieldsRead == fields.length) {
+            emitCommitInfo();
+        }
+    }
+
+    /**
+     * Records the change to the file at {@code filePath}, which was at {@code previousFilePath} before the commit,
+     * described by the numstat token {@code stat}.
+     */
+    private void addFileChange(String stat, String filePath, String previousFilePath) {
+        if (stat.startsWith(BINARY_FILE_CONTRIBUTION)) {
+            // git log returns "-" for binary file insertions and deletions
+            fileChanges.add(new FileChange(filePath, previousFilePath, 0, 0, true));
+            return;
+        }
+
+        int deletionStart = stat.indexOf(NUMSTAT_SEPARATOR) + 1;
+        int deletionEnd = stat.indexOf(NUMSTAT_SEPARATOR, deletionStart);
+        int insertions = Integer.parseInt(stat, 0, deletionStart - 1, 10);
+        int deletions = Integer.parseInt(stat, deletionStart, deletionEnd, 10);
+        fileChanges.add(new FileChange(filePath, previousFilePath, insertions, deletions, false));
+    }
+
+    private void emitCommitInfo() {
+        commitInfoConsumer.accept(new CommitInfo(fields[HASH_INDEX], fields[PARENT_HASHES_INDEX], fields[AUTHOR_INDEX],
+                fields[EMAIL_INDEX], fields[DATE_INDEX], fields[MESSAGE_TITLE_INDEX], fields[MESSAGE_BODY_INDEX],
+                fields[REF_NAMES_INDEX], fileChanges));
+        numFieldsRead = 0;
+        fileChanges = new ArrayList<>();
+    }
+}
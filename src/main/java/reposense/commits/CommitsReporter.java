@@ -1,20 +1,38 @@
 package reposense.commits;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import reposense.commits.model.CommitContributionSummary;
 import reposense.commits.model.CommitInfo;
 import reposense.commits.model.CommitResult;
+import reposense.model.Author;
 import reposense.model.RepoConfiguration;
 
 /**
  * Generates the commit summary data for each repository.
  */
 public class CommitsReporter {
-    private final CommitInfoExtractor commitInfoExtractor = new CommitInfoExtractor();
+    private final CommitInfoExtractor commitInfoExtractor;
     private final CommitInfoAnalyzer commitInfoAnalyzer = new CommitInfoAnalyzer();
     private final CommitResultAggregator commitResultAggregator = new CommitResultAggregator();
 
+    /**
+     * Creates a reporter that extracts the commits of a repo with many commits in up to {@code maxNumPartitions}
+     * time partitions in parallel on {@code executor}, as {@link CommitInfoExtractor} does.
+     */
+    public CommitsReporter(Executor executor, int maxNumPartitions) {
+        commitInfoExtractor = new CommitInfoExtractor(executor, maxNumPartitions);
+    }
+
+    /**
+     * Returns the authors of the commits for the repo in {@code config}, as
+     * {@link CommitInfoExtractor#discoverAuthors} discovers them.
+     */
+    public List<Author> discoverAuthors(RepoConfiguration config) {
+        return commitInfoExtractor.discoverAuthors(config);
+    }
+
     /**
      * Generates and returns the commit contribution summary for each repo in {@code config}.
      */
@@ -1,22 +1,83 @@
 package reposense.commits.model;
 
+import java.util.List;
+
 /**
  * Stores the raw information generated for each commit.
  */
 public class CommitInfo {
-    private final String infoLine;
-    private final String statLine;
+    private final String hash;
+    private final String parentHashes;
+    private final String authorName;
+    private final String authorEmail;
+    private final String date;
+    private final String messageTitle;
+    private final String messageBody;
+    private final String refNames;
+    private final List<FileChange> fileChanges;
+
+    public CommitInfo(String hash, String parentHashes, String authorName, String authorEmail, String date,
+            String messageTitle, String messageBody, String refNames, List<FileChange> fileChanges) {
+        this.hash = hash;
+        this.parentHashes = parentHashes;
+        this.authorName = authorName;
+        this.authorEmail = authorEmail;
+        this.date = date;
+        this.messageTitle = messageTitle;
+        this.messageBody = messageBody;
+        this.refNames = refNames;
+        this.fileChanges = fileChanges;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the hashes of the parents of the commit, separated by spaces.
+     */
+    public String getParentHashes() {
+        return parentHashes;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public String getAuthorEmail() {
+        return authorEmail;
+    }
+
+    /**
+     * Returns the committer date of the commit, in strict ISO 8601 format.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    public String getMessageTitle() {
+        return messageTitle;
+    }
+
+    public String getMessageBody() {
+        return messageBody;
+    }
 
-    public CommitInfo(String infoLine, String statLine) {
-        this.infoLine = infoLine;
-        this.statLine = statLine;
+    /**
+     * Returns the names of the refs pointing to the commit, separated by ", ".
+     */
+    public String getRefNames() {
+        return refNames;
     }
 
-    public String getInfoLine() {
-        return infoLine;
+    public boolean isMergeCommit() {
+        return parentHashes.indexOf(' ') >= 0;
     }
 
-    public String getStatLine() {
-        return statLine;
+    /**
+     * Returns the files changed by the commit, including binary files.
+     */
+    public List<FileChange> getFileChanges() {
+        return fileChanges;
     }
 }
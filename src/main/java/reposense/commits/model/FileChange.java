@@ -0,0 +1,49 @@
+package reposense.commits.model;
+
+/**
+ * Stores the number of lines inserted and deleted in a file by a commit. The numbers of lines are not known for a
+ * binary file. A file renamed by the commit also has the path that it was renamed from.
+ */
+public class FileChange {
+    private final String filePath;
+    private final String previousFilePath;
+    private final int insertions;
+    private final int deletions;
+    private final boolean isBinary;
+
+    public FileChange(String filePath, int insertions, int deletions, boolean isBinary) {
+        this(filePath, filePath, insertions, deletions, isBinary);
+    }
+
+    public FileChange(String filePath, String previousFilePath, int insertions, int deletions, boolean isBinary) {
+        this.filePath = filePath;
+        this.previousFilePath = previousFilePath;
+        this.insertions = insertions;
+        this.deletions = deletions;
+        this.isBinary = isBinary;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns the path of the file before the commit, which is the same as its path after the commit unless the
+     * commit renamed it.
+     */
+    public String getPreviousFilePath() {
+        return previousFilePath;
+    }
+
+    public int getInsertions() {
+        return insertions;
+    }
+
+    public int getDeletions() {
+        return deletions;
+    }
+
+    public boolean isBinary() {
+        return isBinary;
+    }
+}
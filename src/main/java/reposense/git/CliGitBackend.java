@@ -0,0 +1,573 @@
+package reposense.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jgit.attributes.Attribute;
+import org.eclipse.jgit.attributes.AttributesNode;
+import org.eclipse.jgit.attributes.AttributesNodeProvider;
+import org.eclipse.jgit.attributes.AttributesRule;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.SystemReader;
+
+import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitBlameLineInfo;
+import reposense.git.model.LineRange;
+import reposense.model.CommitHash;
+import reposense.model.RepoConfiguration;
+import reposense.system.LogsManager;
+
+/**
+ * Runs the git operations needed to analyze a repository with the git command line.
+ * The files given to {@link #prepareBlame} are the exception: they are blamed together in a single walk of the
+ * history with {@link HistoryBlame}, which only reads the repository. A file whose result may differ from that of
+ * "git blame" is still blamed by the git command line.
+ */
+public class CliGitBackend implements GitBackend {
+    private static final String UNCOMMITTED_HASH = ObjectId.zeroId().getName();
+    private static final String UNCOMMITTED_AUTHOR_NAME = "Not Committed Yet";
+    private static final String UNCOMMITTED_AUTHOR_EMAIL = "not.committed.yet";
+    private static final String COMMIT_PEEL_SUFFIX = "^{commit}";
+    private static final String BOUNDARY_LINE = "boundary";
+    private static final String CONTENT_LINE_PREFIX = "\t";
+    private static final String MAILMAP_FILE_NAME = ".mailmap";
+    private static final String MAILMAP_CONFIG_SECTION = "mailmap";
+    private static final String BLAME_CONFIG_SECTION = "blame";
+    private static final String DIFF_CONFIG_SECTION = "diff";
+    private static final String INDENT_HEURISTIC_CONFIG_NAME = "indentHeuristic";
+    private static final String ALGORITHM_CONFIG_NAME = "algorithm";
+    private static final List<String> MYERS_ALGORITHM_NAMES = Arrays.asList("myers", "default");
+    private static final String TEXTCONV_CONFIG_NAME = "textconv";
+    private static final String ATTRIBUTES_FILE_NAME = ".gitattributes";
+    private static final List<String> DIFF_ATTRIBUTE_KEYS = Arrays.asList("diff", "binary");
+    private static final String ATTRIBUTE_MACRO_PREFIX = "[attr]";
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private static final String MESSAGE_REPO_NOT_FOUND = "Not a git repository: %s";
+    private static final String MESSAGE_PREPARE_BLAME_FAILED =
+            "Unable to blame the files of %s in one walk of the history, each file will be blamed on its own.";
+
+    private static final Logger logger = LogsManager.getLogger(CliGitBackend.class);
+
+    private final Map<Path, Repository> repositories = new ConcurrentHashMap<>();
+    private final Map<Path, PreparedBlame> preparedBlames = new ConcurrentHashMap<>();
+    private final Map<Repository, Boolean> diffAttributes = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     * A file that is not prepared, or whose prepared result may differ from that of the git command line, is blamed
+     * by the git command line.
+     */
+    @Override
+    public void blame(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer) {
+        HistoryBlame.Result result = takePreparedBlame(root, fileDirectory, lineRanges, sinceCommitHash);
+        if (result == null || result.isUncertain()) {
+            GitBlame.blame(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+            return;
+        }
+        emitBlameRecords(result, loadContents(getRepository(root), result), lineRanges, lineConsumer);
+    }
+
+    @Override
+    public void blameFast(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer) {
+        GitBlame.blameFast(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+    }
+
+    @Override
+    public void blameWithPreviousAuthors(String root, String fileDirectory, List<LineRange> lineRanges,
+            String sinceCommitHash, Consumer<String> lineConsumer) {
+        GitBlame.blameWithPreviousAuthors(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The files are blamed as of HEAD, ignoring whitespace changes, in a single walk of the history shared by all of
+     * them. A file whose content at HEAD has changed by the time it is blamed, or whose lines to blame are not all
+     * prepared, is blamed on its own instead. Nothing is prepared for a repository whose blame results with JGit may
+     * differ from those of the git command line.
+     */
+    @Override
+    public void prepareBlame(String root, Map<String, List<LineRange>> lineRangesByFile, String sinceCommitHash) {
+        if (lineRangesByFile.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<LineRange>> lineRangesByPath = new HashMap<>();
+        lineRangesByFile.forEach((fileDirectory, lineRanges) ->
+                lineRangesByPath.put(toGitPath(fileDirectory), lineRanges));
+        try {
+            Repository repository = getRepository(root);
+            if (!isBlameSupported(repository)) {
+                return;
+            }
+
+            ObjectId sinceCommit = sinceCommitHash.isEmpty() ? null : resolveCommit(repository, sinceCommitHash);
+            Map<String, HistoryBlame.Result> results = HistoryBlame.blame(repository,
+                    getBlameAlgorithm(repository, true), resolveCommit(repository, Constants.HEAD), sinceCommit,
+                    lineRangesByPath);
+            preparedBlames.put(toKey(root), new PreparedBlame(sinceCommitHash, results));
+        } catch (IOException | CommitNotFoundException | RuntimeException e) {
+            logger.log(Level.WARNING, String.format(MESSAGE_PREPARE_BLAME_FAILED, root), e);
+        }
+    }
+
+    @Override
+    public Map<Integer, GitBlameLineInfo> blameLines(String root, String commitHash, String fileDirectory,
+            Collection<Integer> lineNumbers) {
+        return GitBlame.blameLines(root, commitHash, fileDirectory, lineNumbers);
+    }
+
+    @Override
+    public void getLogWithFiles(RepoConfiguration config, List<String> ignoreGlobList, Consumer<String> tokenConsumer) {
+        GitLog.getWithFiles(config, ignoreGlobList, tokenConsumer);
+    }
+
+    @Override
+    public void getLogWithFiles(RepoConfiguration config, ZonedDateTime sinceDate, ZonedDateTime untilDate,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer) {
+        GitLog.getWithFiles(config, sinceDate, untilDate, ignoreGlobList, tokenConsumer);
+    }
+
+    @Override
+    public void getLogWithAllFiles(RepoConfiguration config, ZonedDateTime sinceDate, ZonedDateTime untilDate,
+            Consumer<String> tokenConsumer) {
+        GitLog.getWithAllFiles(config, sinceDate, untilDate, tokenConsumer);
+    }
+
+    @Override
+    public void getLogOfCommitsWithFiles(RepoConfiguration config, Collection<String> commitHashes,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer) {
+        GitLog.getCommitsWithFiles(config, commitHashes, ignoreGlobList, tokenConsumer);
+    }
+
+    @Override
+    public void getLogWithPatches(RepoConfiguration config, Consumer<String> lineConsumer) {
+        GitLog.getWithPatches(config, lineConsumer);
+    }
+
+    @Override
+    public Map<String, List<String[]>> getFileAuthors(RepoConfiguration config, Collection<String> filePaths) {
+        return GitLog.getFileAuthors(config, filePaths);
+    }
+
+    @Override
+    public String getParentCommits(String root, String commitHash) {
+        return GitLog.getParentCommits(root, commitHash);
+    }
+
+    @Override
+    public void diffCommit(String root, String lastCommitHash, Consumer<String> lineConsumer) {
+        GitDiff.diffCommit(root, lastCommitHash, lineConsumer);
+    }
+
+    @Override
+    public String diffCommits(String root, String baseCommitHash, String currentCommitHash) {
+        return GitDiff.diffCommits(root, baseCommitHash, currentCommitHash);
+    }
+
+    @Override
+    public List<String> getFilePaths(String root) {
+        return GitLsTree.getFilePaths(root);
+    }
+
+    @Override
+    public Set<String> getBinaryFilePaths(String root, Collection<String> filePaths) {
+        return GitLsTree.getBinaryFilePaths(root, filePaths);
+    }
+
+    @Override
+    public String getCommitHashUntilDate(String root, String branchName, LocalDateTime date, ZoneId zoneId) {
+        return GitRevList.getCommitHashUntilDate(root, branchName, date, zoneId);
+    }
+
+    @Override
+    public String getCommitHashInRange(String root, String branchName, String startHash, String endHash) {
+        return GitRevList.getCommitHashInRange(root, branchName, startHash, endHash);
+    }
+
+    @Override
+    public CommitHash getExpandedCommitHash(String root, String shortCommitHash) throws CommitNotFoundException {
+        return GitShow.getExpandedCommitHash(root, shortCommitHash);
+    }
+
+    @Override
+    public void close(String root) {
+        preparedBlames.remove(toKey(root));
+        Repository repository = repositories.remove(toKey(root));
+        if (repository != null) {
+            diffAttributes.remove(repository);
+            repository.close();
+        }
+        GitCatFileBatch.close(root);
+        CommitGraph.close(root);
+        GitLsTree.close(root);
+    }
+
+    @Override
+    public void closeAll() {
+        preparedBlames.clear();
+        diffAttributes.clear();
+        repositories.values().forEach(Repository::close);
+        repositories.clear();
+        GitCatFileBatch.closeAll();
+        CommitGraph.closeAll();
+        GitLsTree.closeAll();
+    }
+
+    /**
+     * Returns the contents of the file blamed by {@code result} in {@code repository}.
+     */
+    static RawText loadContents(Repository repository, HistoryBlame.Result result) {
+        try {
+            return new RawText(repository.open(result.getBlobId(), Constants.OBJ_BLOB)
+                    .getCachedBytes(Integer.MAX_VALUE));
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    /**
+     * Streams the lines in {@code lineRanges} of {@code result}, or every line if {@code lineRanges} is empty, to
+     * {@code lineConsumer} in the format of {@link GitBackend#blame}. As in git, lines are only reported as a group
+     * within the same range, and the details of each commit are only reported with the first line attributed to it.
+     * The content of each line is taken from {@code contents}, the blamed file.
+     */
+    static void emitBlameRecords(HistoryBlame.Result result, RawText contents, List<LineRange> lineRanges,
+            Consumer<String> lineConsumer) {
+        Set<String> reportedCommitHashes = new HashSet<>();
+        for (int[] bounds : getLineBounds(lineRanges, result.getNumLines())) {
+            for (int i = bounds[0]; i < bounds[1]; i++) {
+                RevCommit commit = result.getSourceCommit(i);
+                String commitHash = (commit == null) ? UNCOMMITTED_HASH : commit.getName();
+                String header = commitHash + " " + (result.getSourceLine(i) + 1) + " " + (i + 1);
+                if (i == bounds[0] || !isSameBlameGroup(result, i - 1, i)) {
+                    int groupEnd = i + 1;
+                    while (groupEnd < bounds[1] && isSameBlameGroup(result, groupEnd - 1, groupEnd)) {
+                        groupEnd++;
+                    }
+                    header += " " + (groupEnd - i);
+                }
+                lineConsumer.accept(header);
+                if (reportedCommitHashes.add(commitHash)) {
+                    for (String authorLine : getAuthorLines((commit == null)
+                            ? new PersonIdent(UNCOMMITTED_AUTHOR_NAME, UNCOMMITTED_AUTHOR_EMAIL)
+                            : commit.getAuthorIdent())) {
+                        lineConsumer.accept(authorLine);
+                    }
+                    if (result.isBoundary(i)) {
+                        lineConsumer.accept(BOUNDARY_LINE);
+                    }
+                }
+                // the content is decoded as UTF-8 with any invalid bytes replaced, as the output of git is
+                lineConsumer.accept(CONTENT_LINE_PREFIX + StandardCharsets.UTF_8.decode(contents.getRawString(i)));
+            }
+        }
+    }
+
+    /**
+     * Returns the start (inclusive) and end (exclusive) line indices, numbered from 0, of each range in
+     * {@code lineRanges} of a file of {@code numLines} lines, or of the whole file if {@code lineRanges} is empty.
+     * The ranges are cut off at the end of the file.
+     */
+    private static List<int[]> getLineBounds(List<LineRange> lineRanges, int numLines) {
+        if (lineRanges.isEmpty()) {
+            return Collections.singletonList(new int[] {0, numLines});
+        }
+
+        List<int[]> lineBounds = new ArrayList<>();
+        for (LineRange lineRange : lineRanges) {
+            int start = lineRange.getStart() - 1;
+            int end = Math.min(lineRange.getEnd(), numLines);
+            if (start < end) {
+                lineBounds.add(new int[] {start, end});
+            }
+        }
+        return lineBounds;
+    }
+
+    /**
+     * Returns the lines describing {@code author} in a blame record, in the format of "git blame --porcelain".
+     */
+    private static String[] getAuthorLines(PersonIdent author) {
+        return new String[] {
+            "author " + author.getName(),
+            "author-mail <" + author.getEmailAddress() + ">",
+            "author-time " + author.getWhen().getTime() / MILLIS_PER_SECOND,
+            "author-tz " + formatTimeZone(author.getTimeZoneOffset())
+        };
+    }
+
+    /**
+     * Removes and returns the prepared blame result of {@code fileDirectory} in the repository at {@code root}, or
+     * null if there is none, it was not blamed from {@code sinceCommitHash}, some of the lines in {@code lineRanges}
+     * were not blamed, or the file at HEAD is no longer the one that was blamed.
+     */
+    HistoryBlame.Result takePreparedBlame(String root, String fileDirectory, List<LineRange> lineRanges,
+            String sinceCommitHash) {
+        PreparedBlame preparedBlame = preparedBlames.get(toKey(root));
+        HistoryBlame.Result result = (preparedBlame == null) ? null
+                : preparedBlame.results.remove(toGitPath(fileDirectory));
+        if (result == null || !preparedBlame.sinceCommitHash.equals(sinceCommitHash)) {
+            return null;
+        }
+
+        for (int[] bounds : getLineBounds(lineRanges, result.getNumLines())) {
+            for (int i = bounds[0]; i < bounds[1]; i++) {
+                if (!result.isBlamed(i)) {
+                    return null;
+                }
+            }
+        }
+
+        try {
+            ObjectId blobId = getRepository(root).resolve(Constants.HEAD + ":" + toGitPath(fileDirectory));
+            return (blobId != null && blobId.equals(result.getBlobId())) ? result : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the lines at {@code prevIndex} and {@code index} of {@code result} are consecutive lines of the
+     * same commit, which git blame reports as one group.
+     */
+    private static boolean isSameBlameGroup(HistoryBlame.Result result, int prevIndex, int index) {
+        return Objects.equals(result.getSourceCommit(prevIndex), result.getSourceCommit(index))
+                && Objects.equals(result.getSourcePath(prevIndex), result.getSourcePath(index))
+                && result.getSourceLine(prevIndex) + 1 == result.getSourceLine(index);
+    }
+
+    /**
+     * Returns the id of the commit that {@code revision} resolves to in {@code repository}.
+     *
+     * @throws CommitNotFoundException if {@code revision} does not resolve to a single commit.
+     */
+    static ObjectId resolveCommit(Repository repository, String revision) throws CommitNotFoundException {
+        ObjectId commitId;
+        try {
+            commitId = repository.resolve(revision.trim() + COMMIT_PEEL_SUFFIX);
+        } catch (IOException | RuntimeException e) {
+            // includes revisions that are ambiguous or malformed
+            throw new CommitNotFoundException("Commit not found: " + revision);
+        }
+        if (commitId == null) {
+            throw new CommitNotFoundException("Commit not found: " + revision);
+        }
+        return commitId;
+    }
+
+    /**
+     * Returns true if {@code revision} resolves to an object in {@code repository}.
+     */
+    private static boolean isResolvable(Repository repository, String revision) {
+        try {
+            return repository.resolve(revision) != null;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if blame results in {@code repository} are the same with JGit as with the git command line, which
+     * is not the case if a mailmap or a list of commits to ignore in blame is configured, or if the diffs that blame
+     * is based on are computed differently by git, as with another diff algorithm or diff attributes.
+     */
+    boolean isBlameSupported(Repository repository) {
+        Config config = repository.getConfig();
+        String mailmapBlob = config.getString(MAILMAP_CONFIG_SECTION, null, "blob");
+        boolean hasMailmap = config.getString(MAILMAP_CONFIG_SECTION, null, "file") != null
+                || (mailmapBlob != null && isResolvable(repository, mailmapBlob))
+                || (!repository.isBare() && new File(repository.getWorkTree(), MAILMAP_FILE_NAME).exists());
+        boolean hasIgnoredRevisions = config.getString(BLAME_CONFIG_SECTION, null, "ignoreRevsFile") != null;
+        String algorithm = config.getString(DIFF_CONFIG_SECTION, null, ALGORITHM_CONFIG_NAME);
+        boolean hasOtherAlgorithm = algorithm != null && !MYERS_ALGORITHM_NAMES.contains(algorithm.toLowerCase());
+        return !hasMailmap && !hasIgnoredRevisions && !hasOtherAlgorithm && !hasTextConversion(config)
+                && !hasDiffAttributes(repository);
+    }
+
+    /**
+     * Returns true if diffs in {@code repository} are the same with JGit as with the git command line, which is not
+     * the case if any diff option other than the indent heuristic is configured, or if any diff attributes are set.
+     */
+    boolean isDiffSupported(Repository repository) {
+        Set<String> diffOptions = repository.getConfig().getNames(DIFF_CONFIG_SECTION);
+        boolean hasOtherOptions = diffOptions.stream()
+                .anyMatch(name -> !name.equalsIgnoreCase(INDENT_HEURISTIC_CONFIG_NAME));
+        return !hasOtherOptions && !hasTextConversion(repository.getConfig()) && !hasDiffAttributes(repository);
+    }
+
+    /**
+     * Returns true if a command to convert files to text before they are diffed is configured in {@code config}.
+     */
+    private static boolean hasTextConversion(Config config) {
+        return config.getSubsections(DIFF_CONFIG_SECTION).stream()
+                .anyMatch(driver -> config.getString(DIFF_CONFIG_SECTION, driver, TEXTCONV_CONFIG_NAME) != null);
+    }
+
+    /**
+     * Returns true if any attributes file of {@code repository} sets a diff driver, marks files as binary, or defines
+     * attribute macros, which may do either.
+     * The attributes files in the working tree are those in the index, as git reads them in a bare repository too.
+     * The result is read once for each repository.
+     */
+    private boolean hasDiffAttributes(Repository repository) {
+        return diffAttributes.computeIfAbsent(repository, CliGitBackend::readHasDiffAttributes);
+    }
+
+    private static boolean readHasDiffAttributes(Repository repository) {
+        try {
+            List<AttributesNode> nodes = new ArrayList<>();
+            AttributesNodeProvider provider = repository.createAttributesNodeProvider();
+            nodes.add(provider.getInfoAttributesNode());
+            nodes.add(provider.getGlobalAttributesNode());
+            nodes.add(parseAttributes(getDefaultGlobalAttributesFile()));
+            DirCache index = repository.readDirCache();
+            for (int i = 0; i < index.getEntryCount(); i++) {
+                DirCacheEntry entry = index.getEntry(i);
+                String path = entry.getPathString();
+                if (path.equals(ATTRIBUTES_FILE_NAME) || path.endsWith("/" + ATTRIBUTES_FILE_NAME)) {
+                    try (InputStream input = repository.open(entry.getObjectId(), Constants.OBJ_BLOB).openStream()) {
+                        nodes.add(parseAttributes(input));
+                    }
+                }
+            }
+            return nodes.stream()
+                    .filter(Objects::nonNull)
+                    .flatMap(node -> node.getRules().stream())
+                    .anyMatch(CliGitBackend::isDiffAttributesRule);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to read the attributes of " + repository.getDirectory(), e);
+            return true;
+        }
+    }
+
+    private static boolean isDiffAttributesRule(AttributesRule rule) {
+        return rule.getPattern().startsWith(ATTRIBUTE_MACRO_PREFIX)
+                || rule.getAttributes().stream().map(Attribute::getKey).anyMatch(DIFF_ATTRIBUTE_KEYS::contains);
+    }
+
+    /**
+     * Returns the attributes file that git reads when "core.attributesFile" is not set, or null if it does not exist.
+     */
+    private static Path getDefaultGlobalAttributesFile() {
+        String configHome = SystemReader.getInstance().getenv("XDG_CONFIG_HOME");
+        Path file = (configHome != null && !configHome.isEmpty())
+                ? Paths.get(configHome, "git", "attributes")
+                : Paths.get(FS.DETECTED.userHome().getPath(), ".config", "git", "attributes");
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private static AttributesNode parseAttributes(Path file) throws IOException {
+        if (file == null) {
+            return null;
+        }
+        try (InputStream input = Files.newInputStream(file)) {
+            return parseAttributes(input);
+        }
+    }
+
+    private static AttributesNode parseAttributes(InputStream input) throws IOException {
+        AttributesNode node = new AttributesNode();
+        node.parse(input);
+        return node;
+    }
+
+    /**
+     * Returns true if git slides the changes in diffs of {@code repository} with the indent heuristic, which it does
+     * unless "diff.indentHeuristic" is turned off.
+     */
+    static boolean isIndentHeuristicUsed(Repository repository) {
+        return repository.getConfig().getBoolean(DIFF_CONFIG_SECTION, null, INDENT_HEURISTIC_CONFIG_NAME, true);
+    }
+
+    /**
+     * Returns the algorithm that "git blame" diffs the files of {@code repository} with, ignoring whitespace changes
+     * if {@code isWhitespaceIgnored}.
+     */
+    static XdiffAlgorithm getBlameAlgorithm(Repository repository, boolean isWhitespaceIgnored) {
+        return XdiffAlgorithm.forBlame(isWhitespaceIgnored, isIndentHeuristicUsed(repository));
+    }
+
+    /**
+     * Returns the repository at {@code root}, opened with JGit the first time it is needed and kept open until it is
+     * closed.
+     */
+    Repository getRepository(String root) {
+        return repositories.computeIfAbsent(toKey(root), key -> {
+            File gitDirectory = RepositoryCache.FileKey.resolve(key.toFile(), FS.DETECTED);
+            if (gitDirectory == null) {
+                throw new RuntimeException(String.format(MESSAGE_REPO_NOT_FOUND, root));
+            }
+            try {
+                return new FileRepositoryBuilder().setGitDir(gitDirectory).setMustExist(true).build();
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+        });
+    }
+
+    private static Path toKey(String root) {
+        return Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    static String toGitPath(String fileDirectory) {
+        return fileDirectory.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Formats {@code offsetMinutes} from UTC in the format of git, such as "+0800".
+     */
+    private static String formatTimeZone(int offsetMinutes) {
+        int absoluteOffset = Math.abs(offsetMinutes);
+        return String.format("%c%02d%02d", offsetMinutes < 0 ? '-' : '+', absoluteOffset / 60, absoluteOffset % 60);
+    }
+
+    /**
+     * The blame results prepared for the files of a repository, keyed by their paths, with the commit that their
+     * history was blamed from.
+     */
+    private static class PreparedBlame {
+        private final String sinceCommitHash;
+        private final Map<String, HistoryBlame.Result> results;
+
+        PreparedBlame(String sinceCommitHash, Map<String, HistoryBlame.Result> results) {
+            this.sinceCommitHash = sinceCommitHash;
+            this.results = new ConcurrentHashMap<>(results);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package reposense.git;
+
+import static reposense.system.CommandRunner.runCommandForEachLine;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import reposense.git.model.GitObject;
+
+/**
+ * Holds the topology and dates of all the commits reachable from any ref of a repository in memory, so that parent
+ * lookups, date cut-offs and commit range expansions do not need to run git.
+ * The graph is built once per repository from a single "git rev-list" run, and is stored in primitive arrays
+ * indexed by the position of each commit in the output of "git rev-list".
+ */
+public class CommitGraph {
+    public static final int NOT_FOUND = -1;
+
+    private static final int HASH_NUM_BYTES = 20;
+    private static final int HASH_NUM_HEX_DIGITS = 2 * HASH_NUM_BYTES;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final String COMMIT_LINE_PREFIX = "commit ";
+    private static final String COMMIT_PEEL_SUFFIX = "^{commit}";
+    private static final Pattern HEX_PATTERN = Pattern.compile("^[0-9a-f]+$");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final Map<Path, CommitGraph> GRAPHS = new ConcurrentHashMap<>();
+
+    private final String root;
+    // the hash of commit i is stored in bytes [i * HASH_NUM_BYTES, (i + 1) * HASH_NUM_BYTES)
+    private final byte[] hashes;
+    // the indices of all commits, ordered by their hashes
+    private final int[] sortedIndices;
+    // the parents of commit i are stored in parentIndices[parentOffsets[i]] to parentIndices[parentOffsets[i + 1] - 1]
+    private final int[] parentOffsets;
+    private final int[] parentIndices;
+    private final long[] authorTimes;
+    private final long[] commitTimes;
+
+    private CommitGraph(String root, byte[] hashes, int[] sortedIndices, int[] parentOffsets, int[] parentIndices,
+            long[] authorTimes, long[] commitTimes) {
+        this.root = root;
+        this.hashes = hashes;
+        this.sortedIndices = sortedIndices;
+        this.parentOffsets = parentOffsets;
+        this.parentIndices = parentIndices;
+        this.authorTimes = authorTimes;
+        this.commitTimes = commitTimes;
+    }
+
+    /**
+     * Returns the commit graph of the repository at {@code root}, building it if it has not been built since the
+     * repository was last closed with {@link #close}.
+     *
+     * @throws RuntimeException if an error occurs while running git to build the graph.
+     */
+    public static CommitGraph of(String root) throws RuntimeException {
+        return GRAPHS.computeIfAbsent(toKey(root), key -> build(root));
+    }
+
+    /**
+     * Discards the commit graph kept for the repository at {@code root}.
+     * Should be called before the repository is deleted or replaced.
+     */
+    public static void close(String root) {
+        GRAPHS.remove(toKey(root));
+    }
+
+    /**
+     * Discards the commit graphs kept for every repository.
+     */
+    public static void closeAll() {
+        GRAPHS.clear();
+    }
+
+    private static Path toKey(String root) {
+        return Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Builds the commit graph of the repository at {@code root} from the output of "git rev-list", in which each
+     * commit is described by a line with its hash and the hashes of its parents, followed by a line with its author
+     * and committer timestamps.
+     */
+    private static CommitGraph build(String root) {
+        Builder builder = new Builder();
+        List<String> revListCommand = Arrays.asList("git", "rev-list", "--all", "--parents", "--format=%at %ct");
+        runCommandForEachLine(Paths.get(root), revListCommand, builder::addLine);
+        return builder.build(root);
+    }
+
+    public int size() {
+        return commitTimes.length;
+    }
+
+    /**
+     * Returns the index of the commit whose hash is, or starts with, {@code hash}.
+     * Returns {@link #NOT_FOUND} if there is no such commit in the graph, or if {@code hash} is an ambiguous prefix.
+     */
+    public int indexOf(String hash) {
+        String prefix = hash.trim().toLowerCase();
+        if (prefix.isEmpty() || prefix.length() > HASH_NUM_HEX_DIGITS || !HEX_PATTERN.matcher(prefix).matches()) {
+            return NOT_FOUND;
+        }
+
+        int low = 0;
+        int high = sortedIndices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(sortedIndices[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (low == sortedIndices.length || compareToPrefix(sortedIndices[low], prefix) != 0) {
+            return NOT_FOUND;
+        }
+        if (low + 1 < sortedIndices.length && compareToPrefix(sortedIndices[low + 1], prefix) == 0) {
+            return NOT_FOUND;
+        }
+        return sortedIndices[low];
+    }
+
+    /**
+     * Returns the index of the commit that {@code ref} resolves to, where {@code ref} is either a commit hash, or a
+     * ref such as a branch name. Returns {@link #NOT_FOUND} if there is no such commit in the graph.
+     */
+    public int indexOfRef(String ref) {
+        int index = indexOf(ref);
+        if (index != NOT_FOUND) {
+            return index;
+        }
+
+        try {
+            return GitCatFileBatch.getObjectInfo(root, ref.trim() + COMMIT_PEEL_SUFFIX)
+                    .map(GitObject::getHash)
+                    .map(this::indexOf)
+                    .orElse(NOT_FOUND);
+        } catch (RuntimeException re) {
+            return NOT_FOUND;
+        }
+    }
+
+    public String getHash(int index) {
+        char[] hex = new char[HASH_NUM_HEX_DIGITS];
+        int offset = index * HASH_NUM_BYTES;
+        for (int i = 0; i < HASH_NUM_BYTES; i++) {
+            int b = hashes[offset + i] & 0xff;
+            hex[2 * i] = HEX_DIGITS[b >>> 4];
+            hex[2 * i + 1] = HEX_DIGITS[b & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Returns the indices of the parents of the commit at {@code index}, in order. Parents that are missing from the
+     * repository, such as those beyond the boundary of a shallow clone, are omitted.
+     */
+    public int[] getParents(int index) {
+        return Arrays.copyOfRange(parentIndices, parentOffsets[index], parentOffsets[index + 1]);
+    }
+
+    /**
+     * Returns the author timestamp of the commit at {@code index}, in seconds since the epoch.
+     */
+    public long getAuthorTime(int index) {
+        return authorTimes[index];
+    }
+
+    /**
+     * Returns the committer timestamp of the commit at {@code index}, in seconds since the epoch.
+     */
+    public long getCommitTime(int index) {
+        return commitTimes[index];
+    }
+
+    /**
+     * Returns the index of the first commit reachable from the commit at {@code tip} that was committed at or before
+     * {@code untilEpochSecond}, in the order that "git rev-list -1 --until" would find it.
+     * Returns {@link #NOT_FOUND} if there is no such commit.
+     */
+    public int getLatestCommitUntil(int tip, long untilEpochSecond) {
+        PriorityQueue<Integer> queue = createWalkQueue();
+        BitSet isSeen = new BitSet(size());
+        queue.add(tip);
+        isSeen.set(tip);
+
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            if (commitTimes[index] <= untilEpochSecond) {
+                return index;
+            }
+            for (int i = parentOffsets[index]; i < parentOffsets[index + 1]; i++) {
+                if (!isSeen.get(parentIndices[i])) {
+                    isSeen.set(parentIndices[i]);
+                    queue.add(parentIndices[i]);
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the commit times, in ascending order, that split the commits reachable from the commit at {@code tip}
+     * and committed from {@code sinceEpochSecond} to {@code untilEpochSecond}, both inclusive, into at most
+     * {@code maxNumParts} parts of about the same number of commits, each with at least {@code minNumCommitsPerPart}
+     * commits. Each part other than the first starts at one of the times, and ends right before the next one.
+     * A time is left out if "git log --since" at that time would not find some of the commits committed at or after
+     * it that it finds from an earlier time, as is the case when a commit committed before the time has a parent
+     * committed at or after it, since git stops walking the history at a commit committed before the since date.
+     */
+    public long[] getPartitionTimes(int tip, long sinceEpochSecond, long untilEpochSecond, int maxNumParts,
+            int minNumCommitsPerPart) {
+        BitSet ancestors = getAncestors(tip);
+        List<Long> times = new ArrayList<>();
+        // the commit times from which a parent committed later than its child is reached, as (child, parent] ranges
+        List<long[]> skewedRanges = new ArrayList<>();
+        for (int index = ancestors.nextSetBit(0); index >= 0; index = ancestors.nextSetBit(index + 1)) {
+            if (commitTimes[index] >= sinceEpochSecond && commitTimes[index] <= untilEpochSecond) {
+                times.add(commitTimes[index]);
+            }
+            for (int i = parentOffsets[index]; i < parentOffsets[index + 1]; i++) {
+                if (commitTimes[parentIndices[i]] > commitTimes[index]) {
+                    skewedRanges.add(new long[] {commitTimes[index], commitTimes[parentIndices[i]]});
+                }
+            }
+        }
+
+        int numParts = Math.min(maxNumParts, times.size() / Math.max(minNumCommitsPerPart, 1));
+        if (numParts < 2) {
+            return new long[0];
+        }
+
+        times.sort(null);
+        return IntStream.range(1, numParts)
+                .mapToLong(part -> times.get(part * times.size() / numParts))
+                .filter(time -> time > sinceEpochSecond)
+                .filter(time -> skewedRanges.stream().noneMatch(range -> range[0] < time && time <= range[1]))
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Returns the indices of the commits from the commits at {@code start} to {@code end}, both inclusive, starting
+     * from the newer of the two. These are the commits reachable from the newer commit but not from the older one,
+     * followed by the older commit, in the order that "git rev-list" would list them. The commits in between that are
+     * not reachable from the commit at {@code tip} are omitted, unless {@code tip} is {@link #NOT_FOUND}.
+     */
+    public List<Integer> getCommitsInRange(int start, int end, int tip) {
+        int older = start;
+        int newer = end;
+        BitSet olderAncestors = getAncestors(older);
+        if (olderAncestors.get(newer)
+                || (!getAncestors(newer).get(older) && commitTimes[older] > commitTimes[newer])) {
+            older = end;
+            newer = start;
+            olderAncestors = getAncestors(older);
+        }
+        BitSet tipAncestors = (tip == NOT_FOUND) ? null : getAncestors(tip);
+
+        List<Integer> range = new ArrayList<>();
+        PriorityQueue<Integer> queue = createWalkQueue();
+        BitSet isSeen = (BitSet) olderAncestors.clone();
+        if (!isSeen.get(newer)) {
+            queue.add(newer);
+            isSeen.set(newer);
+        }
+
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            if (index == newer || tipAncestors == null || tipAncestors.get(index)) {
+                range.add(index);
+            }
+            for (int i = parentOffsets[index]; i < parentOffsets[index + 1]; i++) {
+                if (!isSeen.get(parentIndices[i])) {
+                    isSeen.set(parentIndices[i]);
+                    queue.add(parentIndices[i]);
+                }
+            }
+        }
+
+        range.add(older);
+        return range;
+    }
+
+    /**
+     * Returns the set of indices of the commits reachable from the commit at {@code tip}, including itself.
+     */
+    public BitSet getAncestors(int tip) {
+        BitSet ancestors = new BitSet(size());
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(tip);
+        ancestors.set(tip);
+
+        while (!stack.isEmpty()) {
+            int index = stack.pop();
+            for (int i = parentOffsets[index]; i < parentOffsets[index + 1]; i++) {
+                if (!ancestors.get(parentIndices[i])) {
+                    ancestors.set(parentIndices[i]);
+                    stack.push(parentIndices[i]);
+                }
+            }
+        }
+        return ancestors;
+    }
+
+    /**
+     * Returns a queue that orders commits from the most recently committed, as git does when walking the history.
+     * Commits committed at the same time are ordered as they were listed by "git rev-list".
+     */
+    private PriorityQueue<Integer> createWalkQueue() {
+        return new PriorityQueue<>(Comparator.<Integer>comparingLong(index -> -commitTimes[index])
+                .thenComparingInt(index -> index));
+    }
+
+    /**
+     * Compares the hash of the commit at {@code index} to the hexadecimal {@code prefix}, considering only as many
+     * digits of the hash as there are in {@code prefix}.
+     */
+    private int compareToPrefix(int index, String prefix) {
+        int offset = index * HASH_NUM_BYTES;
+        for (int i = 0; i < prefix.length(); i++) {
+            int b = hashes[offset + i / 2] & 0xff;
+            int digit = (i % 2 == 0) ? b >>> 4 : b & 0xf;
+            int difference = digit - Character.digit(prefix.charAt(i), 16);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the index of the commit whose hash is stored at {@code position} of {@code hashBytes}, or
+     * {@link #NOT_FOUND} if there is no such commit in the graph.
+     */
+    private int indexOfBytes(byte[] hashBytes, int position) {
+        int offset = position * HASH_NUM_BYTES;
+        int low = 0;
+        int high = sortedIndices.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int index = sortedIndices[mid];
+            int comparison = Arrays.compareUnsigned(hashes, index * HASH_NUM_BYTES, (index + 1) * HASH_NUM_BYTES,
+                    hashBytes, offset, offset + HASH_NUM_BYTES);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return index;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Accumulates the lines of the output of "git rev-list" into growable primitive arrays.
+     */
+    private static class Builder {
+        private byte[] hashes = new byte[INITIAL_CAPACITY * HASH_NUM_BYTES];
+        private long[] authorTimes = new long[INITIAL_CAPACITY];
+        private long[] commitTimes = new long[INITIAL_CAPACITY];
+        // the number of parents of each commit, followed by the hashes of its parents, until they can be resolved
+        private int[] numParents = new int[INITIAL_CAPACITY];
+        private byte[] parentHashes = new byte[INITIAL_CAPACITY * HASH_NUM_BYTES];
+        private int numCommits = 0;
+        private int numParentHashes = 0;
+
+        /**
+         * Adds a line of the output of "git rev-list", which either describes the hashes of a commit and its
+         * parents, or the timestamps of the commit described by the previous line.
+         */
+        void addLine(String line) {
+            if (!line.startsWith(COMMIT_LINE_PREFIX)) {
+                String[] times = line.split(" ");
+                authorTimes[numCommits - 1] = Long.parseLong(times[0]);
+                commitTimes[numCommits - 1] = Long.parseLong(times[1]);
+                return;
+            }
+
+            ensureCommitCapacity();
+            String[] commitHashes = line.substring(COMMIT_LINE_PREFIX.length()).split(" ");
+            writeHash(commitHashes[0], hashes, numCommits);
+            numParents[numCommits] = commitHashes.length - 1;
+            for (int i = 1; i < commitHashes.length; i++) {
+                if ((numParentHashes + 1) * HASH_NUM_BYTES > parentHashes.length) {
+                    parentHashes = Arrays.copyOf(parentHashes, 2 * parentHashes.length);
+                }
+                writeHash(commitHashes[i], parentHashes, numParentHashes++);
+            }
+            numCommits++;
+        }
+
+        /**
+         * Builds the graph of all the commits added, resolving the parent hashes of each commit to indices.
+         */
+        CommitGraph build(String root) {
+            byte[] finalHashes = Arrays.copyOf(hashes, numCommits * HASH_NUM_BYTES);
+            int[] sortedIndices = sortByHash(finalHashes, numCommits);
+            CommitGraph lookup = new CommitGraph(root, finalHashes, sortedIndices, null, null, null, null);
+
+            int[] parentOffsets = new int[numCommits + 1];
+            int[] parentIndices = new int[numParentHashes];
+            int numResolvedParents = 0;
+            int parentHashIndex = 0;
+            for (int i = 0; i < numCommits; i++) {
+                parentOffsets[i] = numResolvedParents;
+                for (int j = 0; j < numParents[i]; j++) {
+                    int parentIndex = lookup.indexOfBytes(parentHashes, parentHashIndex++);
+                    if (parentIndex != NOT_FOUND) {
+                        parentIndices[numResolvedParents++] = parentIndex;
+                    }
+                }
+            }
+            parentOffsets[numCommits] = numResolvedParents;
+
+            return new CommitGraph(root, finalHashes, sortedIndices, parentOffsets,
+                    Arrays.copyOf(parentIndices, numResolvedParents), Arrays.copyOf(authorTimes, numCommits),
+                    Arrays.copyOf(commitTimes, numCommits));
+        }
+
+        private void ensureCommitCapacity() {
+            if (numCommits < commitTimes.length) {
+                return;
+            }
+            int capacity = 2 * commitTimes.length;
+            hashes = Arrays.copyOf(hashes, capacity * HASH_NUM_BYTES);
+            authorTimes = Arrays.copyOf(authorTimes, capacity);
+            commitTimes = Arrays.copyOf(commitTimes, capacity);
+            numParents = Arrays.copyOf(numParents, capacity);
+        }
+
+        private static void writeHash(String hash, byte[] destination, int position) {
+            int offset = position * HASH_NUM_BYTES;
+            for (int i = 0; i < HASH_NUM_BYTES; i++) {
+                destination[offset + i] = (byte) ((Character.digit(hash.charAt(2 * i), 16) << 4)
+                        | Character.digit(hash.charAt(2 * i + 1), 16));
+            }
+        }
+
+        private static int[] sortByHash(byte[] hashes, int numCommits) {
+            return IntStream.range(0, numCommits)
+                    .boxed()
+                    .sorted((first, second) -> Arrays.compareUnsigned(
+                            hashes, first * HASH_NUM_BYTES, (first + 1) * HASH_NUM_BYTES,
+                            hashes, second * HASH_NUM_BYTES, (second + 1) * HASH_NUM_BYTES))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package reposense.git;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the authors of the commits that modified each of a set of files, as the commits are walked from the most
+ * recent one.
+ */
+class FileAuthorsCollector {
+    private static final String DEFAULT_EMAIL_IF_MISSING = "";
+
+    private final Set<String> filePaths;
+    private final Map<String, Map<String, String[]>> authorsByFile = new HashMap<>();
+
+    FileAuthorsCollector(Collection<String> filePaths) {
+        this.filePaths = new HashSet<>(filePaths);
+    }
+
+    /**
+     * Adds the author with {@code authorName} and {@code authorEmail} to the authors of the file at {@code filePath},
+     * unless it is not one of the files collected for, or the author has been added already.
+     */
+    void add(String filePath, String authorName, String authorEmail) {
+        if (!filePaths.contains(filePath)) {
+            return;
+        }
+
+        authorsByFile.computeIfAbsent(filePath, path -> new LinkedHashMap<>())
+                .putIfAbsent(authorName + '\0' + authorEmail, new String[] {authorName, authorEmail});
+    }
+
+    /**
+     * Returns the name and email of each author of each file, keyed by the path of the file, in the order that they
+     * were added. A file without any author has a single author with an empty name, as git log produces a single
+     * empty line for a file without any commits.
+     */
+    Map<String, List<String[]>> getFileAuthors() {
+        Map<String, List<String[]>> fileAuthors = new HashMap<>();
+        for (String filePath : filePaths) {
+            Map<String, String[]> authors = authorsByFile.get(filePath);
+            fileAuthors.put(filePath, authors == null
+                    ? Collections.singletonList(new String[] {"", DEFAULT_EMAIL_IF_MISSING})
+                    : new ArrayList<>(authors.values()));
+        }
+        return fileAuthors;
+    }
+}
@@ -0,0 +1,186 @@
+package reposense.git;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitBlameLineInfo;
+import reposense.git.model.LineRange;
+import reposense.model.CommitHash;
+import reposense.model.RepoConfiguration;
+
+/**
+ * Runs the git operations needed to analyze a repository.
+ * Every implementation must produce the same results, in the same formats, as the git command line, so that the
+ * results can be parsed in the same way regardless of the implementation selected.
+ */
+public interface GitBackend {
+    /**
+     * Streams the blame result for the lines in {@code lineRanges} of the {@code fileDirectory} at HEAD of the
+     * repository at {@code root}, or for every line if {@code lineRanges} is empty, ignoring whitespace changes, to
+     * {@code lineConsumer} line by line, in the format of "git blame --porcelain" without the lines of the commit
+     * details that are not needed. Each blamed line of the file is described by a line of the commit hash followed
+     * by the line numbers. The first time that a line is attributed to a commit, this is followed by the lines of its
+     * author name, author email, author time and author timezone, and the line "boundary" if it is a boundary commit.
+     * The record of each blamed line ends with a line of its content, prefixed by a tab.
+     * The history is blamed from {@code sinceCommitHash}, exclusive, or from the root commits if it is empty. A line
+     * that was last changed at or before it is attributed to a boundary commit.
+     * The result can be parsed with {@link GitBlameParser}.
+     *
+     * @throws RuntimeException if the file cannot be blamed.
+     */
+    void blame(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer);
+
+    /**
+     * Streams the blame result for the lines in {@code lineRanges} of the {@code fileDirectory}, from
+     * {@code sinceCommitHash}, to {@code lineConsumer} in the same format as {@link #blame}, but without ignoring
+     * whitespace changes.
+     *
+     * @throws RuntimeException if the file cannot be blamed.
+     */
+    void blameFast(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer);
+
+    /**
+     * Streams the blame result for the lines in {@code lineRanges} of the {@code fileDirectory}, from
+     * {@code sinceCommitHash}, to {@code lineConsumer} in the same format as {@link #blame}, skipping the commits
+     * listed in {@link GitBlame#IGNORE_COMMIT_LIST_FILE_NAME}.
+     *
+     * @throws RuntimeException if the file cannot be blamed.
+     */
+    void blameWithPreviousAuthors(String root, String fileDirectory, List<LineRange> lineRanges,
+            String sinceCommitHash, Consumer<String> lineConsumer);
+
+    /**
+     * Prepares the blame results of the lines in the ranges given by {@code lineRangesByFile}, keyed by the path of
+     * each file, from {@code sinceCommitHash}, in the repository at {@code root} in advance, so that {@link #blame}
+     * on each of them is served without walking the history again. As in {@link #blame}, every line of a file is
+     * blamed if its ranges are empty. The results are released as each file is blamed, or when the repository is
+     * closed.
+     * Implementations that blame each file on its own may do nothing.
+     */
+    void prepareBlame(String root, Map<String, List<LineRange>> lineRangesByFile, String sinceCommitHash);
+
+    /**
+     * Returns the blame result for each of {@code lineNumbers} (1-indexed) of {@code fileDirectory} at
+     * {@code commitHash}, ignoring whitespace changes, keyed by the line number. The history of the file is walked
+     * once for all of the lines.
+     *
+     * @throws RuntimeException if any of the lines cannot be blamed.
+     */
+    Map<Integer, GitBlameLineInfo> blameLines(String root, String commitHash, String fileDirectory,
+            Collection<Integer> lineNumbers);
+
+    /**
+     * Streams the commit log info of all authors, with the files changed other than those matching
+     * {@code ignoreGlobList}, in the repository specified in {@code config}, to {@code tokenConsumer} token by token,
+     * in the format of {@link GitLog#getWithFiles}.
+     */
+    void getLogWithFiles(RepoConfiguration config, List<String> ignoreGlobList, Consumer<String> tokenConsumer);
+
+    /**
+     * Streams the commit log info of all authors as {@link #getLogWithFiles(RepoConfiguration, List, Consumer)}
+     * does, but for the commits committed from {@code sinceDate} to {@code untilDate}, both inclusive, rather than
+     * within the date range of {@code config}. The range is left open at either end that is null.
+     */
+    void getLogWithFiles(RepoConfiguration config, ZonedDateTime sinceDate, ZonedDateTime untilDate,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer);
+
+    /**
+     * Streams the commit log info of all authors as {@link #getLogWithFiles(RepoConfiguration, List, Consumer)}
+     * does, but for the commits committed from {@code sinceDate} to {@code untilDate}, both inclusive, with every file
+     * changed, in the format of {@link GitLog#getWithAllFiles}. The range is left open at either end that is null.
+     */
+    void getLogWithAllFiles(RepoConfiguration config, ZonedDateTime sinceDate, ZonedDateTime untilDate,
+            Consumer<String> tokenConsumer);
+
+    /**
+     * Streams the commit log info of each of {@code commitHashes} that
+     * {@link #getLogWithFiles(RepoConfiguration, List, Consumer)} would include, with the files changed other than
+     * those matching {@code ignoreGlobList}, in the same format, without walking the history of the commits.
+     */
+    void getLogOfCommitsWithFiles(RepoConfiguration config, Collection<String> commitHashes,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer);
+
+    /**
+     * Streams the patch of each commit other than merge commits in the repository specified in {@code config},
+     * within its date range, to {@code lineConsumer} line by line, in the format of {@link GitLog#getWithPatches}.
+     */
+    void getLogWithPatches(RepoConfiguration config, Consumer<String> lineConsumer);
+
+    /**
+     * Returns the name and email of each author of the commits that modified each of {@code filePaths} within the
+     * date range of {@code config}, from the most recent commit, keyed by path. A merge commit is only counted for
+     * the files that it changed from all of its parents. A file without any such commit has a single author with an
+     * empty name and email.
+     */
+    Map<String, List<String[]>> getFileAuthors(RepoConfiguration config, Collection<String> filePaths);
+
+    /**
+     * Returns the parents of {@code commitHash} that are present in the repository at {@code root}, separated by
+     * spaces.
+     *
+     * @throws RuntimeException if there is no commit associated with {@code commitHash}.
+     */
+    String getParentCommits(String root, String commitHash);
+
+    /**
+     * Streams the diff of the working tree of the repository at {@code root} compared to {@code lastCommitHash},
+     * without any context, to {@code lineConsumer} line by line.
+     */
+    void diffCommit(String root, String lastCommitHash, Consumer<String> lineConsumer);
+
+    /**
+     * Returns the diff of {@code currentCommitHash} compared to its merge base with {@code baseCommitHash}, in the
+     * format of "git diff".
+     */
+    String diffCommits(String root, String baseCommitHash, String currentCommitHash);
+
+    /**
+     * Returns the paths of the files committed at HEAD in the repository at {@code root}, other than submodules.
+     */
+    List<String> getFilePaths(String root);
+
+    /**
+     * Returns the paths in {@code filePaths} of the files committed at HEAD in the repository at {@code root} that
+     * are binary files.
+     */
+    Set<String> getBinaryFilePaths(String root, Collection<String> filePaths);
+
+    /**
+     * Returns the latest commit hash at {@code branchName} before {@code date} in {@code zoneId}, followed by a
+     * newline, or an empty {@code String} if {@code date} is null or there is no such commit.
+     */
+    String getCommitHashUntilDate(String root, String branchName, LocalDateTime date, ZoneId zoneId);
+
+    /**
+     * Returns the commit hashes at {@code branchName} within the range of {@code startHash} and {@code endHash},
+     * both inclusive, separated by newlines.
+     */
+    String getCommitHashInRange(String root, String branchName, String startHash, String endHash);
+
+    /**
+     * Returns the expanded form of the {@link CommitHash} associated with {@code shortCommitHash}.
+     *
+     * @throws CommitNotFoundException if there is no commit associated with {@code shortCommitHash}.
+     */
+    CommitHash getExpandedCommitHash(String root, String shortCommitHash) throws CommitNotFoundException;
+
+    /**
+     * Releases the resources kept for the repository at {@code root}.
+     * Should be called before the repository is deleted or replaced.
+     */
+    void close(String root);
+
+    /**
+     * Releases the resources kept for every repository.
+     */
+    void closeAll();
+}
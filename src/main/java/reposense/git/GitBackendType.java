@@ -0,0 +1,9 @@
+package reposense.git;
+
+/**
+ * Represents the implementations of {@link GitBackend} that can be selected to run the git operations.
+ */
+public enum GitBackendType {
+    CLI,
+    JGIT
+}
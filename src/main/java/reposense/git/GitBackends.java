@@ -0,0 +1,21 @@
+package reposense.git;
+
+/**
+ * Holds the {@link GitBackend} selected to run the git operations needed to analyze the repositories.
+ */
+public class GitBackends {
+    private static GitBackend current = new CliGitBackend();
+
+    public static synchronized GitBackend get() {
+        return current;
+    }
+
+    /**
+     * Selects the {@link GitBackend} of {@code type} to run the git operations from now on, releasing the resources
+     * kept by the previously selected one.
+     */
+    public static synchronized void set(GitBackendType type) {
+        current.closeAll();
+        current = (type == GitBackendType.JGIT) ? new JGitBackend() : new CliGitBackend();
+    }
+}
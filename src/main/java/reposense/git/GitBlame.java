@@ -1,13 +1,23 @@
 package reposense.git;
 
-import static reposense.system.CommandRunner.runCommand;
-import static reposense.util.StringsUtil.addQuotesForFilePath;
+import static reposense.system.CommandRunner.runCommandForEachLine;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import reposense.git.model.GitBlameLineInfo;
-import reposense.util.StringsUtil;
+import reposense.git.model.LineRange;
 
 /**
  * Contains git blame related functionalities.
@@ -16,6 +26,14 @@ import reposense.util.StringsUtil;
 public class GitBlame {
     public static final String IGNORE_COMMIT_LIST_FILE_NAME = ".git-blame-ignore-revs";
 
+    // the files are blamed as committed rather than as in the working tree, which checkout-free repos do not have
+    private static final String CHECKED_OUT_COMMIT_REFERENCE = "HEAD";
+
+    // beyond this, the whole file is blamed instead, so that the command stays within the command line length limits
+    private static final int MAX_LINE_RANGES = 500;
+
+    private static final String CONTENT_LINE_PREFIX = "\t";
+
     private static final String COMMIT_HASH_REGEX = "(^[0-9a-f]{40} .*)";
     private static final String AUTHOR_NAME_REGEX = "(^author .*)";
     private static final String AUTHOR_EMAIL_REGEX = "(^author-mail .*)";
@@ -24,23 +42,61 @@ public class GitBlame {
     private static final String COMMIT_TIME_REGEX = "(^committer-time .*)";
     private static final String COMBINATION_REGEX = COMMIT_HASH_REGEX + "|" + AUTHOR_NAME_REGEX + "|"
             + AUTHOR_EMAIL_REGEX + "|" + AUTHOR_TIME_REGEX + "|" + AUTHOR_TIMEZONE_REGEX;
-    private static final String COMBINATION_WITH_COMMIT_TIME_REGEX = COMBINATION_REGEX + "|" + COMMIT_TIME_REGEX;
-
-    private static final int AUTHOR_NAME_OFFSET = "author ".length();
-    private static final int AUTHOR_EMAIL_OFFSET = "author-mail ".length();
-    private static final int FULL_COMMIT_HASH_LENGTH = 40;
-    private static final int COMMIT_TIME_OFFSET = "committer-time ".length();
+    private static final String BOUNDARY_REGEX = "(^boundary$)";
+    private static final Pattern COMBINATION_WITH_COMMIT_TIME_PATTERN =
+            Pattern.compile(COMBINATION_REGEX + "|" + COMMIT_TIME_REGEX);
+    private static final Pattern COMBINATION_WITH_BOUNDARY_PATTERN =
+            Pattern.compile(COMBINATION_REGEX + "|" + BOUNDARY_REGEX);
 
     /**
      * Returns the raw git blame result for the {@code fileDirectory}, performed at the {@code root} directory.
      */
     public static String blame(String root, String fileDirectory) {
+        StringBuilder blameResult = new StringBuilder();
+        blame(root, fileDirectory, line -> blameResult.append(line).append("\n"));
+        return blameResult.toString();
+    }
+
+    /**
+     * Streams the raw git blame result for the {@code fileDirectory}, performed at the {@code root} directory,
+     * to {@code lineConsumer} line by line as it is produced, in the format of {@link GitBackend#blame}.
+     */
+    public static void blame(String root, String fileDirectory, Consumer<String> lineConsumer) {
+        blame(root, fileDirectory, Collections.emptyList(), "", lineConsumer);
+    }
+
+    /**
+     * Streams the raw git blame result for the lines in {@code lineRanges} of the {@code fileDirectory}, or for every
+     * line if {@code lineRanges} is empty, in the same format as {@link #blame(String, String, Consumer)}.
+     * Only the history after {@code sinceCommitHash} is walked, or the whole history if it is empty. The lines that
+     * were last changed at or before it are attributed to a boundary commit.
+     */
+    public static void blame(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer) {
+        Path rootPath = Paths.get(root);
+
+        List<String> blameCommand = new ArrayList<>(Arrays.asList("git", "blame", "-w", "--porcelain", "--root"));
+        addLineRangeArguments(blameCommand, lineRanges);
+        blameCommand.addAll(Arrays.asList(getRevisionRange(sinceCommitHash), "--", fileDirectory));
+
+        runCommandForEachLine(rootPath, blameCommand, filterLines(lineConsumer));
+    }
+
+    /**
+     * Streams the raw git blame result for the lines in {@code lineRanges} of the {@code fileDirectory}, or for every
+     * line if {@code lineRanges} is empty, performed at the {@code root} directory, to {@code lineConsumer} in the
+     * same format as {@link #blame(String, String, List, String, Consumer)}, but without ignoring whitespace changes.
+     * This is cheaper, and is meant for files that are too slow to blame fully.
+     */
+    public static void blameFast(String root, String fileDirectory, List<LineRange> lineRanges,
+            String sinceCommitHash, Consumer<String> lineConsumer) {
         Path rootPath = Paths.get(root);
 
-        String blameCommand = "git blame -w --line-porcelain";
-        blameCommand += " " + addQuotesForFilePath(fileDirectory);
+        List<String> blameCommand = new ArrayList<>(Arrays.asList("git", "blame", "--porcelain", "--root"));
+        addLineRangeArguments(blameCommand, lineRanges);
+        blameCommand.addAll(Arrays.asList(getRevisionRange(sinceCommitHash), "--", fileDirectory));
 
-        return StringsUtil.filterText(runCommand(rootPath, blameCommand), COMBINATION_REGEX);
+        runCommandForEachLine(rootPath, blameCommand, filterLines(lineConsumer));
     }
 
     /**
@@ -48,41 +104,141 @@ public class GitBlame {
      * performed at the {@code root} directory.
      */
     public static String blameWithPreviousAuthors(String root, String fileDirectory) {
+        StringBuilder blameResult = new StringBuilder();
+        blameWithPreviousAuthors(root, fileDirectory, line -> blameResult.append(line).append("\n"));
+        return blameResult.toString();
+    }
+
+    /**
+     * Streams the raw git blame result with finding previous authors enabled for the {@code fileDirectory},
+     * performed at the {@code root} directory, to {@code lineConsumer} line by line as it is produced.
+     * The format of the lines is the same as {@link #blame(String, String, Consumer)}.
+     */
+    public static void blameWithPreviousAuthors(String root, String fileDirectory, Consumer<String> lineConsumer) {
+        blameWithPreviousAuthors(root, fileDirectory, Collections.emptyList(), "", lineConsumer);
+    }
+
+    /**
+     * Streams the raw git blame result with finding previous authors enabled for the lines in {@code lineRanges} of
+     * the {@code fileDirectory}, or for every line if {@code lineRanges} is empty, over the history after
+     * {@code sinceCommitHash}, or the whole history if it is empty, performed at the {@code root} directory, to
+     * {@code lineConsumer} in the same format as {@link #blame(String, String, List, String, Consumer)}.
+     */
+    public static void blameWithPreviousAuthors(String root, String fileDirectory, List<LineRange> lineRanges,
+            String sinceCommitHash, Consumer<String> lineConsumer) {
         Path rootPath = Paths.get(root);
 
-        String blameCommandWithFindingPreviousAuthors = "git blame -w --line-porcelain --ignore-revs-file";
-        blameCommandWithFindingPreviousAuthors += " " + addQuotesForFilePath(IGNORE_COMMIT_LIST_FILE_NAME);
-        blameCommandWithFindingPreviousAuthors += " " + addQuotesForFilePath(fileDirectory);
+        List<String> blameCommandWithFindingPreviousAuthors = new ArrayList<>(Arrays.asList("git", "blame", "-w",
+                "--porcelain", "--root", "--ignore-revs-file", IGNORE_COMMIT_LIST_FILE_NAME));
+        addLineRangeArguments(blameCommandWithFindingPreviousAuthors, lineRanges);
+        blameCommandWithFindingPreviousAuthors.addAll(
+                Arrays.asList(getRevisionRange(sinceCommitHash), "--", fileDirectory));
 
-        return StringsUtil.filterText(runCommand(rootPath, blameCommandWithFindingPreviousAuthors), COMBINATION_REGEX);
+        runCommandForEachLine(rootPath, blameCommandWithFindingPreviousAuthors, filterLines(lineConsumer));
     }
 
     /**
      * Returns the git blame result for {@code lineNumber} of {@code fileDirectory} at {@code commitHash}.
      */
     public static GitBlameLineInfo blameLine(String root, String commitHash, String fileDirectory, int lineNumber) {
-        Path rootPath = Paths.get(root);
+        return blameLines(root, commitHash, fileDirectory, Collections.singletonList(lineNumber)).get(lineNumber);
+    }
 
-        String blameCommand = String.format("git blame -w --line-porcelain %s -L %d,+1 -- %s",
-                commitHash, lineNumber, fileDirectory);
+    /**
+     * Returns the git blame result for each of {@code lineNumbers} (1-indexed) of {@code fileDirectory} at
+     * {@code commitHash}, keyed by the line number. All of the lines are blamed by a single git command.
+     *
+     * @throws RuntimeException if any of the lines cannot be blamed.
+     */
+    public static Map<Integer, GitBlameLineInfo> blameLines(String root, String commitHash, String fileDirectory,
+            Collection<Integer> lineNumbers) {
+        Path rootPath = Paths.get(root);
 
-        String blameResult = StringsUtil.filterText(runCommand(rootPath, blameCommand),
-                COMBINATION_WITH_COMMIT_TIME_REGEX);
+        List<String> blameCommand = new ArrayList<>(Arrays.asList("git", "blame", "-w", "--porcelain"));
+        addLineRangeArguments(blameCommand, toLineRanges(lineNumbers));
+        blameCommand.addAll(Arrays.asList(commitHash, "--", fileDirectory));
+
+        Map<Integer, GitBlameLineInfo> lineInfos = new HashMap<>();
+        GitBlameParser<GitBlameLineInfo> blameParser = new GitBlameParser<>(commit -> new GitBlameLineInfo(
+                commit.getCommitHash(), commit.getAuthorName(), commit.getAuthorEmail(),
+                commit.getCommitterTimeSeconds()),
+                (lineInfo, lineNumber, content) -> lineInfos.put(lineNumber + 1, lineInfo));
+        runCommandForEachLine(rootPath, blameCommand, line -> {
+            if (line.startsWith(CONTENT_LINE_PREFIX) || COMBINATION_WITH_COMMIT_TIME_PATTERN.matcher(line).matches()) {
+                blameParser.accept(line);
+            }
+        });
+
+        // the whole file is blamed if there are too many ranges
+        lineInfos.keySet().retainAll(lineNumbers);
+        if (lineInfos.size() != new HashSet<>(lineNumbers).size()) {
+            throw new RuntimeException(String.format("Not all of the lines %s of %s could be blamed at %s",
+                    lineNumbers, fileDirectory, commitHash));
+        }
+        return lineInfos;
+    }
 
-        return processGitBlameResultLine(blameResult);
+    /**
+     * Returns the range of revisions from {@code sinceCommitHash}, exclusive, to the checked out commit, or just the
+     * checked out commit if {@code sinceCommitHash} is empty.
+     * As "--root" is given to git blame, only the lines that are attributed to a commit outside this range are marked
+     * as boundary lines, and not those attributed to a root commit inside it.
+     */
+    private static String getRevisionRange(String sinceCommitHash) {
+        return sinceCommitHash.isEmpty()
+                ? CHECKED_OUT_COMMIT_REFERENCE
+                : sinceCommitHash + ".." + CHECKED_OUT_COMMIT_REFERENCE;
     }
 
     /**
-     * Returns the processed result of {@code blameResult}.
+     * Adds a "-L" argument for each range in {@code lineRanges} to {@code blameCommand}, so that git blame only
+     * blames those lines. No argument is added if there are too many ranges, in which case every line is blamed.
      */
-    private static GitBlameLineInfo processGitBlameResultLine(String blameResult) {
-        String[] blameResultLines = StringsUtil.NEWLINE.split(blameResult);
+    private static void addLineRangeArguments(List<String> blameCommand, List<LineRange> lineRanges) {
+        if (lineRanges.size() > MAX_LINE_RANGES) {
+            return;
+        }
+
+        for (LineRange lineRange : lineRanges) {
+            blameCommand.add("-L");
+            blameCommand.add(lineRange.getStart() + "," + lineRange.getEnd());
+        }
+    }
 
-        String commitHash = blameResultLines[0].substring(0, FULL_COMMIT_HASH_LENGTH);
-        String authorName = blameResultLines[1].substring(AUTHOR_NAME_OFFSET);
-        String authorEmail = blameResultLines[2].substring(AUTHOR_EMAIL_OFFSET).replaceAll("[<>]", "");
-        long timestampMilliseconds = Long.parseLong(blameResultLines[5].substring(COMMIT_TIME_OFFSET));
+    /**
+     * Returns the ranges of consecutive lines that cover exactly {@code lineNumbers}, in ascending order.
+     */
+    private static List<LineRange> toLineRanges(Collection<Integer> lineNumbers) {
+        List<LineRange> lineRanges = new ArrayList<>();
+        int rangeStart = 0;
+        int rangeEnd = 0;
+        for (int lineNumber : new TreeSet<>(lineNumbers)) {
+            if (rangeEnd > 0 && lineNumber == rangeEnd + 1) {
+                rangeEnd = lineNumber;
+                continue;
+            }
+            if (rangeEnd > 0) {
+                lineRanges.add(new LineRange(rangeStart, rangeEnd));
+            }
+            rangeStart = lineNumber;
+            rangeEnd = lineNumber;
+        }
+        if (rangeEnd > 0) {
+            lineRanges.add(new LineRange(rangeStart, rangeEnd));
+        }
+        return lineRanges;
+    }
 
-        return new GitBlameLineInfo(commitHash, authorName, authorEmail, timestampMilliseconds);
+    /**
+     * Returns a line consumer that only passes the lines of the raw git blame result that are needed for authorship
+     * analysis, the lines that mark boundary commits and the content of the blamed lines, to {@code lineConsumer}.
+     */
+    private static Consumer<String> filterLines(Consumer<String> lineConsumer) {
+        return line -> {
+            // the content of each blamed line is the bulk of the result, and is told apart by its leading tab
+            if (line.startsWith(CONTENT_LINE_PREFIX) || COMBINATION_WITH_BOUNDARY_PATTERN.matcher(line).matches()) {
+                lineConsumer.accept(line);
+            }
+        };
     }
 }
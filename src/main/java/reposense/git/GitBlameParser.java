@@ -0,0 +1,122 @@
+package reposense.git;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import reposense.git.model.GitBlameCommit;
+
+/**
+ * Parses a blame result in the format of {@link GitBackend#blame} as it is streamed, line by line.
+ * The record of each blamed line ends with the line of its content. As the details of a commit are only given the
+ * first time that a line is attributed to it, each commit is processed once, and the processed commit is kept for the
+ * later lines attributed to it.
+ *
+ * @param <T> the type of a processed commit.
+ */
+public class GitBlameParser<T> implements Consumer<String> {
+    private static final String AUTHOR_PREFIX = "author";
+    private static final String AUTHOR_NAME_PREFIX = "author ";
+    private static final String AUTHOR_EMAIL_PREFIX = "author-mail ";
+    private static final String AUTHOR_TIME_PREFIX = "author-time ";
+    private static final String COMMITTER_PREFIX = "committer";
+    private static final String COMMITTER_TIME_PREFIX = "committer-time ";
+    private static final String BOUNDARY_LINE = "boundary";
+    private static final String CONTENT_PREFIX = "\t";
+    private static final int FULL_COMMIT_HASH_LENGTH = 40;
+
+    private final Function<GitBlameCommit, T> commitProcessor;
+    private final BlamedLineConsumer<T> blamedLineConsumer;
+    private final Map<String, T> processedCommits = new HashMap<>();
+
+    // the line whose record is being read
+    private String commitHash;
+    private int lineNumber;
+    private String authorName;
+    private String authorEmail;
+    private long authorTimeSeconds;
+    private long committerTimeSeconds;
+    private boolean isBoundary;
+
+    /**
+     * Creates a parser that processes each commit of the blame result with {@code commitProcessor} the first time
+     * that a line is attributed to it, and passes each blamed line, with its line number (0-indexed), its content and
+     * the processed commit it is attributed to, to {@code blamedLineConsumer}.
+     */
+    public GitBlameParser(Function<GitBlameCommit, T> commitProcessor, BlamedLineConsumer<T> blamedLineConsumer) {
+        this.commitProcessor = commitProcessor;
+        this.blamedLineConsumer = blamedLineConsumer;
+    }
+
+    @Override
+    public void accept(String line) {
+        if (line.startsWith(CONTENT_PREFIX)) {
+            finishLine(line.substring(CONTENT_PREFIX.length()));
+        } else if (line.equals(BOUNDARY_LINE)) {
+            isBoundary = true;
+        } else if (line.startsWith(AUTHOR_PREFIX) || line.startsWith(COMMITTER_PREFIX)) {
+            readCommitDetail(line);
+        } else {
+            commitHash = line.substring(0, FULL_COMMIT_HASH_LENGTH);
+            lineNumber = getBlamedLineNumber(line);
+            isBoundary = false;
+        }
+    }
+
+    /**
+     * Reads the detail of the commit of the line whose record is being read that is given by {@code detailLine}.
+     * The details that are not needed, such as the time zone of the author, are skipped.
+     */
+    private void readCommitDetail(String detailLine) {
+        if (detailLine.startsWith(AUTHOR_NAME_PREFIX)) {
+            authorName = detailLine.substring(AUTHOR_NAME_PREFIX.length());
+        } else if (detailLine.startsWith(AUTHOR_EMAIL_PREFIX)) {
+            authorEmail = detailLine.substring(AUTHOR_EMAIL_PREFIX.length()).replace("<", "").replace(">", "");
+        } else if (detailLine.startsWith(AUTHOR_TIME_PREFIX)) {
+            authorTimeSeconds = Long.parseLong(detailLine.substring(AUTHOR_TIME_PREFIX.length()));
+        } else if (detailLine.startsWith(COMMITTER_TIME_PREFIX)) {
+            committerTimeSeconds = Long.parseLong(detailLine.substring(COMMITTER_TIME_PREFIX.length()));
+        }
+    }
+
+    /**
+     * Passes the blamed line whose record is being read, with its {@code content}, to the consumer, processing its
+     * commit first if it is the first line attributed to it.
+     */
+    private void finishLine(String content) {
+        T processedCommit = processedCommits.get(commitHash);
+        if (processedCommit == null) {
+            processedCommit = commitProcessor.apply(
+                    new GitBlameCommit(commitHash, authorName, authorEmail, authorTimeSeconds,
+                    committerTimeSeconds, isBoundary));
+            processedCommits.put(commitHash, processedCommit);
+        }
+        blamedLineConsumer.accept(processedCommit, lineNumber, content);
+    }
+
+    /**
+     * Returns the line number (0-indexed) of the blamed line described by {@code headerLine}, the first line of its
+     * record, which holds the commit hash, the line number in that commit and the line number in the file.
+     */
+    private static int getBlamedLineNumber(String headerLine) {
+        int lineNumberStart = headerLine.indexOf(' ', FULL_COMMIT_HASH_LENGTH + 1) + 1;
+        int lineNumberEnd = headerLine.indexOf(' ', lineNumberStart);
+        return Integer.parseInt(headerLine.substring(lineNumberStart,
+                (lineNumberEnd < 0) ? headerLine.length() : lineNumberEnd)) - 1;
+    }
+
+    /**
+     * Accepts each blamed line of a blame result.
+     *
+     * @param <T> the type of the processed commit that the line is attributed to.
+     */
+    @FunctionalInterface
+    public interface BlamedLineConsumer<T> {
+        /**
+         * Accepts the blamed line at {@code lineNumber} (0-indexed) with {@code content}, attributed to
+         * {@code commit}.
+         */
+        void accept(T commit, int lineNumber, String content);
+    }
+}
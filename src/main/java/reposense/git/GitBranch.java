@@ -4,6 +4,8 @@ import static reposense.system.CommandRunner.runCommand;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
 import reposense.git.exception.GitBranchException;
 import reposense.util.StringsUtil;
@@ -21,7 +23,7 @@ public class GitBranch {
      */
     public static String getCurrentBranch(String root) throws GitBranchException {
         Path rootPath = Paths.get(root);
-        String gitBranchCommand = "git branch";
+        List<String> gitBranchCommand = Arrays.asList("git", "branch");
 
         try {
             return StringsUtil.filterText(runCommand(rootPath, gitBranchCommand), "\\* (.*)").split("\\*")[1].trim();
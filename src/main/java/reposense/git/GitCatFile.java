@@ -1,16 +1,14 @@
 package reposense.git;
 
-import static reposense.system.CommandRunner.runCommand;
-
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitObject;
 import reposense.system.LogsManager;
-import reposense.util.StringsUtil;
 
 /**
  * Contains git cat file related functionalities.
@@ -20,6 +18,9 @@ public class GitCatFile {
 
     private static final Logger logger = LogsManager.getLogger(GitCatFile.class);
 
+    private static final String COMMIT_TYPE = "commit";
+    private static final String PARENT_HEADER_KEY = "parent";
+
     /**
      * Returns parent commits for the commit associated with the input {@code commitHash}.
      * The {@link Path} given by {@code root} is the working directory.
@@ -27,20 +28,17 @@ public class GitCatFile {
      * @throws CommitNotFoundException if there is no commit associated with {@code commitHash}.
      */
     public static List<String> getParentCommits(String root, String commitHash) throws CommitNotFoundException {
-        Path rootPath = Paths.get(root);
-        String catFileCommand = "git cat-file -p " + commitHash;
+        Optional<GitObject> commit;
         try {
-            String output = runCommand(rootPath, catFileCommand);
-            List<String> parentCommits = new ArrayList<>();
-            for (String line : StringsUtil.NEWLINE.split(output)) {
-                if (line.startsWith("parent")) {
-                    parentCommits.add(line.substring(7).trim());
-                }
-            }
-            return parentCommits;
+            commit = GitCatFileBatch.getObject(root, commitHash);
         } catch (RuntimeException e) {
             throw new CommitNotFoundException("Commit not found: " + commitHash);
         }
+
+        if (!commit.isPresent() || !commit.get().getType().equals(COMMIT_TYPE)) {
+            throw new CommitNotFoundException("Commit not found: " + commitHash);
+        }
+        return commit.get().getHeaderValues(PARENT_HEADER_KEY);
     }
 
     /**
@@ -0,0 +1,348 @@
+package reposense.git;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import reposense.git.model.GitObject;
+import reposense.system.CommandRunner;
+import reposense.system.InteractiveProcess;
+
+/**
+ * Contains git cat-file batch related functionalities.
+ * Keeps a pool of long-lived "git cat-file --batch" and "git cat-file --batch-check" processes for each repository,
+ * so that an object lookup costs a single pipe round-trip instead of a process spawn.
+ */
+public class GitCatFileBatch {
+    private static final int MAX_PROCESSES_PER_REPO = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final String RESPONSE_MISSING = "missing";
+    private static final String RESPONSE_AMBIGUOUS = "ambiguous";
+    private static final String MESSAGE_INVALID_REVISION = "Revision \"%s\" cannot be looked up in batch mode.";
+    private static final String MESSAGE_UNEXPECTED_RESPONSE = "Unexpected response from git cat-file: %s";
+    // the requests written to a process at a time fit in its input pipe, so that writing them never blocks on a
+    // process that is itself blocked on writing its responses
+    private static final int MAX_PIPELINED_REQUEST_BYTES = 4096;
+
+    private static final Map<Path, Pool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the object, including its content, that {@code revision} resolves to in the repository at
+     * {@code root}. Returns an empty {@link Optional} if the object is missing or {@code revision} is ambiguous.
+     *
+     * @throws RuntimeException if an error occurs while communicating with the git cat-file process.
+     */
+    public static Optional<GitObject> getObject(String root, String revision) throws RuntimeException {
+        return getPool(root).request(revision, true);
+    }
+
+    /**
+     * Passes the object, including its content, that each of {@code revisions} resolves to in the repository at
+     * {@code root} to {@code objectConsumer}, in order, as {@link #getObject} returns it. The requests are written to
+     * a single process ahead of its responses, so that the lookups do not each cost a pipe round-trip, and the
+     * content of each object is only held until it is consumed.
+     *
+     * @throws RuntimeException if an error occurs while communicating with the git cat-file process, or is thrown by
+     *     {@code objectConsumer}.
+     */
+    public static void forEachObject(String root, List<String> revisions, Consumer<Optional<GitObject>> objectConsumer)
+            throws RuntimeException {
+        getPool(root).requestAll(revisions, objectConsumer);
+    }
+
+    /**
+     * Returns the hash, type and size of the object that {@code revision} resolves to in the repository at
+     * {@code root}, without its content. Returns an empty {@link Optional} if the object is missing or
+     * {@code revision} is ambiguous.
+     *
+     * @throws RuntimeException if an error occurs while communicating with the git cat-file process.
+     */
+    public static Optional<GitObject> getObjectInfo(String root, String revision) throws RuntimeException {
+        return getPool(root).request(revision, false);
+    }
+
+    /**
+     * Terminates all the git cat-file processes kept for the repository at {@code root}.
+     * Should be called before the repository is deleted or replaced.
+     */
+    public static void close(String root) {
+        Pool pool = POOLS.remove(toKey(root));
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Terminates all the git cat-file processes kept for every repository.
+     */
+    public static void closeAll() {
+        new ArrayList<>(POOLS.keySet()).forEach(key -> close(key.toString()));
+    }
+
+    private static Pool getPool(String root) {
+        return POOLS.computeIfAbsent(toKey(root), Pool::new);
+    }
+
+    private static Path toKey(String root) {
+        return Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Holds the git cat-file processes of a single repository, for both content and info lookups.
+     */
+    private static class Pool {
+        private final Path root;
+        private final ProcessSet contentProcesses = new ProcessSet(true);
+        private final ProcessSet infoProcesses = new ProcessSet(false);
+        private volatile boolean isClosed = false;
+
+        Pool(Path root) {
+            this.root = root;
+        }
+
+        /**
+         * Borrows a process of the requested kind, sends {@code revision} to it and returns it to the pool.
+         * A process that fails, or that is returned after the pool is closed, is closed instead of being returned,
+         * which frees its slot for a new process.
+         */
+        Optional<GitObject> request(String revision, boolean isContentRequested) {
+            validateRevision(revision);
+
+            ProcessSet processes = isContentRequested ? contentProcesses : infoProcesses;
+            BatchProcess process = processes.borrow();
+            boolean isProcessUsable = false;
+            try {
+                Optional<GitObject> result = process.request(revision);
+                isProcessUsable = true;
+                return result;
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            } finally {
+                processes.giveBack(process, isProcessUsable && !isClosed);
+            }
+        }
+
+        /**
+         * Borrows a content process, sends all of {@code revisions} to it and passes the object of each to
+         * {@code objectConsumer}, in order, before returning it to the pool as {@link #request} does.
+         * The requests are written in windows of up to {@link #MAX_PIPELINED_REQUEST_BYTES} bytes, each of which is
+         * written as a whole before its responses are read.
+         */
+        void requestAll(List<String> revisions, Consumer<Optional<GitObject>> objectConsumer) {
+            revisions.forEach(Pool::validateRevision);
+
+            BatchProcess process = contentProcesses.borrow();
+            boolean isProcessUsable = false;
+            try {
+                int windowStart = 0;
+                while (windowStart < revisions.size()) {
+                    int windowEnd = windowStart;
+                    int numWindowBytes = 0;
+                    do {
+                        numWindowBytes += process.write(revisions.get(windowEnd++));
+                    } while (windowEnd < revisions.size() && numWindowBytes < MAX_PIPELINED_REQUEST_BYTES);
+                    process.flush();
+
+                    for (; windowStart < windowEnd; windowStart++) {
+                        objectConsumer.accept(process.readResponse());
+                    }
+                }
+                isProcessUsable = true;
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            } finally {
+                contentProcesses.giveBack(process, isProcessUsable && !isClosed);
+            }
+        }
+
+        private static void validateRevision(String revision) {
+            if (revision.isEmpty() || revision.contains("\n")) {
+                throw new IllegalArgumentException(String.format(MESSAGE_INVALID_REVISION, revision));
+            }
+        }
+
+        void close() {
+            isClosed = true;
+            contentProcesses.closeIdle();
+            infoProcesses.closeIdle();
+        }
+
+        /**
+         * Holds the processes of a single kind, up to {@link #MAX_PROCESSES_PER_REPO} of them at a time.
+         * Each process, idle or borrowed, holds a permit of the semaphore, so a thread that waits for a permit is
+         * woken up as soon as a process is returned or closed.
+         */
+        private class ProcessSet {
+            private final boolean isContentRequested;
+            private final Semaphore permits = new Semaphore(MAX_PROCESSES_PER_REPO);
+            private final LinkedBlockingDeque<BatchProcess> idleProcesses = new LinkedBlockingDeque<>();
+
+            ProcessSet(boolean isContentRequested) {
+                this.isContentRequested = isContentRequested;
+            }
+
+            /**
+             * Returns an idle process, or spawns a new one, waiting for another process to be returned or closed
+             * if the limit has been reached.
+             */
+            BatchProcess borrow() {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ie);
+                }
+
+                BatchProcess process = idleProcesses.pollFirst();
+                if (process != null) {
+                    return process;
+                }
+
+                boolean isSpawned = false;
+                try {
+                    process = new BatchProcess(root, isContentRequested);
+                    isSpawned = true;
+                    return process;
+                } finally {
+                    if (!isSpawned) {
+                        permits.release();
+                    }
+                }
+            }
+
+            /**
+             * Returns {@code process} to the idle processes if {@code isReusable}, or closes it otherwise.
+             */
+            void giveBack(BatchProcess process, boolean isReusable) {
+                if (isReusable) {
+                    idleProcesses.offerFirst(process);
+                } else {
+                    process.close();
+                }
+                permits.release();
+
+                // the pool may have been closed after the process was checked, but before it was made idle
+                if (isReusable && isClosed) {
+                    closeIdle();
+                }
+            }
+
+            void closeIdle() {
+                List<BatchProcess> processes = new ArrayList<>();
+                idleProcesses.drainTo(processes);
+                processes.forEach(BatchProcess::close);
+            }
+        }
+    }
+
+    /**
+     * Represents a single long-lived git cat-file process running in batch mode, spawned through
+     * {@link CommandRunner} so that it is admitted by its process budget and recorded in its telemetry.
+     */
+    private static class BatchProcess {
+        private final InteractiveProcess process;
+        private final OutputStream requests;
+        private final InputStream responses;
+        private final boolean isContentRequested;
+
+        BatchProcess(Path root, boolean isContentRequested) throws RuntimeException {
+            this.isContentRequested = isContentRequested;
+            process = CommandRunner.startInteractiveCommand(root,
+                    Arrays.asList("git", "cat-file", isContentRequested ? "--batch" : "--batch-check"));
+            requests = process.getRequests();
+            responses = process.getResponses();
+        }
+
+        /**
+         * Writes {@code revision} to the process and parses the response written back.
+         *
+         * @throws IOException if the process has terminated or responds with an unexpected format.
+         */
+        Optional<GitObject> request(String revision) throws IOException {
+            write(revision);
+            flush();
+            return readResponse();
+        }
+
+        /**
+         * Writes {@code revision} to the process without flushing it, and returns the number of bytes written.
+         */
+        int write(String revision) throws IOException {
+            byte[] request = (revision + "\n").getBytes(StandardCharsets.UTF_8);
+            requests.write(request);
+            return request.length;
+        }
+
+        void flush() throws IOException {
+            requests.flush();
+        }
+
+        /**
+         * Parses the response written back by the process to the earliest request whose response is not yet read.
+         *
+         * @throws IOException if the process has terminated or responds with an unexpected format.
+         */
+        Optional<GitObject> readResponse() throws IOException {
+            String header = readLine();
+            String[] headerParts = header.split(" ");
+            String status = headerParts[headerParts.length - 1];
+            if (status.equals(RESPONSE_MISSING) || status.equals(RESPONSE_AMBIGUOUS)) {
+                return Optional.empty();
+            }
+            if (headerParts.length != 3) {
+                throw new IOException(String.format(MESSAGE_UNEXPECTED_RESPONSE, header));
+            }
+
+            long size = Long.parseLong(headerParts[2]);
+            byte[] content = null;
+            if (isContentRequested) {
+                content = readBytes(size);
+                // each object content is followed by a newline
+                readBytes(1);
+            }
+            return Optional.of(new GitObject(headerParts[0], headerParts[1], size, content));
+        }
+
+        /**
+         * Reads a single line from the response stream, without the trailing newline.
+         */
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = responses.read()) != '\n') {
+                if (b == -1) {
+                    throw new IOException(String.format(MESSAGE_UNEXPECTED_RESPONSE, "end of stream"));
+                }
+                line.write(b);
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads exactly {@code size} bytes from the response stream.
+         */
+        private byte[] readBytes(long size) throws IOException {
+            byte[] bytes = responses.readNBytes(Math.toIntExact(size));
+            if (bytes.length != size) {
+                throw new IOException(String.format(MESSAGE_UNEXPECTED_RESPONSE, "end of stream"));
+            }
+            return bytes;
+        }
+
+        void close() {
+            process.close();
+        }
+    }
+}
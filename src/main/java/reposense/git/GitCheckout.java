@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import reposense.commits.model.CommitResult;
@@ -20,6 +21,8 @@ public class GitCheckout {
 
     private static final Logger logger = LogsManager.getLogger(GitCheckout.class);
 
+    private static final String BRANCH_REF_PREFIX = "refs/heads/";
+
     public static void checkoutRecentBranch(String root) {
         checkout(root, "-");
     }
@@ -28,6 +31,18 @@ public class GitCheckout {
         checkout(root, branch);
     }
 
+    /**
+     * Switches to {@code branch} like {@link #checkoutBranch}, but without writing the files of the branch to the
+     * working tree. Only the index is updated, so that git still reads the attributes of the files from it.
+     * The {@link Path} given by {@code root} is the working directory.
+     */
+    public static void checkoutBranchWithoutFiles(String root, String branch) {
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, Arrays.asList("git", "symbolic-ref", "HEAD", BRANCH_REF_PREFIX + branch));
+        runCommand(rootPath, Arrays.asList("git", "read-tree", "HEAD"));
+        GitLsTree.close(root);
+    }
+
     /**
      * Checkouts to the hash revision given in the {@code commit}.
      * The {@link Path} given by {@code root} is the working directory.
@@ -43,7 +58,8 @@ public class GitCheckout {
      */
     public static void checkout(String root, String hash) {
         Path rootPath = Paths.get(root);
-        runCommand(rootPath, "git checkout " + hash);
+        runCommand(rootPath, Arrays.asList("git", "checkout", hash));
+        GitLsTree.close(root);
     }
 
     /**
@@ -59,13 +75,42 @@ public class GitCheckout {
             return;
         }
 
+        checkout(root, getCommitHashUntilDate(root, branchName, untilDate, zoneId));
+    }
+
+    /**
+     * Switches to the latest commit before {@code untilDate} like {@link #checkoutDate}, but without writing the files
+     * of the commit to the working tree. Only HEAD and the index are updated.
+     * The {@link Path} given by {@code root} is the working directory.
+     *
+     * @throws CommitNotFoundException if commits before {@code untilDate} cannot be found.
+     */
+    public static void checkoutDateWithoutFiles(String root, String branchName, LocalDateTime untilDate,
+            ZoneId zoneId) throws CommitNotFoundException {
+        if (untilDate == null) {
+            return;
+        }
+
+        String hash = getCommitHashUntilDate(root, branchName, untilDate, zoneId);
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, Arrays.asList("git", "update-ref", "--no-deref", "HEAD", hash));
+        runCommand(rootPath, Arrays.asList("git", "read-tree", hash));
+        GitLsTree.close(root);
+    }
+
+    /**
+     * Returns the hash of the latest commit before {@code untilDate} in {@code branchName} branch.
+     *
+     * @throws CommitNotFoundException if commits before {@code untilDate} cannot be found.
+     */
+    private static String getCommitHashUntilDate(String root, String branchName, LocalDateTime untilDate,
+            ZoneId zoneId) throws CommitNotFoundException {
         String hash = GitRevList.getCommitHashUntilDate(root, branchName, untilDate, zoneId);
         if (hash.isEmpty()) {
             throw new CommitNotFoundException("Commit before until date is not found.");
         }
 
-        Path rootPath = Paths.get(root);
-        String checkoutCommand = "git checkout " + hash;
-        runCommand(rootPath, checkoutCommand);
+        // result from git rev-list has a newline at the end
+        return hash.trim();
     }
 }
@@ -1,22 +1,23 @@
 package reposense.git;
 
 import static reposense.system.CommandRunner.runCommand;
-import static reposense.util.StringsUtil.addQuotes;
-import static reposense.util.StringsUtil.addQuotesForFilePath;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import reposense.git.exception.GitCloneException;
 import reposense.model.RepoConfiguration;
 import reposense.system.CommandRunner;
-import reposense.system.CommandRunnerProcess;
 import reposense.system.LogsManager;
+import reposense.system.ProcessResult;
 import reposense.util.FileUtil;
 import reposense.util.SystemUtil;
 
@@ -27,15 +28,17 @@ import reposense.util.SystemUtil;
 public class GitClone {
     private static final Logger logger = LogsManager.getLogger(GitClone.class);
 
+    private static final String MAILMAP_AT_HEAD = "HEAD:.mailmap";
+
     /**
      * Runs "git clone --bare" command asynchronously with {@code rootPath} as working directory to clone a bare repo
      * specified in the {@code config} into the folder {@code outputFolderName}.
      *
-     * @return an instance of {@link CommandRunnerProcess} to allow tracking the status of the cloning process.
+     * @return a future of the {@link ProcessResult} to allow tracking the status of the cloning process.
      * @throws GitCloneException when an error occurs while attempting to clone the repo.
      */
-    public static CommandRunnerProcess cloneBareAsync(RepoConfiguration config, Path rootPath, String outputFolderName)
-            throws GitCloneException {
+    public static CompletableFuture<ProcessResult> cloneBareAsync(RepoConfiguration config, Path rootPath,
+            String outputFolderName) throws GitCloneException {
         try {
             return CommandRunner.runCommandAsync(rootPath, getCloneBareCommand(config, outputFolderName));
         } catch (RuntimeException rte) {
@@ -48,10 +51,10 @@ public class GitClone {
      * to clone a bare repo specified in the {@code config} into the folder {@code outputFolderName}.
      * Uses {@code sinceDate} for the "--shallow-since=" flag.
      *
-     * @return an instance of {@link CommandRunnerProcess} to allow tracking the status of the cloning process.
+     * @return a future of the {@link ProcessResult} to allow tracking the status of the cloning process.
      * @throws GitCloneException when an error occurs while attempting to clone the repo.
      */
-    public static CommandRunnerProcess cloneShallowBareAsync(RepoConfiguration config, Path rootPath,
+    public static CompletableFuture<ProcessResult> cloneShallowBareAsync(RepoConfiguration config, Path rootPath,
             String outputFolderName, LocalDateTime sinceDate) throws GitCloneException {
         try {
             return CommandRunner.runCommandAsync(rootPath,
@@ -97,7 +100,7 @@ public class GitClone {
     /**
      * Performs a full clone with {@code rootPath} as working directory relative to the location of the bare repo
      * version of {@code config} into the folder {@code outputFolderName} and checks out the branch specified in
-     * {@code config}.
+     * {@code config}. If {@code config} is checkout-free, the files of the branch are not written to the working tree.
      *
      * @throws GitCloneException when an error occurs while attempting to clone the repo.
      * @throws IOException if it fails to delete a directory.
@@ -111,14 +114,23 @@ public class GitClone {
         if (!SystemUtil.isTestEnvironment()) {
             FileUtil.deleteDirectory(outputFolderPath.toString());
         } else if (SystemUtil.isTestEnvironment() && Files.exists(outputFolderPath)) {
-            GitCheckout.checkoutBranch(outputFolderPath.toString(), config.getBranch());
+            if (config.isCheckoutFree()) {
+                GitCheckout.checkoutBranchWithoutFiles(outputFolderPath.toString(), config.getBranch());
+            } else {
+                GitCheckout.checkoutBranch(outputFolderPath.toString(), config.getBranch());
+            }
             return;
         }
 
-        String command = getCloneBareAndBranchCommand(relativePath, config, outputFolderPath.toString());
+        List<String> command = getCloneBareAndBranchCommand(relativePath, config, outputFolderPath.toString());
 
         try {
             runCommand(rootPath, command);
+            if (config.isCheckoutFree()) {
+                // git reads the mailmap from the working tree, unless told to read it from a commit as in bare repos
+                runCommand(outputFolderPath, Arrays.asList("git", "config", "mailmap.blob", MAILMAP_AT_HEAD));
+                GitCheckout.checkoutBranchWithoutFiles(outputFolderPath.toString(), config.getBranch());
+            }
         } catch (RuntimeException rte) {
             logger.log(Level.SEVERE, "Exception met while cloning or checking out " + config.getDisplayName() + "."
                     + "Analysis terminated.", rte);
@@ -131,11 +143,8 @@ public class GitClone {
      * Constructs the command to clone a bare repo specified in the {@code config}
      * into the folder {@code outputFolderName}.
      */
-    private static String getCloneBareCommand(RepoConfiguration config, String outputFolderName) {
-        String output = "git clone --bare "
-                + addQuotesForFilePath(config.getLocation().toString()) + " "
-                + addQuotesForFilePath(outputFolderName);
-        return output;
+    private static List<String> getCloneBareCommand(RepoConfiguration config, String outputFolderName) {
+        return Arrays.asList("git", "clone", "--bare", config.getLocation().toString(), outputFolderName);
     }
 
     /**
@@ -147,45 +156,41 @@ public class GitClone {
      * @param outputFolderName Output directory for the cloned repo.
      * @return Command to be used.
      */
-    private static String getCloneBareAndBranchCommand(Path repoPath, RepoConfiguration config,
+    private static List<String> getCloneBareAndBranchCommand(Path repoPath, RepoConfiguration config,
             String outputFolderName) {
-        return "git clone "
-                + addQuotesForFilePath(repoPath.toString())
-                + " --branch " + config.getBranch()
-                + " " + addQuotesForFilePath(outputFolderName);
+        if (config.isCheckoutFree()) {
+            return Arrays.asList("git", "clone", "--no-checkout", repoPath.toString(), "--branch", config.getBranch(),
+                    outputFolderName);
+        }
+        return Arrays.asList("git", "clone", repoPath.toString(), "--branch", config.getBranch(), outputFolderName);
     }
 
     /**
      * Constructs the command to shallow clone a bare repo specified in the {@code config}
      * with {@code shallowSinceDate} into the folder {@code outputFolderName}.
      */
-    private static String getCloneShallowBareCommand(RepoConfiguration config, String outputFolderName,
+    private static List<String> getCloneShallowBareCommand(RepoConfiguration config, String outputFolderName,
             LocalDateTime shallowSinceDate) {
-        return "git clone --bare --shallow-since="
-                + addQuotes(shallowSinceDate.toString()) + " "
-                + addQuotesForFilePath(config.getLocation().toString()) + " "
-                + addQuotesForFilePath(outputFolderName);
+        return Arrays.asList("git", "clone", "--bare", "--shallow-since=" + shallowSinceDate.toString(),
+                config.getLocation().toString(), outputFolderName);
     }
 
     /**
      * Constructs the command to partial clone a bare repo specified in the {@code config}
      * into the folder {@code outputFolderName}.
      */
-    private static String getClonePartialBareCommand(RepoConfiguration config, String outputFolderName) {
-        return "git clone --bare --filter=blob:none "
-                + addQuotesForFilePath(config.getLocation().toString()) + " "
-                + addQuotesForFilePath(outputFolderName);
+    private static List<String> getClonePartialBareCommand(RepoConfiguration config, String outputFolderName) {
+        return Arrays.asList("git", "clone", "--bare", "--filter=blob:none", config.getLocation().toString(),
+                outputFolderName);
     }
 
     /**
      * Constructs the command to shallow partial clone a bare repo specified in the {@code config}
      * with {@code shallowSinceDate} into the folder {@code outputFolderName}.
      */
-    private static String getCloneShallowPartialBareCommand(RepoConfiguration config, String outputFolderName,
+    private static List<String> getCloneShallowPartialBareCommand(RepoConfiguration config, String outputFolderName,
             LocalDateTime shallowSinceDate) {
-        return "git clone --bare --filter=blob:none --shallow-since="
-                + addQuotes(shallowSinceDate.toString()) + " "
-                + addQuotesForFilePath(config.getLocation().toString()) + " "
-                + addQuotesForFilePath(outputFolderName);
+        return Arrays.asList("git", "clone", "--bare", "--filter=blob:none",
+                "--shallow-since=" + shallowSinceDate.toString(), config.getLocation().toString(), outputFolderName);
     }
 }
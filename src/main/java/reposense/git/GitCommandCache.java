@@ -0,0 +1,253 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import reposense.git.model.GitObject;
+
+/**
+ * Memoizes the results of git queries that are pure functions of the state of a repository.
+ * Each result is keyed by the object store of the repository, the commits that the refs used by the query resolve
+ * to, and the normalized arguments of the query. Results of queries on repositories with a complete history are keyed
+ * by the resolved commits alone, so that they are shared by all the repositories in a run that contain those commits,
+ * such as the clones of the same location for different branches.
+ * The least recently used results are evicted once the cache exceeds its number of entries or its size in bytes.
+ */
+public class GitCommandCache {
+    private static final int MAX_ENTRIES = 20_000;
+    private static final long MAX_BYTES = 1L << 26; // 64MB
+    // larger results are not cached, so that a single result cannot evict most of the others
+    private static final long MAX_ENTRY_BYTES = MAX_BYTES / 16;
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    private static final Pattern FULL_COMMIT_HASH_PATTERN = Pattern.compile("^[0-9a-f]{40}$");
+    private static final String COMMIT_PEEL_SUFFIX = "^{commit}";
+    private static final String GIT_DIRECTORY = ".git";
+    private static final String OBJECTS_DIRECTORY = "objects";
+    private static final String SHALLOW_FILE = "shallow";
+    // scope of the results that are shared by all repositories with a complete history
+    private static final String SHARED_SCOPE = "";
+
+    private static final Map<Key, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long numBytes = 0;
+    private static long numHits = 0;
+    private static long numMisses = 0;
+    private static long numEvictions = 0;
+
+    /**
+     * Returns the result of the query given by {@code args} on the repository at {@code root}, computing it with
+     * {@code computation} if it has not been cached. The result must depend only on {@code args} and on the commits
+     * that {@code refs} resolve to. A null result is not cached.
+     * The result is computed without caching if any of {@code refs} cannot be resolved to a commit.
+     *
+     * @throws RuntimeException if thrown by {@code computation}, in which case nothing is cached.
+     */
+    public static <T> T getOrCompute(String root, List<String> refs, List<String> args, Supplier<T> computation)
+            throws RuntimeException {
+        Optional<Key> key = createKey(root, refs, args);
+        if (!key.isPresent()) {
+            return computation.get();
+        }
+
+        Optional<Object> cachedValue = get(key.get());
+        if (cachedValue.isPresent()) {
+            @SuppressWarnings("unchecked")
+            T value = (T) cachedValue.get();
+            return value;
+        }
+
+        T value = computation.get();
+        if (value != null) {
+            put(key.get(), value);
+        }
+        return value;
+    }
+
+    /**
+     * Discards all cached results and resets the counters.
+     */
+    public static synchronized void clear() {
+        ENTRIES.clear();
+        numBytes = 0;
+        numHits = 0;
+        numMisses = 0;
+        numEvictions = 0;
+    }
+
+    public static synchronized long getNumHits() {
+        return numHits;
+    }
+
+    public static synchronized long getNumMisses() {
+        return numMisses;
+    }
+
+    public static synchronized long getNumEvictions() {
+        return numEvictions;
+    }
+
+    private static synchronized Optional<Object> get(Key key) {
+        Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            numMisses++;
+            return Optional.empty();
+        }
+        numHits++;
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Caches {@code value} under {@code key}, then evicts the least recently used results until the cache is within
+     * its bounds.
+     */
+    private static synchronized void put(Key key, Object value) {
+        long size = estimateSize(value);
+        if (size > MAX_ENTRY_BYTES) {
+            return;
+        }
+
+        Entry previous = ENTRIES.put(key, new Entry(value, size));
+        numBytes += size - (previous == null ? 0 : previous.size);
+
+        Iterator<Entry> it = ENTRIES.values().iterator();
+        while (it.hasNext() && (ENTRIES.size() > MAX_ENTRIES || numBytes > MAX_BYTES)) {
+            numBytes -= it.next().size;
+            it.remove();
+            numEvictions++;
+        }
+    }
+
+    private static long estimateSize(Object value) {
+        if (value instanceof String) {
+            return ENTRY_OVERHEAD_BYTES + 2L * ((String) value).length();
+        }
+        return ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Creates the key of the query given by {@code args} on the repository at {@code root}, which depends on the
+     * commits that {@code refs} resolve to. Returns an empty {@link Optional} if any of {@code refs} cannot be
+     * resolved to a commit.
+     */
+    private static Optional<Key> createKey(String root, List<String> refs, List<String> args) {
+        List<String> resolvedRefs = new ArrayList<>();
+        for (String ref : refs) {
+            Optional<String> resolvedRef = resolveToCommit(root, ref);
+            if (!resolvedRef.isPresent()) {
+                return Optional.empty();
+            }
+            resolvedRefs.add(resolvedRef.get());
+        }
+
+        List<String> normalizedArgs = new ArrayList<>();
+        args.forEach(arg -> normalizedArgs.add(arg.trim()));
+        return Optional.of(new Key(getScope(root), resolvedRefs, normalizedArgs));
+    }
+
+    /**
+     * Returns the hash of the commit that {@code ref} resolves to in the repository at {@code root}.
+     * Full commit hashes are returned as they are, without looking them up.
+     */
+    private static Optional<String> resolveToCommit(String root, String ref) {
+        String trimmedRef = ref.trim();
+        if (FULL_COMMIT_HASH_PATTERN.matcher(trimmedRef).matches()) {
+            return Optional.of(trimmedRef);
+        }
+        if (trimmedRef.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return GitCatFileBatch.getObjectInfo(root, trimmedRef + COMMIT_PEEL_SUFFIX).map(GitObject::getHash);
+        } catch (RuntimeException re) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the scope of the results of queries on the repository at {@code root}.
+     * Repositories with a complete history share a single scope, as the history reachable from a commit is the same
+     * in all of them. Shallow repositories are scoped by the identity of their object store, as they may be missing
+     * part of that history.
+     */
+    private static String getScope(String root) {
+        Path gitDirectory = Paths.get(root, GIT_DIRECTORY);
+        if (!Files.isDirectory(gitDirectory)) {
+            // a bare repository
+            gitDirectory = Paths.get(root);
+        }
+
+        if (!Files.exists(gitDirectory.resolve(SHALLOW_FILE))) {
+            return SHARED_SCOPE;
+        }
+
+        Path objectsDirectory = gitDirectory.resolve(OBJECTS_DIRECTORY);
+        try {
+            return objectsDirectory.toRealPath().toString();
+        } catch (IOException ioe) {
+            return objectsDirectory.toAbsolutePath().normalize().toString();
+        }
+    }
+
+    /**
+     * Represents the key of a cached result.
+     */
+    private static class Key {
+        private final String scope;
+        private final List<String> resolvedRefs;
+        private final List<String> args;
+
+        Key(String scope, List<String> resolvedRefs, List<String> args) {
+            this.scope = scope;
+            this.resolvedRefs = Collections.unmodifiableList(resolvedRefs);
+            this.args = Collections.unmodifiableList(args);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key otherKey = (Key) other;
+            return scope.equals(otherKey.scope)
+                    && resolvedRefs.equals(otherKey.resolvedRefs)
+                    && args.equals(otherKey.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, resolvedRefs, args);
+        }
+    }
+
+    /**
+     * Represents a cached result along with its estimated size in bytes.
+     */
+    private static class Entry {
+        private final Object value;
+        private final long size;
+
+        Entry(Object value, long size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
@@ -24,7 +24,7 @@ public class GitConfig {
     public static final String FILTER_LFS_PROCESS_KEY = "filter.lfs.process";
     public static final String FILTER_LFS_PROCESS_VALUE = "git-lfs filter-process --skip";
 
-    private static final String LIST_GLOBAL_CONFIG_COMMAND = "git config --global --list";
+    private static final List<String> LIST_GLOBAL_CONFIG_COMMAND = Arrays.asList("git", "config", "--global", "--list");
 
     public static final List<String[]> SKIP_SMUDGE_CONFIG_SETTINGS = Arrays.asList(
             new String[] {FILTER_LFS_SMUDGE_KEY, FILTER_LFS_SMUDGE_VALUE},
@@ -59,8 +59,7 @@ public class GitConfig {
      * @param lfsConfigs a list of string arrays where 0-index is key and 1-index is value.
      */
     public static void setGlobalGitLfsConfig(List<String[]> lfsConfigs) {
-        String command = setGitLfsConfigCommand(lfsConfigs);
-        if (!command.equals("")) {
+        for (List<String> command : setGitLfsConfigCommands(lfsConfigs)) {
             CommandRunner.runCommand(Paths.get("."), command);
         }
     }
@@ -69,21 +68,21 @@ public class GitConfig {
      * Delete the global git lfs configuration values.
      */
     public static void deleteGlobalGitLfsConfig() {
-        String command = String.format("git config --global --unset %s && git config --global --unset %s",
-                FILTER_LFS_SMUDGE_KEY, FILTER_LFS_PROCESS_KEY);
-
-        CommandRunner.runCommand(Paths.get("."), command);
+        CommandRunner.runCommand(Paths.get("."), Arrays.asList("git", "config", "--global", "--unset",
+                FILTER_LFS_SMUDGE_KEY));
+        CommandRunner.runCommand(Paths.get("."), Arrays.asList("git", "config", "--global", "--unset",
+                FILTER_LFS_PROCESS_KEY));
     }
 
-    private static String setGitLfsConfigCommand(List<String[]> lfsConfigs) {
-        List<String> commands = new ArrayList<>();
+    private static List<List<String>> setGitLfsConfigCommands(List<String[]> lfsConfigs) {
+        List<List<String>> commands = new ArrayList<>();
         for (String[] config : lfsConfigs) {
             String key = config[0];
             String value = config.length > 1 ? config[1] : "";
-            commands.add(String.format("git config --global %s \"%s\"", key, value));
+            commands.add(Arrays.asList("git", "config", "--global", key, value));
         }
 
-        return String.join(" && ", commands);
+        return commands;
     }
 
     private static String getGitGlobalConfig() {
@@ -1,21 +1,20 @@
 package reposense.git;
 
 import static reposense.system.CommandRunner.runCommand;
+import static reposense.system.CommandRunner.runCommandForEachLine;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-
-import reposense.util.StringsUtil;
-
+import java.util.function.Consumer;
 
 /**
  * Contains git diff related functionalities.
  * Git diff is responsible for obtaining the changes between commits, commit and working tree, etc.
  */
 public class GitDiff {
-    private static final String EMPTY_TREE_HASH = "4b825dc642cb6eb9a060e54bf8d69288fbee4904";
     private static final String CHECKED_OUT_COMMIT_REFERENCE = "HEAD";
 
     /**
@@ -23,26 +22,34 @@ public class GitDiff {
      * The {@link Path} given by {@code root} is the working directory.
      */
     public static String diffCommit(String root, String lastCommitHash) {
-        Path rootPath = Paths.get(root);
-        return runCommand(rootPath, "git diff -U0 --ignore-submodules=all " + lastCommitHash);
+        StringBuilder diffResult = new StringBuilder();
+        diffCommit(root, lastCommitHash, line -> diffResult.append(line).append('\n'));
+        return diffResult.toString();
     }
 
     /**
-     * Returns a list of committed files with the corresponding number of lines added and deleted in the repo
-     * {@code repoRoot}.
+     * Passes each line of the git diff result of the current commit compared to {@code lastCommitHash}, without any
+     * context, to {@code lineConsumer} as it is produced.
+     * The {@link Path} given by {@code root} is the working directory.
      */
-    public static List<String> getModifiedFilesList(Path repoRoot) {
-        String diffCommand = String.format("git diff --ignore-submodules=all --numstat %s %s",
-                EMPTY_TREE_HASH, CHECKED_OUT_COMMIT_REFERENCE);
-        String diffResult = runCommand(repoRoot.toAbsolutePath(), diffCommand);
-        return Arrays.asList(StringsUtil.NEWLINE.split(diffResult));
+    public static void diffCommit(String root, String lastCommitHash, Consumer<String> lineConsumer) {
+        Path rootPath = Paths.get(root);
+        List<String> diffCommand = new ArrayList<>(Arrays.asList("git", "diff", "-U0", "--ignore-submodules=all"));
+        // the current commit is compared as committed rather than as in the working tree, which checkout-free repos
+        // do not have
+        diffCommand.add(lastCommitHash.trim().isEmpty() ? CHECKED_OUT_COMMIT_REFERENCE : lastCommitHash.trim());
+        diffCommand.add(CHECKED_OUT_COMMIT_REFERENCE);
+        runCommandForEachLine(rootPath, diffCommand, lineConsumer);
     }
 
     /**
      * Returns the git diff result of {@code currentCommitHash} compared to {@code baseCommitHash}.
+     * The result is cached in {@link GitCommandCache}.
      */
     public static String diffCommits(String root, String baseCommitHash, String currentCommitHash) {
         Path rootPath = Paths.get(root);
-        return runCommand(rootPath, String.format("git diff %s...%s", baseCommitHash, currentCommitHash));
+        List<String> diffCommand = Arrays.asList("git", "diff", baseCommitHash + "..." + currentCommitHash);
+        return GitCommandCache.getOrCompute(root, Arrays.asList(baseCommitHash, currentCommitHash), diffCommand,
+                () -> runCommand(rootPath, diffCommand));
     }
 }
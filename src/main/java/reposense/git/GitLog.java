@@ -1,92 +1,295 @@
 package reposense.git;
 
-import static reposense.system.CommandRunner.runCommand;
-import static reposense.util.StringsUtil.addQuotesForFilePath;
+import static reposense.system.CommandRunner.runCommandForEachLine;
+import static reposense.system.CommandRunner.runCommandForEachToken;
 
+import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import reposense.model.Author;
+import reposense.git.exception.CommitNotFoundException;
 import reposense.model.RepoConfiguration;
-import reposense.util.StringsUtil;
 
 /**
  * Contains git log related functionalities.
  * Git log is responsible to obtain the commit logs and the authors' info.
  */
 public class GitLog {
-    public static final String COMMIT_INFO_DELIMITER = "(?m)^>>>COMMIT INFO<<<\\n";
+    public static final int NUM_COMMIT_INFO_FIELDS = 8;
+    // no line of a patch can start with a NUL, so this marks the start of the patch of each commit
+    public static final String PATCH_COMMIT_MARKER = "\0";
 
-    private static final String PRETTY_FORMAT_STRING =
-            "\">>>COMMIT INFO<<<%n%H|%n|%p|%n|%aN|%n|%aE|%n|%cI|%n|%s|%n|%w(0,4,4)%b%w(0,0,0)|%n|%D|\"";
+    // the body is not indented with %w, as %w does not keep the NULs before it
+    private static final String NUL_TERMINATED_FORMAT_STRING = "%H%x00%P%x00%aN%x00%aE%x00%cI%x00%s%x00%b%x00%D%x00";
+    private static final String PATCH_FORMAT_STRING = "%x00%H %P";
+    // the NUL before each commit and the prefix of the author name tell the author name apart from the file paths
+    private static final String FILE_AUTHORS_FORMAT_STRING = "%x00" + FileAuthorsReader.AUTHOR_NAME_PREFIX
+            + "%an%x00%ae";
+    // keeps the command line of a batch of file paths or commit hashes well within the limit of Windows
+    private static final int MAX_ARGUMENTS_LENGTH_PER_COMMAND = 16000;
 
-    private static final String DEFAULT_EMAIL_IF_MISSING = "";
+    private static final List<String> PARENT_COMMITS_QUERY = Collections.singletonList("parent-commits");
 
     /**
-     * Returns the git commit log info of {@code author}, in the repository specified in {@code config}.
+     * Streams the git commit log info of all authors, with the files changed other than those matching
+     * {@code ignoreGlobList}, in the repository specified in {@code config}, to {@code tokenConsumer} as it is
+     * produced, one NUL-terminated token at a time. Merge commits are included.
+     * Each commit is made up of {@link #NUM_COMMIT_INFO_FIELDS} tokens: the hash, the parent hashes separated by
+     * spaces, the author name, the author email, the committer date, the subject, the body and the ref names. If
+     * files were changed, these are followed by the "--numstat" tokens of the files, the first of which starts with
+     * a line feed, and the tokens end with the "--shortstat" line. Otherwise, they are followed by an empty token.
+     * The "--numstat" token of a renamed file has an empty path, and is followed by the tokens of the old and new
+     * paths.
      */
-    public static String get(RepoConfiguration config, Author author) {
-        Path rootPath = Paths.get(config.getRepoRoot());
+    public static void getWithFiles(RepoConfiguration config, List<String> ignoreGlobList,
+            Consumer<String> tokenConsumer) {
+        getWithFiles(config, GitUtil.convertToGitDateRangeArgs(
+                config.getSinceDate(), config.getUntilDate(), config.getZoneId()), ignoreGlobList, tokenConsumer);
+    }
+
+    /**
+     * Streams the git commit log info of all authors as {@link #getWithFiles(RepoConfiguration, List, Consumer)}
+     * does, but for the commits committed from {@code sinceDate} to {@code untilDate}, both inclusive, rather than
+     * within the date range of {@code config}. The range is left open at either end that is null.
+     */
+    public static void getWithFiles(RepoConfiguration config, ZonedDateTime sinceDate, ZonedDateTime untilDate,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer) {
+        getWithFiles(config, GitUtil.convertToGitDateRangeArgs(sinceDate, untilDate), ignoreGlobList, tokenConsumer);
+    }
 
-        String command = "git log --full-history -i --extended-regexp ";
-        command += GitUtil.convertToGitDateRangeArgs(config.getSinceDate(), config.getUntilDate(), config.getZoneId());
-        command += " --pretty=format:" + PRETTY_FORMAT_STRING + " --shortstat";
-        command += GitUtil.convertToFilterAuthorArgs(author);
-        command += GitUtil.convertToGitFormatsArgs(config.getFileTypeManager().getFormats());
-        command += GitUtil.convertToGitExcludeGlobArgs(rootPath.toFile(), author.getIgnoreGlobList());
+    /**
+     * Streams the git commit log info of all authors as {@link #getWithFiles(RepoConfiguration, List, Consumer)}
+     * does, but for the commits committed from {@code sinceDate} to {@code untilDate}, both inclusive, with every file
+     * changed, regardless of the formats of {@code config}. The range is left open at either end that is null.
+     * Every commit is included, even if it changes no files.
+     */
+    public static void getWithAllFiles(RepoConfiguration config, ZonedDateTime sinceDate, ZonedDateTime untilDate,
+            Consumer<String> tokenConsumer) {
+        runCommandForEachToken(Paths.get(config.getRepoRoot()), getLogCommand(
+                GitUtil.convertToGitDateRangeArgs(sinceDate, untilDate), Collections.emptyList(),
+                NUL_TERMINATED_FORMAT_STRING, "-z", "--numstat", "--shortstat"), tokenConsumer);
+    }
 
-        return runCommand(rootPath, command);
+    /**
+     * Streams the git commit log info of each of {@code commitHashes} in the repository specified in {@code config}
+     * that {@link #getWithFiles(RepoConfiguration, List, Consumer)} would include, with the files changed other than
+     * those matching {@code ignoreGlobList}, in the same format, without walking the history of the commits.
+     */
+    public static void getCommitsWithFiles(RepoConfiguration config, Collection<String> commitHashes,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer) {
+        for (List<String> batch : getArgumentBatches(commitHashes)) {
+            List<String> revisionArgs = new ArrayList<>();
+            revisionArgs.add("--no-walk");
+            revisionArgs.addAll(batch);
+            getWithFiles(config, revisionArgs, ignoreGlobList, tokenConsumer);
+        }
     }
 
     /**
-     * Returns the git commit log info of {@code author}, with the files changed, in the repository specified in
-     * {@code config}. Merge commits are included.
+     * Returns a filter of the paths of the files that {@link #getWithFiles(RepoConfiguration, List, Consumer)}
+     * includes in the commit log info of the repository specified in {@code config}, if it is given
+     * {@code ignoreGlobList}, as git matches the paths against the pathspecs of its command. Returns an empty
+     * {@link Optional} if every path is included, in which case the commits are included regardless of their files.
      */
-    public static String getWithFiles(RepoConfiguration config, Author author) {
+    public static Optional<Predicate<String>> getPathFilter(RepoConfiguration config, List<String> ignoreGlobList) {
+        List<String> pathspecs = getPathspecs(config, ignoreGlobList);
+        return pathspecs.isEmpty() ? Optional.empty() : Optional.of(new PathspecMatcher(pathspecs));
+    }
+
+    private static void getWithFiles(RepoConfiguration config, List<String> revisionArgs,
+            List<String> ignoreGlobList, Consumer<String> tokenConsumer) {
+        Path rootPath = Paths.get(config.getRepoRoot());
+        runCommandForEachToken(rootPath, getLogCommand(revisionArgs, getPathspecs(config, ignoreGlobList),
+                NUL_TERMINATED_FORMAT_STRING, "-z", "--numstat", "--shortstat"), tokenConsumer);
+    }
+
+    /**
+     * Streams the patch of each commit other than merge commits in the repository specified in {@code config}, within
+     * its date range, to {@code lineConsumer} line by line as it is produced.
+     * The patch of each commit is preceded by a line of {@link #PATCH_COMMIT_MARKER} followed by the commit hash and
+     * the hash of its parent, if any, separated by a space. The patch is the same as the result of "git diff" of the
+     * commit against its parent, apart from the blank lines around it.
+     */
+    public static void getWithPatches(RepoConfiguration config, Consumer<String> lineConsumer) {
         Path rootPath = Paths.get(config.getRepoRoot());
 
-        String command = "git log --full-history -i --extended-regexp ";
-        command += GitUtil.convertToGitDateRangeArgs(config.getSinceDate(), config.getUntilDate(), config.getZoneId());
-        command += " --pretty=format:" + PRETTY_FORMAT_STRING + " --numstat --shortstat";
-        command += GitUtil.convertToFilterAuthorArgs(author);
-        command += GitUtil.convertToGitFormatsArgs(config.getFileTypeManager().getFormats());
-        command += GitUtil.convertToGitExcludeGlobArgs(rootPath.toFile(), author.getIgnoreGlobList());
+        List<String> command = new ArrayList<>(Arrays.asList("git", "log", "--no-merges", "-p", "--no-color",
+                "--pretty=format:" + PATCH_FORMAT_STRING));
+        command.addAll(GitUtil.convertToGitDateRangeArgs(
+                config.getSinceDate(), config.getUntilDate(), config.getZoneId()));
 
-        return runCommand(rootPath, command);
+        runCommandForEachLine(rootPath, command, lineConsumer);
     }
 
     /**
-     * Returns the authors who modified the file at {@code filePath}, in the repository specified in {@code config}.
-     * The output is a list of length-2 arrays containing the author's name and email.
+     * Returns the authors who modified each of {@code filePaths}, in the repository specified in {@code config}, keyed
+     * by path, with a single git log over the date range of {@code config} for each batch of paths that fits in a
+     * command line.
+     * The authors of each file are given as length-2 arrays containing the author's name and email, from the most
+     * recent commit, without repeating an author. The history is simplified for the paths of a batch as a whole, and
+     * a merge commit is only counted for the files that it changed from all of its parents.
      */
-    public static List<String[]> getFileAuthors(RepoConfiguration config, String filePath) {
+    public static Map<String, List<String[]>> getFileAuthors(RepoConfiguration config,
+            Collection<String> filePaths) {
         Path rootPath = Paths.get(config.getRepoRoot());
+        FileAuthorsCollector collector = new FileAuthorsCollector(filePaths);
+        for (List<String> batch : getArgumentBatches(filePaths)) {
+            runFileAuthorsLog(rootPath, config, batch, collector);
+        }
+        return collector.getFileAuthors();
+    }
 
-        String command = "git log --pretty=format:\"%an\t%ae\" ";
-        command += GitUtil.convertToGitDateRangeArgs(config.getSinceDate(), config.getUntilDate(), config.getZoneId());
-        command += " " + addQuotesForFilePath(filePath);
-
-        String result = runCommand(rootPath, command);
-        return Arrays.stream(StringsUtil.NEWLINE.split(result))
-                .map(StringsUtil.TAB::split)
-                .map(authorAndEmailArray -> authorAndEmailArray.length == 1
-                        ? new String[] {authorAndEmailArray[0], DEFAULT_EMAIL_IF_MISSING}
-                        : authorAndEmailArray)
-                .collect(Collectors.toList());
+    /**
+     * Returns the batches of {@code arguments}, such as file paths, in order, each of which is given to a single git
+     * log, as in {@link #getFileAuthors}.
+     */
+    static List<List<String>> getArgumentBatches(Collection<String> arguments) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int batchLength = 0;
+        for (String argument : arguments) {
+            if (!batch.isEmpty() && batchLength + argument.length() > MAX_ARGUMENTS_LENGTH_PER_COMMAND) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchLength = 0;
+            }
+            batch.add(argument);
+            batchLength += argument.length() + 1;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
     }
 
     /**
-     * Returns the git log result containing the parents of {@code commitHash}.
+     * Returns the git log result containing the parents of {@code commitHash}, separated by spaces.
+     * Parents that are missing from the repository, such as those beyond the boundary of a shallow clone, are omitted.
+     * The parents are looked up in the {@link CommitGraph} of the repository, falling back to git, with the result
+     * cached in {@link GitCommandCache}, for commits that are not reachable from any ref.
+     *
+     * @throws RuntimeException if there is no commit associated with {@code commitHash}.
      */
     public static String getParentCommits(String root, String commitHash) {
-        Path rootPath = Paths.get(root);
+        CommitGraph graph = CommitGraph.of(root);
+        int index = graph.indexOf(commitHash);
+        if (index != CommitGraph.NOT_FOUND) {
+            return Arrays.stream(graph.getParents(index))
+                    .mapToObj(graph::getHash)
+                    .collect(Collectors.joining(" "));
+        }
+
+        return GitCommandCache.getOrCompute(root, Collections.singletonList(commitHash), PARENT_COMMITS_QUERY,
+                () -> findParentCommits(root, commitHash));
+    }
+
+    /**
+     * Returns the parents of {@code commitHash} that are present in the repository at {@code root}, separated by
+     * spaces.
+     *
+     * @throws RuntimeException if there is no commit associated with {@code commitHash}.
+     */
+    private static String findParentCommits(String root, String commitHash) {
+        List<String> parentCommits;
+        try {
+            parentCommits = GitCatFile.getParentCommits(root, commitHash);
+        } catch (CommitNotFoundException cnfe) {
+            throw new RuntimeException(cnfe);
+        }
+
+        return parentCommits.stream()
+                .filter(parentCommit -> GitCatFileBatch.getObjectInfo(root, parentCommit).isPresent())
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Returns the git log command for the commits given by {@code revisionArgs} in the repository specified in
+     * {@code config}, limited to the files matching {@code pathspecs}, with each commit shown in {@code prettyFormat},
+     * and {@code statArgs} determining the statistics shown for each commit.
+     */
+    private static List<String> getLogCommand(List<String> revisionArgs, List<String> pathspecs, String prettyFormat,
+            String... statArgs) {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "log", "--full-history"));
+        command.addAll(revisionArgs);
+        command.add("--pretty=format:" + prettyFormat);
+        command.addAll(Arrays.asList(statArgs));
+        command.add("--");
+        command.addAll(pathspecs);
+        return command;
+    }
+
+    /**
+     * Returns the pathspecs that limit the files of the commit log info of the repository specified in
+     * {@code config} to those of its formats, other than those matching {@code ignoreGlobList}.
+     */
+    private static List<String> getPathspecs(RepoConfiguration config, List<String> ignoreGlobList) {
+        List<String> pathspecs = new ArrayList<>(
+                GitUtil.convertToGitFormatsArgs(config.getFileTypeManager().getFormats()));
+        pathspecs.addAll(GitUtil.convertToGitExcludeGlobArgs(new File(config.getRepoRoot()), ignoreGlobList));
+        return pathspecs;
+    }
+
+    /**
+     * Adds the authors of the commits that modified {@code filePaths}, in the repository at {@code rootPath} within the
+     * date range of {@code config}, to {@code collector}.
+     */
+    private static void runFileAuthorsLog(Path rootPath, RepoConfiguration config, List<String> filePaths,
+            FileAuthorsCollector collector) {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "log", "-z", "-c", "--no-renames",
+                "--name-only", "--pretty=format:" + FILE_AUTHORS_FORMAT_STRING));
+        command.addAll(GitUtil.convertToGitDateRangeArgs(
+                config.getSinceDate(), config.getUntilDate(), config.getZoneId()));
+        command.add("--");
+        command.addAll(filePaths);
+
+        runCommandForEachToken(rootPath, command, new FileAuthorsReader(collector));
+    }
+
+    /**
+     * Reads the NUL-terminated tokens of the log of {@link #getFileAuthors(RepoConfiguration, Collection)}, in which
+     * each commit is made up of an empty token, the author name after {@link #AUTHOR_NAME_PREFIX}, the author email,
+     * followed by a line feed and the first file path if the commit is not a merge commit, and the other file paths.
+     */
+    private static class FileAuthorsReader implements Consumer<String> {
+        private static final String AUTHOR_NAME_PREFIX = ">";
+
+        private final FileAuthorsCollector collector;
+
+        // the author of the commit being read, which are null until they are read
+        private String authorName;
+        private String authorEmail;
 
-        String command = "git log --pretty=%P -1 ";
-        command += commitHash;
+        FileAuthorsReader(FileAuthorsCollector collector) {
+            this.collector = collector;
+        }
 
-        return runCommand(rootPath, command).trim();
+        @Override
+        public void accept(String token) {
+            if (token.isEmpty()) {
+                authorName = null;
+                authorEmail = null;
+            } else if (authorName == null) {
+                authorName = token.substring(AUTHOR_NAME_PREFIX.length());
+            } else if (authorEmail == null) {
+                String[] emailAndFilePath = token.split("\n", 2);
+                authorEmail = emailAndFilePath[0];
+                if (emailAndFilePath.length == 2) {
+                    collector.add(emailAndFilePath[1], authorName, authorEmail);
+                }
+            } else {
+                collector.add(token, authorName, authorEmail);
+            }
+        }
     }
 }
@@ -0,0 +1,306 @@
+package reposense.git;
+
+import static reposense.system.CommandRunner.runCommand;
+import static reposense.system.CommandRunner.runCommandForEachToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import reposense.git.model.GitObject;
+import reposense.system.LogsManager;
+
+/**
+ * Contains git ls-tree related functionalities.
+ * Git ls-tree is responsible for listing the files committed at the checked out commit, without reading their
+ * content. The listing is kept for each repository until the checked out commit changes, so that the text and binary
+ * files of a repository are found from a single listing, and the content of each file can be read by its hash.
+ * The checked out commit is only resolved again when the files are listed by {@link #getFilePaths}, which each
+ * extraction of the files of a repository starts with, and the listing is discarded by {@link GitCheckout} whenever
+ * it changes the checked out commit, so that looking up each file does not cost a git round-trip.
+ */
+public class GitLsTree {
+    private static final Logger logger = LogsManager.getLogger(GitLsTree.class);
+
+    private static final String CHECKED_OUT_COMMIT_REFERENCE = "HEAD";
+    private static final String COMMIT_PEEL_SUFFIX = "^{commit}";
+    private static final String BLOB_TYPE = "blob";
+    private static final String SYMLINK_MODE = "120000";
+    private static final String DIFF_ATTRIBUTE_UNSET = "unset";
+    private static final String MESSAGE_ERROR_READING_FILE = "Exception met while reading %s to check if it is binary.";
+
+    // git treats a file as binary if there is a NUL byte in this many bytes at its start
+    private static final int BINARY_CHECK_NUM_BYTES = 8000;
+    private static final int NUM_CHECK_ATTR_TOKENS_PER_PATH = 3;
+
+    private static final Map<Path, FileListing> LISTINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the paths of the files committed at the checked out commit of the repository at {@code root}, other
+     * than submodules.
+     *
+     * @throws RuntimeException if an error occurs while running git to list the files.
+     */
+    public static List<String> getFilePaths(String root) throws RuntimeException {
+        return getCurrentListing(root).filePaths;
+    }
+
+    /**
+     * Returns the paths in {@code filePaths} of the files committed at the checked out commit of the repository at
+     * {@code root} that git treats as binary files. Only the files in {@code filePaths} are checked, and each file is
+     * checked at most once per checked out commit.
+     * As in "git diff", a file is binary if its "diff" attribute is unset, or if it has a NUL byte near its start.
+     *
+     * @throws RuntimeException if an error occurs while running git to check the attributes of the files.
+     */
+    public static Set<String> getBinaryFilePaths(String root, Collection<String> filePaths) throws RuntimeException {
+        return getListing(root).getBinaryFilePaths(root, filePaths);
+    }
+
+    /**
+     * Returns the hash, type and size of the file at {@code filePath} as committed at the checked out commit of the
+     * repository at {@code root}, without its content. Returns an empty {@link Optional} if there is no such file.
+     *
+     * @throws RuntimeException if an error occurs while running git to list the files.
+     */
+    public static Optional<GitObject> getFileInfo(String root, String filePath) throws RuntimeException {
+        return Optional.ofNullable(getListing(root).blobsByPath.get(filePath));
+    }
+
+    /**
+     * Returns true if the file at {@code filePath}, as committed at the checked out commit of the repository at
+     * {@code root}, is a symbolic link.
+     *
+     * @throws RuntimeException if an error occurs while running git to list the files.
+     */
+    public static boolean isSymbolicLink(String root, String filePath) throws RuntimeException {
+        return getListing(root).symlinkPaths.contains(filePath);
+    }
+
+    /**
+     * Returns the file at {@code filePath}, including its content, as committed at the checked out commit of the
+     * repository at {@code root}. Returns an empty {@link Optional} if there is no such file.
+     * The content is looked up by the hash of the file, which is much cheaper for git than by its path.
+     *
+     * @throws RuntimeException if an error occurs while running git to list or read the files.
+     */
+    public static Optional<GitObject> getFile(String root, String filePath) throws RuntimeException {
+        GitObject blob = getListing(root).blobsByPath.get(filePath);
+        return (blob == null) ? Optional.empty() : GitCatFileBatch.getObject(root, blob.getHash());
+    }
+
+    /**
+     * Discards the file listing kept for the repository at {@code root}.
+     * Should be called before the repository is deleted or replaced, and after its checked out commit is changed.
+     */
+    public static void close(String root) {
+        LISTINGS.remove(toKey(root));
+    }
+
+    /**
+     * Discards the file listings kept for every repository.
+     */
+    public static void closeAll() {
+        LISTINGS.clear();
+    }
+
+    private static Path toKey(String root) {
+        return Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the file listing of the checked out commit of the repository at {@code root}, listing the files if the
+     * kept listing is of another commit.
+     */
+    private static FileListing getCurrentListing(String root) {
+        String commitHash = getCheckedOutCommitHash(root);
+        return LISTINGS.compute(toKey(root), (key, listing) ->
+                (listing != null && listing.commitHash.equals(commitHash)) ? listing : listFiles(root, commitHash));
+    }
+
+    /**
+     * Returns the file listing kept for the repository at {@code root}, or lists the files of its checked out commit
+     * if none is kept, without checking that the kept listing is of the checked out commit.
+     */
+    private static FileListing getListing(String root) {
+        return LISTINGS.computeIfAbsent(toKey(root), key -> listFiles(root, getCheckedOutCommitHash(root)));
+    }
+
+    private static String getCheckedOutCommitHash(String root) {
+        return GitCatFileBatch.getObjectInfo(root, CHECKED_OUT_COMMIT_REFERENCE + COMMIT_PEEL_SUFFIX)
+                .map(GitObject::getHash)
+                .orElseThrow(() -> new RuntimeException("No commit is checked out in " + root));
+    }
+
+    /**
+     * Lists the files committed at {@code commitHash} in the repository at {@code root} with "git ls-tree", in which
+     * each file is described by a NUL-terminated token of its mode, type, object hash and size, followed by a tab and
+     * its path.
+     */
+    private static FileListing listFiles(String root, String commitHash) {
+        List<String> filePaths = new ArrayList<>();
+        Map<String, GitObject> blobsByPath = new HashMap<>();
+        Set<String> symlinkPaths = new HashSet<>();
+        List<String> command = Arrays.asList("git", "ls-tree", "-r", "-l", "-z", "--full-tree", commitHash);
+        runCommandForEachToken(Paths.get(root), command, token -> {
+            int typeStart = token.indexOf(' ') + 1;
+            int typeEnd = token.indexOf(' ', typeStart);
+            if (typeStart == 0 || !token.regionMatches(typeStart, BLOB_TYPE, 0, typeEnd - typeStart)) {
+                return; // submodules are listed as commits
+            }
+
+            int hashEnd = token.indexOf(' ', typeEnd + 1);
+            int pathStart = token.indexOf('\t', hashEnd) + 1;
+            String filePath = token.substring(pathStart);
+            // the size is padded with spaces on its left
+            long size = Long.parseLong(token.substring(hashEnd, pathStart - 1).trim());
+            filePaths.add(filePath);
+            blobsByPath.put(filePath, new GitObject(token.substring(typeEnd + 1, hashEnd), BLOB_TYPE, size, null));
+            if (token.startsWith(SYMLINK_MODE)) {
+                symlinkPaths.add(filePath);
+            }
+        });
+        return new FileListing(commitHash, Collections.unmodifiableList(filePaths), blobsByPath, symlinkPaths);
+    }
+
+    /**
+     * Returns the paths in {@code filePaths} whose "diff" attribute is unset in the repository at {@code root}.
+     * The attributes are read from the index, which checkout-free repos have in place of a working tree.
+     */
+    private static Set<String> getDiffUnsetPaths(String root, Collection<String> filePaths) {
+        StringBuilder input = new StringBuilder();
+        filePaths.forEach(filePath -> input.append(filePath).append('\0'));
+        String result = runCommand(Paths.get(root),
+                Arrays.asList("git", "check-attr", "--cached", "-z", "--stdin", "diff"),
+                Collections.emptyMap(), input.toString());
+
+        // each path is described by the tokens of its path, the attribute name and the attribute value
+        String[] tokens = result.split("\0");
+        Set<String> diffUnsetPaths = new HashSet<>();
+        for (int i = 0; i + NUM_CHECK_ATTR_TOKENS_PER_PATH - 1 < tokens.length; i += NUM_CHECK_ATTR_TOKENS_PER_PATH) {
+            if (tokens[i + NUM_CHECK_ATTR_TOKENS_PER_PATH - 1].equals(DIFF_ATTRIBUTE_UNSET)) {
+                diffUnsetPaths.add(tokens[i]);
+            }
+        }
+        return diffUnsetPaths;
+    }
+
+    /**
+     * Returns true if there is a NUL byte near the start of the file at {@code filePath} in the working tree of the
+     * repository at {@code root}, which must exist.
+     */
+    private static boolean hasNulByteNearStart(String root, String filePath) {
+        Path path = Paths.get(root, filePath);
+        byte[] buffer = new byte[BINARY_CHECK_NUM_BYTES];
+        try (InputStream is = Files.newInputStream(path)) {
+            return hasNulByte(buffer, is.readNBytes(buffer, 0, buffer.length));
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, String.format(MESSAGE_ERROR_READING_FILE, filePath), ioe);
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if there is a NUL byte near the start of {@code blob}.
+     */
+    private static boolean hasNulByteNearStart(Optional<GitObject> blob) {
+        return blob.map(GitObject::getContent)
+                .map(content -> hasNulByte(content, Math.min(content.length, BINARY_CHECK_NUM_BYTES)))
+                .orElse(false);
+    }
+
+    /**
+     * Returns true if there is a NUL byte in the first {@code length} bytes of {@code bytes}.
+     */
+    private static boolean hasNulByte(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Holds the files committed at a commit, and whether each of the files checked so far is binary.
+     */
+    private static class FileListing {
+        private final String commitHash;
+        private final List<String> filePaths;
+        private final Map<String, GitObject> blobsByPath;
+        private final Set<String> symlinkPaths;
+        private final Map<String, Boolean> isBinaryByPath = new HashMap<>();
+
+        FileListing(String commitHash, List<String> filePaths, Map<String, GitObject> blobsByPath,
+                Set<String> symlinkPaths) {
+            this.commitHash = commitHash;
+            this.filePaths = filePaths;
+            this.blobsByPath = blobsByPath;
+            this.symlinkPaths = symlinkPaths;
+        }
+
+        /**
+         * Returns the paths in {@code paths} of the binary files, checking those that have not been checked.
+         * The content of a symbolic link is the path it links to, so it is never binary.
+         */
+        synchronized Set<String> getBinaryFilePaths(String root, Collection<String> paths) {
+            List<String> uncheckedPaths = new ArrayList<>();
+            paths.stream()
+                    .filter(path -> !isBinaryByPath.containsKey(path))
+                    .distinct()
+                    .forEach(uncheckedPaths::add);
+
+            if (!uncheckedPaths.isEmpty()) {
+                Set<String> diffUnsetPaths = getDiffUnsetPaths(root, uncheckedPaths);
+                List<String> uncheckedOutPaths = new ArrayList<>();
+                for (String path : uncheckedPaths) {
+                    if (diffUnsetPaths.contains(path) || symlinkPaths.contains(path)) {
+                        isBinaryByPath.put(path, diffUnsetPaths.contains(path));
+                    } else if (!Paths.get(root, path).toFile().isFile()) {
+                        // checked without the exception that Files#notExists throws internally for each missing file
+                        uncheckedOutPaths.add(path);
+                    } else {
+                        isBinaryByPath.put(path, hasNulByteNearStart(root, path));
+                    }
+                }
+                putIsBinaryOfBlobs(root, uncheckedOutPaths);
+            }
+
+            Set<String> binaryFilePaths = new HashSet<>();
+            paths.stream()
+                    .filter(isBinaryByPath::get)
+                    .forEach(binaryFilePaths::add);
+            return binaryFilePaths;
+        }
+
+        /**
+         * Checks the committed blobs of {@code paths}, which are not in the working tree of the repository at
+         * {@code root}, for NUL bytes in a single pipelined pass over the git cat-file process, so that the cost of
+         * the check does not grow with a pipe round-trip per file.
+         */
+        private void putIsBinaryOfBlobs(String root, List<String> paths) {
+            List<String> blobHashes = new ArrayList<>();
+            paths.forEach(path -> blobHashes.add(blobsByPath.get(path).getHash()));
+
+            Iterator<String> pathIterator = paths.iterator();
+            GitCatFileBatch.forEachObject(root, blobHashes,
+                    blob -> isBinaryByPath.put(pathIterator.next(), hasNulByteNearStart(blob)));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package reposense.git;
+
+import static reposense.system.CommandRunner.runCommand;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import reposense.system.LogsManager;
+import reposense.util.StringsUtil;
+
+/**
+ * Contains git maintenance related functionalities.
+ * Writes the auxiliary indexes that speed up history-walking commands, such as the commit-graph with changed-path
+ * Bloom filters used by path-limited git log and git blame.
+ */
+public class GitMaintenance {
+    private static final String PACK_COUNT_PREFIX = "packs: ";
+
+    private static final String MESSAGE_OPTIMIZATION_FAILED =
+            "Unable to optimize repo at %s, analysis will proceed without the optimization.";
+
+    private static final Logger logger = LogsManager.getLogger(GitMaintenance.class);
+
+    /**
+     * Writes the commit-graph of all commits reachable from any ref of the repository at {@code root}, along with the
+     * changed-path Bloom filters of each commit. Also writes a multi-pack-index if the objects of the repository are
+     * stored in more than one pack.
+     * The repository is left as it is if any of these fail, as they only affect the speed of later commands.
+     *
+     * @return true if all the indexes were written.
+     */
+    public static boolean optimize(String root) {
+        Path rootPath = Paths.get(root);
+        try {
+            runCommand(rootPath, Arrays.asList("git", "commit-graph", "write", "--reachable", "--changed-paths"));
+            if (getNumPacks(rootPath) > 1) {
+                runCommand(rootPath, Arrays.asList("git", "multi-pack-index", "write"));
+            }
+            return true;
+        } catch (RuntimeException re) {
+            logger.warning(String.format(MESSAGE_OPTIMIZATION_FAILED, root));
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of packs that the objects of the repository at {@code rootPath} are stored in.
+     */
+    private static int getNumPacks(Path rootPath) {
+        List<String> countObjectsCommand = Arrays.asList("git", "count-objects", "-v");
+        return Arrays.stream(StringsUtil.NEWLINE.split(runCommand(rootPath, countObjectsCommand)))
+                .filter(line -> line.startsWith(PACK_COUNT_PREFIX))
+                .mapToInt(line -> Integer.parseInt(line.substring(PACK_COUNT_PREFIX.length()).trim()))
+                .findFirst()
+                .orElse(0);
+    }
+}
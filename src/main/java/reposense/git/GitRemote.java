@@ -33,7 +33,7 @@ public class GitRemote {
         Map<String, String> remotes = new HashMap<>();
         String result;
         try {
-            result = CommandRunner.runCommand(Paths.get(repoRoot), "git remote -v");
+            result = CommandRunner.runCommand(Paths.get(repoRoot), Arrays.asList("git", "remote", "-v"));
         } catch (RuntimeException re) {
             logger.warning(String.format("Unable to run git remote command in directory: %s", repoRoot));
             return remotes;
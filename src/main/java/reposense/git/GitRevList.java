@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import reposense.util.StringsUtil;
 
@@ -19,11 +21,13 @@ import reposense.util.StringsUtil;
  */
 public class GitRevList {
 
-    private static final String REVISION_PATH_SEPARATOR = " -- ";
+    private static final String REVISION_PATH_SEPARATOR = "--";
 
     /**
-     * Returns the latest commit hash at {@code branchName} before {@code date}.
+     * Returns the latest commit hash at {@code branchName} before {@code date}, followed by a newline.
      * Returns an empty {@code String} if {@code date} is null, or there is no such commit.
+     * The commit is found in the {@link CommitGraph} of the repository, falling back to git, with the result cached in
+     * {@link GitCommandCache}, if {@code branchName} does not resolve to a commit in the graph.
      *
      * @param root The name of the working directory.
      * @param branchName The name of the branch to find the commit hash in.
@@ -35,11 +39,19 @@ public class GitRevList {
             return "";
         }
 
+        ZonedDateTime untilDate = ZonedDateTime.of(date, zoneId);
+        CommitGraph graph = CommitGraph.of(root);
+        int tip = graph.indexOfRef(branchName);
+        if (tip != CommitGraph.NOT_FOUND) {
+            int index = graph.getLatestCommitUntil(tip, untilDate.toEpochSecond());
+            return (index == CommitGraph.NOT_FOUND) ? "" : graph.getHash(index) + "\n";
+        }
+
         Path rootPath = Paths.get(root);
-        String revListCommand = "git rev-list -1 --until="
-                + GitUtil.GIT_LOG_UNTIL_DATE_FORMAT.format(ZonedDateTime.of(date, zoneId))
-                + " " + branchName + REVISION_PATH_SEPARATOR;
-        return runCommand(rootPath, revListCommand);
+        List<String> revListCommand = Arrays.asList("git", "rev-list", "-1",
+                "--until=" + GitUtil.GIT_LOG_UNTIL_DATE_FORMAT.format(untilDate), branchName, REVISION_PATH_SEPARATOR);
+        return GitCommandCache.getOrCompute(root, Collections.singletonList(branchName), revListCommand,
+                () -> runCommand(rootPath, revListCommand));
     }
 
     /**
@@ -47,6 +59,7 @@ public class GitRevList {
      * that are within the range of {@code startHash} and {@code endHash}.
      * The {@code root} is the name of the working directory.
      * Both the {@code startHash} and {@code endHash} are guaranteed to be in the list.
+     * The range is expanded in the {@link CommitGraph} of the repository.
      */
     public static String getCommitHashInRange(String root, String branchName, String startHash, String endHash) {
         if (startHash == null && endHash == null) {
@@ -57,48 +70,22 @@ public class GitRevList {
             return startHash;
         }
 
-        String fromStartHash = getAllCommitHashSince(root, branchName, startHash);
-        String fromEndHash = getAllCommitHashSince(root, branchName, endHash);
-        StringBuilder output = new StringBuilder();
+        CommitGraph graph = CommitGraph.of(root);
+        int start = graph.indexOf(startHash);
+        int end = graph.indexOf(endHash);
 
-        // If invalid hashes were given, do not use the results obtained from rev-list
-        if (fromStartHash.equals("") && fromEndHash.equals("")) {
+        // If invalid hashes were given, do not expand the range
+        if (start == CommitGraph.NOT_FOUND && end == CommitGraph.NOT_FOUND) {
             return "";
-        } else if (fromStartHash.equals("")) {
+        } else if (start == CommitGraph.NOT_FOUND) {
             return endHash;
-        } else if (fromEndHash.equals("")) {
+        } else if (end == CommitGraph.NOT_FOUND) {
             return startHash;
         }
 
-        // Perform a set difference in the list of commits to get the commits within the given range, since both lists
-        // will have the list of commits starting from the given commit to HEAD, hence this removes the overlap part.
-        // Also ensure that both hashes are present in the final output
-        if (fromStartHash.length() > fromEndHash.length()) {
-            output.append(endHash);
-            output.append(fromStartHash.substring(fromEndHash.length()));
-        } else {
-            output.append(startHash);
-            output.append(fromEndHash.substring(fromStartHash.length()));
-        }
-
-        return output.toString();
-    }
-
-    /**
-     * Returns a list of commit hashes at the branch given by {@code branchName} separated by newlines that exist
-     * since {@code hash} until HEAD.
-     * The {@code root} is the name of the working directory.
-     */
-    private static String getAllCommitHashSince(String root, String branchName, String hash) {
-        Path rootPath = Paths.get(root);
-        String revListCommand = "git rev-list " + hash + "..HEAD " + branchName + REVISION_PATH_SEPARATOR;
-
-        try {
-            return runCommand(rootPath, revListCommand) + hash;
-        } catch (RuntimeException rte) {
-            // An invalid commit hash was provided
-            return "";
-        }
+        return graph.getCommitsInRange(start, end, graph.indexOfRef(branchName)).stream()
+                .map(graph::getHash)
+                .collect(Collectors.joining("\n"));
     }
 
     /**
@@ -106,7 +93,7 @@ public class GitRevList {
      * as working directory.
      */
     public static List<String> getRootCommits(String root) {
-        String revListCommand = "git rev-list --max-parents=0 HEAD";
+        List<String> revListCommand = Arrays.asList("git", "rev-list", "--max-parents=0", "HEAD");
         Path rootPath = Paths.get(root);
         String output = runCommand(rootPath, revListCommand);
         return Arrays.asList(StringsUtil.NEWLINE.split(output));
@@ -116,7 +103,7 @@ public class GitRevList {
      * Returns true if the repository is empty, with the {@link Path} given by {@code root} as working directory.
      */
     public static boolean checkIsEmptyRepo(String root) {
-        String revListCommand = "git rev-list -n 1 --all";
+        List<String> revListCommand = Arrays.asList("git", "rev-list", "-n", "1", "--all");
         Path rootPath = Paths.get(root);
         String output = runCommand(rootPath, revListCommand);
         return output == null || output.trim().isEmpty();
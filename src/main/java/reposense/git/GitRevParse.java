@@ -1,6 +1,8 @@
 package reposense.git;
 
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 import reposense.git.exception.GitBranchException;
 import reposense.model.RepoConfiguration;
@@ -17,7 +19,7 @@ public class GitRevParse {
      * @throws GitBranchException when the branch does not exist.
      */
     public static void assertBranchExists(RepoConfiguration config, Path repoRoot) throws GitBranchException {
-        String command = String.format("git rev-parse --verify %s", config.getBranch());
+        List<String> command = Arrays.asList("git", "rev-parse", "--verify", config.getBranch());
         try {
             CommandRunner.runCommand(repoRoot, command);
         } catch (RuntimeException rte) {
@@ -5,14 +5,18 @@ import static reposense.system.CommandRunner.runCommand;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.ParseException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitObject;
 import reposense.model.CommitHash;
 import reposense.system.LogsManager;
 import reposense.util.StringsUtil;
@@ -25,6 +29,10 @@ public class GitShow {
 
     private static final Logger logger = LogsManager.getLogger(GitShow.class);
 
+    private static final String COMMIT_PEEL_SUFFIX = "^{commit}";
+    private static final String COMMITTER_HEADER_KEY = "committer";
+    private static final List<String> COMMITTER_QUERY = Collections.singletonList(COMMITTER_HEADER_KEY);
+
     /**
      * Returns expanded form of the {@link CommitHash} associated with the {@code shortCommitHash}, with
      * the {@link Path} given by {@code root} as the working directory.
@@ -32,11 +40,32 @@ public class GitShow {
      * @throws CommitNotFoundException if there is no commit associated with {@code shortCommitHash}.
      */
     public static CommitHash getExpandedCommitHash(String root, String shortCommitHash) throws CommitNotFoundException {
-        Path rootPath = Paths.get(root);
-        String showCommand = "git show -s --format=%H " + shortCommitHash;
+        Optional<GitObject> commit;
+        try {
+            commit = GitCatFileBatch.getObjectInfo(root, shortCommitHash + COMMIT_PEEL_SUFFIX);
+        } catch (RuntimeException re) {
+            throw new CommitNotFoundException("Commit not found: " + shortCommitHash);
+        }
+
+        if (commit.isPresent()) {
+            return new CommitHash(commit.get().getHash());
+        }
+        // the batch process does not tell an ambiguous short hash from a missing one, so "git show" is left to
+        // resolve either
+        return showExpandedCommitHash(root, shortCommitHash);
+    }
 
+    /**
+     * Returns expanded form of the {@link CommitHash} associated with the {@code shortCommitHash} as "git show"
+     * expands it, taking the first of the commits that it can be expanded to.
+     *
+     * @throws CommitNotFoundException if there is no commit associated with {@code shortCommitHash}.
+     */
+    private static CommitHash showExpandedCommitHash(String root, String shortCommitHash)
+            throws CommitNotFoundException {
         try {
-            String output = runCommand(rootPath, showCommand);
+            String output = runCommand(Paths.get(root), Arrays.asList("git", "show", "-s", "--format=%H",
+                    shortCommitHash));
             List<CommitHash> commitHashes = Arrays.stream(StringsUtil.NEWLINE.split(output))
                     .map(CommitHash::new).collect(Collectors.toList());
             if (commitHashes.size() > 1) {
@@ -61,14 +90,53 @@ public class GitShow {
      */
     public static LocalDateTime getCommitDate(String root, String commitHash)
             throws CommitNotFoundException, ParseException {
-        Path rootPath = Paths.get(root);
-        String showCommand = "git show -s --format=%ci " + commitHash;
+        String committerLine = GitCommandCache.getOrCompute(root, Collections.singletonList(commitHash),
+                COMMITTER_QUERY, () -> findCommitterLine(root, commitHash));
+        if (committerLine == null) {
+            throw new CommitNotFoundException("Commit not found: " + commitHash);
+        }
+        if (committerLine.isEmpty()) {
+            throw new ParseException("Committer not found for commit: " + commitHash, 0);
+        }
+        return parseCommitterDate(committerLine);
+    }
+
+    /**
+     * Returns the committer line of the commit associated with {@code commitHash}, with {@link Path} given by
+     * {@code root} as the working directory. Returns an empty string if the commit has no committer, or null if
+     * no commit exists for {@code commitHash}.
+     */
+    private static String findCommitterLine(String root, String commitHash) {
+        Optional<GitObject> commit;
         try {
-            String output = runCommand(rootPath, showCommand);
-            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss Z'\n'");
-            return LocalDateTime.parse(output, format);
+            commit = GitCatFileBatch.getObject(root, commitHash + COMMIT_PEEL_SUFFIX);
         } catch (RuntimeException re) {
-            throw new CommitNotFoundException("Commit not found: " + commitHash);
+            return null;
+        }
+
+        return commit.map(object -> object.getHeaderValues(COMMITTER_HEADER_KEY))
+                .map(committerLines -> committerLines.isEmpty() ? "" : committerLines.get(0))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the {@link LocalDateTime}, in the committer's time zone, of the {@code committerLine} of a commit object,
+     * which is in the format "name &lt;email&gt; epochSeconds +hhmm".
+     *
+     * @throws ParseException if {@code committerLine} does not end with a valid timestamp and time zone offset.
+     */
+    private static LocalDateTime parseCommitterDate(String committerLine) throws ParseException {
+        String[] tokens = StringsUtil.SPACE.split(committerLine);
+        if (tokens.length < 2) {
+            throw new ParseException("Invalid committer line: " + committerLine, 0);
+        }
+
+        try {
+            long epochSeconds = Long.parseLong(tokens[tokens.length - 2]);
+            ZoneOffset offset = ZoneOffset.of(tokens[tokens.length - 1]);
+            return LocalDateTime.ofEpochSecond(epochSeconds, 0, offset);
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new ParseException("Invalid committer line: " + committerLine, 0);
         }
     }
 
@@ -1,7 +1,5 @@
 package reposense.git;
 
-import static reposense.util.StringsUtil.addQuotes;
-
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystem;
@@ -12,14 +10,14 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
-import reposense.model.Author;
 import reposense.model.FileType;
 import reposense.system.LogsManager;
-import reposense.util.StringsUtil;
 
 /**
  * Contains Git related utilities.
@@ -29,83 +27,56 @@ class GitUtil {
     static final DateTimeFormatter GIT_LOG_UNTIL_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
     private static final Logger logger = LogsManager.getLogger(GitUtil.class);
 
-    // ignore check against email
-    private static final String AUTHOR_NAME_PATTERN = "^%s <.*>$";
-
-    // ignore check against author name
-    private static final String AUTHOR_EMAIL_PATTERN = "^.* <(.*\\+)?%s>$";
-
-    private static final String OR_OPERATOR_PATTERN = "|";
+    private static final String FORMAT_PATHSPEC = "*.%s";
+    private static final String EXCLUDE_PATHSPEC = ":(exclude)%s";
 
     /**
-     * Returns the {@code String} command to specify the date range of commits to analyze for `git` commands.
+     * Returns the arguments to specify the date range of commits to analyze for `git` commands.
      * Date range is given by {@code sinceDate} and {@code untilDate}, with {@code zoneId} taken into account.
      */
-    static String convertToGitDateRangeArgs(LocalDateTime sinceDate, LocalDateTime untilDate, ZoneId zoneId) {
-        String gitDateRangeArgs = "";
+    static List<String> convertToGitDateRangeArgs(LocalDateTime sinceDate, LocalDateTime untilDate, ZoneId zoneId) {
+        return convertToGitDateRangeArgs((sinceDate == null) ? null : ZonedDateTime.of(sinceDate, zoneId),
+                (untilDate == null) ? null : ZonedDateTime.of(untilDate, zoneId));
+    }
+
+    /**
+     * Returns the arguments to specify the date range of commits to analyze for `git` commands, from
+     * {@code sinceDate} to {@code untilDate}, both inclusive. The range is left open at either end that is null.
+     */
+    static List<String> convertToGitDateRangeArgs(ZonedDateTime sinceDate, ZonedDateTime untilDate) {
+        List<String> gitDateRangeArgs = new ArrayList<>();
 
         if (sinceDate != null) {
-            gitDateRangeArgs += " --since=" + addQuotes(GIT_LOG_SINCE_DATE_FORMAT.format(
-                    ZonedDateTime.of(sinceDate, zoneId)));
+            gitDateRangeArgs.add("--since=" + GIT_LOG_SINCE_DATE_FORMAT.format(sinceDate));
         }
         if (untilDate != null) {
-            gitDateRangeArgs += " --until=" + addQuotes(GIT_LOG_UNTIL_DATE_FORMAT.format(
-                    ZonedDateTime.of(untilDate, zoneId)));
+            gitDateRangeArgs.add("--until=" + GIT_LOG_UNTIL_DATE_FORMAT.format(untilDate));
         }
 
         return gitDateRangeArgs;
     }
 
     /**
-     * Returns the {@code String} command to specify the {@code author} to analyze for `git log` command.
-     * The regex type used is extended regex, which corresponds to the `--extended-regexp` flag in `git log`.
+     * Returns the pathspecs to specify the file {@code formats} to analyze for `git` commands.
+     * The pathspecs should be placed after a "--" argument.
      */
-    static String convertToFilterAuthorArgs(Author author) {
-        StringBuilder filterAuthorArgsBuilder = new StringBuilder(" --author=\"");
-
-        // git author names and emails may contain regex meta-characters, so we need to escape those
-        author.getAuthorAliases().stream()
-                .map(authorAlias -> String.format(AUTHOR_NAME_PATTERN,
-                        StringsUtil.replaceSpecialSymbols(authorAlias, ".")) + OR_OPERATOR_PATTERN)
-                .forEach(filterAuthorArgsBuilder::append);
-        author.getEmails().stream()
-                .map(email -> String.format(AUTHOR_EMAIL_PATTERN,
-                        StringsUtil.replaceSpecialSymbols(email, ".")) + OR_OPERATOR_PATTERN)
-                .forEach(filterAuthorArgsBuilder::append);
-
-        filterAuthorArgsBuilder.append(
-                String.format(AUTHOR_NAME_PATTERN,
-                        StringsUtil.replaceSpecialSymbols(author.getGitId(), "."))).append("\"");
-        return filterAuthorArgsBuilder.toString();
+    public static List<String> convertToGitFormatsArgs(List<FileType> formats) {
+        return formats.stream()
+                .map(format -> String.format(FORMAT_PATHSPEC, format.toString()))
+                .collect(Collectors.toList());
     }
 
     /**
-     * Returns the {@code String} command to specify the file {@code formats} to analyze for `git` commands.
-     */
-    public static String convertToGitFormatsArgs(List<FileType> formats) {
-        StringBuilder gitFormatsArgsBuilder = new StringBuilder();
-        final String cmdFormat = " -- " + addQuotes("*.%s");
-        formats.stream()
-                .map(format -> String.format(cmdFormat, format.toString()))
-                .forEach(gitFormatsArgsBuilder::append);
-
-        return gitFormatsArgsBuilder.toString();
-    }
-
-    /**
-     * Returns the {@code String} command to specify the globs to exclude for `git log` command.
+     * Returns the pathspecs to specify the globs to exclude for `git log` command.
+     * The pathspecs should be placed after a "--" argument.
      * Also checks that every glob in {@code ignoreGlobList} only targets files within the given
      * repository's {@code root} directory.
      */
-    public static String convertToGitExcludeGlobArgs(File root, List<String> ignoreGlobList) {
-        StringBuilder gitExcludeGlobArgsBuilder = new StringBuilder();
-        final String cmdFormat = " " + addQuotes(":(exclude)%s");
-        ignoreGlobList.stream()
+    public static List<String> convertToGitExcludeGlobArgs(File root, List<String> ignoreGlobList) {
+        return ignoreGlobList.stream()
                 .filter(item -> isValidIgnoreGlob(root, item))
-                .map(ignoreGlob -> String.format(cmdFormat, ignoreGlob))
-                .forEach(gitExcludeGlobArgsBuilder::append);
-
-        return gitExcludeGlobArgsBuilder.toString();
+                .map(ignoreGlob -> String.format(EXCLUDE_PATHSPEC, ignoreGlob))
+                .collect(Collectors.toList());
     }
 
     /**
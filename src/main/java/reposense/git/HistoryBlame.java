@@ -0,0 +1,571 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import reposense.git.model.LineRange;
+
+/**
+ * Blames many files of a repository together, in a single walk of its history.
+ * Each commit is visited at most once for all the files, from the newest to the oldest as in "git blame", and the
+ * lines of every file that are not yet attributed are passed from the commit to its parents at the same time.
+ * Like "git blame", a file is followed across the commits that rename it, and a line is attributed to the commit
+ * that it cannot be passed to any parent of.
+ * Only the renames that git finds without comparing the contents of files are followed, and the result of a file
+ * is marked as uncertain if git may have found a rename of it by comparing contents.
+ */
+class HistoryBlame {
+    private static final Comparator<Candidate> NEWEST_FIRST =
+            Comparator.comparingInt((Candidate candidate) -> candidate.commit.getCommitTime()).reversed()
+                    .thenComparingLong(candidate -> candidate.sequence);
+
+    private final Repository repository;
+    private final XdiffAlgorithm algorithm;
+    private final PriorityQueue<Candidate> queue = new PriorityQueue<>(NEWEST_FIRST);
+    private final Map<RevCommit, Candidate> candidates = new HashMap<>();
+    private long numCandidatesCreated = 0;
+
+    private HistoryBlame(Repository repository, XdiffAlgorithm algorithm) {
+        this.repository = repository;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Blames the lines in the ranges given by {@code lineRangesByPath} of the file at each path, or every line of the
+     * file if its ranges are empty, as of {@code startCommit} in {@code repository}, finding the changed lines with
+     * {@code algorithm}. The history is only walked for as long as some of these lines are not yet attributed.
+     * If {@code sinceCommit} is not null, only the commits after it are walked, as in "git blame sinceCommit..", and
+     * the lines that are not attributed by then are attributed to the boundary commits they are passed to.
+     * Paths that are not files at {@code startCommit} are left out of the results.
+     *
+     * @return the blame result of each file, keyed by its path.
+     * @throws IOException if the objects of {@code repository} cannot be read.
+     */
+    public static Map<String, Result> blame(Repository repository, XdiffAlgorithm algorithm,
+            ObjectId startCommit, ObjectId sinceCommit, Map<String, List<LineRange>> lineRangesByPath)
+            throws IOException {
+        return new HistoryBlame(repository, algorithm).run(startCommit, sinceCommit, lineRangesByPath);
+    }
+
+    private Map<String, Result> run(ObjectId startCommit, ObjectId sinceCommit,
+            Map<String, List<LineRange>> lineRangesByPath) throws IOException {
+        Map<String, Result> results = new HashMap<>();
+        Collection<String> paths = lineRangesByPath.keySet();
+        if (paths.isEmpty()) {
+            return results;
+        }
+
+        Set<ObjectId> commitsInRange = (sinceCommit == null) ? null : findCommitsInRange(startCommit, sinceCommit);
+
+        try (RevWalk walk = new RevWalk(repository)) {
+            ObjectReader reader = walk.getObjectReader();
+            RevCommit start = walk.parseCommit(startCommit);
+            try (TreeWalk treeWalk = new TreeWalk(reader)) {
+                treeWalk.addTree(start.getTree());
+                treeWalk.setRecursive(true);
+                treeWalk.setFilter(PathFilterGroup.createFromStrings(paths));
+                while (treeWalk.next()) {
+                    if (treeWalk.getFileMode(0).getObjectType() != Constants.OBJ_BLOB) {
+                        continue;
+                    }
+                    String path = treeWalk.getPathString();
+                    Origin origin = new Origin(path, treeWalk.getObjectId(0));
+                    origin.text = origin.loadText(reader);
+                    Result result = new Result(origin.blobId, origin.text.size());
+                    results.put(path, result);
+                    addRegions(origin, result, lineRangesByPath.get(path));
+                    if (!origin.regions.isEmpty()) {
+                        getCandidate(start).addOrigin(origin);
+                    }
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                Candidate candidate = queue.poll();
+                candidates.remove(candidate.commit);
+                if (commitsInRange != null && !commitsInRange.contains(candidate.commit)) {
+                    candidate.origins.values().forEach(origin -> origin.regions.forEach(region ->
+                            region.attributeToBoundary(candidate.commit, origin.path)));
+                    continue;
+                }
+                pass(walk, candidate);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the commits from {@code startCommit} back to {@code sinceCommit}, exclusive, which are the commits of
+     * "git rev-list sinceCommit..startCommit".
+     */
+    private Set<ObjectId> findCommitsInRange(ObjectId startCommit, ObjectId sinceCommit) throws IOException {
+        Set<ObjectId> commits = new HashSet<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(startCommit));
+            walk.markUninteresting(walk.parseCommit(sinceCommit));
+            for (RevCommit commit : walk) {
+                commits.add(commit.copy());
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * Adds a region to {@code origin} for each range in {@code lineRanges} of the lines of {@code result}, or a single
+     * region of every line if {@code lineRanges} is empty. The ranges are cut off at the end of the file.
+     */
+    private static void addRegions(Origin origin, Result result, List<LineRange> lineRanges) {
+        int numLines = result.getNumLines();
+        if (lineRanges.isEmpty()) {
+            if (numLines > 0) {
+                origin.regions.add(new Region(result, 0, 0, numLines));
+            }
+            return;
+        }
+
+        for (LineRange lineRange : lineRanges) {
+            int start = lineRange.getStart() - 1;
+            int end = Math.min(lineRange.getEnd(), numLines);
+            if (start < end) {
+                origin.regions.add(new Region(result, start, start, end - start));
+            }
+        }
+    }
+
+    /**
+     * Passes the lines of each file of {@code candidate} that are unchanged in a parent commit to that parent, and
+     * attributes the remaining lines to the commit of {@code candidate}.
+     */
+    private void pass(RevWalk walk, Candidate candidate) throws IOException {
+        ObjectReader reader = walk.getObjectReader();
+        RevCommit commit = candidate.commit;
+        RevCommit[] parents = commit.getParents();
+        List<Map<String, Origin>> changedOrigins = new ArrayList<>();
+        Set<String> uncertainPaths = new HashSet<>();
+        for (RevCommit parent : parents) {
+            walk.parseHeaders(parent);
+            changedOrigins.add(findChangedOrigins(reader, parent, commit, candidate.origins.keySet(),
+                    uncertainPaths));
+        }
+
+        for (Origin origin : candidate.origins.values()) {
+            // as in git, a file that is unchanged in a parent is passed to that parent as a whole
+            int unchangedParentIndex = -1;
+            for (int i = 0; i < parents.length && unchangedParentIndex < 0; i++) {
+                if (!changedOrigins.get(i).containsKey(origin.path)) {
+                    unchangedParentIndex = i;
+                }
+            }
+            if (unchangedParentIndex >= 0) {
+                Origin parentOrigin = getCandidate(parents[unchangedParentIndex]).getOrigin(origin.path,
+                        origin.blobId);
+                parentOrigin.regions.addAll(origin.regions);
+                if (parentOrigin.text == null) {
+                    parentOrigin.text = origin.text;
+                }
+                continue;
+            }
+
+            List<Region> remaining = origin.regions;
+            RawText text = (origin.text != null) ? origin.text : origin.loadText(reader);
+            for (int i = 0; i < parents.length && !remaining.isEmpty(); i++) {
+                Origin parentOrigin = changedOrigins.get(i).get(origin.path);
+                if (parentOrigin == null) {
+                    continue;
+                }
+
+                Origin existingParentOrigin = peekOrigin(parents[i], parentOrigin.path);
+                RawText parentText = (existingParentOrigin != null && existingParentOrigin.text != null)
+                        ? existingParentOrigin.text
+                        : parentOrigin.loadText(reader);
+                EditList edits = algorithm.diff(parentText, text);
+                List<Region> passed = new ArrayList<>();
+                remaining = splitRegions(remaining, edits, passed);
+                if (!passed.isEmpty()) {
+                    Origin target = getCandidate(parents[i]).getOrigin(parentOrigin.path, parentOrigin.blobId);
+                    target.regions.addAll(passed);
+                    target.text = parentText;
+                }
+            }
+
+            for (Region region : remaining) {
+                region.attributeTo(commit, origin.path);
+                if (uncertainPaths.contains(origin.path)) {
+                    region.result.isUncertain = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the files at {@code paths} of {@code commit} that are changed in {@code parent}, keyed by their paths in
+     * {@code commit}, each with the file in {@code parent} that it was changed from. The file in {@code parent} is
+     * null if it was added in {@code commit}.
+     * The paths of the added files that git may find to be renamed by comparing contents are added to
+     * {@code uncertainPaths}.
+     */
+    private Map<String, Origin> findChangedOrigins(ObjectReader reader, RevCommit parent, RevCommit commit,
+            Collection<String> paths, Set<String> uncertainPaths) throws IOException {
+        Map<String, Origin> changedOrigins = new HashMap<>();
+        try (TreeWalk treeWalk = new TreeWalk(reader)) {
+            treeWalk.addTree(parent.getTree());
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(PathFilterGroup.createFromStrings(paths), TreeFilter.ANY_DIFF));
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
+                    changedOrigins.put(path, new Origin(path, treeWalk.getObjectId(0)));
+                } else {
+                    changedOrigins.put(path, null);
+                }
+            }
+        }
+
+        if (changedOrigins.containsValue(null)) {
+            // the added files may have been renamed from files of the parent
+            List<DiffEntry> deletedFiles = findDeletedFiles(reader, parent, commit);
+            for (DiffEntry entry : findAddedFiles(reader, parent, commit, changedOrigins)) {
+                Origin renamedOrigin = findRenamedOrigin(entry, deletedFiles);
+                if (renamedOrigin != null) {
+                    changedOrigins.put(entry.getNewPath(), renamedOrigin);
+                } else if (!deletedFiles.isEmpty()) {
+                    uncertainPaths.add(entry.getNewPath());
+                }
+            }
+        }
+        return changedOrigins;
+    }
+
+    /**
+     * Returns the files of {@code commit} that are added since {@code parent}, out of those mapped to null in
+     * {@code changedOrigins}, which are the files that {@code parent} does not have.
+     */
+    private static List<DiffEntry> findAddedFiles(ObjectReader reader, RevCommit parent, RevCommit commit,
+            Map<String, Origin> changedOrigins) throws IOException {
+        List<String> addedPaths = new ArrayList<>();
+        changedOrigins.forEach((path, origin) -> {
+            if (origin == null) {
+                addedPaths.add(path);
+            }
+        });
+        List<DiffEntry> addedFiles = new ArrayList<>();
+        for (DiffEntry entry : scan(reader, parent, commit, PathFilterGroup.createFromStrings(addedPaths))) {
+            if (entry.getChangeType() == DiffEntry.ChangeType.ADD) {
+                addedFiles.add(entry);
+            }
+        }
+        return addedFiles;
+    }
+
+    /**
+     * Returns the files of {@code parent} that are deleted in {@code commit}.
+     */
+    private static List<DiffEntry> findDeletedFiles(ObjectReader reader, RevCommit parent, RevCommit commit)
+            throws IOException {
+        List<DiffEntry> deletedFiles = new ArrayList<>();
+        for (DiffEntry entry : scan(reader, parent, commit, TreeFilter.ALL)) {
+            if (entry.getChangeType() == DiffEntry.ChangeType.DELETE) {
+                deletedFiles.add(entry);
+            }
+        }
+        return deletedFiles;
+    }
+
+    private static List<DiffEntry> scan(ObjectReader reader, RevCommit parent, RevCommit commit, TreeFilter filter)
+            throws IOException {
+        try (TreeWalk treeWalk = new TreeWalk(reader)) {
+            treeWalk.addTree(parent.getTree());
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(filter, TreeFilter.ANY_DIFF));
+            return DiffEntry.scan(treeWalk);
+        }
+    }
+
+    /**
+     * Returns the file of {@code deletedFiles} that git finds {@code addedFile} to be renamed from without comparing
+     * contents, which is the only deleted file with the same content and a compatible mode, or null if there is none.
+     */
+    private static Origin findRenamedOrigin(DiffEntry addedFile, List<DiffEntry> deletedFiles) {
+        DiffEntry source = null;
+        for (DiffEntry deletedFile : deletedFiles) {
+            if (!deletedFile.getOldId().equals(addedFile.getNewId())) {
+                continue;
+            }
+            if (source != null) {
+                // git prefers the file with the same name, which is not worth following here
+                return null;
+            }
+            source = deletedFile;
+        }
+        if (source == null || source.getOldMode().getObjectType() != Constants.OBJ_BLOB
+                || !isRenameCompatible(source.getOldMode(), addedFile.getNewMode())) {
+            return null;
+        }
+        return new Origin(source.getOldPath(), source.getOldId().toObjectId());
+    }
+
+    /**
+     * Returns true if git renames a file of {@code oldMode} to a file of {@code newMode}, which needs the modes to be
+     * the same unless both are regular files.
+     */
+    private static boolean isRenameCompatible(FileMode oldMode, FileMode newMode) {
+        return (isRegularFile(oldMode) && isRegularFile(newMode)) || oldMode.equals(newMode.getBits());
+    }
+
+    private static boolean isRegularFile(FileMode mode) {
+        return (mode.getBits() & FileMode.TYPE_MASK) == FileMode.TYPE_FILE;
+    }
+
+    /**
+     * Splits {@code regions} of a file into the lines that are unchanged by {@code edits}, which are added to
+     * {@code passed} with their line numbers in the file before the edits, and the lines that are changed, which are
+     * returned.
+     */
+    private static List<Region> splitRegions(List<Region> regions, EditList edits, List<Region> passed) {
+        List<Region> remaining = new ArrayList<>();
+        for (Region region : regions) {
+            int line = region.sourceStart;
+            int end = region.sourceStart + region.length;
+            int editIndex = findFirstEditEndingAfter(edits, line);
+            while (line < end) {
+                while (editIndex < edits.size() && edits.get(editIndex).getEndB() <= line) {
+                    editIndex++;
+                }
+                Edit edit = (editIndex < edits.size()) ? edits.get(editIndex) : null;
+                if (edit != null && edit.getBeginB() <= line) {
+                    int changedEnd = Math.min(end, edit.getEndB());
+                    remaining.add(region.slice(line, changedEnd, line));
+                    line = changedEnd;
+                } else {
+                    int unchangedEnd = (edit == null) ? end : Math.min(end, edit.getBeginB());
+                    Edit previousEdit = (editIndex > 0) ? edits.get(editIndex - 1) : null;
+                    int offset = (previousEdit == null) ? 0 : previousEdit.getEndA() - previousEdit.getEndB();
+                    passed.add(region.slice(line, unchangedEnd, line + offset));
+                    line = unchangedEnd;
+                }
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns the index of the first of {@code edits} that ends after {@code line} of the file after the edits.
+     */
+    private static int findFirstEditEndingAfter(EditList edits, int line) {
+        int low = 0;
+        int high = edits.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edits.get(mid).getEndB() <= line) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Candidate getCandidate(RevCommit commit) {
+        return candidates.computeIfAbsent(commit, key -> {
+            Candidate candidate = new Candidate(key, numCandidatesCreated++);
+            queue.add(candidate);
+            return candidate;
+        });
+    }
+
+    private Origin peekOrigin(RevCommit commit, String path) {
+        Candidate candidate = candidates.get(commit);
+        return (candidate == null) ? null : candidate.origins.get(path);
+    }
+
+    /**
+     * The blame result of a file, which is the commit, path and line number that each line of the file is
+     * attributed to.
+     */
+    static class Result {
+        private final ObjectId blobId;
+        private final RevCommit[] sourceCommits;
+        private final String[] sourcePaths;
+        private final int[] sourceLines;
+        private final boolean[] boundaries;
+        private boolean isUncertain = false;
+
+        Result(ObjectId blobId, int numLines) {
+            this.blobId = blobId;
+            this.sourceCommits = new RevCommit[numLines];
+            this.sourcePaths = new String[numLines];
+            this.sourceLines = new int[numLines];
+            this.boundaries = new boolean[numLines];
+        }
+
+        /**
+         * Returns the id of the blob that was blamed.
+         */
+        public ObjectId getBlobId() {
+            return blobId;
+        }
+
+        public int getNumLines() {
+            return sourceLines.length;
+        }
+
+        /**
+         * Returns true if line {@code index} (0-indexed) was blamed, which is not the case for lines outside the
+         * ranges that were asked for.
+         */
+        public boolean isBlamed(int index) {
+            return sourcePaths[index] != null;
+        }
+
+        /**
+         * Returns the commit that line {@code index} (0-indexed) is attributed to, or null if the line is not
+         * committed yet.
+         */
+        public RevCommit getSourceCommit(int index) {
+            return sourceCommits[index];
+        }
+
+        public String getSourcePath(int index) {
+            return sourcePaths[index];
+        }
+
+        /**
+         * Returns the line number (0-indexed) of line {@code index} in the file of the commit it is attributed to.
+         */
+        public int getSourceLine(int index) {
+            return sourceLines[index];
+        }
+
+        /**
+         * Returns true if line {@code index} (0-indexed) is attributed to a boundary commit, as it was last changed
+         * before the commits that were walked.
+         */
+        public boolean isBoundary(int index) {
+            return boundaries[index];
+        }
+
+        /**
+         * Returns true if "git blame" may attribute some of the lines differently, as the file was added in a commit
+         * that also deleted other files, and git may have found it to be renamed from one of them by comparing their
+         * contents.
+         */
+        public boolean isUncertain() {
+            return isUncertain;
+        }
+
+        void setSource(int index, RevCommit commit, String path, int line) {
+            sourceCommits[index] = commit;
+            sourcePaths[index] = path;
+            sourceLines[index] = line;
+        }
+    }
+
+    /**
+     * A file as of a commit, with the regions of lines of the blamed file that are yet to be attributed.
+     */
+    private static class Origin {
+        private final String path;
+        private final ObjectId blobId;
+        private final List<Region> regions = new ArrayList<>();
+        private RawText text;
+
+        Origin(String path, ObjectId blobId) {
+            this.path = path;
+            this.blobId = blobId;
+        }
+
+        RawText loadText(ObjectReader reader) throws IOException {
+            return new RawText(reader.open(blobId, Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Consecutive lines of a blamed file, starting at {@code resultStart} of the blamed file and at
+     * {@code sourceStart} of the file of an {@link Origin}.
+     */
+    private static class Region {
+        private final Result result;
+        private final int resultStart;
+        private final int sourceStart;
+        private final int length;
+
+        Region(Result result, int resultStart, int sourceStart, int length) {
+            this.result = result;
+            this.resultStart = resultStart;
+            this.sourceStart = sourceStart;
+            this.length = length;
+        }
+
+        /**
+         * Returns the lines from {@code start} to {@code end} of this region, renumbered to start at
+         * {@code newSourceStart}.
+         */
+        Region slice(int start, int end, int newSourceStart) {
+            return new Region(result, resultStart + start - sourceStart, newSourceStart, end - start);
+        }
+
+        void attributeTo(RevCommit commit, String path) {
+            for (int i = 0; i < length; i++) {
+                result.setSource(resultStart + i, commit, path, sourceStart + i);
+            }
+        }
+
+        void attributeToBoundary(RevCommit commit, String path) {
+            attributeTo(commit, path);
+            for (int i = 0; i < length; i++) {
+                result.boundaries[resultStart + i] = true;
+            }
+        }
+    }
+
+    /**
+     * A commit with the files whose lines are to be passed to its parents.
+     */
+    private static class Candidate {
+        private final RevCommit commit;
+        private final long sequence;
+        private final Map<String, Origin> origins = new HashMap<>();
+
+        Candidate(RevCommit commit, long sequence) {
+            this.commit = commit;
+            this.sequence = sequence;
+        }
+
+        void addOrigin(Origin origin) {
+            origins.put(origin.path, origin);
+        }
+
+        /**
+         * Returns the file at {@code path} with {@code blobId} of this commit, adding it if it is not present yet.
+         */
+        Origin getOrigin(String path, ObjectId blobId) {
+            return origins.computeIfAbsent(path, key -> new Origin(key, blobId));
+        }
+    }
+}
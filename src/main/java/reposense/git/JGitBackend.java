@@ -0,0 +1,333 @@
+package reposense.git;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitBlameLineInfo;
+import reposense.git.model.LineRange;
+import reposense.model.CommitHash;
+import reposense.model.RepoConfiguration;
+
+/**
+ * Runs the git operations needed to analyze a repository in-process with JGit, sharing a single open repository,
+ * along with its object cache, across all the operations on that repository.
+ * Blame, path-limited log, diff between commits and commit lookups are done in-process. The other operations, and
+ * blame on repositories that configure a mailmap or a list of commits to ignore, which JGit does not support, are
+ * left to the git command line, so that the results are the same as those of {@link CliGitBackend}.
+ */
+public class JGitBackend extends CliGitBackend {
+    private static final String MESSAGE_FILE_NOT_FOUND = "No such path %s in %s";
+    private static final String MESSAGE_LINE_NOT_FOUND = "File %s has only %d lines at %s";
+
+    /**
+     * {@inheritDoc}
+     * A file that is not prepared is blamed on its own, and a file whose result may differ from that of the git
+     * command line is blamed by it.
+     */
+    @Override
+    public void blame(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer) {
+        Repository repository = getRepository(root);
+        if (!isBlameSupported(repository)) {
+            super.blame(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+            return;
+        }
+
+        HistoryBlame.Result result = takePreparedBlame(root, fileDirectory, lineRanges, sinceCommitHash);
+        if (result == null) {
+            result = blameFile(repository, toGitPath(fileDirectory), Constants.HEAD, sinceCommitHash, lineRanges,
+                    true);
+        }
+        if (result.isUncertain()) {
+            super.blame(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+            return;
+        }
+        emitBlameRecords(result, loadContents(repository, result), lineRanges, lineConsumer);
+    }
+
+    @Override
+    public void blameFast(String root, String fileDirectory, List<LineRange> lineRanges, String sinceCommitHash,
+            Consumer<String> lineConsumer) {
+        Repository repository = getRepository(root);
+        if (!isBlameSupported(repository)) {
+            super.blameFast(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+            return;
+        }
+
+        HistoryBlame.Result result = blameFile(repository, toGitPath(fileDirectory), Constants.HEAD, sinceCommitHash,
+                lineRanges, false);
+        if (result.isUncertain()) {
+            super.blameFast(root, fileDirectory, lineRanges, sinceCommitHash, lineConsumer);
+            return;
+        }
+        emitBlameRecords(result, loadContents(repository, result), lineRanges, lineConsumer);
+    }
+
+    @Override
+    public Map<Integer, GitBlameLineInfo> blameLines(String root, String commitHash, String fileDirectory,
+            Collection<Integer> lineNumbers) {
+        Repository repository = getRepository(root);
+        if (!isBlameSupported(repository)) {
+            return super.blameLines(root, commitHash, fileDirectory, lineNumbers);
+        }
+
+        String path = toGitPath(fileDirectory);
+        Map<Integer, GitBlameLineInfo> lineInfos = new HashMap<>();
+        if (lineNumbers.isEmpty()) {
+            return lineInfos;
+        }
+
+        // every line is blamed on its own, as an empty list of ranges would blame the whole file
+        List<LineRange> lineRanges = lineNumbers.stream()
+                .map(lineNumber -> new LineRange(Math.max(lineNumber, 1), Math.max(lineNumber, 1)))
+                .collect(Collectors.toList());
+        HistoryBlame.Result result = blameFile(repository, path, commitHash, "", lineRanges, true);
+        if (result.isUncertain()) {
+            return super.blameLines(root, commitHash, fileDirectory, lineNumbers);
+        }
+
+        int numLines = result.getNumLines();
+        for (int lineNumber : lineNumbers) {
+            if (lineNumber < 1 || lineNumber > numLines) {
+                throw new RuntimeException(String.format(MESSAGE_LINE_NOT_FOUND, path, numLines, commitHash));
+            }
+
+            RevCommit commit = result.getSourceCommit(lineNumber - 1);
+            PersonIdent author = commit.getAuthorIdent();
+            lineInfos.put(lineNumber, new GitBlameLineInfo(commit.getName(), author.getName(),
+                    author.getEmailAddress(), commit.getCommitTime()));
+        }
+        return lineInfos;
+    }
+
+    @Override
+    public Map<String, List<String[]>> getFileAuthors(RepoConfiguration config, Collection<String> filePaths) {
+        List<String> gitPaths = filePaths.stream().map(JGitBackend::toGitPath).collect(Collectors.toList());
+        FileAuthorsCollector collector = new FileAuthorsCollector(gitPaths);
+        if (gitPaths.isEmpty()) {
+            return collector.getFileAuthors();
+        }
+
+        Repository repository = getRepository(config.getRepoRoot());
+        long since = (config.getSinceDate() == null) ? Long.MIN_VALUE
+                : ZonedDateTime.of(config.getSinceDate(), config.getZoneId()).toEpochSecond();
+        long until = (config.getUntilDate() == null) ? Long.MAX_VALUE
+                : ZonedDateTime.of(config.getUntilDate(), config.getZoneId()).toEpochSecond();
+        try {
+            ObjectId head = resolveCommit(repository, Constants.HEAD);
+            // the files are looked up in the same batches as the git command line does, as the history is simplified
+            // for each batch as a whole
+            for (List<String> batch : GitLog.getArgumentBatches(gitPaths)) {
+                addFileAuthors(repository, head, batch, since, until, collector);
+            }
+        } catch (IOException | CommitNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        return collector.getFileAuthors();
+    }
+
+    @Override
+    public String diffCommits(String root, String baseCommitHash, String currentCommitHash) {
+        if (!isDiffSupported(getRepository(root))) {
+            return super.diffCommits(root, baseCommitHash, currentCommitHash);
+        }
+
+        List<String> diffQuery = Arrays.asList("jgit", "diff", baseCommitHash + "..." + currentCommitHash);
+        String diff = GitCommandCache.getOrCompute(root, Arrays.asList(baseCommitHash, currentCommitHash), diffQuery,
+                () -> diffFromMergeBase(getRepository(root), baseCommitHash, currentCommitHash));
+        return (diff != null) ? diff : super.diffCommits(root, baseCommitHash, currentCommitHash);
+    }
+
+    @Override
+    public CommitHash getExpandedCommitHash(String root, String shortCommitHash) throws CommitNotFoundException {
+        return new CommitHash(resolveCommit(getRepository(root), shortCommitHash).getName());
+    }
+
+    /**
+     * Blames the lines in {@code lineRanges} of the file at {@code path}, or every line if {@code lineRanges} is
+     * empty, as of {@code commitHash} in {@code repository}, from {@code sinceCommitHash}, exclusive, or from the
+     * root commits if it is empty, ignoring whitespace changes if {@code isWhitespaceIgnored}.
+     * The history is only walked for as long as some of these lines are not yet attributed.
+     *
+     * @throws RuntimeException if the file cannot be blamed.
+     */
+    private static HistoryBlame.Result blameFile(Repository repository, String path, String commitHash,
+            String sinceCommitHash, List<LineRange> lineRanges, boolean isWhitespaceIgnored) {
+        try {
+            ObjectId sinceCommit = sinceCommitHash.isEmpty() ? null : resolveCommit(repository, sinceCommitHash);
+            HistoryBlame.Result result = HistoryBlame.blame(repository,
+                    getBlameAlgorithm(repository, isWhitespaceIgnored),
+                    resolveCommit(repository, commitHash), sinceCommit, Collections.singletonMap(path, lineRanges))
+                    .get(path);
+            if (result == null) {
+                throw new RuntimeException(String.format(MESSAGE_FILE_NOT_FOUND, path, commitHash));
+            }
+            return result;
+        } catch (IOException | CommitNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the diff of {@code currentCommitHash} compared to its merge base with {@code baseCommitHash} in
+     * {@code repository}, in the format of "git diff", or null if git may find renames in it by comparing the
+     * contents of files.
+     * As in "git diff", an empty {@code baseCommitHash}, which is the parent of a root commit, stands for HEAD.
+     */
+    private static String diffFromMergeBase(Repository repository, String baseCommitHash, String currentCommitHash) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit current = walk.parseCommit(resolveCommit(repository, currentCommitHash));
+            RevCommit base = walk.parseCommit(resolveCommit(repository,
+                    baseCommitHash.trim().isEmpty() ? Constants.HEAD : baseCommitHash));
+            walk.setRevFilter(RevFilter.MERGE_BASE);
+            walk.markStart(base);
+            walk.markStart(current);
+            RevCommit mergeBase = walk.next();
+            if (mergeBase == null) {
+                throw new RuntimeException(String.format("No merge base between %s and %s",
+                        baseCommitHash, currentCommitHash));
+            }
+
+            UnifiedDiffWriter writer =
+                    new UnifiedDiffWriter(repository, XdiffAlgorithm.forDiff(isIndentHeuristicUsed(repository)));
+            if (!writer.write(walk.parseCommit(mergeBase).getTree(), current.getTree(), output)) {
+                return null;
+            }
+        } catch (IOException | CommitNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Adds the authors of the commits from {@code head} that changed each of the files at {@code gitPaths} to
+     * {@code collector}, as "git log -c --since --until -- gitPaths" does, with {@code since} and {@code until} in
+     * seconds since the epoch.
+     * As in git, the history is walked in order of commit time, and is cut off at the commits made before
+     * {@code since}, without walking their parents. It is simplified for the files as a whole: a commit that left
+     * them unchanged from one of its parents is not counted, and only that parent is walked. A merge commit is only
+     * counted for the files that it changed from all of its parents.
+     */
+    private static void addFileAuthors(Repository repository, ObjectId head, List<String> gitPaths, long since,
+            long until, FileAuthorsCollector collector) throws IOException {
+        try (RevWalk walk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(createChangedPathsFilter(gitPaths));
+            CommitQueue queue = new CommitQueue();
+            queue.add(walk.parseCommit(head));
+
+            while (!queue.isEmpty()) {
+                RevCommit commit = queue.poll();
+                if (commit.getCommitTime() < since) {
+                    continue;
+                }
+
+                treeWalk.reset(commit.getTree());
+                if (commit.getParentCount() == 0) {
+                    treeWalk.addTree(new EmptyTreeIterator());
+                }
+                for (RevCommit parent : commit.getParents()) {
+                    treeWalk.addTree(walk.parseCommit(parent).getTree());
+                }
+
+                boolean[] isChangedFromParent = new boolean[treeWalk.getTreeCount() - 1];
+                List<String> changedPaths = new ArrayList<>();
+                while (treeWalk.next()) {
+                    boolean isChangedFromAllParents = true;
+                    for (int i = 1; i < treeWalk.getTreeCount(); i++) {
+                        boolean isChanged = !treeWalk.idEqual(0, i)
+                                || treeWalk.getRawMode(0) != treeWalk.getRawMode(i);
+                        isChangedFromParent[i - 1] |= isChanged;
+                        isChangedFromAllParents &= isChanged;
+                    }
+                    if (isChangedFromAllParents) {
+                        changedPaths.add(treeWalk.getPathString());
+                    }
+                }
+
+                int sameParentIndex = 0;
+                while (sameParentIndex < isChangedFromParent.length && isChangedFromParent[sameParentIndex]) {
+                    sameParentIndex++;
+                }
+                if (sameParentIndex < isChangedFromParent.length) {
+                    // a root commit that did not add any of the files is compared to the empty tree instead
+                    if (commit.getParentCount() > 0) {
+                        queue.add(walk.parseCommit(commit.getParent(sameParentIndex)));
+                    }
+                    continue;
+                }
+
+                for (RevCommit parent : commit.getParents()) {
+                    queue.add(walk.parseCommit(parent));
+                }
+                if (commit.getCommitTime() <= until) {
+                    PersonIdent author = commit.getAuthorIdent();
+                    changedPaths.forEach(path -> collector.add(path, author.getName(), author.getEmailAddress()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the filter of the changes to any of the files at {@code gitPaths}, as "git log -- paths" does.
+     */
+    private static TreeFilter createChangedPathsFilter(List<String> gitPaths) {
+        return AndTreeFilter.create(PathFilterGroup.createFromStrings(gitPaths), TreeFilter.ANY_DIFF);
+    }
+
+    /**
+     * The commits yet to be walked by {@link #addFileAuthors}, in the order that git log walks them: the latest
+     * commit time first, and the commits of the same time in the order they were added. A commit is only added the
+     * first time.
+     */
+    private static class CommitQueue {
+        private final Map<RevCommit, Long> addedOrders = new HashMap<>();
+        private final PriorityQueue<RevCommit> commits = new PriorityQueue<>(this::compare);
+
+        void add(RevCommit commit) {
+            if (addedOrders.putIfAbsent(commit, (long) addedOrders.size()) == null) {
+                commits.add(commit);
+            }
+        }
+
+        RevCommit poll() {
+            return commits.poll();
+        }
+
+        boolean isEmpty() {
+            return commits.isEmpty();
+        }
+
+        private int compare(RevCommit commit, RevCommit otherCommit) {
+            int timeOrder = Integer.compare(otherCommit.getCommitTime(), commit.getCommitTime());
+            return (timeOrder != 0) ? timeOrder : Long.compare(addedOrders.get(commit), addedOrders.get(otherCommit));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package reposense.git;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Matches file paths against the pathspecs given to a git command, as git matches the paths of the files changed by
+ * a commit against them. Only the pathspecs that RepoSense gives to git are supported: pathspecs without magic,
+ * which are matched as wildcard patterns in which "*" and "?" also match "/", and those with the "exclude" magic.
+ */
+class PathspecMatcher implements Predicate<String> {
+    private static final String EXCLUDE_MAGIC = ":(exclude)";
+    private static final String GLOB_SPECIAL_CHARACTERS = "*?[\\";
+
+    private final List<String> includedPatterns = new ArrayList<>();
+    private final List<String> excludedPatterns = new ArrayList<>();
+
+    /**
+     * Creates a matcher of the paths that match {@code pathspecs}, which are the arguments given to git after "--".
+     * As in git, a path matches if it matches any of the pathspecs without the "exclude" magic, or if there are none
+     * of them, and none of the pathspecs with the "exclude" magic.
+     */
+    PathspecMatcher(List<String> pathspecs) {
+        for (String pathspec : pathspecs) {
+            if (pathspec.startsWith(EXCLUDE_MAGIC)) {
+                excludedPatterns.add(normalize(pathspec.substring(EXCLUDE_MAGIC.length())));
+            } else {
+                includedPatterns.add(normalize(pathspec));
+            }
+        }
+    }
+
+    @Override
+    public boolean test(String path) {
+        return (includedPatterns.isEmpty() || includedPatterns.stream().anyMatch(pattern -> matches(pattern, path)))
+                && excludedPatterns.stream().noneMatch(pattern -> matches(pattern, path));
+    }
+
+    /**
+     * Returns {@code pattern} with the "." components and repeated slashes removed, as git normalizes a pathspec
+     * before matching it.
+     */
+    private static String normalize(String pattern) {
+        StringBuilder normalized = new StringBuilder();
+        for (String component : pattern.split("/")) {
+            if (component.isEmpty() || component.equals(".")) {
+                continue;
+            }
+            if (normalized.length() > 0) {
+                normalized.append('/');
+            }
+            normalized.append(component);
+        }
+        if (pattern.endsWith("/") && normalized.length() > 0) {
+            normalized.append('/');
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Returns true if {@code path} matches {@code pattern}, either as the path of the file or of a directory that
+     * contains it, or as a wildcard pattern.
+     */
+    private static boolean matches(String pattern, String path) {
+        if (path.startsWith(pattern) && (pattern.isEmpty() || path.length() == pattern.length()
+                || pattern.endsWith("/") || path.charAt(pattern.length()) == '/')) {
+            return true;
+        }
+
+        int literalLength = getLiteralLength(pattern);
+        return literalLength < pattern.length() && path.startsWith(pattern.substring(0, literalLength))
+                && matchesWildcards(pattern, literalLength, path, literalLength);
+    }
+
+    /**
+     * Returns the length of the part of {@code pattern} before its first wildcard.
+     */
+    private static int getLiteralLength(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_SPECIAL_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return pattern.length();
+    }
+
+    /**
+     * Returns true if {@code text} from {@code textIndex} matches {@code pattern} from {@code patternIndex}, where
+     * "*" matches any string, "?" matches any character, "[...]" matches any character in the brackets, and "\"
+     * matches the character after it.
+     */
+    private static boolean matchesWildcards(String pattern, int patternIndex, String text, int textIndex) {
+        int p = patternIndex;
+        int t = textIndex;
+        // the positions to resume from if the rest of the pattern does not match after the last "*"
+        int starPatternIndex = -1;
+        int starTextIndex = -1;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                while (p < pattern.length() && pattern.charAt(p) == '*') {
+                    p++;
+                }
+                starPatternIndex = p;
+                starTextIndex = t;
+                continue;
+            }
+
+            int matchEnd = (p < pattern.length()) ? matchCharacter(pattern, p, text.charAt(t)) : -1;
+            if (matchEnd >= 0) {
+                p = matchEnd;
+                t++;
+            } else if (starPatternIndex >= 0) {
+                p = starPatternIndex;
+                t = ++starTextIndex;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * Returns the index in {@code pattern} after the element at {@code index}, which is not "*", if it matches
+     * {@code c}, or -1 otherwise.
+     */
+    private static int matchCharacter(String pattern, int index, char c) {
+        char element = pattern.charAt(index);
+        if (element == '?') {
+            return index + 1;
+        }
+        if (element == '\\' && index + 1 < pattern.length()) {
+            return (pattern.charAt(index + 1) == c) ? index + 2 : -1;
+        }
+        if (element == '[') {
+            return matchBracket(pattern, index, c);
+        }
+        return (element == c) ? index + 1 : -1;
+    }
+
+    /**
+     * Returns the index in {@code pattern} after the bracket expression starting at {@code index} if it matches
+     * {@code c}, or -1 otherwise. A bracket expression without a closing bracket matches nothing.
+     */
+    private static int matchBracket(String pattern, int index, char c) {
+        int i = index + 1;
+        boolean isNegated = i < pattern.length() && (pattern.charAt(i) == '!' || pattern.charAt(i) == '^');
+        if (isNegated) {
+            i++;
+        }
+
+        boolean isMatched = false;
+        boolean isFirst = true;
+        while (i < pattern.length() && (isFirst || pattern.charAt(i) != ']')) {
+            isFirst = false;
+            char low = pattern.charAt(i);
+            if (low == '[' && i + 1 < pattern.length() && pattern.charAt(i + 1) == ':') {
+                int classEnd = pattern.indexOf(":]", i + 2);
+                if (classEnd >= 0) {
+                    isMatched |= isInCharacterClass(pattern.substring(i + 2, classEnd), c);
+                    i = classEnd + 2;
+                    continue;
+                }
+            }
+            if (low == '\\' && i + 1 < pattern.length()) {
+                low = pattern.charAt(++i);
+            }
+            char high = low;
+            if (i + 2 < pattern.length() && pattern.charAt(i + 1) == '-' && pattern.charAt(i + 2) != ']') {
+                i += 2;
+                high = pattern.charAt(i);
+                if (high == '\\' && i + 1 < pattern.length()) {
+                    high = pattern.charAt(++i);
+                }
+            }
+            isMatched |= low <= c && c <= high;
+            i++;
+        }
+
+        if (i >= pattern.length()) {
+            return -1;
+        }
+        return (isMatched != isNegated) ? i + 1 : -1;
+    }
+
+    /**
+     * Returns true if {@code c} is in the character class named {@code className}, such as "alpha".
+     */
+    private static boolean isInCharacterClass(String className, char c) {
+        switch (className) {
+        case "alnum":
+            return Character.isLetterOrDigit(c) && c < 128;
+        case "alpha":
+            return Character.isLetter(c) && c < 128;
+        case "blank":
+            return c == ' ' || c == '\t';
+        case "cntrl":
+            return c < 32 || c == 127;
+        case "digit":
+            return c >= '0' && c <= '9';
+        case "graph":
+            return c > 32 && c < 127;
+        case "lower":
+            return c >= 'a' && c <= 'z';
+        case "print":
+            return c >= 32 && c < 127;
+        case "punct":
+            return c > 32 && c < 127 && !Character.isLetterOrDigit(c);
+        case "space":
+            return c == ' ' || (c >= '\t' && c <= '\r');
+        case "upper":
+            return c >= 'A' && c <= 'Z';
+        case "xdigit":
+            return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        default:
+            return false;
+        }
+    }
+}
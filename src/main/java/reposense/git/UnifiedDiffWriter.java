@@ -0,0 +1,310 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.diff.Sequence;
+import org.eclipse.jgit.diff.SequenceComparator;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+/**
+ * Writes the diff between two trees in the format of "git diff", with the changed lines found by
+ * {@link XdiffAlgorithm}, and the hunk headers ending with the name of the function that each hunk is in, which is
+ * found as git does when no diff driver is set for the file.
+ * The file headers are those written by the {@link DiffFormatter} of JGit.
+ * Only the renames that git finds without comparing the contents of files are detected, so a diff in which git may
+ * find other renames is not written.
+ */
+class UnifiedDiffWriter {
+    private static final int CONTEXT_LINES = 3;
+    private static final int MAX_FUNCTION_NAME_LENGTH = 80;
+    private static final byte[] OLD_FILE_LINE_START = "\n--- ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NO_NEWLINE_AT_END = "\\ No newline at end of file\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Repository repository;
+    private final XdiffAlgorithm algorithm;
+
+    UnifiedDiffWriter(Repository repository, XdiffAlgorithm algorithm) {
+        this.repository = repository;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Writes the diff from {@code oldTree} to {@code newTree} to {@code output} and returns true, or returns false
+     * without writing anything if git may find renames between the trees by comparing the contents of files.
+     *
+     * @throws IOException if the objects of the repository cannot be read.
+     */
+    boolean write(RevTree oldTree, RevTree newTree, OutputStream output) throws IOException {
+        try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+                ObjectReader reader = repository.newObjectReader()) {
+            formatter.setRepository(repository);
+            formatter.setDiffAlgorithm(new XdiffAdapter(algorithm));
+            List<DiffEntry> entries = formatter.scan(oldTree, newTree);
+            if (!hasOnlyExactRenames(entries)) {
+                return false;
+            }
+
+            RenameDetector renameDetector = new RenameDetector(repository);
+            renameDetector.addAll(entries);
+            for (DiffEntry entry : renameDetector.compute()) {
+                FileHeader header = formatter.toFileHeader(entry);
+                EditList edits = header.toEditList();
+                boolean hasHunks = header.getPatchType() == FileHeader.PatchType.UNIFIED && !edits.isEmpty();
+                writeFileHeader(header, hasHunks, output);
+                if (hasHunks) {
+                    writeHunks(edits, open(reader, entry, DiffEntry.Side.OLD), open(reader, entry, DiffEntry.Side.NEW),
+                            output);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if git finds all the renames among {@code entries} without comparing the contents of files, which
+     * is the case if each file that is added with the content of a deleted file is its only match on both sides, with
+     * the same mode, and no other files are both added and deleted.
+     */
+    private static boolean hasOnlyExactRenames(List<DiffEntry> entries) {
+        Map<ObjectId, DiffEntry> addedFiles = new HashMap<>();
+        Map<ObjectId, DiffEntry> deletedFiles = new HashMap<>();
+        for (DiffEntry entry : entries) {
+            boolean isAdded = entry.getChangeType() == DiffEntry.ChangeType.ADD;
+            if (!isAdded && entry.getChangeType() != DiffEntry.ChangeType.DELETE) {
+                continue;
+            }
+
+            ObjectId id = (isAdded ? entry.getNewId() : entry.getOldId()).toObjectId();
+            Map<ObjectId, DiffEntry> files = isAdded ? addedFiles : deletedFiles;
+            if (files.containsKey(id)) {
+                // git pairs files of the same content by their names, which is not worth matching here
+                files.put(id, null);
+            } else {
+                files.put(id, entry);
+            }
+        }
+
+        int numUnpairedAddedFiles = addedFiles.size();
+        int numUnpairedDeletedFiles = deletedFiles.size();
+        for (Map.Entry<ObjectId, DiffEntry> addedFile : addedFiles.entrySet()) {
+            if (!deletedFiles.containsKey(addedFile.getKey())) {
+                continue;
+            }
+
+            DiffEntry deletedFile = deletedFiles.get(addedFile.getKey());
+            if (addedFile.getValue() == null || deletedFile == null
+                    || !addedFile.getValue().getNewMode().equals(deletedFile.getOldMode().getBits())) {
+                return false;
+            }
+            numUnpairedAddedFiles--;
+            numUnpairedDeletedFiles--;
+        }
+        return numUnpairedAddedFiles == 0 || numUnpairedDeletedFiles == 0;
+    }
+
+    /**
+     * Writes the lines of {@code header}, leaving out the lines that name the old and new files if there are no hunks
+     * to follow them, as git does for files that are only renamed, or that are created or deleted while empty.
+     */
+    private static void writeFileHeader(FileHeader header, boolean hasHunks, OutputStream output)
+            throws IOException {
+        byte[] buffer = header.getBuffer();
+        int start = header.getStartOffset();
+        int end = header.getEndOffset();
+        if (!hasHunks && header.getPatchType() == FileHeader.PatchType.UNIFIED) {
+            int fileNamesStart = indexOf(buffer, start, end, OLD_FILE_LINE_START);
+            if (fileNamesStart >= 0) {
+                end = fileNamesStart + 1;
+            }
+        }
+        output.write(buffer, start, end - start);
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code target} in {@code buffer} from {@code start} to
+     * {@code end}, exclusive, or -1 if there is none.
+     */
+    private static int indexOf(byte[] buffer, int start, int end, byte[] target) {
+        for (int i = start; i + target.length <= end; i++) {
+            int matched = 0;
+            while (matched < target.length && buffer[i + matched] == target[matched]) {
+                matched++;
+            }
+            if (matched == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the text of the file on {@code side} of {@code entry}, as {@link DiffFormatter} reads it.
+     */
+    private static RawText open(ObjectReader reader, DiffEntry entry, DiffEntry.Side side) throws IOException {
+        FileMode mode = entry.getMode(side);
+        AbbreviatedObjectId id = entry.getId(side);
+        if (mode == FileMode.MISSING) {
+            return RawText.EMPTY_TEXT;
+        }
+        if (mode == FileMode.GITLINK) {
+            return new RawText(("Subproject commit " + id.name() + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        return new RawText(reader.open(id.toObjectId(), Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Writes the hunks of {@code edits} from {@code a} to {@code b}, merging the edits whose context lines overlap
+     * or touch into one hunk, as git does.
+     */
+    private static void writeHunks(EditList edits, RawText a, RawText b, OutputStream output) throws IOException {
+        byte[] functionName = new byte[0];
+        int functionSearchEnd = -1;
+        for (int first = 0; first < edits.size();) {
+            int last = first;
+            while (last + 1 < edits.size()
+                    && edits.get(last + 1).getBeginA() - edits.get(last).getEndA() <= 2 * CONTEXT_LINES) {
+                last++;
+            }
+
+            Edit firstEdit = edits.get(first);
+            Edit lastEdit = edits.get(last);
+            int startA = Math.max(firstEdit.getBeginA() - CONTEXT_LINES, 0);
+            int startB = Math.max(firstEdit.getBeginB() - CONTEXT_LINES, 0);
+            int endContext = Math.min(CONTEXT_LINES,
+                    Math.min(a.size() - lastEdit.getEndA(), b.size() - lastEdit.getEndB()));
+            int endA = lastEdit.getEndA() + endContext;
+            int endB = lastEdit.getEndB() + endContext;
+
+            // as in git, the function name of the previous hunk is kept if there is no function line in between
+            byte[] foundName = findFunctionName(a, startA - 1, functionSearchEnd);
+            if (foundName != null) {
+                functionName = foundName;
+            }
+            functionSearchEnd = startA - 1;
+            writeHunkHeader(startA, endA, startB, endB, functionName, output);
+
+            int lineB = startB;
+            for (int i = first; i <= last; i++) {
+                Edit edit = edits.get(i);
+                for (; lineB < edit.getBeginB(); lineB++) {
+                    writeLine(' ', b, lineB, output);
+                }
+                for (int lineA = edit.getBeginA(); lineA < edit.getEndA(); lineA++) {
+                    writeLine('-', a, lineA, output);
+                }
+                for (; lineB < edit.getEndB(); lineB++) {
+                    writeLine('+', b, lineB, output);
+                }
+            }
+            for (; lineB < endB; lineB++) {
+                writeLine(' ', b, lineB, output);
+            }
+            first = last + 1;
+        }
+    }
+
+    /**
+     * Returns the name of the function that line {@code start} of {@code text} is in, which is the first line from
+     * {@code start} back to {@code end}, exclusive, that starts with a letter, "_" or "$", cut to 80 bytes and with
+     * trailing whitespace removed, or null if there is no such line.
+     */
+    private static byte[] findFunctionName(RawText text, int start, int end) {
+        for (int line = start; line > end && line >= 0; line--) {
+            ByteBuffer content = text.getRawString(line);
+            int length = content.remaining();
+            if (length == 0) {
+                continue;
+            }
+
+            byte first = content.get(content.position());
+            if ((first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z') || first == '_' || first == '$') {
+                length = Math.min(length, MAX_FUNCTION_NAME_LENGTH);
+                while (length > 0 && XdiffAlgorithm.isWhitespace(content.get(content.position() + length - 1))) {
+                    length--;
+                }
+                byte[] name = new byte[length];
+                content.get(name);
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private static void writeHunkHeader(int startA, int endA, int startB, int endB, byte[] functionName,
+            OutputStream output) throws IOException {
+        StringBuilder header = new StringBuilder("@@ -");
+        appendRange(header, startA, endA);
+        header.append(" +");
+        appendRange(header, startB, endB);
+        header.append(" @@");
+        output.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+        if (functionName.length > 0) {
+            output.write(' ');
+            output.write(functionName);
+        }
+        output.write('\n');
+    }
+
+    /**
+     * Appends the range of lines from {@code start} to {@code end}, exclusive, in the format of a hunk header, which
+     * leaves out a count of 1, and gives the line before the range if it is empty.
+     */
+    private static void appendRange(StringBuilder header, int start, int end) {
+        int count = end - start;
+        header.append((count == 0) ? start : start + 1);
+        if (count != 1) {
+            header.append(',').append(count);
+        }
+    }
+
+    private static void writeLine(char prefix, RawText text, int line, OutputStream output) throws IOException {
+        output.write(prefix);
+        text.writeLine(output, line);
+        output.write('\n');
+        if (line == text.size() - 1 && text.isMissingNewlineAtEnd()) {
+            output.write(NO_NEWLINE_AT_END);
+        }
+    }
+
+    /**
+     * Lets {@link DiffFormatter} find the changed lines of each file with {@link XdiffAlgorithm}.
+     */
+    private static class XdiffAdapter extends DiffAlgorithm {
+        private final XdiffAlgorithm algorithm;
+
+        XdiffAdapter(XdiffAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public <S extends Sequence> EditList diff(SequenceComparator<? super S> comparator, S a, S b) {
+            return algorithm.diff((RawText) a, (RawText) b);
+        }
+
+        @Override
+        public <S extends Sequence> EditList diffNonCommon(SequenceComparator<? super S> comparator, S a, S b) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,938 @@
+package reposense.git;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+
+/**
+ * Computes the lines changed between two texts as git does, which is a port of the Myers diff of xdiff, the diff
+ * library of git, along with the heuristics that git applies around it.
+ * A repeated line, such as a blank line or a closing brace, can be matched to more than one of its copies in the
+ * other text, and another diff algorithm may pick a different copy than git. So that "git diff" and "git blame" can be
+ * computed without git and still give the same results, every step that picks between such copies is kept as in git:
+ * the lines that occur in only one of the texts are set aside before the diff, the search for the shortest edit
+ * script is cut short in the same way on large texts, and each group of changed lines is then slid to the same
+ * position, using the indent heuristic of git if enabled.
+ */
+class XdiffAlgorithm {
+    // the limits and weights below are those of xdiff
+    private static final int SIMILAR_SCAN_WINDOW = 100;
+    private static final int MAX_EQUAL_LIMIT = 1024;
+    private static final int DISCARDED_RUN_FACTOR = 4;
+    private static final int MIN_MAX_COST = 256;
+    private static final int MIN_HEURISTIC_COST = 256;
+    private static final int SNAKE_COUNT = 20;
+    private static final int HEURISTIC_FACTOR = 4;
+    private static final int COMMON_TAIL_BLOCK_SIZE = 1024;
+
+    private static final int START_OF_FILE_PENALTY = 1;
+    private static final int END_OF_FILE_PENALTY = 21;
+    private static final int TOTAL_BLANK_WEIGHT = -30;
+    private static final int POST_BLANK_WEIGHT = 6;
+    private static final int RELATIVE_INDENT_PENALTY = -4;
+    private static final int RELATIVE_INDENT_WITH_BLANK_PENALTY = 10;
+    private static final int RELATIVE_OUTDENT_PENALTY = 24;
+    private static final int RELATIVE_OUTDENT_WITH_BLANK_PENALTY = 17;
+    private static final int RELATIVE_DEDENT_PENALTY = 23;
+    private static final int RELATIVE_DEDENT_WITH_BLANK_PENALTY = 17;
+    private static final int INDENT_WEIGHT = 60;
+    private static final int INDENT_HEURISTIC_MAX_SLIDING = 100;
+    private static final int MAX_INDENT = 200;
+    private static final int MAX_BLANKS = 20;
+
+    // the line is set aside as it does not occur in the other text
+    private static final byte NO_MATCH = 0;
+    private static final byte SOME_MATCHES = 1;
+    private static final byte MANY_MATCHES = 2;
+
+    private final boolean isWhitespaceIgnored;
+    private final boolean isIndentHeuristicUsed;
+    private final boolean isCommonTailTrimmed;
+
+    private XdiffAlgorithm(boolean isWhitespaceIgnored, boolean isIndentHeuristicUsed, boolean isCommonTailTrimmed) {
+        this.isWhitespaceIgnored = isWhitespaceIgnored;
+        this.isIndentHeuristicUsed = isIndentHeuristicUsed;
+        this.isCommonTailTrimmed = isCommonTailTrimmed;
+    }
+
+    /**
+     * Returns the algorithm of "git blame", which ignores whitespace changes if {@code isWhitespaceIgnored}, as
+     * "git blame -w" does, and uses the indent heuristic if {@code isIndentHeuristicUsed}.
+     * As git blame diffs without context lines, the lines at the end of the texts that are the same are not diffed.
+     */
+    static XdiffAlgorithm forBlame(boolean isWhitespaceIgnored, boolean isIndentHeuristicUsed) {
+        return new XdiffAlgorithm(isWhitespaceIgnored, isIndentHeuristicUsed, true);
+    }
+
+    /**
+     * Returns the algorithm of "git diff", which uses the indent heuristic if {@code isIndentHeuristicUsed}.
+     */
+    static XdiffAlgorithm forDiff(boolean isIndentHeuristicUsed) {
+        return new XdiffAlgorithm(false, isIndentHeuristicUsed, false);
+    }
+
+    /**
+     * Returns the changes from {@code a} to {@code b}, in the order of their lines.
+     */
+    EditList diff(RawText a, RawText b) {
+        byte[] contentA = a.getRawContent();
+        byte[] contentB = b.getRawContent();
+        int trimmedSize = isCommonTailTrimmed ? getCommonTailSize(contentA, contentB) : 0;
+        Lines linesA = new Lines(contentA, contentA.length - trimmedSize);
+        Lines linesB = new Lines(contentB, contentB.length - trimmedSize);
+        classify(linesA, linesB);
+
+        diffLines(linesA, linesB);
+        compact(linesA, linesB);
+        compact(linesB, linesA);
+        return toEditList(linesA, linesB);
+    }
+
+    /**
+     * Returns the size of the end of {@code a} and {@code b} that is the same, in whole blocks, and cut back to the
+     * end of a line, which git leaves out of a diff without context lines.
+     */
+    private static int getCommonTailSize(byte[] a, byte[] b) {
+        int smallerSize = Math.min(a.length, b.length);
+        int trimmed = 0;
+        while (trimmed + COMMON_TAIL_BLOCK_SIZE <= smallerSize && isSameBlock(a, b, trimmed)) {
+            trimmed += COMMON_TAIL_BLOCK_SIZE;
+        }
+
+        int recovered = 0;
+        while (recovered < trimmed) {
+            if (a[a.length - trimmed + recovered++] == '\n') {
+                break;
+            }
+        }
+        return trimmed - recovered;
+    }
+
+    private static boolean isSameBlock(byte[] a, byte[] b, int trimmed) {
+        for (int i = 1; i <= COMMON_TAIL_BLOCK_SIZE; i++) {
+            if (a[a.length - trimmed - i] != b[b.length - trimmed - i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Numbers the lines of {@code a} and {@code b} such that lines that are the same have the same number, and
+     * counts the occurrences of each line in both texts.
+     */
+    private void classify(Lines a, Lines b) {
+        Map<LineKey, Integer> classes = new HashMap<>();
+        List<int[]> counts = new ArrayList<>();
+        for (Lines lines : new Lines[] {a, b}) {
+            int side = (lines == a) ? 0 : 1;
+            for (int i = 0; i < lines.count; i++) {
+                LineKey key = new LineKey(lines.content, lines.starts[i], lines.starts[i + 1], isWhitespaceIgnored);
+                Integer lineClass = classes.get(key);
+                if (lineClass == null) {
+                    lineClass = counts.size();
+                    classes.put(key, lineClass);
+                    counts.add(new int[2]);
+                }
+                counts.get(lineClass)[side]++;
+                lines.classes[i] = lineClass;
+            }
+        }
+
+        a.otherCounts = new int[a.count];
+        b.otherCounts = new int[b.count];
+        for (int i = 0; i < a.count; i++) {
+            a.otherCounts[i] = counts.get(a.classes[i])[1];
+        }
+        for (int i = 0; i < b.count; i++) {
+            b.otherCounts[i] = counts.get(b.classes[i])[0];
+        }
+    }
+
+    /**
+     * Marks the lines of {@code a} and {@code b} that are changed, leaving out the lines at their start and end that
+     * are the same, and the lines that cannot be matched, before searching for the shortest edit script.
+     */
+    private static void diffLines(Lines a, Lines b) {
+        int start = 0;
+        int limit = Math.min(a.count, b.count);
+        while (start < limit && a.classes[start] == b.classes[start]) {
+            start++;
+        }
+        int end = 0;
+        limit -= start;
+        while (end < limit && a.classes[a.count - end - 1] == b.classes[b.count - end - 1]) {
+            end++;
+        }
+
+        a.setAsideUnmatchedLines(start, a.count - end - 1);
+        b.setAsideUnmatchedLines(start, b.count - end - 1);
+
+        int numDiagonals = a.numKept + b.numKept + 3;
+        MyersSearch search = new MyersSearch(a, b, numDiagonals);
+        search.run();
+    }
+
+    /**
+     * Slides each group of changed lines of {@code lines} up or down, over the same lines as those changed, to merge
+     * it with the groups next to it where possible, to line it up with the changed lines of {@code otherLines}, or
+     * else to the position preferred by the indent heuristic.
+     */
+    private void compact(Lines lines, Lines otherLines) {
+        Group group = new Group(lines);
+        Group otherGroup = new Group(otherLines);
+
+        while (true) {
+            if (group.end != group.start) {
+                int groupSize;
+                int earliestEnd;
+                int endMatchingOther;
+                do {
+                    groupSize = group.end - group.start;
+                    endMatchingOther = -1;
+
+                    while (group.slideUp()) {
+                        otherGroup.previous();
+                    }
+                    earliestEnd = group.end;
+                    if (otherGroup.end > otherGroup.start) {
+                        endMatchingOther = group.end;
+                    }
+
+                    while (group.slideDown()) {
+                        otherGroup.next();
+                        if (otherGroup.end > otherGroup.start) {
+                            endMatchingOther = group.end;
+                        }
+                    }
+                } while (groupSize != group.end - group.start);
+
+                if (group.end == earliestEnd) {
+                    // the group cannot be slid
+                } else if (endMatchingOther != -1) {
+                    while (otherGroup.end == otherGroup.start) {
+                        group.slideUp();
+                        otherGroup.previous();
+                    }
+                } else if (isIndentHeuristicUsed) {
+                    int bestShift = findBestShift(lines, group, groupSize, earliestEnd);
+                    while (group.end > bestShift) {
+                        group.slideUp();
+                        otherGroup.previous();
+                    }
+                }
+            }
+
+            if (!group.next()) {
+                break;
+            }
+            otherGroup.next();
+        }
+    }
+
+    /**
+     * Returns the end of {@code group} of {@code lines}, which is slid as far down as it can be, with the best score
+     * of the indent heuristic, which prefers the group to start and end next to blank lines and lines that are
+     * indented less.
+     */
+    private static int findBestShift(Lines lines, Group group, int groupSize, int earliestEnd) {
+        int shift = Math.max(earliestEnd,
+                Math.max(group.end - groupSize - 1, group.end - INDENT_HEURISTIC_MAX_SLIDING));
+        int bestShift = -1;
+        int[] bestScore = null;
+        for (; shift <= group.end; shift++) {
+            int[] score = new int[2];
+            addSplitScore(lines, shift, score);
+            addSplitScore(lines, shift - groupSize, score);
+            if (bestScore == null || compareScores(score, bestScore) <= 0) {
+                bestScore = score;
+                bestShift = shift;
+            }
+        }
+        return bestShift;
+    }
+
+    /**
+     * Adds the effective indent and the penalty of splitting {@code lines} before line {@code split} to
+     * {@code score}.
+     */
+    private static void addSplitScore(Lines lines, int split, int[] score) {
+        boolean isEndOfFile = split >= lines.count;
+        int indent = isEndOfFile ? -1 : lines.getIndent(split);
+
+        int preBlank = 0;
+        int preIndent = -1;
+        for (int i = split - 1; i >= 0; i--) {
+            preIndent = lines.getIndent(i);
+            if (preIndent != -1) {
+                break;
+            }
+            preBlank++;
+            if (preBlank == MAX_BLANKS) {
+                preIndent = 0;
+                break;
+            }
+        }
+
+        int postBlankAfter = 0;
+        int postIndent = -1;
+        for (int i = split + 1; i < lines.count; i++) {
+            postIndent = lines.getIndent(i);
+            if (postIndent != -1) {
+                break;
+            }
+            postBlankAfter++;
+            if (postBlankAfter == MAX_BLANKS) {
+                postIndent = 0;
+                break;
+            }
+        }
+
+        int penalty = 0;
+        if (preIndent == -1 && preBlank == 0) {
+            penalty += START_OF_FILE_PENALTY;
+        }
+        if (isEndOfFile) {
+            penalty += END_OF_FILE_PENALTY;
+        }
+
+        int postBlank = (indent == -1) ? 1 + postBlankAfter : 0;
+        int totalBlank = preBlank + postBlank;
+        penalty += TOTAL_BLANK_WEIGHT * totalBlank;
+        penalty += POST_BLANK_WEIGHT * postBlank;
+
+        int effectiveIndent = (indent != -1) ? indent : postIndent;
+        boolean hasBlanks = totalBlank != 0;
+        if (effectiveIndent != -1 && preIndent != -1) {
+            if (effectiveIndent > preIndent) {
+                penalty += hasBlanks ? RELATIVE_INDENT_WITH_BLANK_PENALTY : RELATIVE_INDENT_PENALTY;
+            } else if (effectiveIndent < preIndent) {
+                if (postIndent != -1 && postIndent > effectiveIndent) {
+                    // the line is likely to start a block
+                    penalty += hasBlanks ? RELATIVE_OUTDENT_WITH_BLANK_PENALTY : RELATIVE_OUTDENT_PENALTY;
+                } else {
+                    // the line is likely to end a block
+                    penalty += hasBlanks ? RELATIVE_DEDENT_WITH_BLANK_PENALTY : RELATIVE_DEDENT_PENALTY;
+                }
+            }
+        }
+
+        score[0] += effectiveIndent;
+        score[1] += penalty;
+    }
+
+    private static int compareScores(int[] score, int[] otherScore) {
+        int indentOrder = Integer.compare(score[0], otherScore[0]);
+        return INDENT_WEIGHT * indentOrder + (score[1] - otherScore[1]);
+    }
+
+    private static EditList toEditList(Lines a, Lines b) {
+        List<Edit> edits = new ArrayList<>();
+        for (int i = a.count, j = b.count; i >= 0 || j >= 0; i--, j--) {
+            if (a.isChanged(i - 1) || b.isChanged(j - 1)) {
+                int endA = i;
+                int endB = j;
+                while (a.isChanged(i - 1)) {
+                    i--;
+                }
+                while (b.isChanged(j - 1)) {
+                    j--;
+                }
+                edits.add(new Edit(i, endA, j, endB));
+            }
+        }
+        Collections.reverse(edits);
+
+        EditList editList = new EditList(edits.size());
+        editList.addAll(edits);
+        return editList;
+    }
+
+    /**
+     * Returns true if {@code b} is a whitespace character for git, which does not count vertical tabs and form feeds
+     * as whitespace.
+     */
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * The lines of a text, with the number of the class of each line, and which of them are changed.
+     */
+    private static class Lines {
+        private final byte[] content;
+        private final int count;
+        private final int[] starts;
+        private final int[] classes;
+        // offset by one, so that the lines before the first and after the last are unchanged
+        private final boolean[] changes;
+        private int[] otherCounts;
+
+        // the lines that are kept for the search of the shortest edit script, and their classes
+        private int[] keptLines;
+        private int[] keptClasses;
+        private int numKept;
+
+        Lines(byte[] content, int size) {
+            this.content = content;
+            int numLines = 0;
+            for (int i = 0; i < size; i++) {
+                if (content[i] == '\n' || i == size - 1) {
+                    numLines++;
+                }
+            }
+
+            count = numLines;
+            starts = new int[count + 1];
+            int line = 0;
+            for (int i = 0; i < size; i++) {
+                if (content[i] == '\n' || i == size - 1) {
+                    starts[++line] = i + 1;
+                }
+            }
+            classes = new int[count];
+            changes = new boolean[count + 2];
+        }
+
+        boolean isChanged(int line) {
+            return changes[line + 1];
+        }
+
+        void setChanged(int line, boolean isChanged) {
+            changes[line + 1] = isChanged;
+        }
+
+        /**
+         * Sets aside the lines from {@code start} to {@code end}, inclusive, that do not occur in the other text, and
+         * the lines that occur too many times in the other text among lines that are set aside, marking them as
+         * changed. The other lines are kept for the search of the shortest edit script.
+         */
+        void setAsideUnmatchedLines(int start, int end) {
+            int maxMatches = Math.min(approximateSquareRoot(count), MAX_EQUAL_LIMIT);
+            byte[] matches = new byte[count];
+            for (int i = start; i <= end; i++) {
+                int numMatches = otherCounts[i];
+                matches[i] = (numMatches == 0) ? NO_MATCH : (numMatches >= maxMatches) ? MANY_MATCHES : SOME_MATCHES;
+            }
+
+            keptLines = new int[Math.max(end - start + 1, 0)];
+            keptClasses = new int[keptLines.length];
+            numKept = 0;
+            for (int i = start; i <= end; i++) {
+                if (matches[i] == SOME_MATCHES
+                        || (matches[i] == MANY_MATCHES && !isAmongUnmatchedLines(matches, i, start, end))) {
+                    keptLines[numKept] = i;
+                    keptClasses[numKept] = classes[i];
+                    numKept++;
+                } else {
+                    setChanged(i, true);
+                }
+            }
+        }
+
+        /**
+         * Returns the indent of line {@code index}, counting tabs to the next multiple of 8 columns, or -1 if the line
+         * is blank.
+         */
+        int getIndent(int index) {
+            int indent = 0;
+            for (int i = starts[index]; i < starts[index + 1]; i++) {
+                byte b = content[i];
+                if (!isWhitespace(b)) {
+                    return indent;
+                } else if (b == ' ') {
+                    indent++;
+                } else if (b == '\t') {
+                    indent += 8 - indent % 8;
+                }
+                if (indent >= MAX_INDENT) {
+                    return MAX_INDENT;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns true if line {@code index}, which occurs many times in the other text, is among lines that are set
+         * aside, and lines that occur many times in the other text, more than lines that can be matched.
+         */
+        private static boolean isAmongUnmatchedLines(byte[] matches, int index, int start, int end) {
+            int scanStart = Math.max(start, index - SIMILAR_SCAN_WINDOW);
+            int scanEnd = Math.min(end, index + SIMILAR_SCAN_WINDOW);
+
+            int numUnmatchedBefore = 0;
+            int numManyMatchesBefore = 1;
+            for (int r = 1; index - r >= scanStart; r++) {
+                if (matches[index - r] == NO_MATCH) {
+                    numUnmatchedBefore++;
+                } else if (matches[index - r] == MANY_MATCHES) {
+                    numManyMatchesBefore++;
+                } else {
+                    break;
+                }
+            }
+            if (numUnmatchedBefore == 0) {
+                return false;
+            }
+
+            int numUnmatchedAfter = 0;
+            int numManyMatchesAfter = 1;
+            for (int r = 1; index + r <= scanEnd; r++) {
+                if (matches[index + r] == NO_MATCH) {
+                    numUnmatchedAfter++;
+                } else if (matches[index + r] == MANY_MATCHES) {
+                    numManyMatchesAfter++;
+                } else {
+                    break;
+                }
+            }
+            if (numUnmatchedAfter == 0) {
+                return false;
+            }
+
+            int numUnmatched = numUnmatchedBefore + numUnmatchedAfter;
+            int numManyMatches = numManyMatchesBefore + numManyMatchesAfter;
+            return numManyMatches * DISCARDED_RUN_FACTOR < numManyMatches + numUnmatched;
+        }
+
+        private static int approximateSquareRoot(int n) {
+            int root = 1;
+            for (int i = n; i > 0; i >>= 2) {
+                root <<= 1;
+            }
+            return root;
+        }
+    }
+
+    /**
+     * A group of changed lines of a text, from {@code start} to {@code end}, exclusive, which is empty if the lines
+     * before {@code start} are matched to lines of the other text.
+     */
+    private static class Group {
+        private final Lines lines;
+        private int start;
+        private int end;
+
+        Group(Lines lines) {
+            this.lines = lines;
+            while (lines.isChanged(end)) {
+                end++;
+            }
+        }
+
+        /**
+         * Moves to the next group, returning false if this is the last group.
+         */
+        boolean next() {
+            if (end == lines.count) {
+                return false;
+            }
+            start = end + 1;
+            end = start;
+            while (lines.isChanged(end)) {
+                end++;
+            }
+            return true;
+        }
+
+        /**
+         * Moves to the previous group, returning false if this is the first group.
+         */
+        boolean previous() {
+            if (start == 0) {
+                return false;
+            }
+            end = start - 1;
+            start = end;
+            while (lines.isChanged(start - 1)) {
+                start--;
+            }
+            return true;
+        }
+
+        /**
+         * Slides this group down by a line if the line after it is the same as its first line, merging it with the
+         * group after it if they meet, and returns true if it was slid.
+         */
+        boolean slideDown() {
+            if (end < lines.count && lines.classes[start] == lines.classes[end]) {
+                lines.setChanged(start++, false);
+                lines.setChanged(end++, true);
+                while (lines.isChanged(end)) {
+                    end++;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Slides this group up by a line if the line before it is the same as its last line, merging it with the group
+         * before it if they meet, and returns true if it was slid.
+         */
+        boolean slideUp() {
+            if (start > 0 && lines.classes[start - 1] == lines.classes[end - 1]) {
+                lines.setChanged(--start, true);
+                lines.setChanged(--end, false);
+                while (lines.isChanged(start - 1)) {
+                    start--;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The search for the shortest edit script between the kept lines of two texts, which splits the lines at the
+     * middle snake of the edit script, or at a snake that is good enough if the search takes too long, and searches
+     * each half in turn.
+     */
+    private static class MyersSearch {
+        private final Lines a;
+        private final Lines b;
+        // the furthest line of a reached on each diagonal, forward from the start and backward from the end
+        private final int[] diagonals;
+        private final int forwardOffset;
+        private final int backwardOffset;
+        private final int maxCost;
+
+        // the results of the last split
+        private int splitA;
+        private int splitB;
+        private boolean isLowMinimal;
+        private boolean isHighMinimal;
+
+        MyersSearch(Lines a, Lines b, int numDiagonals) {
+            this.a = a;
+            this.b = b;
+            this.diagonals = new int[2 * numDiagonals + 2];
+            this.forwardOffset = b.numKept + 1;
+            this.backwardOffset = numDiagonals + b.numKept + 1;
+            this.maxCost = Math.max(Lines.approximateSquareRoot(numDiagonals), MIN_MAX_COST);
+        }
+
+        void run() {
+            Deque<int[]> boxes = new ArrayDeque<>();
+            boxes.push(new int[] {0, a.numKept, 0, b.numKept, 0});
+            while (!boxes.isEmpty()) {
+                int[] box = boxes.pop();
+                int offA = box[0];
+                int limA = box[1];
+                int offB = box[2];
+                int limB = box[3];
+                boolean isMinimal = box[4] != 0;
+
+                int[] ha = a.keptClasses;
+                int[] hb = b.keptClasses;
+                while (offA < limA && offB < limB && ha[offA] == hb[offB]) {
+                    offA++;
+                    offB++;
+                }
+                while (offA < limA && offB < limB && ha[limA - 1] == hb[limB - 1]) {
+                    limA--;
+                    limB--;
+                }
+
+                if (offA == limA) {
+                    for (; offB < limB; offB++) {
+                        b.setChanged(b.keptLines[offB], true);
+                    }
+                } else if (offB == limB) {
+                    for (; offA < limA; offA++) {
+                        a.setChanged(a.keptLines[offA], true);
+                    }
+                } else {
+                    split(offA, limA, offB, limB, isMinimal);
+                    // the first half is searched first, as it would be by recursion
+                    boxes.push(new int[] {splitA, limA, splitB, limB, isHighMinimal ? 1 : 0});
+                    boxes.push(new int[] {offA, splitA, offB, splitB, isLowMinimal ? 1 : 0});
+                }
+            }
+        }
+
+        private int getForward(int d) {
+            return diagonals[forwardOffset + d];
+        }
+
+        private void setForward(int d, int value) {
+            diagonals[forwardOffset + d] = value;
+        }
+
+        private int getBackward(int d) {
+            return diagonals[backwardOffset + d];
+        }
+
+        private void setBackward(int d, int value) {
+            diagonals[backwardOffset + d] = value;
+        }
+
+        /**
+         * Finds the point to split the box from {@code offA} and {@code offB} to {@code limA} and {@code limB} at.
+         */
+        private void split(int offA, int limA, int offB, int limB, boolean isMinimal) {
+            int[] ha = a.keptClasses;
+            int[] hb = b.keptClasses;
+            int minDiagonal = offA - limB;
+            int maxDiagonal = limA - offB;
+            int forwardMid = offA - offB;
+            int backwardMid = limA - limB;
+            boolean isOdd = ((forwardMid - backwardMid) & 1) != 0;
+            int forwardMin = forwardMid;
+            int forwardMax = forwardMid;
+            int backwardMin = backwardMid;
+            int backwardMax = backwardMid;
+
+            setForward(forwardMid, offA);
+            setBackward(backwardMid, limA);
+
+            for (int cost = 1;; cost++) {
+                boolean hasSnake = false;
+
+                if (forwardMin > minDiagonal) {
+                    setForward(--forwardMin - 1, -1);
+                } else {
+                    ++forwardMin;
+                }
+                if (forwardMax < maxDiagonal) {
+                    setForward(++forwardMax + 1, -1);
+                } else {
+                    --forwardMax;
+                }
+
+                for (int d = forwardMax; d >= forwardMin; d -= 2) {
+                    int i1 = (getForward(d - 1) >= getForward(d + 1)) ? getForward(d - 1) + 1 : getForward(d + 1);
+                    int prev = i1;
+                    int i2 = i1 - d;
+                    while (i1 < limA && i2 < limB && ha[i1] == hb[i2]) {
+                        i1++;
+                        i2++;
+                    }
+                    if (i1 - prev > SNAKE_COUNT) {
+                        hasSnake = true;
+                    }
+                    setForward(d, i1);
+                    if (isOdd && backwardMin <= d && d <= backwardMax && getBackward(d) <= i1) {
+                        setSplit(i1, i2, true, true);
+                        return;
+                    }
+                }
+
+                if (backwardMin > minDiagonal) {
+                    setBackward(--backwardMin - 1, Integer.MAX_VALUE);
+                } else {
+                    ++backwardMin;
+                }
+                if (backwardMax < maxDiagonal) {
+                    setBackward(++backwardMax + 1, Integer.MAX_VALUE);
+                } else {
+                    --backwardMax;
+                }
+
+                for (int d = backwardMax; d >= backwardMin; d -= 2) {
+                    int i1 = (getBackward(d - 1) < getBackward(d + 1)) ? getBackward(d - 1) : getBackward(d + 1) - 1;
+                    int prev = i1;
+                    int i2 = i1 - d;
+                    while (i1 > offA && i2 > offB && ha[i1 - 1] == hb[i2 - 1]) {
+                        i1--;
+                        i2--;
+                    }
+                    if (prev - i1 > SNAKE_COUNT) {
+                        hasSnake = true;
+                    }
+                    setBackward(d, i1);
+                    if (!isOdd && forwardMin <= d && d <= forwardMax && i1 <= getForward(d)) {
+                        setSplit(i1, i2, true, true);
+                        return;
+                    }
+                }
+
+                if (isMinimal) {
+                    continue;
+                }
+
+                // past some cost, a long enough snake that is far enough along is taken as a good split
+                if (hasSnake && cost > MIN_HEURISTIC_COST) {
+                    int best = 0;
+                    for (int d = forwardMax; d >= forwardMin; d -= 2) {
+                        int distance = Math.abs(d - forwardMid);
+                        int i1 = getForward(d);
+                        int i2 = i1 - d;
+                        int value = (i1 - offA) + (i2 - offB) - distance;
+                        if (value > HEURISTIC_FACTOR * cost && value > best
+                                && offA + SNAKE_COUNT <= i1 && i1 < limA
+                                && offB + SNAKE_COUNT <= i2 && i2 < limB) {
+                            for (int k = 1; ha[i1 - k] == hb[i2 - k]; k++) {
+                                if (k == SNAKE_COUNT) {
+                                    best = value;
+                                    splitA = i1;
+                                    splitB = i2;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    if (best > 0) {
+                        isLowMinimal = true;
+                        isHighMinimal = false;
+                        return;
+                    }
+
+                    for (int d = backwardMax; d >= backwardMin; d -= 2) {
+                        int distance = Math.abs(d - backwardMid);
+                        int i1 = getBackward(d);
+                        int i2 = i1 - d;
+                        int value = (limA - i1) + (limB - i2) - distance;
+                        if (value > HEURISTIC_FACTOR * cost && value > best
+                                && offA < i1 && i1 <= limA - SNAKE_COUNT
+                                && offB < i2 && i2 <= limB - SNAKE_COUNT) {
+                            for (int k = 0; ha[i1 + k] == hb[i2 + k]; k++) {
+                                if (k == SNAKE_COUNT - 1) {
+                                    best = value;
+                                    splitA = i1;
+                                    splitB = i2;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    if (best > 0) {
+                        isLowMinimal = false;
+                        isHighMinimal = true;
+                        return;
+                    }
+                }
+
+                // past the maximum cost, the path that has gone the furthest is taken
+                if (cost >= maxCost) {
+                    splitAtFurthestPath(offA, limA, offB, limB, forwardMin, forwardMax, backwardMin, backwardMax);
+                    return;
+                }
+            }
+        }
+
+        private void splitAtFurthestPath(int offA, int limA, int offB, int limB, int forwardMin, int forwardMax,
+                int backwardMin, int backwardMax) {
+            int forwardBest = -1;
+            int forwardBestA = -1;
+            for (int d = forwardMax; d >= forwardMin; d -= 2) {
+                int i1 = Math.min(getForward(d), limA);
+                int i2 = i1 - d;
+                if (limB < i2) {
+                    i1 = limB + d;
+                    i2 = limB;
+                }
+                if (forwardBest < i1 + i2) {
+                    forwardBest = i1 + i2;
+                    forwardBestA = i1;
+                }
+            }
+
+            int backwardBest = Integer.MAX_VALUE;
+            int backwardBestA = Integer.MAX_VALUE;
+            for (int d = backwardMax; d >= backwardMin; d -= 2) {
+                int i1 = Math.max(offA, getBackward(d));
+                int i2 = i1 - d;
+                if (i2 < offB) {
+                    i1 = offB + d;
+                    i2 = offB;
+                }
+                if (i1 + i2 < backwardBest) {
+                    backwardBest = i1 + i2;
+                    backwardBestA = i1;
+                }
+            }
+
+            if ((limA + limB) - backwardBest < forwardBest - (offA + offB)) {
+                setSplit(forwardBestA, forwardBest - forwardBestA, true, false);
+            } else {
+                setSplit(backwardBestA, backwardBest - backwardBestA, false, true);
+            }
+        }
+
+        private void setSplit(int i1, int i2, boolean isLowMinimal, boolean isHighMinimal) {
+            this.splitA = i1;
+            this.splitB = i2;
+            this.isLowMinimal = isLowMinimal;
+            this.isHighMinimal = isHighMinimal;
+        }
+    }
+
+    /**
+     * The content of a line, which is compared with whitespace ignored if {@code isWhitespaceIgnored}.
+     */
+    private static class LineKey {
+        private final byte[] content;
+        private final int start;
+        private final int end;
+        private final boolean isWhitespaceIgnored;
+        private final int hash;
+
+        LineKey(byte[] content, int start, int end, boolean isWhitespaceIgnored) {
+            this.content = content;
+            this.start = start;
+            this.end = end;
+            this.isWhitespaceIgnored = isWhitespaceIgnored;
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                if (!isWhitespaceIgnored || !isWhitespace(content[i])) {
+                    h = 31 * h + content[i];
+                }
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof LineKey)) {
+                return false;
+            }
+            LineKey otherKey = (LineKey) other;
+            if (hash != otherKey.hash) {
+                return false;
+            }
+
+            int i = start;
+            int j = otherKey.start;
+            if (!isWhitespaceIgnored) {
+                if (end - start != otherKey.end - otherKey.start) {
+                    return false;
+                }
+                while (i < end) {
+                    if (content[i++] != otherKey.content[j++]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            while (true) {
+                while (i < end && isWhitespace(content[i])) {
+                    i++;
+                }
+                while (j < otherKey.end && isWhitespace(otherKey.content[j])) {
+                    j++;
+                }
+                if (i == end || j == otherKey.end) {
+                    return i == end && j == otherKey.end;
+                }
+                if (content[i++] != otherKey.content[j++]) {
+                    return false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package reposense.git.model;
+
+/**
+ * Stores the details of a commit that lines are attributed to in a git blame result.
+ */
+public class GitBlameCommit {
+    private final String commitHash;
+    private final String authorName;
+    private final String authorEmail;
+    private final long authorTimeSeconds;
+    private final long committerTimeSeconds;
+    private final boolean isBoundary;
+
+    public GitBlameCommit(String commitHash, String authorName, String authorEmail, long authorTimeSeconds,
+            long committerTimeSeconds, boolean isBoundary) {
+        this.commitHash = commitHash;
+        this.authorName = authorName;
+        this.authorEmail = authorEmail;
+        this.authorTimeSeconds = authorTimeSeconds;
+        this.committerTimeSeconds = committerTimeSeconds;
+        this.isBoundary = isBoundary;
+    }
+
+    public String getCommitHash() {
+        return commitHash;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public String getAuthorEmail() {
+        return authorEmail;
+    }
+
+    public long getAuthorTimeSeconds() {
+        return authorTimeSeconds;
+    }
+
+    /**
+     * Returns the time that the commit was committed, or 0 if it was not given in the blame result.
+     */
+    public long getCommitterTimeSeconds() {
+        return committerTimeSeconds;
+    }
+
+    /**
+     * Returns true if the history that was blamed stops at this commit, in which case the lines attributed to it may
+     * have been last changed before it.
+     */
+    public boolean isBoundary() {
+        return isBoundary;
+    }
+}
@@ -0,0 +1,68 @@
+package reposense.git.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the information of a single object in the git object store, as reported by git cat-file.
+ */
+public class GitObject {
+    private static final String HEADER_KEY_VALUE_SEPARATOR = " ";
+
+    private final String hash;
+    private final String type;
+    private final long size;
+    private final byte[] content;
+
+    public GitObject(String hash, String type, long size, byte[] content) {
+        this.hash = hash;
+        this.type = type;
+        this.size = size;
+        this.content = content;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the raw content of the object, or null if only the object info was requested.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the content of the object decoded as UTF-8, or an empty string if only the object info was requested.
+     */
+    public String getContentAsString() {
+        return (content == null) ? "" : new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the values of all header lines with the given {@code key} in a commit or tag object, in the order
+     * that they appear. Only the header section, which ends at the first empty line, is searched.
+     */
+    public List<String> getHeaderValues(String key) {
+        List<String> values = new ArrayList<>();
+        String prefix = key + HEADER_KEY_VALUE_SEPARATOR;
+        for (String line : getContentAsString().split("\n")) {
+            if (line.isEmpty()) {
+                break;
+            }
+            if (line.startsWith(prefix)) {
+                values.add(line.substring(prefix.length()));
+            }
+        }
+        return values;
+    }
+}
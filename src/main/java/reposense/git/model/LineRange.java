@@ -0,0 +1,49 @@
+package reposense.git.model;
+
+/**
+ * Stores a range of consecutive lines of a file, from {@code start} to {@code end}, both inclusive and numbered from 1.
+ */
+public class LineRange {
+    private final int start;
+    private final int end;
+
+    public LineRange(int start, int end) {
+        if (start < 1 || end < start) {
+            throw new IllegalArgumentException(String.format("Invalid line range %d,%d", start, end));
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof LineRange)) {
+            return false;
+        }
+
+        LineRange otherLineRange = (LineRange) other;
+        return start == otherLineRange.start && end == otherLineRange.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start + end;
+    }
+
+    @Override
+    public String toString() {
+        return start + "," + end;
+    }
+}
@@ -165,8 +165,8 @@ public class AuthorConfiguration {
     public void removeIgnoredAuthors(List<String> ignoredAuthorsList) {
         for (String author : ignoredAuthorsList) {
             Author authorToRemove = null;
-            if (authorEmailsToAuthorMap.containsKey(author)) {
-                authorToRemove = authorEmailsToAuthorMap.get(author);
+            if (authorEmailsToAuthorMap.containsKey(author.toLowerCase())) {
+                authorToRemove = authorEmailsToAuthorMap.get(author.toLowerCase());
             } else if (authorNamesToAuthorMap.containsKey(author.toLowerCase())) {
                 authorToRemove = authorNamesToAuthorMap.get(author.toLowerCase());
             }
@@ -192,7 +192,7 @@ public class AuthorConfiguration {
         aliases.forEach(alias -> authorNamesToAuthorMap.remove(alias.toLowerCase()));
 
         List<String> emails = author.getEmails();
-        emails.forEach(email -> authorEmailsToAuthorMap.remove(email));
+        emails.forEach(email -> authorEmailsToAuthorMap.remove(email.toLowerCase()));
     }
 
     /**
@@ -257,7 +257,9 @@ public class AuthorConfiguration {
     }
 
     public void setAuthorEmailsToAuthorMap(Map<String, Author> authorEmailsToAuthorMap) {
-        this.authorEmailsToAuthorMap = authorEmailsToAuthorMap;
+        this.authorEmailsToAuthorMap = new HashMap<>();
+        authorEmailsToAuthorMap.forEach((email, author) ->
+                this.authorEmailsToAuthorMap.put(email.toLowerCase(), author));
     }
 
     public void setAuthorDisplayName(Author author, String displayName) {
@@ -289,10 +291,12 @@ public class AuthorConfiguration {
      * Adds {@code emails} as aliases of {@code author} into the map.
      */
     public void addAuthorEmailsToAuthorMapEntry(Author author, List<String> emails) {
-        emails.forEach(email -> {
-            checkDuplicateAliases(authorEmailsToAuthorMap, email, author.getGitId());
-            authorEmailsToAuthorMap.put(email, author);
-        });
+        emails.stream()
+                .map(String::toLowerCase)
+                .forEach(email -> {
+                    checkDuplicateAliases(authorEmailsToAuthorMap, email, author.getGitId());
+                    authorEmailsToAuthorMap.put(email, author);
+                });
     }
 
     public RepoLocation getLocation() {
@@ -300,7 +304,8 @@ public class AuthorConfiguration {
     }
 
     /**
-     * Attempts to find matching {@link Author} given a {@code name} and an {@code email}.
+     * Attempts to find matching {@link Author} given a {@code name} and an {@code email}, both matched regardless of
+     * case, as git log matches them when filtering by author.
      * If no matching {@link Author} is found, {@link Author#UNKNOWN_AUTHOR} is returned.
      */
     public Author getAuthor(String name, String email) {
@@ -308,11 +313,12 @@ public class AuthorConfiguration {
             return authorNamesToAuthorMap.get(name.toLowerCase());
         }
 
-        if (authorEmailsToAuthorMap.containsKey(email)) {
-            return authorEmailsToAuthorMap.get(email);
+        String emailInLowerCase = email.toLowerCase();
+        if (authorEmailsToAuthorMap.containsKey(emailInLowerCase)) {
+            return authorEmailsToAuthorMap.get(emailInLowerCase);
         }
 
-        Matcher matcher = EMAIL_PLUS_OPERATOR_PATTERN.matcher(email);
+        Matcher matcher = EMAIL_PLUS_OPERATOR_PATTERN.matcher(emailInLowerCase);
         if (matcher.matches()) {
             return authorEmailsToAuthorMap.getOrDefault(matcher.group("suffix") + matcher.group("domain"),
                     Author.UNKNOWN_AUTHOR);
@@ -326,7 +332,8 @@ public class AuthorConfiguration {
     }
 
     public boolean containsName(String name) {
-        return authorNamesToAuthorMap.containsKey(name.toLowerCase()) || authorEmailsToAuthorMap.containsKey(name);
+        return authorNamesToAuthorMap.containsKey(name.toLowerCase())
+                || authorEmailsToAuthorMap.containsKey(name.toLowerCase());
     }
 
     public void setHasAuthorConfigFile(boolean hasAuthorConfigFile) {
@@ -2,16 +2,20 @@ package reposense.model;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
+import reposense.git.GitBackendType;
 import reposense.parser.ArgsParser;
 import reposense.parser.AuthorConfigCsvParser;
 import reposense.parser.GroupConfigCsvParser;
 import reposense.parser.RepoConfigCsvParser;
 import reposense.parser.ReportConfigJsonParser;
+import reposense.system.CommandClass;
 
 /**
  * Represents command line arguments user supplied when running the program.
@@ -37,6 +41,11 @@ public class CliArguments {
     private boolean isFindingPreviousAuthorsPerformed;
     private boolean isAuthorshipAnalyzed;
     private double originalityThreshold;
+    private Map<CommandClass, Duration> gitTimeouts = ArgsParser.DEFAULT_GIT_TIMEOUTS;
+    private boolean isSlowestCommandsLogged;
+    private boolean isRepoOptimizationPerformed;
+    private boolean isCheckoutFree;
+    private GitBackendType gitBackendType = ArgsParser.DEFAULT_GIT_BACKEND;
     private boolean isTestMode = ArgsParser.DEFAULT_IS_TEST_MODE;
     private boolean isFreshClonePerformed = ArgsParser.DEFAULT_SHOULD_FRESH_CLONE;
 
@@ -173,6 +182,26 @@ public class CliArguments {
         return originalityThreshold;
     }
 
+    public Map<CommandClass, Duration> getGitTimeouts() {
+        return gitTimeouts;
+    }
+
+    public boolean isSlowestCommandsLogged() {
+        return isSlowestCommandsLogged;
+    }
+
+    public boolean isRepoOptimizationPerformed() {
+        return isRepoOptimizationPerformed;
+    }
+
+    public boolean isCheckoutFree() {
+        return isCheckoutFree;
+    }
+
+    public GitBackendType getGitBackendType() {
+        return gitBackendType;
+    }
+
     @Override
     public boolean equals(Object other) {
         // short circuit if same object
@@ -212,7 +241,12 @@ public class CliArguments {
                 && Objects.equals(this.groupConfigFilePath, otherCliArguments.groupConfigFilePath)
                 && Objects.equals(this.reportConfigFilePath, otherCliArguments.reportConfigFilePath)
                 && this.isAuthorshipAnalyzed == otherCliArguments.isAuthorshipAnalyzed
-                && Objects.equals(this.originalityThreshold, otherCliArguments.originalityThreshold);
+                && Objects.equals(this.originalityThreshold, otherCliArguments.originalityThreshold)
+                && Objects.equals(this.gitTimeouts, otherCliArguments.gitTimeouts)
+                && this.isSlowestCommandsLogged == otherCliArguments.isSlowestCommandsLogged
+                && this.isRepoOptimizationPerformed == otherCliArguments.isRepoOptimizationPerformed
+                && this.isCheckoutFree == otherCliArguments.isCheckoutFree
+                && this.gitBackendType == otherCliArguments.gitBackendType;
     }
 
     /**
@@ -365,6 +399,56 @@ public class CliArguments {
             return this;
         }
 
+        /**
+         * Adds the {@code gitTimeouts} to CliArguments.
+         *
+         * @param gitTimeouts The timeout of each class of git commands.
+         */
+        public Builder gitTimeouts(Map<CommandClass, Duration> gitTimeouts) {
+            this.cliArguments.gitTimeouts = gitTimeouts;
+            return this;
+        }
+
+        /**
+         * Adds the {@code isSlowestCommandsLogged} to CliArguments.
+         *
+         * @param isSlowestCommandsLogged Is the table of the slowest git commands logged.
+         */
+        public Builder isSlowestCommandsLogged(boolean isSlowestCommandsLogged) {
+            this.cliArguments.isSlowestCommandsLogged = isSlowestCommandsLogged;
+            return this;
+        }
+
+        /**
+         * Adds the {@code isRepoOptimizationPerformed} to CliArguments.
+         *
+         * @param isRepoOptimizationPerformed Is the commit-graph of each repo written after it is cloned.
+         */
+        public Builder isRepoOptimizationPerformed(boolean isRepoOptimizationPerformed) {
+            this.cliArguments.isRepoOptimizationPerformed = isRepoOptimizationPerformed;
+            return this;
+        }
+
+        /**
+         * Adds the {@code isCheckoutFree} to CliArguments.
+         *
+         * @param isCheckoutFree Are the repos analyzed without checking out their files.
+         */
+        public Builder isCheckoutFree(boolean isCheckoutFree) {
+            this.cliArguments.isCheckoutFree = isCheckoutFree;
+            return this;
+        }
+
+        /**
+         * Adds the {@code gitBackendType} to CliArguments.
+         *
+         * @param gitBackendType The implementation used to run the git operations.
+         */
+        public Builder gitBackendType(GitBackendType gitBackendType) {
+            this.cliArguments.gitBackendType = gitBackendType;
+            return this;
+        }
+
         /**
          * Adds the {@code zoneId} to CliArguments.
          *
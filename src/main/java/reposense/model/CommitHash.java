@@ -5,7 +5,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import reposense.git.GitRevList;
+import reposense.git.GitBackends;
 import reposense.util.StringsUtil;
 
 /**
@@ -77,7 +77,7 @@ public class CommitHash {
         }
 
         String[] startAndEnd = entry.toString().split("\\.\\.");
-        String revList = GitRevList.getCommitHashInRange(root, branchName, startAndEnd[0], startAndEnd[1]);
+        String revList = GitBackends.get().getCommitHashInRange(root, branchName, startAndEnd[0], startAndEnd[1]);
         return Arrays.stream(StringsUtil.NEWLINE.split(revList))
                 .map(CommitHash::new);
     }
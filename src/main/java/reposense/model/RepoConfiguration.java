@@ -46,6 +46,7 @@ public class RepoConfiguration {
     private transient boolean isLastModifiedDateIncluded;
     private transient boolean isShallowCloningPerformed = false;
     private transient boolean isFindingPreviousAuthorsPerformed = false;
+    private transient boolean isCheckoutFree = false;
     private transient boolean isFormatsOverriding = false;
     private transient boolean isIgnoreGlobListOverriding;
     private transient boolean isIgnoreCommitListOverriding = false;
@@ -332,6 +333,17 @@ public class RepoConfiguration {
             return this;
         }
 
+        /**
+         * Updates the {@code isCheckoutFree} for {@code RepoConfiguration}.
+         *
+         * @param isCheckoutFree Checks if the repo is analyzed without checking out its files.
+         * @return This builder object.
+         */
+        public Builder isCheckoutFree(boolean isCheckoutFree) {
+            this.repoConfiguration.isCheckoutFree = isCheckoutFree;
+            return this;
+        }
+
         /**
          * Updates the {@code isFormatsOverriding} for {@code RepoConfiguration}.
          *
@@ -481,6 +493,12 @@ public class RepoConfiguration {
         }
     }
 
+    public static void setIsCheckoutFreeToRepoConfigs(List<RepoConfiguration> configs, boolean isCheckoutFree) {
+        if (isCheckoutFree) {
+            configs.stream().forEach(config -> config.setIsCheckoutFree(true));
+        }
+    }
+
     public static void setHasAuthorConfigFileToRepoConfigs(List<RepoConfiguration> configs,
                                                            boolean setHasAuthorConfigFile) {
         configs.stream().forEach(config -> config.setHasAuthorConfigFile(setHasAuthorConfigFile));
@@ -726,6 +744,7 @@ public class RepoConfiguration {
                 && isLastModifiedDateIncluded == otherRepoConfig.isLastModifiedDateIncluded
                 && isFormatsOverriding == otherRepoConfig.isFormatsOverriding
                 && isShallowCloningPerformed == otherRepoConfig.isShallowCloningPerformed
+                && isCheckoutFree == otherRepoConfig.isCheckoutFree
                 && isIgnoreGlobListOverriding == otherRepoConfig.isIgnoreGlobListOverriding
                 && isIgnoreCommitListOverriding == otherRepoConfig.isIgnoreCommitListOverriding
                 && isIgnoredAuthorsListOverriding == otherRepoConfig.isIgnoredAuthorsListOverriding
@@ -811,6 +830,10 @@ public class RepoConfiguration {
         this.isFindingPreviousAuthorsPerformed = isFindingPreviousAuthorsPerformed;
     }
 
+    public void setIsCheckoutFree(boolean isCheckoutFree) {
+        this.isCheckoutFree = isCheckoutFree;
+    }
+
     public boolean isLastModifiedDateIncluded() {
         return this.isLastModifiedDateIncluded;
     }
@@ -1011,6 +1034,10 @@ public class RepoConfiguration {
         return isFindingPreviousAuthorsPerformed;
     }
 
+    public boolean isCheckoutFree() {
+        return isCheckoutFree;
+    }
+
     public AuthorConfiguration getAuthorConfig() {
         return authorConfig;
     }
@@ -4,10 +4,12 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -25,6 +27,7 @@ import net.sourceforge.argparse4j.inf.FeatureControl;
 import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 import net.sourceforge.argparse4j.inf.Namespace;
 import reposense.RepoSense;
+import reposense.git.GitBackendType;
 import reposense.model.CliArguments;
 import reposense.model.FileType;
 import reposense.model.ReportConfiguration;
@@ -34,12 +37,15 @@ import reposense.parser.types.AnalysisThreadsArgumentType;
 import reposense.parser.types.AssetsFolderArgumentType;
 import reposense.parser.types.CloningThreadsArgumentType;
 import reposense.parser.types.ConfigFolderArgumentType;
+import reposense.parser.types.GitBackendArgumentType;
+import reposense.parser.types.GitTimeoutsArgumentType;
 import reposense.parser.types.OutputFolderArgumentType;
 import reposense.parser.types.PeriodArgumentType;
 import reposense.parser.types.ReportFolderArgumentType;
 import reposense.parser.types.SinceDateArgumentType;
 import reposense.parser.types.UntilDateArgumentType;
 import reposense.parser.types.ZoneIdArgumentType;
+import reposense.system.CommandClass;
 import reposense.system.LogsManager;
 import reposense.util.TimeUtil;
 
@@ -53,6 +59,8 @@ public class ArgsParser {
     public static final boolean DEFAULT_IS_TEST_MODE = false;
     public static final boolean DEFAULT_SHOULD_FRESH_CLONE = false;
     public static final double DEFAULT_ORIGINALITY_THRESHOLD = 0.51;
+    public static final Map<CommandClass, Duration> DEFAULT_GIT_TIMEOUTS = Collections.emptyMap();
+    public static final GitBackendType DEFAULT_GIT_BACKEND = GitBackendType.CLI;
 
     public static final String[] HELP_FLAGS = new String[] {"--help", "-h"};
     public static final String[] CONFIG_FLAGS = new String[] {"--config", "-c"};
@@ -77,6 +85,11 @@ public class ArgsParser {
     public static final String[] FRESH_CLONING_FLAG = new String[] {"--fresh-cloning"};
     public static final String[] ANALYZE_AUTHORSHIP_FLAGS = new String[] {"--analyze-authorship", "-A"};
     public static final String[] ORIGINALITY_THRESHOLD_FLAGS = new String[] {"--originality-threshold", "-ot"};
+    public static final String[] GIT_TIMEOUTS_FLAG = new String[] {"--git-timeouts"};
+    public static final String[] LOG_SLOWEST_COMMANDS_FLAG = new String[] {"--log-slowest-commands"};
+    public static final String[] OPTIMIZE_REPOS_FLAG = new String[] {"--optimize-repos"};
+    public static final String[] CHECKOUT_FREE_FLAG = new String[] {"--checkout-free"};
+    public static final String[] GIT_BACKEND_FLAG = new String[] {"--git-backend"};
 
     private static final Logger logger = LogsManager.getLogger(ArgsParser.class);
 
@@ -230,6 +243,43 @@ public class ArgsParser {
                         + "is performed. Author will be given full credit if their contribution exceeds this "
                         + "threshold, else partial credit is given.");
 
+        parser.addArgument(GIT_TIMEOUTS_FLAG)
+                .dest(GIT_TIMEOUTS_FLAG[0])
+                .metavar("CLASS=SECONDS,...")
+                .type(new GitTimeoutsArgumentType())
+                .setDefault(DEFAULT_GIT_TIMEOUTS)
+                .help("Terminates git commands of each class (light, log, diff, blame, clone or maintenance) that "
+                        + "run for longer than the given number of seconds, e.g. \"blame=300,log=1800\". Files whose "
+                        + "analysis runs past the blame timeout are analyzed again in a cheaper mode, and are listed "
+                        + "in the report's error summary.");
+
+        parser.addArgument(LOG_SLOWEST_COMMANDS_FLAG)
+                .dest(LOG_SLOWEST_COMMANDS_FLAG[0])
+                .action(Arguments.storeTrue())
+                .help("A flag to log the slowest git commands run to generate the report. The cost of all the git "
+                        + "commands run is always written to performance.json in the report folder.");
+
+        parser.addArgument(GIT_BACKEND_FLAG)
+                .dest(GIT_BACKEND_FLAG[0])
+                .metavar("cli|jgit")
+                .type(new GitBackendArgumentType())
+                .setDefault(DEFAULT_GIT_BACKEND)
+                .help("Selects how git operations are run: with the git command line (cli), or in-process with "
+                        + "JGit (jgit), which avoids spawning a process for each blame and log of a file.");
+
+        parser.addArgument(OPTIMIZE_REPOS_FLAG)
+                .dest(OPTIMIZE_REPOS_FLAG[0])
+                .action(Arguments.storeTrue())
+                .help("A flag to write a commit-graph with changed-path Bloom filters for each repo after it is "
+                        + "cloned, which speeds up the analysis of repos with long histories.");
+
+        parser.addArgument(CHECKOUT_FREE_FLAG)
+                .dest(CHECKOUT_FREE_FLAG[0])
+                .action(Arguments.storeTrue())
+                .help("A flag to analyze each repo without checking out its files. The content of the files is read "
+                        + "from the git object store at the analyzed commit instead, which saves writing every file "
+                        + "of large repos to disk.");
+
         // Mutex flags - these will always be the last parameters in help message.
         mutexParser.addArgument(CONFIG_FLAGS)
                 .dest(CONFIG_FLAGS[0])
@@ -319,6 +369,11 @@ public class ArgsParser {
         double originalityThreshold = results.get(ORIGINALITY_THRESHOLD_FLAGS[0]);
         int numCloningThreads = results.get(CLONING_THREADS_FLAG[0]);
         int numAnalysisThreads = results.get(ANALYSIS_THREADS_FLAG[0]);
+        Map<CommandClass, Duration> gitTimeouts = results.get(GIT_TIMEOUTS_FLAG[0]);
+        boolean shouldLogSlowestCommands = results.get(LOG_SLOWEST_COMMANDS_FLAG[0]);
+        boolean shouldOptimizeRepos = results.get(OPTIMIZE_REPOS_FLAG[0]);
+        boolean isCheckoutFree = results.get(CHECKOUT_FREE_FLAG[0]);
+        GitBackendType gitBackendType = results.get(GIT_BACKEND_FLAG[0]);
 
         CliArguments.Builder cliArgumentsBuilder = new CliArguments.Builder()
                 .configFolderPath(configFolderPath)
@@ -335,6 +390,11 @@ public class ArgsParser {
                 .isFindingPreviousAuthorsPerformed(shouldFindPreviousAuthors)
                 .numCloningThreads(numCloningThreads)
                 .numAnalysisThreads(numAnalysisThreads)
+                .gitTimeouts(gitTimeouts)
+                .isSlowestCommandsLogged(shouldLogSlowestCommands)
+                .isRepoOptimizationPerformed(shouldOptimizeRepos)
+                .isCheckoutFree(isCheckoutFree)
+                .gitBackendType(gitBackendType)
                 .isTestMode(isTestMode)
                 .isAuthorshipAnalyzed(isAuthorshipAnalyzed)
                 .originalityThreshold(originalityThreshold);
@@ -29,6 +29,10 @@ public abstract class JsonParser<T> {
         return fromJson(new Gson(), path, getType());
     }
 
+    protected T fromJson(String json) {
+        return new Gson().fromJson(json, getType());
+    }
+
     protected T fromJson(Gson gson, Path path, Type type) throws IOException {
         try (JsonReader jsonReader = new JsonReader(new FileReader(path.toString()))) {
             return gson.fromJson(jsonReader, type);
@@ -30,4 +30,11 @@ public class StandaloneConfigJsonParser extends JsonParser<StandaloneConfig> {
     public StandaloneConfig parse(Path path) throws IOException {
         return fromJson(path);
     }
+
+    /**
+     * Converts the content of a json file given by {@code json} and returns a {@link StandaloneConfig} object.
+     */
+    public StandaloneConfig parse(String json) {
+        return fromJson(json);
+    }
 }
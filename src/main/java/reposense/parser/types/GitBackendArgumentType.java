@@ -0,0 +1,26 @@
+package reposense.parser.types;
+
+import java.util.Locale;
+
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.ArgumentType;
+import reposense.git.GitBackendType;
+
+/**
+ * Verifies and parses a string-formatted git backend, such as "jgit", to a {@link GitBackendType}.
+ */
+public class GitBackendArgumentType implements ArgumentType<GitBackendType> {
+    private static final String PARSE_EXCEPTION_MESSAGE_INVALID_BACKEND =
+            "Invalid git backend \"%s\". It must be either cli or jgit.";
+
+    @Override
+    public GitBackendType convert(ArgumentParser parser, Argument arg, String value) throws ArgumentParserException {
+        try {
+            return GitBackendType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iae) {
+            throw new ArgumentParserException(String.format(PARSE_EXCEPTION_MESSAGE_INVALID_BACKEND, value), parser);
+        }
+    }
+}
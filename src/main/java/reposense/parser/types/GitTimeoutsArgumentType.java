@@ -0,0 +1,73 @@
+package reposense.parser.types;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.ArgumentType;
+import reposense.parser.exceptions.ParseException;
+import reposense.system.CommandClass;
+
+/**
+ * Verifies and parses a string-formatted list of git command timeouts, such as "blame=300,log=600", to a
+ * {@link Map} of {@link CommandClass} to {@link Duration}.
+ */
+public class GitTimeoutsArgumentType implements ArgumentType<Map<CommandClass, Duration>> {
+    private static final String TIMEOUTS_SEPARATOR = ",";
+    private static final String CLASS_TIMEOUT_SEPARATOR = "=";
+    private static final String PARSE_EXCEPTION_MESSAGE_INVALID_FORMAT =
+            "Invalid format \"%s\". Git timeouts must be in the format of class=seconds, separated by commas, "
+            + "where class is one of light, log, diff, blame, clone or maintenance.";
+    private static final String PARSE_EXCEPTION_MESSAGE_INVALID_CLASS =
+            "Invalid command class \"%s\". It must be one of light, log, diff, blame, clone or maintenance.";
+    private static final String PARSE_EXCEPTION_MESSAGE_INVALID_SECONDS =
+            "Invalid timeout \"%s\". It must be a whole number of seconds that is 0 or more, where 0 means no timeout.";
+
+    @Override
+    public Map<CommandClass, Duration> convert(ArgumentParser parser, Argument arg, String value)
+            throws ArgumentParserException {
+        try {
+            return parse(value);
+        } catch (ParseException pe) {
+            throw new ArgumentParserException(pe.getMessage(), parser);
+        }
+    }
+
+    /**
+     * Parses a {@code timeouts} String and returns the timeout of each {@link CommandClass} given in it.
+     *
+     * @throws ParseException if the format, command class or number of seconds is invalid.
+     */
+    public static Map<CommandClass, Duration> parse(String timeouts) throws ParseException {
+        Map<CommandClass, Duration> parsedTimeouts = new EnumMap<>(CommandClass.class);
+        for (String timeout : timeouts.split(TIMEOUTS_SEPARATOR)) {
+            String[] classAndSeconds = timeout.trim().split(CLASS_TIMEOUT_SEPARATOR);
+            if (classAndSeconds.length != 2) {
+                throw new ParseException(String.format(PARSE_EXCEPTION_MESSAGE_INVALID_FORMAT, timeouts));
+            }
+
+            CommandClass commandClass;
+            try {
+                commandClass = CommandClass.valueOf(classAndSeconds[0].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException iae) {
+                throw new ParseException(String.format(PARSE_EXCEPTION_MESSAGE_INVALID_CLASS, classAndSeconds[0]));
+            }
+
+            try {
+                long seconds = Long.parseLong(classAndSeconds[1].trim());
+                if (seconds < 0) {
+                    throw new ParseException(String.format(PARSE_EXCEPTION_MESSAGE_INVALID_SECONDS,
+                            classAndSeconds[1]));
+                }
+                parsedTimeouts.put(commandClass, Duration.ofSeconds(seconds));
+            } catch (NumberFormatException nfe) {
+                throw new ParseException(String.format(PARSE_EXCEPTION_MESSAGE_INVALID_SECONDS, classAndSeconds[1]));
+            }
+        }
+        return parsedTimeouts;
+    }
+}
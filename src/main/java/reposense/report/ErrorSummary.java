@@ -22,7 +22,7 @@ public class ErrorSummary {
     /**
      * Adds an error message for {@code repoName} with the reason {@code errorMessage} into a set of errors.
      */
-    public void addErrorMessage(String repoName, String errorMessage) {
+    public synchronized void addErrorMessage(String repoName, String errorMessage) {
         Map<String, String> errorDetails = new HashMap<>();
         errorDetails.put("repoName", repoName);
         errorDetails.put("errorMessage", errorMessage);
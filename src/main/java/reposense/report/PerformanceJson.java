@@ -0,0 +1,38 @@
+package reposense.report;
+
+import java.util.List;
+import java.util.Map;
+
+import reposense.system.CommandClass;
+import reposense.system.CommandRecord;
+import reposense.system.CommandStatistics;
+import reposense.system.OptimizationRecord;
+
+/**
+ * Represents the structure of performance.json file in reposense-report folder, which describes the cost of the git
+ * commands run to generate the report.
+ */
+public class PerformanceJson {
+    public static final String PERFORMANCE_JSON_FILE_NAME = "performance.json";
+
+    private final Map<CommandClass, CommandStatistics> totals;
+    private final Map<String, Map<CommandClass, CommandStatistics>> repos;
+    private final List<CommandRecord> slowestCommands;
+    private final long commandCacheHits;
+    private final long commandCacheMisses;
+    private final long commandCacheEvictions;
+    private final Map<String, OptimizationRecord> repoOptimizations;
+
+    public PerformanceJson(Map<CommandClass, CommandStatistics> totals,
+            Map<String, Map<CommandClass, CommandStatistics>> repos, List<CommandRecord> slowestCommands,
+            long commandCacheHits, long commandCacheMisses, long commandCacheEvictions,
+            Map<String, OptimizationRecord> repoOptimizations) {
+        this.totals = totals;
+        this.repos = repos;
+        this.slowestCommands = slowestCommands;
+        this.commandCacheHits = commandCacheHits;
+        this.commandCacheMisses = commandCacheMisses;
+        this.commandCacheEvictions = commandCacheEvictions;
+        this.repoOptimizations = repoOptimizations;
+    }
+}
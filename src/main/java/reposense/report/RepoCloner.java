@@ -8,12 +8,15 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import reposense.git.GitBackends;
 import reposense.git.GitBranch;
 import reposense.git.GitCatFile;
+import reposense.git.GitCatFileBatch;
 import reposense.git.GitClone;
 import reposense.git.GitRevList;
 import reposense.git.GitShow;
@@ -22,9 +25,9 @@ import reposense.git.exception.GitBranchException;
 import reposense.git.exception.GitCloneException;
 import reposense.model.RepoConfiguration;
 import reposense.model.RepoLocation;
-import reposense.system.CommandRunnerProcess;
 import reposense.system.CommandRunnerProcessException;
 import reposense.system.LogsManager;
+import reposense.system.ProcessResult;
 import reposense.util.FileUtil;
 import reposense.util.SystemUtil;
 
@@ -60,7 +63,7 @@ public class RepoCloner {
     private int previousIndex = 0;
     private boolean isCurrentRepoCloned = false;
     private String currentRepoDefaultBranch;
-    private CommandRunnerProcess crp;
+    private CompletableFuture<ProcessResult> cloneProcess;
 
     /**
      * Spawns a process to clone the bare repository specified by {@code config}.
@@ -92,6 +95,7 @@ public class RepoCloner {
 
             List<String> graftedCommits = GitRevList.getRootCommits(shallowPartialBareRoot);
             List<String> graftedCommitParents = GitCatFile.getParentsOfCommits(shallowPartialBareRoot, graftedCommits);
+            GitCatFileBatch.close(shallowPartialBareRoot);
 
             boolean didPartialCloneSucceed = spawnPartialCloneProcess(config, shouldFreshClone);
             if (!didPartialCloneSucceed) {
@@ -106,6 +110,8 @@ public class RepoCloner {
                 sinceDate = GitShow.getEarliestCommitDate(partialBareRoot, distinctParents);
             } catch (CommitNotFoundException e) {
                 sinceDate = null;
+            } finally {
+                GitCatFileBatch.close(partialBareRoot);
             }
 
             isCurrentRepoCloned = (sinceDate != null)
@@ -155,6 +161,7 @@ public class RepoCloner {
      * Cleans up after all repos have been cloned and analyzed.
      */
     public void cleanup() {
+        GitBackends.get().closeAll();
         deleteDirectory(FileUtil.REPOS_ADDRESS);
     }
 
@@ -164,7 +171,7 @@ public class RepoCloner {
      * For test environments, cloning is skipped if it has been done before and {@code shouldFreshClone} is false.
      */
     private boolean spawnCloneProcess(RepoConfiguration config, boolean shouldFreshClone) {
-        assert(crp == null);
+        assert(cloneProcess == null);
 
         try {
             if (!SystemUtil.isTestEnvironment()) {
@@ -187,7 +194,7 @@ public class RepoCloner {
             Path outputDirectory = Paths.get(repoDirectoryPath.toString(),
                     FileUtil.getBareRepoFolderName(config));
 
-            crp = GitClone.cloneBareAsync(config, Paths.get("."), outputDirectory.toString());
+            cloneProcess = GitClone.cloneBareAsync(config, Paths.get("."), outputDirectory.toString());
         } catch (GitCloneException | IOException e) {
             logger.log(Level.WARNING, String.format(MESSAGE_ERROR_CLONING, config.getDisplayName()), e);
             return false;
@@ -203,7 +210,7 @@ public class RepoCloner {
      */
     private boolean spawnShallowCloneProcess(RepoConfiguration config, LocalDateTime shallowSinceDate,
             boolean shouldFreshClone) {
-        assert(crp == null);
+        assert(cloneProcess == null);
 
         try {
             if (!SystemUtil.isTestEnvironment()) {
@@ -225,7 +232,7 @@ public class RepoCloner {
                     FileUtil.getBareRepoFolderName(config));
 
             logger.info(String.format(MESSAGE_START_CLONING_SHALLOW, config.getLocation()));
-            crp = GitClone.cloneShallowBareAsync(config, Paths.get("."), outputDirectory.toString(),
+            cloneProcess = GitClone.cloneShallowBareAsync(config, Paths.get("."), outputDirectory.toString(),
                     shallowSinceDate);
         } catch (GitCloneException | IOException e) {
             logger.log(Level.WARNING, String.format(MESSAGE_ERROR_CLONING_SHALLOW, config.getDisplayName()), e);
@@ -240,7 +247,7 @@ public class RepoCloner {
      * For test environments, cloning is skipped if it has been done before and {@code shouldFreshClone} is false.
      */
     private boolean spawnPartialCloneProcess(RepoConfiguration config, boolean shouldFreshClone) {
-        assert(crp == null);
+        assert(cloneProcess == null);
 
         try {
             if (!SystemUtil.isTestEnvironment()) {
@@ -276,7 +283,7 @@ public class RepoCloner {
      * For test environments, cloning is skipped if it has been done before and {@code shouldFreshClone} is false.
      */
     private boolean spawnShallowPartialCloneProcess(RepoConfiguration config, boolean shouldFreshClone) {
-        assert(crp == null);
+        assert(cloneProcess == null);
 
         try {
             if (!SystemUtil.isTestEnvironment()) {
@@ -320,14 +327,14 @@ public class RepoCloner {
             }
 
             logger.info(String.format(MESSAGE_WAITING_FOR_CLONING, config.getLocation()));
-            crp.waitForProcess();
+            cloneProcess.join().getOutputIfSuccessful();
             logger.info(String.format(MESSAGE_COMPLETE_CLONING, config.getLocation()));
         } catch (RuntimeException | CommandRunnerProcessException e) {
-            crp = null;
+            cloneProcess = null;
             logger.log(Level.WARNING, String.format(MESSAGE_ERROR_CLONING, config.getDisplayName()), e);
             return false;
         }
-        crp = null;
+        cloneProcess = null;
         return true;
     }
 
@@ -342,8 +349,10 @@ public class RepoCloner {
 
     /**
      * Deletes the {@code root} directory, unless RepoSense is currently being tested.
+     * Any git cat-file processes kept for {@code root} are terminated regardless.
      */
     private void deleteDirectory(String root) {
+        GitBackends.get().close(root);
         if (SystemUtil.isTestEnvironment()) {
             return;
         }
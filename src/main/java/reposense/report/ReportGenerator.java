@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Supplier;
@@ -32,14 +33,17 @@ import reposense.authorship.AuthorshipReporter;
 import reposense.authorship.model.AuthorshipSummary;
 import reposense.commits.CommitsReporter;
 import reposense.commits.model.CommitContributionSummary;
+import reposense.git.GitBackends;
 import reposense.git.GitBlame;
 import reposense.git.GitClone;
+import reposense.git.GitCommandCache;
+import reposense.git.GitLsTree;
+import reposense.git.GitMaintenance;
 import reposense.git.GitRevParse;
-import reposense.git.GitShortlog;
-import reposense.git.GitShow;
 import reposense.git.exception.CommitNotFoundException;
 import reposense.git.exception.GitBranchException;
 import reposense.git.exception.GitCloneException;
+import reposense.git.model.GitObject;
 import reposense.model.Author;
 import reposense.model.CommitHash;
 import reposense.model.RepoConfiguration;
@@ -48,6 +52,7 @@ import reposense.model.ReportConfiguration;
 import reposense.model.StandaloneConfig;
 import reposense.parser.StandaloneConfigJsonParser;
 import reposense.report.exception.NoAuthorsWithCommitsFoundException;
+import reposense.system.CommandTelemetry;
 import reposense.system.LogsManager;
 import reposense.util.FileUtil;
 import reposense.util.ProgressTracker;
@@ -76,6 +81,7 @@ public class ReportGenerator {
             "No authors found with commits for %s (%s).";
     private static final String MESSAGE_START_ANALYSIS = "Analyzing %s (%s)...";
     private static final String MESSAGE_COMPLETE_ANALYSIS = "Analysis of %s (%s) completed!";
+    private static final String MESSAGE_START_OPTIMIZATION = "Optimizing %s for analysis...";
     private static final String MESSAGE_REPORT_GENERATED = "The report is generated at %s";
     private static final String MESSAGE_BRANCH_DOES_NOT_EXIST = "Branch %s does not exist in %s! Analysis terminated.";
     private static final String MESSAGE_MISSING_TEMPLATE =
@@ -94,7 +100,7 @@ public class ReportGenerator {
 
     /**
      * Generates the authorship and commits JSON file for each repo in {@code configs} at {@code outputPath}, as
-     * well as the summary JSON file of all the repos.
+     * well as the summary JSON file of all the repos and the performance JSON file describing the git commands run.
      *
      * @param configs The list of repos to analyze.
      * @param outputPath The location at which to save the report.
@@ -110,6 +116,8 @@ public class ReportGenerator {
      * @param reportGenerationTimeProvider Supplier for time taken to generate the report.
      * @param zoneId The timezone to adjust all date-times to.
      * @param shouldFreshClone The boolean variable for whether to clone a repo again during tests.
+     * @param shouldOptimizeRepos The boolean variable for whether to write the commit-graph of each repo after it is
+     *     cloned.
      * @param shouldAnalyzeAuthorship The boolean variable for whether to further analyze authorship.
      * @param originalityThreshold The double variable for originality threshold in analyze authorship.
      * @return the list of file paths that were generated.
@@ -119,7 +127,8 @@ public class ReportGenerator {
             ReportConfiguration reportConfig, String generationDate, LocalDateTime cliSinceDate,
             LocalDateTime untilDate, boolean isSinceDateProvided, boolean isUntilDateProvided, int numCloningThreads,
             int numAnalysisThreads, Supplier<String> reportGenerationTimeProvider, ZoneId zoneId,
-            boolean shouldFreshClone, boolean shouldAnalyzeAuthorship, double originalityThreshold) throws IOException {
+            boolean shouldFreshClone, boolean shouldOptimizeRepos, boolean shouldAnalyzeAuthorship,
+            double originalityThreshold) throws IOException {
         prepareTemplateFile(outputPath);
         if (Files.exists(Paths.get(assetsPath))) {
             FileUtil.copyDirectoryContents(assetsPath, outputPath, assetsFilesWhiteList);
@@ -127,9 +136,12 @@ public class ReportGenerator {
 
         earliestSinceDate = null;
         progressTracker = new ProgressTracker(configs.size());
+        CommandTelemetry.reset();
+        GitCommandCache.clear();
 
         List<Path> reportFoldersAndFiles = cloneAndAnalyzeRepos(configs, outputPath, numCloningThreads,
-                numAnalysisThreads, shouldFreshClone, shouldAnalyzeAuthorship, originalityThreshold);
+                numAnalysisThreads, shouldFreshClone, shouldOptimizeRepos, shouldAnalyzeAuthorship,
+                originalityThreshold);
 
         LocalDateTime reportSinceDate = (TimeUtil.isEqualToArbitraryFirstDateConverted(cliSinceDate, zoneId))
                 ? earliestSinceDate : cliSinceDate;
@@ -142,6 +154,14 @@ public class ReportGenerator {
                 getSummaryResultPath(outputPath));
         summaryPath.ifPresent(reportFoldersAndFiles::add);
 
+        Optional<Path> performancePath = FileUtil.writeJsonFile(
+                new PerformanceJson(CommandTelemetry.getTotalStatistics(), CommandTelemetry.getStatisticsByRepo(),
+                        CommandTelemetry.getSlowestCommands(), GitCommandCache.getNumHits(),
+                        GitCommandCache.getNumMisses(), GitCommandCache.getNumEvictions(),
+                        CommandTelemetry.getOptimizationsByRepo()),
+                getPerformanceResultPath(outputPath));
+        performancePath.ifPresent(reportFoldersAndFiles::add);
+
         logger.info(String.format(MESSAGE_REPORT_GENERATED, outputPath));
 
         return reportFoldersAndFiles;
@@ -187,14 +207,15 @@ public class ReportGenerator {
      * To turn off multi-threading, run the program with the flags
      * {@code --cloning-threads 1 --analysis-threads 1}.
      * For test environments, cloning is skipped if it has been done before and {@code shouldFreshClone} is false.
+     * Writes the commit-graph of each repo between its cloning and analysis if {@code shouldOptimizeRepos} is true.
      * Further analyzes the authorship of each line in the commit if {@code shouldAnalyzeAuthorship} is true, based on
      * {@code originalityThreshold}.
      *
      * @return A list of paths to the JSON report files generated for each repository.
      */
     private List<Path> cloneAndAnalyzeRepos(List<RepoConfiguration> configs, String outputPath, int numCloningThreads,
-            int numAnalysisThreads, boolean shouldFreshClone, boolean shouldAnalyzeAuthorship,
-            double originalityThreshold) {
+            int numAnalysisThreads, boolean shouldFreshClone, boolean shouldOptimizeRepos,
+            boolean shouldAnalyzeAuthorship, double originalityThreshold) {
         Map<RepoLocation, List<RepoConfiguration>> repoLocationMap = groupConfigsByRepoLocation(configs);
         List<RepoLocation> repoLocationList = new ArrayList<>(repoLocationMap.keySet());
 
@@ -210,15 +231,18 @@ public class ReportGenerator {
             // Note that the `cloneExecutor` is passed as a parameter to ensure that the number of threads used
             // for cloning is no more than `numCloningThreads`.
             CompletableFuture<CloneJobOutput> cloneFuture = CompletableFuture.supplyAsync(() ->
-                    cloneRepo(configsToAnalyze.get(0), location, shouldFreshClone), cloneExecutor);
+                    runForRepo(location, () -> cloneRepo(configsToAnalyze.get(0), location, shouldFreshClone,
+                            shouldOptimizeRepos)),
+                    cloneExecutor);
 
             // The `thenApplyAsync` method is used to analyze the cloned repo in parallel.
             // This ensures that the analysis job for each repo will only be run after the repo has been cloned.
             // Note that the `analyzeExecutor` is passed as a parameter to ensure that the number of threads used
             // for analysis is no more than `numAnalysisThreads`.
             CompletableFuture<AnalyzeJobOutput> analyzeFuture = cloneFuture.thenApplyAsync(
-                    cloneJobOutput -> analyzeRepos(outputPath, configsToAnalyze, cloneJobOutput,
-                            shouldAnalyzeAuthorship, originalityThreshold),
+                    cloneJobOutput -> runForRepo(location, () -> analyzeRepos(outputPath, configsToAnalyze,
+                            cloneJobOutput, shouldAnalyzeAuthorship, originalityThreshold, analyzeExecutor,
+                            numAnalysisThreads)),
                     analyzeExecutor);
 
             analyzeJobFutures.add(analyzeFuture);
@@ -257,18 +281,41 @@ public class ReportGenerator {
         return generatedFiles;
     }
 
+    /**
+     * Runs {@code job} on the current thread, attributing the git commands it runs to the repo at {@code location}
+     * in the performance report.
+     */
+    private static <T> T runForRepo(RepoLocation location, Supplier<T> job) {
+        CommandTelemetry.setCurrentRepo(location.toString());
+        try {
+            return job.get();
+        } finally {
+            CommandTelemetry.clearCurrentRepo();
+        }
+    }
+
     /**
      * Clones repo specified by {@code config} at {@code location}.
      * For test environments, cloning is skipped if it has been done before and {@code shouldFreshClone} is false.
+     * Once cloned, writes the commit-graph of the repo if {@code shouldOptimizeRepos} is true, which is inherited by
+     * the clones of each branch made from it for analysis. The duration and outcome of the optimization are recorded
+     * for the performance report.
      *
      * @return A {@link CloneJobOutput} object comprising the {@code location} of the repo, whether the cloning was
      * successful, and the {@code defaultBranch} of the repo.
      */
-    private CloneJobOutput cloneRepo(RepoConfiguration config, RepoLocation location, boolean shouldFreshClone) {
+    private CloneJobOutput cloneRepo(RepoConfiguration config, RepoLocation location, boolean shouldFreshClone,
+            boolean shouldOptimizeRepos) {
         RepoCloner repoCloner = new RepoCloner();
         repoCloner.cloneBare(config, shouldFreshClone);
         RepoLocation clonedRepoLocation = repoCloner.getClonedRepoLocation();
         if (clonedRepoLocation != null) {
+            if (shouldOptimizeRepos) {
+                logger.info(String.format(MESSAGE_START_OPTIMIZATION, location));
+                long startTime = System.nanoTime();
+                boolean isOptimized = GitMaintenance.optimize(FileUtil.getBareRepoPath(config).toString());
+                CommandTelemetry.recordOptimization(location.toString(), System.nanoTime() - startTime, isOptimized);
+            }
             String defaultBranch = repoCloner.getCurrentRepoDefaultBranch();
             return new CloneJobOutput(location, defaultBranch);
         } else {
@@ -281,12 +328,15 @@ public class ReportGenerator {
      * Uses {@code cloneJobOutput} to find repo location, default branch and whether cloning was successful.
      * Further analyzes the authorship of each line in the commit if {@code shouldAnalyzeAuthorship} is true, based on
      * {@code originalityThreshold}.
+     * The commits of each repo are extracted in up to {@code numAnalysisThreads} time partitions in parallel on
+     * {@code analyzeExecutor}, the executor that the analysis itself runs on.
      *
      * @return An {@link AnalyzeJobOutput} object comprising the {@code location} of the repo, whether the cloning was
      * successful, the list of {@code generatedFiles} by the analysis and a list of {@code analysisErrors} encountered.
      */
     private AnalyzeJobOutput analyzeRepos(String outputPath, List<RepoConfiguration> configsToAnalyze,
-            CloneJobOutput cloneJobOutput, boolean shouldAnalyzeAuthorship, double originalityThreshold) {
+            CloneJobOutput cloneJobOutput, boolean shouldAnalyzeAuthorship, double originalityThreshold,
+            Executor analyzeExecutor, int numAnalysisThreads) {
         RepoLocation location = cloneJobOutput.getLocation();
         boolean cloneSuccessful = cloneJobOutput.isCloneSuccessful();
 
@@ -313,7 +363,7 @@ public class ReportGenerator {
 
                 FileUtil.createDirectory(repoReportDirectory);
                 generatedFiles.addAll(analyzeRepo(configToAnalyze, repoReportDirectory.toString(),
-                        shouldAnalyzeAuthorship, originalityThreshold));
+                        shouldAnalyzeAuthorship, originalityThreshold, analyzeExecutor, numAnalysisThreads));
             } catch (IOException ioe) {
                 String logMessage = String.format(MESSAGE_ERROR_CREATING_DIRECTORY,
                         configToAnalyze.getLocation(), configToAnalyze.getBranch());
@@ -337,6 +387,8 @@ public class ReportGenerator {
                 logger.log(Level.SEVERE, sw.toString());
                 analysisErrors.add(new AnalysisErrorInfo(configToAnalyze,
                         String.format(LOG_UNEXPECTED_ERROR, configToAnalyze.getLocation(), sw.toString())));
+            } finally {
+                GitBackends.get().close(configToAnalyze.getRepoRoot());
             }
         }
 
@@ -348,15 +400,19 @@ public class ReportGenerator {
      * Analyzes repo specified by {@code config} and generates the report at {@code repoReportDirectory}.
      * Further analyzes the authorship of each line in the commit if {@code shouldAnalyzeAuthorship} is true, based on
      * {@code originalityThreshold}.
+     * Extracts the commits of the repo in up to {@code numAnalysisThreads} time partitions in parallel on
+     * {@code analyzeExecutor}.
      *
      * @return A list of paths to the JSON report files generated for the repo specified by {@code config}.
      * @throws NoAuthorsWithCommitsFoundException if there are no authors with commits found for the repo.
      */
     private List<Path> analyzeRepo(RepoConfiguration config, String repoReportDirectory,
-            boolean shouldAnalyzeAuthorship, double originalityThreshold) throws NoAuthorsWithCommitsFoundException {
+            boolean shouldAnalyzeAuthorship, double originalityThreshold, Executor analyzeExecutor,
+            int numAnalysisThreads) throws NoAuthorsWithCommitsFoundException {
         // preprocess the config and repo
         updateRepoConfig(config);
-        updateAuthorList(config);
+        CommitsReporter commitsReporter = new CommitsReporter(analyzeExecutor, numAnalysisThreads);
+        updateAuthorList(config, commitsReporter);
         updateIgnoreCommitList(config);
 
         if (config.isFindingPreviousAuthorsPerformed()) {
@@ -367,7 +423,6 @@ public class ReportGenerator {
         AuthorshipSummary authorshipSummary = authorshipReporter.generateAuthorshipSummary(config,
                 shouldAnalyzeAuthorship, originalityThreshold);
 
-        CommitsReporter commitsReporter = new CommitsReporter();
         CommitContributionSummary commitSummary = commitsReporter.generateCommitSummary(config);
         earliestSinceDate = commitSummary.getEarliestSinceDate();
 
@@ -378,14 +433,18 @@ public class ReportGenerator {
 
     /**
      * Updates {@code config} with configuration provided by repository if exists.
+     * The configuration is read as committed if {@code config} is checkout-free.
      *
      * @throws AssertionError if there is a problem with the file existence check.
      */
     public void updateRepoConfig(RepoConfiguration config) throws AssertionError {
         Path configJsonPath =
                 Paths.get(config.getRepoRoot(), REPOSENSE_CONFIG_FOLDER, REPOSENSE_CONFIG_FILE).toAbsolutePath();
+        Optional<GitObject> configJsonObject = (config.isCheckoutFree())
+                ? GitLsTree.getFile(config.getRepoRoot(), REPOSENSE_CONFIG_FOLDER + "/" + REPOSENSE_CONFIG_FILE)
+                : Optional.empty();
 
-        if (!Files.exists(configJsonPath)) {
+        if (config.isCheckoutFree() ? configJsonObject.isEmpty() : !Files.exists(configJsonPath)) {
             logger.info(String.format(MESSAGE_NO_STANDALONE_CONFIG, config.getLocation(), config.getBranch()));
             return;
         }
@@ -396,7 +455,9 @@ public class ReportGenerator {
         }
 
         try {
-            StandaloneConfig standaloneConfig = new StandaloneConfigJsonParser().parse(configJsonPath);
+            StandaloneConfig standaloneConfig = (config.isCheckoutFree())
+                    ? new StandaloneConfigJsonParser().parse(configJsonObject.get().getContentAsString())
+                    : new StandaloneConfigJsonParser().parse(configJsonPath);
             config.update(standaloneConfig);
         } catch (JsonSyntaxException jse) {
             logger.warning(String.format(MESSAGE_MALFORMED_STANDALONE_CONFIG, config.getDisplayName(),
@@ -411,15 +472,17 @@ public class ReportGenerator {
     }
 
     /**
-     * Find and update {@code config} with all the author identities if author list is empty.
+     * Find and update {@code config} with all the author identities if author list is empty, discovered by
+     * {@code commitsReporter} from the commits that it reports on.
      * Also removes ignored authors from author list.
      *
      * @throws NoAuthorsWithCommitsFoundException if there are no authors with commits found for the repo.
      */
-    private void updateAuthorList(RepoConfiguration config) throws NoAuthorsWithCommitsFoundException {
+    private void updateAuthorList(RepoConfiguration config, CommitsReporter commitsReporter)
+            throws NoAuthorsWithCommitsFoundException {
         if (config.getAuthorList().isEmpty()) {
             logger.info(String.format(MESSAGE_NO_AUTHORS_SPECIFIED, config.getLocation(), config.getBranch()));
-            List<Author> authorList = GitShortlog.getAuthors(config);
+            List<Author> authorList = commitsReporter.discoverAuthors(config);
 
             if (authorList.isEmpty()) {
                 throw new NoAuthorsWithCommitsFoundException();
@@ -521,7 +584,7 @@ public class ReportGenerator {
                 .map(CommitHash::toString)
                 .map(commitHash -> {
                     try {
-                        return GitShow.getExpandedCommitHash(config.getRepoRoot(), commitHash);
+                        return GitBackends.get().getExpandedCommitHash(config.getRepoRoot(), commitHash);
                     } catch (CommitNotFoundException e) {
                         logger.warning(String.format(LOG_ERROR_EXPANDING_COMMIT, commitHash));
                         return new CommitHash(commitHash);
@@ -537,6 +600,10 @@ public class ReportGenerator {
         return targetFileLocation + "/" + SummaryJson.SUMMARY_JSON_FILE_NAME;
     }
 
+    private String getPerformanceResultPath(String targetFileLocation) {
+        return targetFileLocation + "/" + PerformanceJson.PERFORMANCE_JSON_FILE_NAME;
+    }
+
     private String getIgnoreRevsFilePath(String targetFileLocation) {
         return targetFileLocation + GitBlame.IGNORE_COMMIT_LIST_FILE_NAME;
     }
@@ -0,0 +1,61 @@
+package reposense.system;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Allows a long-running operation to be cancelled cooperatively, either explicitly or once its deadline has passed.
+ * The operation is expected to check the token at convenient points and stop by throwing a
+ * {@link CancellationException}.
+ */
+public class CancellationToken {
+    private static final String MESSAGE_CANCELLED = "Operation was cancelled.";
+    private static final String MESSAGE_DEADLINE_EXCEEDED = "Operation did not complete within %d seconds.";
+
+    private final long deadline;
+    private final Duration timeout;
+    private volatile boolean isCancelled = false;
+
+    /**
+     * Creates a {@link CancellationToken} without a deadline.
+     */
+    public CancellationToken() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * Creates a {@link CancellationToken} that is cancelled once {@code timeout} has passed.
+     * A zero or negative {@code timeout} means that there is no deadline.
+     */
+    public CancellationToken(Duration timeout) {
+        this.timeout = timeout;
+        this.deadline = System.nanoTime() + (timeout.isNegative() || timeout.isZero() ? 0 : timeout.toNanos());
+    }
+
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    /**
+     * Returns true if the token was cancelled explicitly or its deadline has passed.
+     */
+    public boolean isCancelled() {
+        return isCancelled || isDeadlineExceeded();
+    }
+
+    /**
+     * Throws a {@link CancellationException} if the token was cancelled explicitly or its deadline has passed.
+     */
+    public void throwIfCancelled() throws CancellationException {
+        if (isCancelled) {
+            throw new CancellationException(MESSAGE_CANCELLED);
+        }
+        if (isDeadlineExceeded()) {
+            throw new CancellationException(String.format(MESSAGE_DEADLINE_EXCEEDED, timeout.getSeconds()));
+        }
+    }
+
+    private boolean isDeadlineExceeded() {
+        return !timeout.isNegative() && !timeout.isZero() && System.nanoTime() - deadline > 0;
+    }
+}
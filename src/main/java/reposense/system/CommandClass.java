@@ -0,0 +1,56 @@
+package reposense.system;
+
+import java.util.List;
+
+/**
+ * Represents the cost class of a command run by {@link CommandRunner}, which determines its share of the process
+ * budget enforced by {@link ProcessGovernor}.
+ */
+public enum CommandClass {
+    LIGHT(1),
+    LOG(2),
+    DIFF(2),
+    BLAME(3),
+    CLONE(4),
+    MAINTENANCE(4);
+
+    private static final String GIT_PROGRAM = "git";
+
+    private final int weight;
+
+    CommandClass(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the {@link CommandClass} of the command given by {@code args}, based on its git subcommand.
+     * Commands that are not git commands are treated as {@link #LIGHT}.
+     */
+    public static CommandClass of(List<String> args) {
+        if (args.size() < 2 || !args.get(0).equals(GIT_PROGRAM)) {
+            return LIGHT;
+        }
+
+        switch (args.get(1)) {
+        case "log":
+        case "shortlog":
+        case "rev-list":
+            return LOG;
+        case "diff":
+            return DIFF;
+        case "blame":
+            return BLAME;
+        case "clone":
+            return CLONE;
+        case "commit-graph":
+        case "multi-pack-index":
+            return MAINTENANCE;
+        default:
+            return LIGHT;
+        }
+    }
+}
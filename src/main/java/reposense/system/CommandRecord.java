@@ -0,0 +1,48 @@
+package reposense.system;
+
+/**
+ * Represents a single command run by {@link CommandRunner}, as kept by {@link CommandTelemetry} among the slowest
+ * commands of a run.
+ */
+public class CommandRecord {
+    private final String repo;
+    private final CommandClass commandClass;
+    private final String command;
+    private final double wallTimeMillis;
+    private final int exitCode;
+    private final boolean isTimedOut;
+
+    CommandRecord(String repo, CommandClass commandClass, String command, double wallTimeMillis, int exitCode,
+            boolean isTimedOut) {
+        this.repo = repo;
+        this.commandClass = commandClass;
+        this.command = command;
+        this.wallTimeMillis = wallTimeMillis;
+        this.exitCode = exitCode;
+        this.isTimedOut = isTimedOut;
+    }
+
+    public String getRepo() {
+        return repo;
+    }
+
+    public CommandClass getCommandClass() {
+        return commandClass;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public boolean isTimedOut() {
+        return isTimedOut;
+    }
+}
@@ -1,44 +1,244 @@
 package reposense.system;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import reposense.util.SystemUtil;
 
 /**
  * Contains command running related functionalities.
+ * The output of every spawned process is drained by a shared {@link ProcessReaper}, so no thread is dedicated to a
+ * running process unless the caller waits for it.
+ * The cost of every command is recorded by {@link CommandTelemetry}.
  */
 public class CommandRunner {
+    private static final int STREAM_BUFFER_SIZE = 1 << 13; // 8KB
+
+    private static final Map<CommandClass, Duration> TIMEOUTS = new EnumMap<>(CommandClass.class);
+
+    /**
+     * Sets the deadline of every command of each {@link CommandClass} in {@code timeouts}. A command that runs past
+     * its deadline is terminated together with its descendant processes. Command classes that are absent, or mapped
+     * to a zero duration, have no deadline.
+     */
+    public static synchronized void setTimeouts(Map<CommandClass, Duration> timeouts) {
+        TIMEOUTS.clear();
+        TIMEOUTS.putAll(timeouts);
+    }
+
+    /**
+     * Returns the deadline of commands of {@code commandClass}, or a zero duration if they have no deadline.
+     */
+    public static synchronized Duration getTimeout(CommandClass commandClass) {
+        return TIMEOUTS.getOrDefault(commandClass, Duration.ZERO);
+    }
 
     /**
      * Spawns a backend terminal process, with working directory at {@code path}, to execute the {@code command}.
+     * The {@code command} is interpreted by the system shell, so prefer {@link #runCommand(Path, List)} where
+     * shell features are not needed.
      *
      * @throws RuntimeException if an exception happens while executing the {@code command}.
      */
     public static String runCommand(Path path, String command) throws RuntimeException {
-        CommandRunnerProcess crp = spawnCommandProcess(path, command);
-        try {
-            return crp.waitForProcess();
-        } catch (CommandRunnerProcessException cre) {
-            throw new RuntimeException(cre);
-        }
+        return waitForProcess(spawnCommandProcess(path, command));
+    }
+
+    /**
+     * Spawns a process directly, without a shell, with working directory at {@code path}, to execute the command
+     * given by {@code args}. The first element of {@code args} is the program to run, and each of the remaining
+     * elements is passed to it as a single argument without any quoting or expansion.
+     *
+     * @throws RuntimeException if an exception happens while executing the command.
+     */
+    public static String runCommand(Path path, List<String> args) throws RuntimeException {
+        return runCommand(path, args, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Spawns a process directly, without a shell, with working directory at {@code path}, to execute the command
+     * given by {@code args}. The {@code environment} variables are added to those inherited from RepoSense, and
+     * {@code input}, if not null, is written to the standard input of the process. The standard input is closed
+     * afterwards, so that the process never waits for more input.
+     *
+     * @throws RuntimeException if an exception happens while executing the command.
+     */
+    public static String runCommand(Path path, List<String> args, Map<String, String> environment, String input)
+            throws RuntimeException {
+        return waitForProcess(spawnCommandProcess(path, args, environment, input));
     }
 
     /**
      * Spawns a backend terminal process, with working directory at {@code path}, to execute the {@code command}.
      * Does not wait for process to finish executing.
+     *
+     * @return a future that is completed with the {@link ProcessResult} once the process has finished executing.
+     *     Dependent actions that are not asynchronous run on the shared reaper thread, so they should be brief.
+     * @throws RuntimeException if an error happens while attempting to spawn the process.
      */
-    public static CommandRunnerProcess runCommandAsync(Path path, String command) {
+    public static CompletableFuture<ProcessResult> runCommandAsync(Path path, String command)
+            throws RuntimeException {
         return spawnCommandProcess(path, command);
     }
 
     /**
-     * Spawns a {@link CommandRunnerProcess} to execute {@code command}, with working directory at {@code path}.
+     * Spawns a process directly, without a shell, with working directory at {@code path}, to execute the command
+     * given by {@code args}. Does not wait for process to finish executing.
+     *
+     * @return a future that is completed with the {@link ProcessResult} once the process has finished executing.
+     *     Dependent actions that are not asynchronous run on the shared reaper thread, so they should be brief.
+     * @throws RuntimeException if an error happens while attempting to spawn the process.
+     */
+    public static CompletableFuture<ProcessResult> runCommandAsync(Path path, List<String> args)
+            throws RuntimeException {
+        return spawnCommandProcess(path, args, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Spawns a process directly, without a shell, with working directory at {@code path}, to execute the command
+     * given by {@code args}. Each line of the output, decoded as UTF-8 and without the terminating line feed, is
+     * passed to {@code lineConsumer} as it arrives, so the output is never held in memory as a whole.
+     *
+     * @throws RuntimeException if an exception happens while executing the command, or is thrown by
+     *     {@code lineConsumer}. The process is terminated in the latter case.
+     */
+    public static void runCommandForEachLine(Path path, List<String> args, Consumer<String> lineConsumer)
+            throws RuntimeException {
+        OutputSplitter lineSplitter = new OutputSplitter((byte) '\n', lineConsumer);
+        runCommandForEachChunk(path, args, lineSplitter);
+        lineSplitter.finish();
+    }
+
+    /**
+     * Spawns a process directly, without a shell, with working directory at {@code path}, to execute the command
+     * given by {@code args}, whose output is made up of NUL-terminated tokens. Each token of the output, decoded as
+     * UTF-8 and without the terminating NUL, is passed to {@code tokenConsumer} as it arrives, so the output is never
+     * held in memory as a whole. Any bytes after the last NUL are passed as the last token.
+     *
+     * @throws RuntimeException if an exception happens while executing the command, or is thrown by
+     *     {@code tokenConsumer}. The process is terminated in the latter case.
+     */
+    public static void runCommandForEachToken(Path path, List<String> args, Consumer<String> tokenConsumer)
+            throws RuntimeException {
+        OutputSplitter tokenSplitter = new OutputSplitter((byte) 0, tokenConsumer);
+        runCommandForEachChunk(path, args, tokenSplitter);
+        tokenSplitter.finish();
+    }
+
+    /**
+     * Spawns a process directly, without a shell, with working directory at {@code path}, to execute the command
+     * given by {@code args}. Each range of bytes of the output is passed to {@code chunkConsumer} as it arrives, on
+     * the calling thread. {@code chunkConsumer} may run other commands, which are admitted by the
+     * {@link ProcessGovernor} without waiting for budget, as this process holds its budget until it completes.
+     *
+     * @throws RuntimeException if an exception happens while executing the command, or is thrown by
+     *     {@code chunkConsumer}. The process is terminated in the latter case.
+     */
+    public static void runCommandForEachChunk(Path path, List<String> args, OutputChunkConsumer chunkConsumer)
+            throws RuntimeException {
+        ProcessBuilder pb = new ProcessBuilder()
+                .command(args)
+                .directory(path.toFile());
+        CommandClass commandClass = CommandClass.of(args);
+        String command = String.join(" ", args);
+        String repo = CommandTelemetry.getCurrentRepo();
+        Process p = start(pb, commandClass);
+        long startTime = System.nanoTime();
+        try {
+            p.getOutputStream().close();
+        } catch (IOException e) {
+            p.destroyForcibly();
+        }
+        CompletableFuture<ProcessResult> result = register(p, commandClass, startTime, path, command, false);
+
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        AtomicLong outputSize = new AtomicLong();
+        // the commands that chunkConsumer runs are admitted without waiting for this process to release its budget
+        ProcessGovernor.startConsuming();
+        try (InputStream is = p.getInputStream()) {
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                outputSize.addAndGet(len);
+                chunkConsumer.accept(buffer, 0, len);
+            }
+        } catch (IOException ioe) {
+            ProcessReaper.destroyProcessTree(p);
+            throw new RuntimeException(ioe);
+        } catch (RuntimeException re) {
+            ProcessReaper.destroyProcessTree(p);
+            throw re;
+        } finally {
+            ProcessGovernor.endConsuming();
+            // recorded only once the output has been consumed, as the process may exit before that
+            result.whenComplete((processResult, throwable) -> CommandTelemetry.record(repo, commandClass, command,
+                    System.nanoTime() - startTime, processResult, outputSize.get()));
+        }
+
+        waitForProcess(result);
+    }
+
+    /**
+     * Starts a long-lived process directly, without a shell, with working directory at {@code path}, to execute the
+     * command given by {@code args}, which is sent requests through its standard input until it is closed.
+     * The process is admitted by the {@link ProcessGovernor} like any other command, but does not hold any budget
+     * once started, as it is idle for most of its lifetime. It has no deadline, and is recorded by
+     * {@link CommandTelemetry} once it exits.
+     *
+     * @throws RuntimeException if an error happens while attempting to spawn the process.
+     */
+    public static InteractiveProcess startInteractiveCommand(Path path, List<String> args) throws RuntimeException {
+        ProcessBuilder pb = new ProcessBuilder()
+                .command(args)
+                .directory(path.toFile());
+        CommandClass commandClass = CommandClass.of(args);
+        String command = String.join(" ", args);
+        String repo = CommandTelemetry.getCurrentRepo();
+        Process p = start(pb, commandClass);
+        ProcessGovernor.cancel(commandClass);
+
+        InteractiveProcess process = new InteractiveProcess(p, command,
+                ProcessReaper.register(p, path, command, false, Duration.ZERO));
+        process.getResult().whenComplete((processResult, throwable) -> CommandTelemetry.record(repo, commandClass,
+                command, process.getResponseWaitNanos(), processResult, process.getResponseSize()));
+        return process;
+    }
+
+    /**
+     * Waits for the process represented by {@code result} to finish executing and returns its output.
+     *
+     * @throws RuntimeException if the process fails or its output cannot be read.
+     */
+    private static String waitForProcess(CompletableFuture<ProcessResult> result) throws RuntimeException {
+        try {
+            return result.join().getOutputIfSuccessful();
+        } catch (CompletionException ce) {
+            throw new RuntimeException(ce.getCause());
+        } catch (CommandRunnerProcessException cre) {
+            throw new RuntimeException(cre);
+        }
+    }
+
+    /**
+     * Spawns a process to execute {@code command}, with working directory at {@code path}.
      * Does not wait for process to finish executing.
      *
      * @throws RuntimeException if an error happens while attempting to spawn the process.
      */
-    private static CommandRunnerProcess spawnCommandProcess(Path path, String command) throws RuntimeException {
+    private static CompletableFuture<ProcessResult> spawnCommandProcess(Path path, String command)
+            throws RuntimeException {
         ProcessBuilder pb = null;
         if (SystemUtil.isWindows()) {
             pb = new ProcessBuilder()
@@ -49,16 +249,91 @@ public class CommandRunner {
                     .command(new String[]{"bash", "-c", command})
                     .directory(path.toFile());
         }
-        Process p = null;
+        return startProcess(pb, CommandClass.of(Arrays.asList(command.split(" "))), path, command, null);
+    }
+
+    /**
+     * Spawns a process to execute the command given by {@code args} without a shell, with working directory at
+     * {@code path}, the additional {@code environment} variables and {@code input} as the standard input.
+     * Does not wait for process to finish executing.
+     *
+     * @throws RuntimeException if an error happens while attempting to spawn the process.
+     */
+    private static CompletableFuture<ProcessResult> spawnCommandProcess(Path path, List<String> args,
+            Map<String, String> environment, String input) throws RuntimeException {
+        ProcessBuilder pb = new ProcessBuilder()
+                .command(args)
+                .directory(path.toFile());
+        pb.environment().putAll(environment);
+        return startProcess(pb, CommandClass.of(args), path, String.join(" ", args), (input == null) ? "" : input);
+    }
+
+    /**
+     * Starts the process configured in {@code pb}, as a command of {@code commandClass}, and registers it with the
+     * {@link ProcessReaper}. Writes {@code input} to the standard input of the process if it is not null, then closes
+     * the standard input so that the process does not wait for more input.
+     *
+     * @throws RuntimeException if an error happens while attempting to spawn the process.
+     */
+    private static CompletableFuture<ProcessResult> startProcess(ProcessBuilder pb, CommandClass commandClass,
+            Path path, String command, String input) throws RuntimeException {
+        Process p = start(pb, commandClass);
+        long startTime = System.nanoTime();
+        CompletableFuture<ProcessResult> result = register(p, commandClass, startTime, path, command, true);
+
+        if (input != null) {
+            try (OutputStream os = p.getOutputStream()) {
+                os.write(input.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                p.destroy();
+                throw new RuntimeException("Error Writing Input:" + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts the process configured in {@code pb} once the {@link ProcessGovernor} admits a command of
+     * {@code commandClass}. The admission is returned to the governor if the process fails to start.
+     *
+     * @throws RuntimeException if the thread is interrupted while waiting for admission, or an error happens while
+     *     attempting to spawn the process.
+     */
+    private static Process start(ProcessBuilder pb, CommandClass commandClass) throws RuntimeException {
         try {
-            p = pb.start();
+            ProcessGovernor.acquire(commandClass);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to spawn process: " + ie.getMessage());
+        }
+
+        try {
+            return pb.start();
         } catch (IOException e) {
+            ProcessGovernor.cancel(commandClass);
             throw new RuntimeException("Error Creating Thread:" + e.getMessage());
         }
-        StreamGobbler errorGobbler = new StreamGobbler(p.getErrorStream());
-        StreamGobbler outputGobbler = new StreamGobbler(p.getInputStream());
-        outputGobbler.start();
-        errorGobbler.start();
-        return new CommandRunnerProcess(path, command, p, outputGobbler, errorGobbler);
+    }
+
+    /**
+     * Registers the started process {@code p} of {@code commandClass} with the {@link ProcessReaper}, under the
+     * deadline of {@code commandClass}, and returns its admission to the {@link ProcessGovernor} with its latency,
+     * measured from {@code startTime}, once it completes.
+     * The command is also recorded by {@link CommandTelemetry} at that point if its output {@code isOutputDrained},
+     * otherwise it is left to the caller to record once the output has been consumed.
+     */
+    private static CompletableFuture<ProcessResult> register(Process p, CommandClass commandClass, long startTime,
+            Path path, String command, boolean isOutputDrained) {
+        String repo = CommandTelemetry.getCurrentRepo();
+        CompletableFuture<ProcessResult> result =
+                ProcessReaper.register(p, path, command, isOutputDrained, getTimeout(commandClass));
+        result.whenComplete((processResult, throwable) -> {
+            long latency = System.nanoTime() - startTime;
+            ProcessGovernor.release(commandClass, latency);
+            if (isOutputDrained) {
+                CommandTelemetry.record(repo, commandClass, command, latency, processResult, 0);
+            }
+        });
+        return result;
     }
 }
@@ -2,7 +2,7 @@ package reposense.system;
 
 
 /**
- * Signals that an error has occurred in {@link CommandRunnerProcess}.
+ * Signals that a process spawned by {@link CommandRunner} has failed.
  */
 public class CommandRunnerProcessException extends Exception {
     public CommandRunnerProcessException(String message) {
@@ -0,0 +1,90 @@
+package reposense.system;
+
+/**
+ * Represents the aggregated cost of the commands of a single {@link CommandClass} run by {@link CommandRunner}.
+ */
+public class CommandStatistics {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private int numInvocations = 0;
+    private int numFailures = 0;
+    private int numTimeouts = 0;
+    private double totalWallTimeMillis = 0;
+    private double maxWallTimeMillis = 0;
+    private long outputBytes = 0;
+    private long errorOutputBytes = 0;
+
+    CommandStatistics() {
+    }
+
+    private CommandStatistics(CommandStatistics other) {
+        this.numInvocations = other.numInvocations;
+        this.numFailures = other.numFailures;
+        this.numTimeouts = other.numTimeouts;
+        this.totalWallTimeMillis = other.totalWallTimeMillis;
+        this.maxWallTimeMillis = other.maxWallTimeMillis;
+        this.outputBytes = other.outputBytes;
+        this.errorOutputBytes = other.errorOutputBytes;
+    }
+
+    /**
+     * Adds a command that ran for {@code wallTimeNanos} and produced {@code outputBytes} bytes of standard output and
+     * {@code errorOutputBytes} bytes of standard error. The command is counted as a failure if it is not
+     * {@code isSuccessful}, and also as a timeout if it {@code isTimedOut}.
+     */
+    void add(long wallTimeNanos, boolean isSuccessful, boolean isTimedOut, long outputBytes, long errorOutputBytes) {
+        double wallTimeMillis = wallTimeNanos / NANOS_PER_MILLI;
+        numInvocations++;
+        numFailures += isSuccessful ? 0 : 1;
+        numTimeouts += isTimedOut ? 1 : 0;
+        totalWallTimeMillis += wallTimeMillis;
+        maxWallTimeMillis = Math.max(maxWallTimeMillis, wallTimeMillis);
+        this.outputBytes += outputBytes;
+        this.errorOutputBytes += errorOutputBytes;
+    }
+
+    /**
+     * Adds all the commands aggregated in {@code other}.
+     */
+    void addAll(CommandStatistics other) {
+        numInvocations += other.numInvocations;
+        numFailures += other.numFailures;
+        numTimeouts += other.numTimeouts;
+        totalWallTimeMillis += other.totalWallTimeMillis;
+        maxWallTimeMillis = Math.max(maxWallTimeMillis, other.maxWallTimeMillis);
+        outputBytes += other.outputBytes;
+        errorOutputBytes += other.errorOutputBytes;
+    }
+
+    CommandStatistics copy() {
+        return new CommandStatistics(this);
+    }
+
+    public int getNumInvocations() {
+        return numInvocations;
+    }
+
+    public int getNumFailures() {
+        return numFailures;
+    }
+
+    public int getNumTimeouts() {
+        return numTimeouts;
+    }
+
+    public double getTotalWallTimeMillis() {
+        return totalWallTimeMillis;
+    }
+
+    public double getMaxWallTimeMillis() {
+        return maxWallTimeMillis;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public long getErrorOutputBytes() {
+        return errorOutputBytes;
+    }
+}
@@ -0,0 +1,144 @@
+package reposense.system;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Records the cost of every command run by {@link CommandRunner}, aggregated per repo and per {@link CommandClass},
+ * along with the slowest commands of the run and the optimization of each repo.
+ * Commands are attributed to the repo set with {@link #setCurrentRepo} on the thread that spawns them.
+ */
+public class CommandTelemetry {
+    public static final String UNATTRIBUTED_REPO = "(none)";
+
+    private static final int NUM_SLOWEST_COMMANDS = 10;
+    private static final int UNKNOWN_EXIT_CODE = -1;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String SLOWEST_COMMANDS_HEADER = String.format("Slowest %d commands:\n%10s  %-5s  %s",
+            NUM_SLOWEST_COMMANDS, "TIME (ms)", "CLASS", "REPO: COMMAND");
+    private static final String SLOWEST_COMMANDS_ROW_FORMAT = "\n%10.0f  %-5s  %s: %s";
+
+    private static final ThreadLocal<String> CURRENT_REPO = ThreadLocal.withInitial(() -> UNATTRIBUTED_REPO);
+
+    private static final Map<String, Map<CommandClass, CommandStatistics>> STATISTICS = new TreeMap<>();
+    // ordered from the fastest to the slowest, so that the fastest of the kept commands is evicted first
+    private static final PriorityQueue<CommandRecord> SLOWEST_COMMANDS =
+            new PriorityQueue<>(Comparator.comparingDouble(CommandRecord::getWallTimeMillis));
+    private static final Map<String, OptimizationRecord> OPTIMIZATIONS = new TreeMap<>();
+
+    /**
+     * Attributes the commands subsequently spawned on the current thread to {@code repo}.
+     */
+    public static void setCurrentRepo(String repo) {
+        CURRENT_REPO.set(repo);
+    }
+
+    /**
+     * Stops attributing the commands subsequently spawned on the current thread to any repo.
+     */
+    public static void clearCurrentRepo() {
+        CURRENT_REPO.remove();
+    }
+
+    /**
+     * Returns the repo that the commands spawned on the current thread are attributed to.
+     */
+    public static String getCurrentRepo() {
+        return CURRENT_REPO.get();
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public static synchronized void reset() {
+        STATISTICS.clear();
+        SLOWEST_COMMANDS.clear();
+        OPTIMIZATIONS.clear();
+    }
+
+    /**
+     * Records {@code command} of {@code commandClass}, spawned for {@code repo}, which ran for {@code wallTimeNanos}.
+     * {@code result} is null if the output of the command could not be read. {@code streamedOutputSize} is the number
+     * of bytes of the standard output that were streamed to a consumer instead of being collected in {@code result}.
+     */
+    static synchronized void record(String repo, CommandClass commandClass, String command, long wallTimeNanos,
+            ProcessResult result, long streamedOutputSize) {
+        boolean isSuccessful = result != null && result.isSuccessful();
+        boolean isTimedOut = result != null && result.isTimedOut();
+        long outputSize = streamedOutputSize + (result == null ? 0 : result.getOutputSize());
+        long errorOutputSize = result == null ? 0 : result.getErrorOutputSize();
+
+        STATISTICS.computeIfAbsent(repo, r -> new EnumMap<>(CommandClass.class))
+                .computeIfAbsent(commandClass, c -> new CommandStatistics())
+                .add(wallTimeNanos, isSuccessful, isTimedOut, outputSize, errorOutputSize);
+
+        SLOWEST_COMMANDS.add(new CommandRecord(repo, commandClass, command, wallTimeNanos / NANOS_PER_MILLI,
+                result == null ? UNKNOWN_EXIT_CODE : result.getExitCode(), isTimedOut));
+        if (SLOWEST_COMMANDS.size() > NUM_SLOWEST_COMMANDS) {
+            SLOWEST_COMMANDS.poll();
+        }
+    }
+
+    /**
+     * Records that the optimization of {@code repo} ran for {@code wallTimeNanos}, and whether it succeeded.
+     */
+    public static synchronized void recordOptimization(String repo, long wallTimeNanos, boolean isSuccessful) {
+        OPTIMIZATIONS.put(repo, new OptimizationRecord(wallTimeNanos / NANOS_PER_MILLI, isSuccessful));
+    }
+
+    /**
+     * Returns a copy of the optimizations recorded for each repo, in the order of the repo names.
+     */
+    public static synchronized Map<String, OptimizationRecord> getOptimizationsByRepo() {
+        return new TreeMap<>(OPTIMIZATIONS);
+    }
+
+    /**
+     * Returns a copy of the statistics recorded for each repo, in the order of the repo names.
+     */
+    public static synchronized Map<String, Map<CommandClass, CommandStatistics>> getStatisticsByRepo() {
+        Map<String, Map<CommandClass, CommandStatistics>> statisticsByRepo = new TreeMap<>();
+        STATISTICS.forEach((repo, statistics) -> {
+            Map<CommandClass, CommandStatistics> copy = new EnumMap<>(CommandClass.class);
+            statistics.forEach((commandClass, classStatistics) -> copy.put(commandClass, classStatistics.copy()));
+            statisticsByRepo.put(repo, copy);
+        });
+        return statisticsByRepo;
+    }
+
+    /**
+     * Returns the statistics recorded for each {@link CommandClass}, summed across all repos.
+     */
+    public static synchronized Map<CommandClass, CommandStatistics> getTotalStatistics() {
+        Map<CommandClass, CommandStatistics> totals = new EnumMap<>(CommandClass.class);
+        STATISTICS.values().forEach(statistics -> statistics.forEach((commandClass, classStatistics) ->
+                totals.computeIfAbsent(commandClass, c -> new CommandStatistics()).addAll(classStatistics)));
+        return totals;
+    }
+
+    /**
+     * Returns the slowest commands recorded, from the slowest to the fastest.
+     */
+    public static synchronized List<CommandRecord> getSlowestCommands() {
+        List<CommandRecord> slowestCommands = new ArrayList<>(SLOWEST_COMMANDS);
+        slowestCommands.sort(Comparator.comparingDouble(CommandRecord::getWallTimeMillis).reversed());
+        return slowestCommands;
+    }
+
+    /**
+     * Returns a table of the slowest commands recorded, for logging.
+     */
+    public static String getSlowestCommandsTable() {
+        StringBuilder table = new StringBuilder(SLOWEST_COMMANDS_HEADER);
+        for (CommandRecord record : getSlowestCommands()) {
+            table.append(String.format(SLOWEST_COMMANDS_ROW_FORMAT, record.getWallTimeMillis(),
+                    record.getCommandClass(), record.getRepo(), record.getCommand()));
+        }
+        return table.toString();
+    }
+}
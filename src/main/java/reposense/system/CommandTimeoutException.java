@@ -0,0 +1,22 @@
+package reposense.system;
+
+/**
+ * Signals that a process spawned by {@link CommandRunner} was terminated because it ran past its deadline.
+ */
+public class CommandTimeoutException extends CommandRunnerProcessException {
+    public CommandTimeoutException(String message) {
+        super(message);
+    }
+
+    /**
+     * Returns true if {@code throwable}, or any of its causes, is a {@link CommandTimeoutException}.
+     */
+    public static boolean isCausedByTimeout(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CommandTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,131 @@
+package reposense.system;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Represents a long-lived process started by {@link CommandRunner#startInteractiveCommand}, which is sent requests
+ * through its standard input and writes its responses to its standard output.
+ * As the process is idle for most of its lifetime, the time spent waiting for its responses is recorded as its cost
+ * rather than its lifetime.
+ */
+public class InteractiveProcess {
+    private static final Logger logger = LogsManager.getLogger(InteractiveProcess.class);
+
+    private static final long EXIT_TIMEOUT_MILLIS = 1000;
+    private static final String MESSAGE_ERROR_CLOSING = "Exception met while closing the process of \"%s\".";
+
+    private final Process process;
+    private final String command;
+    private final CompletableFuture<ProcessResult> result;
+    private final OutputStream requests;
+    private final InputStream responses;
+    private final AtomicLong responseWaitNanos = new AtomicLong();
+    private final AtomicLong responseSize = new AtomicLong();
+
+    InteractiveProcess(Process process, String command, CompletableFuture<ProcessResult> result) {
+        this.process = process;
+        this.command = command;
+        this.result = result;
+        requests = new BufferedOutputStream(process.getOutputStream());
+        responses = new BufferedInputStream(new TimedInputStream(process.getInputStream()));
+    }
+
+    /**
+     * Returns the buffered standard input of the process, which has to be flushed for the process to see the
+     * requests written to it.
+     */
+    public OutputStream getRequests() {
+        return requests;
+    }
+
+    /**
+     * Returns the buffered standard output of the process.
+     */
+    public InputStream getResponses() {
+        return responses;
+    }
+
+    /**
+     * Returns the future that is completed with the {@link ProcessResult} once the process has exited.
+     */
+    CompletableFuture<ProcessResult> getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the total time spent waiting for the responses of the process.
+     */
+    long getResponseWaitNanos() {
+        return responseWaitNanos.get();
+    }
+
+    /**
+     * Returns the number of bytes of the responses read from the process.
+     */
+    long getResponseSize() {
+        return responseSize.get();
+    }
+
+    /**
+     * Closes the standard input of the process, so that it exits once it has responded to the requests written to
+     * it. The process is terminated along with its descendants if it does not exit shortly after.
+     */
+    public void close() {
+        try {
+            requests.close();
+            responses.close();
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, String.format(MESSAGE_ERROR_CLOSING, command), ioe);
+        }
+
+        try {
+            if (!process.waitFor(EXIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                ProcessReaper.destroyProcessTree(process);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            ProcessReaper.destroyProcessTree(process);
+        }
+    }
+
+    /**
+     * Measures the time spent in, and the number of bytes returned by, the reads of the standard output of the
+     * process.
+     */
+    private class TimedInputStream extends FilterInputStream {
+        TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long startTime = System.nanoTime();
+            int b = super.read();
+            record(startTime, (b == -1) ? 0 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long startTime = System.nanoTime();
+            int numBytesRead = super.read(b, off, len);
+            record(startTime, Math.max(numBytesRead, 0));
+            return numBytesRead;
+        }
+
+        private void record(long startTime, int numBytesRead) {
+            responseWaitNanos.addAndGet(System.nanoTime() - startTime);
+            responseSize.addAndGet(numBytesRead);
+        }
+    }
+}
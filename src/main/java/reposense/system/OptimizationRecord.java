@@ -0,0 +1,22 @@
+package reposense.system;
+
+/**
+ * Represents the optimization of a single repo before it is analyzed, as kept by {@link CommandTelemetry}.
+ */
+public class OptimizationRecord {
+    private final double wallTimeMillis;
+    private final boolean isSuccessful;
+
+    OptimizationRecord(double wallTimeMillis, boolean isSuccessful) {
+        this.wallTimeMillis = wallTimeMillis;
+        this.isSuccessful = isSuccessful;
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public boolean isSuccessful() {
+        return isSuccessful;
+    }
+}
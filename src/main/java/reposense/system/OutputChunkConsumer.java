@@ -0,0 +1,13 @@
+package reposense.system;
+
+/**
+ * Represents an operation that accepts a range of bytes from the output of a process, as the output arrives.
+ */
+@FunctionalInterface
+public interface OutputChunkConsumer {
+    /**
+     * Consumes {@code length} bytes of {@code bytes}, starting at {@code offset}.
+     * The contents of {@code bytes} may be overwritten once this method returns.
+     */
+    void accept(byte[] bytes, int offset, int length);
+}
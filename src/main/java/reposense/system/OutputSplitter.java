@@ -0,0 +1,50 @@
+package reposense.system;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Splits chunks of process output into tokens terminated by a delimiter byte, and passes each token, decoded as UTF-8
+ * and without the delimiter, to a token consumer.
+ * Only the delimiter terminates a token, so a token split on line feeds keeps its carriage returns.
+ */
+class OutputSplitter implements OutputChunkConsumer {
+    private final byte delimiter;
+    private final Consumer<String> tokenConsumer;
+    private final ByteArrayOutputStream currentToken = new ByteArrayOutputStream();
+
+    OutputSplitter(byte delimiter, Consumer<String> tokenConsumer) {
+        this.delimiter = delimiter;
+        this.tokenConsumer = tokenConsumer;
+    }
+
+    @Override
+    public void accept(byte[] bytes, int offset, int length) {
+        int tokenStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] == delimiter) {
+                currentToken.write(bytes, tokenStart, i - tokenStart);
+                emitCurrentToken();
+                tokenStart = i + 1;
+            }
+        }
+        currentToken.write(bytes, tokenStart, end - tokenStart);
+    }
+
+    /**
+     * Passes the remaining bytes, which are not terminated by the delimiter, as the last token.
+     */
+    void finish() {
+        if (currentToken.size() > 0) {
+            emitCurrentToken();
+        }
+    }
+
+    private void emitCurrentToken() {
+        String token = currentToken.toString(StandardCharsets.UTF_8);
+        currentToken.reset();
+        tokenConsumer.accept(token);
+    }
+}
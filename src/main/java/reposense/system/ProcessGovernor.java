@@ -0,0 +1,148 @@
+package reposense.system;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Limits the total cost of the processes spawned by {@link CommandRunner} that run at the same time, across all the
+ * cloning and analysis threads.
+ * Each running process holds the weight of its {@link CommandClass} from a shared budget. The budget is adjusted
+ * additively while processes complete without signs of saturation, and multiplicatively decreased when process
+ * latencies grow well beyond their best observed values or the system load exceeds the number of processors.
+ */
+class ProcessGovernor {
+    private static final Logger logger = LogsManager.getLogger(ProcessGovernor.class);
+
+    private static final String MESSAGE_LIMIT_DECREASED = "Process budget decreased to %.1f due to saturation.";
+
+    private static final int NUM_PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static final double MIN_LIMIT = CommandClass.CLONE.getWeight();
+    private static final double MAX_LIMIT = Math.max(MIN_LIMIT, 4.0 * NUM_PROCESSORS);
+    private static final double INITIAL_LIMIT = Math.max(MIN_LIMIT, 2.0 * NUM_PROCESSORS);
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final double LATENCY_INFLATION_THRESHOLD = 2.0;
+    private static final double LOAD_PER_PROCESSOR_THRESHOLD = 1.5;
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+    // lets the best observed latency drift upwards, so that a sustained increase is eventually accepted as normal
+    private static final double BEST_LATENCY_DRIFT_FACTOR = 1.05;
+    private static final int COMPLETIONS_PER_ADJUSTMENT = 8;
+
+    private static final OperatingSystemMXBean OS_BEAN = ManagementFactory.getOperatingSystemMXBean();
+
+    private static final Map<CommandClass, Double> AVERAGE_LATENCIES = new EnumMap<>(CommandClass.class);
+    private static final Map<CommandClass, Double> BEST_AVERAGE_LATENCIES = new EnumMap<>(CommandClass.class);
+
+    // the number of running processes whose output is being consumed on the current thread
+    private static final ThreadLocal<Integer> NUM_PROCESSES_CONSUMED = ThreadLocal.withInitial(() -> 0);
+
+    private static double limit = INITIAL_LIMIT;
+    private static int inUse = 0;
+    private static int numWaiting = 0;
+    private static int numCompletionsSinceAdjustment = 0;
+    private static boolean hasWaitedSinceAdjustment = false;
+
+    /**
+     * Blocks until there is enough budget to run a process of {@code commandClass}, then takes its weight from the
+     * budget. A process is always admitted if no other process is running, so that the heaviest class can never be
+     * starved by a small budget.
+     * A process is also admitted without waiting if it is spawned while the output of another process is consumed on
+     * the current thread, as that process holds its weight until its output has been consumed, which may never
+     * happen while the process spawned waits for the budget.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    static synchronized void acquire(CommandClass commandClass) throws InterruptedException {
+        int weight = commandClass.getWeight();
+        boolean isNested = NUM_PROCESSES_CONSUMED.get() > 0;
+        numWaiting++;
+        try {
+            while (!isNested && inUse > 0 && inUse + weight > limit) {
+                hasWaitedSinceAdjustment = true;
+                ProcessGovernor.class.wait();
+            }
+        } finally {
+            numWaiting--;
+        }
+        inUse += weight;
+    }
+
+    /**
+     * Returns the weight of a process of {@code commandClass} that ran for {@code latencyNanos} to the budget, and
+     * adjusts the budget based on the latencies observed and the current system load.
+     */
+    static synchronized void release(CommandClass commandClass, long latencyNanos) {
+        inUse -= commandClass.getWeight();
+        recordLatency(commandClass, latencyNanos);
+
+        if (++numCompletionsSinceAdjustment >= COMPLETIONS_PER_ADJUSTMENT) {
+            adjustLimit(commandClass);
+            numCompletionsSinceAdjustment = 0;
+            hasWaitedSinceAdjustment = numWaiting > 0;
+        }
+        ProcessGovernor.class.notifyAll();
+    }
+
+    /**
+     * Marks the output of a running process as being consumed on the current thread, until {@link #endConsuming} is
+     * called.
+     */
+    static void startConsuming() {
+        NUM_PROCESSES_CONSUMED.set(NUM_PROCESSES_CONSUMED.get() + 1);
+    }
+
+    /**
+     * Marks the output of the process last passed to {@link #startConsuming} as no longer being consumed on the
+     * current thread.
+     */
+    static void endConsuming() {
+        NUM_PROCESSES_CONSUMED.set(NUM_PROCESSES_CONSUMED.get() - 1);
+    }
+
+    /**
+     * Returns the weight of a process of {@code commandClass} to the budget without recording its latency, as the
+     * process failed to start, or holds no budget once started.
+     */
+    static synchronized void cancel(CommandClass commandClass) {
+        inUse -= commandClass.getWeight();
+        ProcessGovernor.class.notifyAll();
+    }
+
+    /**
+     * Updates the smoothed latency of {@code commandClass} with {@code latencyNanos}, as well as the best smoothed
+     * latency observed for it.
+     */
+    private static void recordLatency(CommandClass commandClass, long latencyNanos) {
+        double average = AVERAGE_LATENCIES.containsKey(commandClass)
+                ? AVERAGE_LATENCIES.get(commandClass) * (1 - LATENCY_SMOOTHING_FACTOR)
+                        + latencyNanos * LATENCY_SMOOTHING_FACTOR
+                : latencyNanos;
+        AVERAGE_LATENCIES.put(commandClass, average);
+        BEST_AVERAGE_LATENCIES.merge(commandClass, average,
+                (best, current) -> Math.min(best * BEST_LATENCY_DRIFT_FACTOR, current));
+    }
+
+    /**
+     * Decreases the budget if the latencies of {@code commandClass} or the system load show saturation, otherwise
+     * increases it if any process had to wait for budget since the last adjustment.
+     */
+    private static void adjustLimit(CommandClass commandClass) {
+        boolean isLatencyInflated = AVERAGE_LATENCIES.get(commandClass)
+                > BEST_AVERAGE_LATENCIES.get(commandClass) * LATENCY_INFLATION_THRESHOLD;
+        // the load average is negative on systems where it is unavailable
+        double loadAverage = OS_BEAN.getSystemLoadAverage();
+        boolean isSystemSaturated = loadAverage > LOAD_PER_PROCESSOR_THRESHOLD * NUM_PROCESSORS;
+
+        if (isLatencyInflated || isSystemSaturated) {
+            double decreasedLimit = Math.max(MIN_LIMIT, limit * DECREASE_FACTOR);
+            if (decreasedLimit < limit) {
+                logger.fine(String.format(MESSAGE_LIMIT_DECREASED, decreasedLimit));
+            }
+            limit = decreasedLimit;
+        } else if (hasWaitedSinceAdjustment) {
+            limit = Math.min(MAX_LIMIT, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package reposense.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drains the output streams of all the processes spawned by {@link CommandRunner} on a single shared thread, and
+ * completes the future of each process once it has exited and its output streams have been fully read.
+ * This avoids dedicating a pair of threads to every running process.
+ */
+class ProcessReaper {
+    private static final Logger logger = LogsManager.getLogger(ProcessReaper.class);
+
+    private static final String THREAD_NAME = "reposense-process-reaper";
+    private static final String MESSAGE_UNEXPECTED_ERROR = "Unexpected error in process reaper.";
+
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+    // the reaper is woken up as soon as a process exits, so these only bound how late the output of a process that
+    // is still running is read
+    private static final long MIN_IDLE_WAIT_MICROS = 1_000;
+    private static final long MAX_IDLE_WAIT_MICROS = 20_000;
+
+    private static final BlockingQueue<ReapedProcess> NEW_PROCESSES = new LinkedBlockingQueue<>();
+    private static final Thread REAPER_THREAD = new Thread(ProcessReaper::run, THREAD_NAME);
+
+    static {
+        REAPER_THREAD.setDaemon(true);
+        REAPER_THREAD.start();
+    }
+
+    /**
+     * Registers the started {@code process} to have its standard output and standard error drained.
+     * If {@code isOutputDrained} is false, the standard output is left to be read by the caller and only the
+     * standard error is drained. The process, together with all its descendants, is terminated if it is still
+     * running after {@code timeout}, unless {@code timeout} is zero.
+     *
+     * @return a future that is completed with the {@link ProcessResult} once the process has exited and the output
+     *     that it wrote has been read, or completed exceptionally if the output streams cannot be read.
+     */
+    static CompletableFuture<ProcessResult> register(Process process, Path path, String command,
+            boolean isOutputDrained, Duration timeout) {
+        ReapedProcess reapedProcess = new ReapedProcess(process, path, command, isOutputDrained, timeout);
+        NEW_PROCESSES.add(reapedProcess);
+        LockSupport.unpark(REAPER_THREAD);
+        process.onExit().thenRun(() -> LockSupport.unpark(REAPER_THREAD));
+        return reapedProcess.future;
+    }
+
+    /**
+     * Forcibly terminates {@code process} along with all its descendants, such as the helper processes spawned by
+     * git, so that none of them keeps running or holds the output streams open.
+     */
+    static void destroyProcessTree(Process process) {
+        // the descendants are collected first, as they can no longer be found once the process has ended
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Repeatedly reads whatever output is available from every registered process, backing off while no process
+     * produces any output, and completes the processes that have finished.
+     * Never blocks on a read, so that a stream held open by a process that does not write to it cannot hold up the
+     * other processes.
+     */
+    private static void run() {
+        List<ReapedProcess> activeProcesses = new ArrayList<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long idleWaitMicros = MIN_IDLE_WAIT_MICROS;
+
+        while (true) {
+            try {
+                if (activeProcesses.isEmpty()) {
+                    activeProcesses.add(NEW_PROCESSES.take());
+                }
+                NEW_PROCESSES.drainTo(activeProcesses);
+
+                boolean hasProgressed = false;
+                for (Iterator<ReapedProcess> it = activeProcesses.iterator(); it.hasNext();) {
+                    ReapedProcess reapedProcess = it.next();
+                    hasProgressed |= reapedProcess.pump(buffer);
+                    if (reapedProcess.future.isDone()) {
+                        it.remove();
+                    }
+                }
+
+                if (hasProgressed) {
+                    idleWaitMicros = MIN_IDLE_WAIT_MICROS;
+                    continue;
+                }
+
+                // waits for a while before polling again, but wakes up immediately for a new or exited process
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(idleWaitMicros));
+                idleWaitMicros = Math.min(idleWaitMicros * 2, MAX_IDLE_WAIT_MICROS);
+            } catch (InterruptedException ie) {
+                // the reaper thread is never interrupted on purpose, so keep serving the registered processes
+                logger.log(Level.WARNING, MESSAGE_UNEXPECTED_ERROR, ie);
+            } catch (RuntimeException re) {
+                logger.log(Level.SEVERE, MESSAGE_UNEXPECTED_ERROR, re);
+            }
+        }
+    }
+
+    /**
+     * Represents a single process whose output streams are drained by the reaper.
+     */
+    private static class ReapedProcess {
+        private final Process process;
+        private final Path path;
+        private final String command;
+        private final InputStream outputStream;
+        private final InputStream errorStream;
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream errorOutput = new ByteArrayOutputStream();
+        private final CompletableFuture<ProcessResult> future = new CompletableFuture<>();
+        private final boolean isOutputDrained;
+        private final boolean hasDeadline;
+        private final long deadline;
+        private boolean isOutputDone;
+        private boolean isErrorDone = false;
+        private boolean isTimedOut = false;
+
+        ReapedProcess(Process process, Path path, String command, boolean isOutputDrained, Duration timeout) {
+            this.process = process;
+            this.path = path;
+            this.command = command;
+            this.hasDeadline = !timeout.isZero() && !timeout.isNegative();
+            this.deadline = System.nanoTime() + (hasDeadline ? timeout.toNanos() : 0);
+            this.outputStream = process.getInputStream();
+            this.errorStream = process.getErrorStream();
+            this.isOutputDrained = isOutputDrained;
+            this.isOutputDone = !isOutputDrained;
+        }
+
+        /**
+         * Reads the output that is available without blocking into {@code buffer}, and completes the future if the
+         * process has exited. As the output that the process wrote before it exited is all available by then, the
+         * output streams are done once that has been read, even if a descendant of the process still holds them open.
+         * Returns true if any output was read.
+         */
+        boolean pump(byte[] buffer) {
+            try {
+                // checked before reading, so that no output written before the process exited is missed
+                boolean isExited = !process.isAlive();
+                if (!isExited && !isTimedOut && hasDeadline && System.nanoTime() - deadline > 0) {
+                    terminate();
+                }
+
+                boolean hasProgressed = false;
+                if (!isOutputDone) {
+                    hasProgressed |= drainUnlessTerminated(outputStream, output, buffer);
+                    isOutputDone = isExited;
+                }
+                if (!isErrorDone) {
+                    hasProgressed |= drainUnlessTerminated(errorStream, errorOutput, buffer);
+                    isErrorDone = isExited;
+                }
+
+                if (isOutputDone && isErrorDone && isExited) {
+                    // the standard output is closed by the caller if it is not drained here
+                    if (isOutputDrained) {
+                        outputStream.close();
+                    }
+                    errorStream.close();
+                    // the bytes are only decoded once they have all been read, so that multibyte characters
+                    // spanning across reads are decoded correctly
+                    future.complete(new ProcessResult(path, command, process.exitValue(),
+                            output.toString(StandardCharsets.UTF_8), errorOutput.toString(StandardCharsets.UTF_8),
+                            output.size(), errorOutput.size(), isTimedOut));
+                }
+                return hasProgressed;
+            } catch (IOException ioe) {
+                destroyProcessTree(process);
+                output.reset();
+                errorOutput.reset();
+                future.completeExceptionally(ioe);
+                return true;
+            }
+        }
+
+        /**
+         * Forcibly terminates the process, as it has run past its deadline.
+         */
+        private void terminate() {
+            isTimedOut = true;
+            destroyProcessTree(process);
+        }
+
+        /**
+         * Reads from {@code is} as in {@link #drain}, but treats the stream as ended if it has been closed because
+         * the process was terminated for running past its deadline.
+         */
+        private boolean drainUnlessTerminated(InputStream is, ByteArrayOutputStream outputBuffer, byte[] buffer)
+                throws IOException {
+            try {
+                return drain(is, outputBuffer, buffer);
+            } catch (IOException ioe) {
+                if (!isTimedOut) {
+                    throw ioe;
+                }
+                return false;
+            }
+        }
+
+        /**
+         * Reads what is available without blocking from {@code is} into {@code outputBuffer}, using {@code buffer}
+         * as the intermediate buffer.
+         * Returns true if any bytes were read.
+         */
+        private static boolean drain(InputStream is, ByteArrayOutputStream outputBuffer, byte[] buffer)
+                throws IOException {
+            boolean hasRead = false;
+            int available;
+            while ((available = is.available()) > 0) {
+                int length = is.read(buffer, 0, Math.min(available, buffer.length));
+                if (length == -1) {
+                    break;
+                }
+                outputBuffer.write(buffer, 0, length);
+                hasRead = true;
+            }
+            return hasRead;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package reposense.system;
+
+import java.nio.file.Path;
+
+/**
+ * Represents the result of a process that has finished executing, as reported by {@link CommandRunner}.
+ */
+public class ProcessResult {
+    private final Path path;
+    private final String command;
+    private final int exitCode;
+    private final String output;
+    private final String errorOutput;
+    private final long outputSize;
+    private final long errorOutputSize;
+    private final boolean isTimedOut;
+
+    public ProcessResult(Path path, String command, int exitCode, String output, String errorOutput,
+            long outputSize, long errorOutputSize, boolean isTimedOut) {
+        this.path = path;
+        this.command = command;
+        this.exitCode = exitCode;
+        this.output = output;
+        this.errorOutput = errorOutput;
+        this.outputSize = outputSize;
+        this.errorOutputSize = errorOutputSize;
+        this.isTimedOut = isTimedOut;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Returns the standard output of the process, or an empty string if the output was streamed to a consumer
+     * instead of being collected.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    public String getErrorOutput() {
+        return errorOutput;
+    }
+
+    /**
+     * Returns the number of bytes in the standard output of the process, or zero if the output was streamed to a
+     * consumer instead of being collected.
+     */
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    public long getErrorOutputSize() {
+        return errorOutputSize;
+    }
+
+    /**
+     * Returns true if the process was terminated because it ran past its deadline.
+     */
+    public boolean isTimedOut() {
+        return isTimedOut;
+    }
+
+    public boolean isSuccessful() {
+        return exitCode == 0 && !isTimedOut;
+    }
+
+    /**
+     * Returns the standard output of the process if it exited successfully.
+     *
+     * @throws CommandTimeoutException if the process was terminated because it ran past its deadline.
+     * @throws CommandRunnerProcessException if the process exited with a non-zero exit code.
+     */
+    public String getOutputIfSuccessful() throws CommandRunnerProcessException {
+        if (isTimedOut) {
+            throw new CommandTimeoutException("Command " + command + " on path " + path.toString()
+                    + " was terminated as it ran past its deadline.");
+        }
+        if (!isSuccessful()) {
+            throw new CommandRunnerProcessException("Error returned from command " + command + " on path "
+                    + path.toString() + " :\n" + errorOutput);
+        }
+        return output;
+    }
+}
@@ -17,8 +17,14 @@ public class StringsUtil {
      * Filters the {@code text}, returning only the lines that matches the given {@code regex}.
      */
     public static String filterText(String text, String regex) {
+        return filterText(text, Pattern.compile(regex));
+    }
+
+    /**
+     * Filters the {@code text}, returning only the lines that matches the given {@code regexPattern}.
+     */
+    public static String filterText(String text, Pattern regexPattern) {
         StringBuilder sb = new StringBuilder();
-        Pattern regexPattern = Pattern.compile(regex);
 
         for (String line : NEWLINE.split(text)) {
             if (regexPattern.matcher(line).matches()) {
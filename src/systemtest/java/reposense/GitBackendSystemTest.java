@@ -0,0 +1,158 @@
+package reposense;
+
+import static org.apache.tools.ant.types.Commandline.translateCommandline;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import reposense.model.SupportedDomainUrlMap;
+import reposense.parser.types.SinceDateArgumentType;
+import reposense.report.ErrorSummary;
+import reposense.report.PerformanceJson;
+import reposense.util.FileUtil;
+import reposense.util.InputBuilder;
+import reposense.util.SystemTestUtil;
+
+/**
+ * Checks that the reports generated with the "cli" and "jgit" git backends are the same, on a repo whose history has
+ * changes that git and JGit may diff differently.
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+public class GitBackendSystemTest {
+    private static final String REPO_DIRECTORY = "git-backend-test-repo";
+    private static final String MAIN_BRANCH = "master";
+    private static final String SIDE_BRANCH = "side";
+    private static final long FIRST_COMMIT_TIME_SECONDS = 1675123200;
+    private static final PersonIdent FIRST_AUTHOR = new PersonIdent("First Author", "first@example.com");
+    private static final PersonIdent SECOND_AUTHOR = new PersonIdent("Second Author", "second@example.com");
+
+    private static final String UNTIL_DATE = "31/12/2023";
+    private static final String TIME_ZONE = "UTC+08";
+    private static final String CLI_OUTPUT_DIRECTORY = "git-backend-cli";
+    private static final String JGIT_OUTPUT_DIRECTORY = "git-backend-jgit";
+    private static final String REPORT_DIRECTORY_NAME = "reposense-report";
+
+    private static int numCommits = 0;
+
+    @BeforeAll
+    public static void setupRepo() throws Exception {
+        FileUtil.deleteDirectory(REPO_DIRECTORY);
+        Path repoPath = Paths.get(REPO_DIRECTORY);
+        try (Git git = Git.init().setDirectory(repoPath.toFile()).setInitialBranch(MAIN_BRANCH).call()) {
+            writeFile(repoPath, "Functions.java", Arrays.asList("class Functions {", "    void first() {",
+                    "        run();", "    }", "}"));
+            writeFile(repoPath, "run.c", Arrays.asList("void run() {", "    if (first) {", "        start();", "    }",
+                    "", "    if (last) {", "        start();", "    }", "", "    done();", "}"));
+            writeFile(repoPath, "notes.txt", numberedLines("note", 20));
+            writeFile(repoPath, "draft.txt", numberedLines("draft", 20));
+            commit(git, FIRST_AUTHOR, "Add files");
+
+            writeFile(repoPath, "Functions.java", Arrays.asList("class Functions {", "    void added() {",
+                    "        run();", "    }", "", "    void changed() {", "        if (ready) {", "            run();",
+                    "        }", "    }", "}"));
+            writeFile(repoPath, "run.c", Arrays.asList("void run() {", "    if (added) {", "        start();",
+                    "    }", "", "    if (first) {", "        start();", "    }", "", "    if (changed) {",
+                    "        stop();", "    }", "", "    done();", "}"));
+            commit(git, SECOND_AUTHOR, "Add and change blocks");
+
+            git.checkout().setCreateBranch(true).setName(SIDE_BRANCH).call();
+            Files.createDirectories(repoPath.resolve("docs"));
+            Files.move(repoPath.resolve("notes.txt"), repoPath.resolve("docs/notes.txt"));
+            commit(git, FIRST_AUTHOR, "Move notes");
+
+            git.checkout().setName(MAIN_BRANCH).call();
+            List<String> draft = numberedLines("draft", 20);
+            draft.set(10, "final 11");
+            Files.delete(repoPath.resolve("draft.txt"));
+            writeFile(repoPath, "final.txt", draft);
+            commit(git, SECOND_AUTHOR, "Rename and change draft");
+
+            MergeResult mergeResult = git.merge().include(git.getRepository().resolve(SIDE_BRANCH))
+                    .setCommit(false).call();
+            Assertions.assertTrue(mergeResult.getMergeStatus().isSuccessful());
+            commit(git, FIRST_AUTHOR, "Merge side branch");
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        SupportedDomainUrlMap.clearAccessedSet();
+        FileUtil.deleteDirectory(CLI_OUTPUT_DIRECTORY);
+        FileUtil.deleteDirectory(JGIT_OUTPUT_DIRECTORY);
+        ErrorSummary.getInstance().clearErrorSet();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        FileUtil.deleteDirectory(CLI_OUTPUT_DIRECTORY);
+        FileUtil.deleteDirectory(JGIT_OUTPUT_DIRECTORY);
+    }
+
+    @AfterAll
+    public static void deleteRepo() throws Exception {
+        FileUtil.deleteDirectory(REPO_DIRECTORY);
+    }
+
+    @Test
+    public void testSameReportWithBothBackends() throws Exception {
+        RepoSense.main(translateCommandline(initInputBuilder(CLI_OUTPUT_DIRECTORY).addGitBackend("cli").build()));
+        RepoSense.main(translateCommandline(initInputBuilder(JGIT_OUTPUT_DIRECTORY).addGitBackend("jgit").build()));
+
+        // the git commands run differ between the backends
+        Path cliReportPath = Paths.get(CLI_OUTPUT_DIRECTORY, REPORT_DIRECTORY_NAME);
+        Files.delete(cliReportPath.resolve(PerformanceJson.PERFORMANCE_JSON_FILE_NAME));
+        SystemTestUtil.verifyReportJsonFiles(cliReportPath, Paths.get(JGIT_OUTPUT_DIRECTORY, REPORT_DIRECTORY_NAME));
+    }
+
+    private static InputBuilder initInputBuilder(String outputDirectory) {
+        return new InputBuilder()
+                .addRepos(REPO_DIRECTORY)
+                .addSinceDate(SinceDateArgumentType.FIRST_COMMIT_DATE_SHORTHAND)
+                .addUntilDate(UNTIL_DATE)
+                .addOutput(Paths.get(outputDirectory))
+                .addTimezone(TIME_ZONE)
+                .addAnalyzeAuthorship()
+                .addLastModifiedDateFlags();
+    }
+
+    private static void writeFile(Path repoPath, String path, List<String> lines) throws Exception {
+        Files.write(repoPath.resolve(path), lines);
+    }
+
+    /**
+     * Stages every change in the working tree and commits it by {@code author}, an hour after the previous commit.
+     */
+    private static void commit(Git git, PersonIdent author, String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.add().addFilepattern(".").setUpdate(true).call();
+
+        Instant time = Instant.ofEpochSecond(FIRST_COMMIT_TIME_SECONDS + 3600L * numCommits++);
+        PersonIdent ident = new PersonIdent(author.getName(), author.getEmailAddress(), time, ZoneOffset.UTC);
+        git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    private static List<String> numberedLines(String prefix, int numLines) {
+        return IntStream.rangeClosed(1, numLines)
+                .mapToObj(lineNumber -> prefix + " " + lineNumber)
+                .collect(Collectors.toList());
+    }
+}
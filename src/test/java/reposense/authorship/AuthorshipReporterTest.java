@@ -0,0 +1,47 @@
+package reposense.authorship;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import reposense.authorship.model.FileInfo;
+import reposense.authorship.model.LineInfo;
+
+public class AuthorshipReporterTest {
+    @Test
+    public void estimateTotalNumLines_readFilesOnly_exactNumberOfLines() {
+        Assertions.assertEquals(5, AuthorshipReporter.estimateTotalNumLines(
+                Arrays.asList(createReadFile("a.java", 3, 30), createReadFile("b.java", 2, 20))));
+    }
+
+    @Test
+    public void estimateTotalNumLines_contentFromBlame_estimatedFromLengthOfLinesRead() {
+        // the files read have lines of 10 bytes on average
+        Assertions.assertEquals(3 + 50, AuthorshipReporter.estimateTotalNumLines(
+                Arrays.asList(createReadFile("a.java", 3, 30), createBlameContentFile("b.java", 500))));
+    }
+
+    @Test
+    public void estimateTotalNumLines_noFileRead_estimatedFromDefaultLengthOfLines() {
+        Assertions.assertEquals(25, AuthorshipReporter.estimateTotalNumLines(
+                Collections.singletonList(createBlameContentFile("b.java", 1000))));
+    }
+
+    private static FileInfo createReadFile(String path, int numLines, long fileSize) {
+        FileInfo fileInfo = new FileInfo(path);
+        for (int i = 1; i <= numLines; i++) {
+            fileInfo.addLine(new LineInfo(i, "line " + i));
+        }
+        fileInfo.setFileSize(fileSize);
+        return fileInfo;
+    }
+
+    private static FileInfo createBlameContentFile(String path, long fileSize) {
+        FileInfo fileInfo = new FileInfo(path);
+        fileInfo.setFileSize(fileSize);
+        fileInfo.setContentFromBlame(true);
+        return fileInfo;
+    }
+}
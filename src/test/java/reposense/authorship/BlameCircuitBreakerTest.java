@@ -0,0 +1,85 @@
+package reposense.authorship;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.report.ErrorSummary;
+
+public class BlameCircuitBreakerTest {
+    private static final String REPO_NAME = "repo[main]";
+    private static final Duration FILE_TIMEOUT = Duration.ofSeconds(10);
+
+    private BlameCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    public void before() {
+        ErrorSummary.getInstance().clearErrorSet();
+        circuitBreaker = new BlameCircuitBreaker(REPO_NAME, FILE_TIMEOUT);
+    }
+
+    @AfterEach
+    public void after() {
+        ErrorSummary.getInstance().clearErrorSet();
+    }
+
+    @Test
+    public void isTripped_fewerSlowFilesThanLimit_fullDeadlineKept() {
+        circuitBreaker.recordDowngradedFile("a.java", FILE_TIMEOUT);
+        circuitBreaker.recordDowngradedFile("b.java", FILE_TIMEOUT);
+
+        Assertions.assertFalse(circuitBreaker.isTripped());
+        Assertions.assertEquals(FILE_TIMEOUT, circuitBreaker.getFullModeTimeout());
+    }
+
+    @Test
+    public void isTripped_slowFilesReachLimit_shorterFullModeDeadline() {
+        circuitBreaker.recordDowngradedFile("a.java", FILE_TIMEOUT);
+        circuitBreaker.recordDowngradedFile("b.java", FILE_TIMEOUT);
+        circuitBreaker.recordDowngradedFile("c.java", FILE_TIMEOUT);
+
+        Assertions.assertTrue(circuitBreaker.isTripped());
+        Assertions.assertEquals(Duration.ofMillis(2500), circuitBreaker.getFullModeTimeout());
+        // the cheaper mode keeps the full deadline, so that files are still analyzed once the breaker has tripped
+        Assertions.assertFalse(circuitBreaker.createFileToken().isCancelled());
+    }
+
+    @Test
+    public void recordDowngradedFile_afterTripped_everyFileInErrorSummary() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordDowngradedFile("slow" + i + ".java", FILE_TIMEOUT);
+        }
+        circuitBreaker.recordDowngradedFile("afterTrip.java", circuitBreaker.getFullModeTimeout());
+        circuitBreaker.recordSkippedFile("skipped.java");
+
+        List<String> messages = getErrorMessages();
+        Assertions.assertEquals(5, messages.size());
+        Assertions.assertTrue(messages.stream().anyMatch(message -> message.contains("\"afterTrip.java\"")
+                && message.contains("deadline of 2.5 seconds") && message.contains("cheaper mode")));
+        Assertions.assertTrue(messages.stream().anyMatch(message -> message.contains("\"skipped.java\"")
+                && message.contains("deadline of 10 seconds") && message.contains("skipped")));
+    }
+
+    @Test
+    public void getFullModeTimeout_noDeadline_noDeadlineAfterTripped() {
+        BlameCircuitBreaker noDeadlineBreaker = new BlameCircuitBreaker(REPO_NAME, Duration.ZERO);
+        for (int i = 0; i < 3; i++) {
+            noDeadlineBreaker.recordDowngradedFile("slow" + i + ".java", Duration.ZERO);
+        }
+
+        Assertions.assertTrue(noDeadlineBreaker.isTripped());
+        Assertions.assertEquals(Duration.ZERO, noDeadlineBreaker.getFullModeTimeout());
+    }
+
+    private static List<String> getErrorMessages() {
+        return ErrorSummary.getInstance().getErrorSet().stream()
+                .filter(error -> error.get("repoName").equals(REPO_NAME))
+                .map(error -> error.get("errorMessage"))
+                .collect(Collectors.toList());
+    }
+}
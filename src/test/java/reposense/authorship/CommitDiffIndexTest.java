@@ -0,0 +1,101 @@
+package reposense.authorship;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.authorship.analyzer.CommitDiffIndex;
+import reposense.authorship.model.DiffHunk;
+import reposense.authorship.model.FileDiffInfo;
+import reposense.git.GitLog;
+import reposense.model.RepoConfiguration;
+import reposense.system.CommandRunner;
+import reposense.template.GitTestTemplate;
+import reposense.util.StringsUtil;
+
+public class CommitDiffIndexTest extends GitTestTemplate {
+    private RepoConfiguration config;
+    private CommitDiffIndex commitDiffIndex;
+
+    @BeforeEach
+    public void before() throws Exception {
+        super.before();
+        config = configs.get();
+        commitDiffIndex = new CommitDiffIndex(config);
+    }
+
+    @Test
+    public void getFileDiffInfos_everyCommitAndParent_sameAsDiffCommits() {
+        String revList = CommandRunner.runCommand(Paths.get(config.getRepoRoot()),
+                Arrays.asList("git", "rev-list", config.getBranch()));
+        List<String> commitHashes = Arrays.asList(StringsUtil.NEWLINE.split(revList.trim()));
+        Assertions.assertTrue(commitHashes.contains(ROOT_COMMIT_HASH));
+
+        for (String commitHash : commitHashes) {
+            for (String parentCommit : StringsUtil.SPACE.split(
+                    GitLog.getParentCommits(config.getRepoRoot(), commitHash))) {
+                assertSameAsDiffCommits(parentCommit, commitHash);
+            }
+        }
+    }
+
+    @Test
+    public void getFileDiffInfos_rootCommit_sameAsDiffCommits() {
+        Assertions.assertEquals("", GitLog.getParentCommits(config.getRepoRoot(), ROOT_COMMIT_HASH));
+        assertSameAsDiffCommits("", ROOT_COMMIT_HASH);
+    }
+
+    @Test
+    public void getFileDiffInfos_mergeCommit_sameAsDiffCommitsAgainstEachParent() {
+        for (String parentCommit : MERGE_COMMIT_PARENTS_HASHES) {
+            assertSameAsDiffCommits(parentCommit, MERGE_COMMIT_HASH);
+        }
+    }
+
+    @Test
+    public void getFileDiffInfos_sameCommitLookedUpAgain_sameResult() {
+        Map<String, List<FileDiffInfo>> fileDiffInfos =
+                commitDiffIndex.getFileDiffInfos(MERGE_COMMIT_PARENTS_HASHES.get(1), MERGE_COMMIT_HASH);
+        Assertions.assertSame(fileDiffInfos,
+                commitDiffIndex.getFileDiffInfos(MERGE_COMMIT_PARENTS_HASHES.get(1), MERGE_COMMIT_HASH));
+    }
+
+    private void assertSameAsDiffCommits(String parentCommit, String commitHash) {
+        Assertions.assertEquals(
+                describe(CommitDiffIndex.diffCommits(config, parentCommit, commitHash)),
+                describe(commitDiffIndex.getFileDiffInfos(parentCommit, commitHash)),
+                () -> "diff of " + commitHash + " against " + parentCommit);
+    }
+
+    /**
+     * Returns a description of the paths and the deleted lines of each of {@code fileDiffInfos}, keyed by its
+     * post-image path, which is the part of the diffs that is used by the authorship analysis.
+     */
+    private static Map<String, List<String>> describe(Map<String, List<FileDiffInfo>> fileDiffInfos) {
+        Map<String, List<String>> descriptions = new TreeMap<>();
+        fileDiffInfos.forEach((path, infos) -> descriptions.put(path, infos.stream()
+                .map(CommitDiffIndexTest::describe)
+                .collect(Collectors.toList())));
+        return descriptions;
+    }
+
+    private static String describe(FileDiffInfo fileDiffInfo) {
+        StringBuilder description = new StringBuilder()
+                .append(fileDiffInfo.getPreImageFilePath()).append(" -> ").append(fileDiffInfo.getPostImageFilePath());
+        for (DiffHunk hunk : fileDiffInfo.getHunks()) {
+            description.append("\n@@");
+            for (int i = 0; i < hunk.getDeletedLines().length; i++) {
+                description.append('\n').append(hunk.getDeletedLineNumbers()[i]).append(':')
+                        .append(hunk.getDeletedLines()[i]);
+            }
+        }
+        return description.toString();
+    }
+}
@@ -15,7 +15,9 @@ import org.junit.jupiter.api.Test;
 
 import reposense.authorship.model.FileInfo;
 import reposense.authorship.model.FileResult;
+import reposense.authorship.model.LineInfo;
 import reposense.git.GitCheckout;
+import reposense.git.model.LineRange;
 import reposense.model.Author;
 import reposense.model.CommitHash;
 import reposense.model.FileType;
@@ -396,6 +398,51 @@ public class FileAnalyzerTest extends GitTestTemplate {
         Assertions.assertNotNull(fileInfoAnalyzer.analyzeBinaryFile(config, binaryFileInfo));
     }
 
+    @Test
+    public void getLineRangesToBlame_someLinesTracked_rangesOfTrackedLines() {
+        FileInfo fileInfo = new FileInfo("file.java");
+        boolean[] isTrackedLines = {true, true, false, false, true, false, true};
+        for (int i = 0; i < isTrackedLines.length; i++) {
+            fileInfo.addLine(new LineInfo(i + 1, "line " + i));
+            fileInfo.getLine(i + 1).setTracked(isTrackedLines[i]);
+        }
+
+        Assertions.assertEquals(Arrays.asList(new LineRange(1, 2), new LineRange(5, 5), new LineRange(7, 7)),
+                FileInfoAnalyzer.getLineRangesToBlame(config, fileInfo));
+
+        config.setIsLastModifiedDateIncluded(true);
+        Assertions.assertEquals(Collections.emptyList(), FileInfoAnalyzer.getLineRangesToBlame(config, fileInfo));
+    }
+
+    @Test
+    public void analyzeTextFile_someLinesUntracked_untrackedLinesAssignedToUnknownAuthor() {
+        config.setSinceDate(BLAME_TEST_SINCE_DATE);
+        config.setUntilDate(BLAME_TEST_UNTIL_DATE);
+        FileInfo fileInfo = fileInfoExtractor.generateFileInfo(config, "blameTest.java");
+        fileInfo.getLine(1).setTracked(false);
+        fileInfo.getLine(3).setTracked(false);
+        analyzeTextFile(config, fileInfo);
+
+        Assertions.assertEquals(Author.UNKNOWN_AUTHOR, fileInfo.getLine(1).getAuthor());
+        Assertions.assertEquals(new Author(MAIN_AUTHOR_NAME), fileInfo.getLine(2).getAuthor());
+        Assertions.assertEquals(Author.UNKNOWN_AUTHOR, fileInfo.getLine(3).getAuthor());
+        Assertions.assertEquals(new Author(MAIN_AUTHOR_NAME), fileInfo.getLine(4).getAuthor());
+    }
+
+    @Test
+    public void analyzeTextFile_contentFromBlame_sameLinesAsFileRead() {
+        config.setSinceDate(BLAME_TEST_SINCE_DATE);
+        config.setUntilDate(BLAME_TEST_UNTIL_DATE);
+        FileInfo expectedFileInfo = fileInfoExtractor.generateFileInfo(config, "blameTest.java");
+        analyzeTextFile(config, expectedFileInfo);
+
+        FileInfo fileInfo = new FileInfo("blameTest.java");
+        fileInfo.setContentFromBlame(true);
+        analyzeTextFile(config, fileInfo);
+
+        Assertions.assertEquals(expectedFileInfo.getLines(), fileInfo.getLines());
+    }
+
     private FileResult analyzeTextFile(RepoConfiguration config, FileInfo fileInfo) {
         return fileInfoAnalyzer.analyzeTextFile(config, fileInfo, false, DEFAULT_ORIGINALITY_THRESHOLD);
     }
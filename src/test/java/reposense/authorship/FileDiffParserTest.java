@@ -0,0 +1,64 @@
+package reposense.authorship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import reposense.authorship.analyzer.FileDiffParser;
+import reposense.authorship.model.DiffHunk;
+import reposense.authorship.model.FileDiffInfo;
+
+public class FileDiffParserTest {
+    @Test
+    public void getFileDiffInfos_changedRenamedAndAddedFiles_onlyHunksWithDeletedLinesKept() {
+        FileDiffParser parser = new FileDiffParser();
+        Arrays.asList(
+                "diff --git a/changed.java b/changed.java",
+                "index 1111111..2222222 100644",
+                "--- a/changed.java",
+                "+++ b/changed.java",
+                "@@ -2,4 +2,4 @@ class Changed {",
+                " first",
+                "-second",
+                "+second, changed",
+                " third",
+                "-fourth",
+                "@@ -10,0 +11,1 @@",
+                "+added only",
+                "diff --git a/old.java b/renamed.java",
+                "similarity index 90%",
+                "rename from old.java",
+                "rename to renamed.java",
+                "index 3333333..4444444 100644",
+                "--- a/old.java",
+                "+++ b/renamed.java",
+                "@@ -1 +1 @@",
+                "-a = b + c;",
+                "+a = b + d;",
+                "diff --git a/added.java b/added.java",
+                "new file mode 100644",
+                "index 0000000..5555555",
+                "--- /dev/null",
+                "+++ b/added.java",
+                "@@ -0,0 +1 @@",
+                "+new").forEach(parser);
+        Map<String, List<FileDiffInfo>> fileDiffInfos = parser.getFileDiffInfos();
+
+        Assertions.assertEquals(2, fileDiffInfos.size());
+        Assertions.assertFalse(fileDiffInfos.containsKey("added.java"));
+
+        List<DiffHunk> changedHunks = fileDiffInfos.get("changed.java").get(0).getHunks();
+        Assertions.assertEquals(1, changedHunks.size());
+        Assertions.assertArrayEquals(new String[] {"second", "fourth"}, changedHunks.get(0).getDeletedLines());
+        Assertions.assertArrayEquals(new int[] {3, 5}, changedHunks.get(0).getDeletedLineNumbers());
+        Assertions.assertTrue(changedHunks.get(0).containsTextAfterPlusSign("second"));
+        Assertions.assertFalse(changedHunks.get(0).containsTextAfterPlusSign("third"));
+
+        FileDiffInfo renamedFileDiffInfo = fileDiffInfos.get("renamed.java").get(0);
+        Assertions.assertEquals("old.java", renamedFileDiffInfo.getPreImageFilePath());
+        Assertions.assertTrue(renamedFileDiffInfo.getHunks().get(0).containsTextAfterPlusSign(" d;"));
+    }
+}
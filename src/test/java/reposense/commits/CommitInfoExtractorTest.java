@@ -2,13 +2,21 @@ package reposense.commits;
 
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import reposense.commits.model.CommitInfo;
+import reposense.model.Author;
+import reposense.model.FileType;
 import reposense.model.RepoConfiguration;
 import reposense.template.GitTestTemplate;
 import reposense.util.TestUtil;
@@ -37,4 +45,120 @@ public class CommitInfoExtractorTest extends GitTestTemplate {
         List<CommitInfo> commits = commitInfoExtractor.extractCommitInfos(config);
         Assertions.assertTrue(commits.isEmpty());
     }
+
+    @Test
+    public void extractCommitInfos_authorEmailInMixedCase_success() {
+        config.setAuthorList(commitInfoExtractor.discoverAuthors(config));
+        CommitInfo commit = commitInfoExtractor.extractCommitInfos(config).get(0);
+        String email = commit.getAuthorEmail();
+        int domainIndex = email.indexOf('@');
+        Author author = new Author("notAGitAuthor");
+        author.setEmails(Collections.singletonList(
+                email.substring(0, domainIndex).toUpperCase() + email.substring(domainIndex)));
+        config.setAuthorList(Collections.singletonList(author));
+
+        List<CommitInfo> commits = commitInfoExtractor.extractCommitInfos(config);
+
+        Assertions.assertTrue(commits.stream().anyMatch(commitInfo -> commitInfo.getHash().equals(commit.getHash())));
+    }
+
+    @Test
+    public void discoverAuthors_validRepoNoDateRange_success() {
+        List<Author> expectedAuthorList = new ArrayList<>();
+        expectedAuthorList.add(new Author("Eugene Peh"));
+        expectedAuthorList.add(new Author("FH-30"));
+        expectedAuthorList.add(new Author("HCY123902"));
+        expectedAuthorList.add(new Author("WANG CHAO"));
+        expectedAuthorList.add(new Author("chan-j-d"));
+        expectedAuthorList.add(new Author("eugenepeh"));
+        expectedAuthorList.add(new Author("fakeAuthor"));
+        expectedAuthorList.add(new Author("harryggg"));
+        expectedAuthorList.add(new Author("sikai00"));
+
+        List<Author> actualAuthorList = commitInfoExtractor.discoverAuthors(config);
+
+        Assertions.assertEquals(expectedAuthorList.size(), actualAuthorList.size());
+        Assertions.assertEquals(expectedAuthorList, actualAuthorList);
+    }
+
+    @Test
+    public void discoverAuthors_validRepoDateRange_success() {
+        List<Author> expectedAuthorList = new ArrayList<>();
+
+        expectedAuthorList.add(new Author("eugenepeh"));
+        config.setSinceDate(TestUtil.getSinceDate(2018, Month.MAY.getValue(), 5));
+        config.setUntilDate(TestUtil.getUntilDate(2018, Month.MAY.getValue(), 10));
+
+        List<Author> actualAuthorList = commitInfoExtractor.discoverAuthors(config);
+
+        Assertions.assertEquals(expectedAuthorList.size(), actualAuthorList.size());
+        Assertions.assertEquals(expectedAuthorList, actualAuthorList);
+    }
+
+    @Test
+    public void discoverAuthors_validRepoDateOutOfRange_success() {
+        config.setSinceDate(TestUtil.getSinceDate(2018, Month.JUNE.getValue(), 1));
+        config.setUntilDate(TestUtil.getUntilDate(2018, Month.JUNE.getValue(), 20));
+
+        List<Author> actualAuthorList = commitInfoExtractor.discoverAuthors(config);
+
+        Assertions.assertTrue(actualAuthorList.isEmpty());
+    }
+
+    @Test
+    public void discoverAuthors_narrowFormatsAndIgnoreGlobs_sameAsDefault() {
+        List<Author> expectedAuthorList = commitInfoExtractor.discoverAuthors(config);
+        config.setFormats(FileType.convertFormatStringsToFileTypes(Collections.singletonList("md")));
+        config.setIgnoreGlobList(Collections.singletonList("**.md"));
+
+        List<Author> actualAuthorList = commitInfoExtractor.discoverAuthors(config);
+
+        Assertions.assertEquals(expectedAuthorList, actualAuthorList);
+    }
+
+    @Test
+    public void extractCommitInfos_partitioned_sameAsSequential() {
+        config.setAuthorList(commitInfoExtractor.discoverAuthors(config));
+        List<CommitInfo> commits = new CommitInfoExtractor().extractCommitInfos(config);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CommitInfoExtractor partitionedExtractor = new CommitInfoExtractor(executor, 4, 1);
+            Assertions.assertEquals(config.getAuthorList(), partitionedExtractor.discoverAuthors(config));
+            List<CommitInfo> partitionedCommits = partitionedExtractor.extractCommitInfos(config);
+
+            Assertions.assertFalse(commits.isEmpty());
+            Assertions.assertEquals(commits.stream().map(CommitInfo::getHash).collect(Collectors.toList()),
+                    partitionedCommits.stream().map(CommitInfo::getHash).collect(Collectors.toList()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void extractCommitInfos_afterDiscoverAuthors_sameAsWalkedWithFilesFiltered() {
+        // the branch has merge commits, whose files are looked up again rather than filtered in memory
+        config.setBranch("945-GitLogTest-getParentCommit_mergeCommit_success");
+        config.setFormats(FileType.convertFormatStringsToFileTypes(Arrays.asList("java", "md")));
+        config.setIgnoreGlobList(Collections.singletonList("**Test**"));
+
+        config.setAuthorList(commitInfoExtractor.discoverAuthors(config));
+        List<CommitInfo> filteredCommits = commitInfoExtractor.extractCommitInfos(config);
+        List<CommitInfo> walkedCommits = new CommitInfoExtractor().extractCommitInfos(config);
+
+        Assertions.assertTrue(walkedCommits.stream().anyMatch(CommitInfo::isMergeCommit));
+        Assertions.assertEquals(describe(walkedCommits), describe(filteredCommits));
+    }
+
+    /**
+     * Returns a description of the hash and the file changes of each of {@code commitInfos}.
+     */
+    private static List<String> describe(List<CommitInfo> commitInfos) {
+        return commitInfos.stream()
+                .map(commitInfo -> commitInfo.getHash() + commitInfo.getFileChanges().stream()
+                        .map(fileChange -> " " + fileChange.getFilePath() + ":" + fileChange.getInsertions() + ":"
+                                + fileChange.getDeletions() + ":" + fileChange.isBinary())
+                        .collect(Collectors.joining()))
+                .collect(Collectors.toList());
+    }
 }
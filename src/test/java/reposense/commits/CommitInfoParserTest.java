@@ -0,0 +1,129 @@
+package reposense.commits;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import reposense.commits.model.CommitInfo;
+import reposense.commits.model.FileChange;
+
+public class CommitInfoParserTest {
+    private static final String FIRST_COMMIT_HASH = "bbaa75199c74948893fe3bd43ccd864cd01e2a62";
+    private static final String SECOND_COMMIT_HASH = "33ff0c7cdc0ed965521e5176d112438fcc86e0d2";
+    private static final String THIRD_COMMIT_HASH = "743b86e04886c8c99b66525115f3ca5ee3a0310b";
+    private static final String AUTHOR_NAME = "Main Author";
+    private static final String AUTHOR_EMAIL = "main@example.com";
+    private static final String DATE = "2018-02-05T16:38:25+08:00";
+
+    @Test
+    public void accept_renamedFile_newPathRecorded() {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfos::add);
+
+        Arrays.asList(
+                SECOND_COMMIT_HASH, FIRST_COMMIT_HASH, AUTHOR_NAME, AUTHOR_EMAIL, DATE, "Rename file", "", "",
+                "\n1\t1\t", "a.txt", "b.txt",
+                "2\t0\tc.txt",
+                " 2 files changed, 3 insertions(+), 1 deletion(-)\n").forEach(parser);
+        parser.finish();
+
+        Assertions.assertEquals(1, commitInfos.size());
+        List<FileChange> fileChanges = commitInfos.get(0).getFileChanges();
+        Assertions.assertEquals(2, fileChanges.size());
+        assertFileChange(fileChanges.get(0), "b.txt", 1, 1, false);
+        Assertions.assertEquals("a.txt", fileChanges.get(0).getPreviousFilePath());
+        assertFileChange(fileChanges.get(1), "c.txt", 2, 0, false);
+        Assertions.assertEquals("c.txt", fileChanges.get(1).getPreviousFilePath());
+    }
+
+    @Test
+    public void accept_binaryFile_recordedAsBinaryWithoutContribution() {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfos::add);
+
+        Arrays.asList(
+                FIRST_COMMIT_HASH, "", AUTHOR_NAME, AUTHOR_EMAIL, DATE, "Add files", "Body line\n", "",
+                "\n5\t0\ta.txt",
+                "-\t-\tbin.dat",
+                " 2 files changed, 5 insertions(+)\n").forEach(parser);
+        parser.finish();
+
+        Assertions.assertEquals(1, commitInfos.size());
+        CommitInfo commitInfo = commitInfos.get(0);
+        Assertions.assertEquals(FIRST_COMMIT_HASH, commitInfo.getHash());
+        Assertions.assertEquals(AUTHOR_NAME, commitInfo.getAuthorName());
+        Assertions.assertEquals(AUTHOR_EMAIL, commitInfo.getAuthorEmail());
+        Assertions.assertEquals(DATE, commitInfo.getDate());
+        Assertions.assertEquals("Add files", commitInfo.getMessageTitle());
+        Assertions.assertEquals("Body line\n", commitInfo.getMessageBody());
+        Assertions.assertEquals(2, commitInfo.getFileChanges().size());
+        assertFileChange(commitInfo.getFileChanges().get(0), "a.txt", 5, 0, false);
+        assertFileChange(commitInfo.getFileChanges().get(1), "bin.dat", 0, 0, true);
+    }
+
+    @Test
+    public void accept_emptyCommitBetweenCommits_emittedWithoutFileChanges() {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfos::add);
+
+        Arrays.asList(
+                THIRD_COMMIT_HASH, SECOND_COMMIT_HASH, AUTHOR_NAME, AUTHOR_EMAIL, DATE, "Empty commit", "",
+                "HEAD -> master", "",
+                SECOND_COMMIT_HASH, FIRST_COMMIT_HASH, AUTHOR_NAME, AUTHOR_EMAIL, DATE, "Edit file", "", "",
+                "\n1\t1\ta.txt",
+                " 1 file changed, 1 insertion(+), 1 deletion(-)\n").forEach(parser);
+        parser.finish();
+
+        Assertions.assertEquals(2, commitInfos.size());
+        CommitInfo emptyCommitInfo = commitInfos.get(0);
+        Assertions.assertEquals(THIRD_COMMIT_HASH, emptyCommitInfo.getHash());
+        Assertions.assertEquals("HEAD -> master", emptyCommitInfo.getRefNames());
+        Assertions.assertTrue(emptyCommitInfo.getFileChanges().isEmpty());
+
+        CommitInfo commitInfo = commitInfos.get(1);
+        Assertions.assertEquals(SECOND_COMMIT_HASH, commitInfo.getHash());
+        Assertions.assertEquals(1, commitInfo.getFileChanges().size());
+        assertFileChange(commitInfo.getFileChanges().get(0), "a.txt", 1, 1, false);
+    }
+
+    @Test
+    public void finish_lastEmptyCommitWithoutTrailingDelimiter_emitted() {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfos::add);
+
+        // git log ends the output after the ref names of the last commit if it has no files changed
+        Arrays.asList(
+                SECOND_COMMIT_HASH, FIRST_COMMIT_HASH, AUTHOR_NAME, AUTHOR_EMAIL, DATE, "Edit file", "", "",
+                "\n1\t1\ta.txt",
+                " 1 file changed, 1 insertion(+), 1 deletion(-)\n",
+                THIRD_COMMIT_HASH, SECOND_COMMIT_HASH, AUTHOR_NAME, AUTHOR_EMAIL, DATE, "Empty commit", "",
+                "HEAD -> master").forEach(parser);
+        Assertions.assertEquals(1, commitInfos.size());
+
+        parser.finish();
+        Assertions.assertEquals(2, commitInfos.size());
+        Assertions.assertEquals(THIRD_COMMIT_HASH, commitInfos.get(1).getHash());
+        Assertions.assertEquals(SECOND_COMMIT_HASH, commitInfos.get(1).getParentHashes());
+        Assertions.assertTrue(commitInfos.get(1).getFileChanges().isEmpty());
+    }
+
+    @Test
+    public void finish_noTokens_nothingEmitted() {
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfos::add);
+
+        parser.finish();
+        Assertions.assertTrue(commitInfos.isEmpty());
+    }
+
+    private void assertFileChange(FileChange fileChange, String filePath, int insertions, int deletions,
+            boolean isBinary) {
+        Assertions.assertEquals(filePath, fileChange.getFilePath());
+        Assertions.assertEquals(insertions, fileChange.getInsertions());
+        Assertions.assertEquals(deletions, fileChange.getDeletions());
+        Assertions.assertEquals(isBinary, fileChange.isBinary());
+    }
+}
@@ -0,0 +1,155 @@
+package reposense.git;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.git.model.LineRange;
+import reposense.util.FileUtil;
+
+/**
+ * Compares the blame results of {@link CliGitBackend} for the files prepared with
+ * {@link CliGitBackend#prepareBlame} with those of "git blame", on a repository built by each test.
+ */
+public class CliGitBackendTest {
+    private final CliGitBackend backend = new CliGitBackend();
+
+    private Path repoPath;
+    private Git git;
+
+    @BeforeEach
+    public void before() throws Exception {
+        repoPath = Files.createTempDirectory("cli-git-backend-test");
+        git = Git.init().setDirectory(repoPath.toFile()).call();
+
+        writeFile("run.c", Arrays.asList("void run() {", "    if (first) {", "        start();", "    }", "",
+                "    if (last) {", "        start();", "    }", "", "    done();", "}"));
+        writeFile("old.txt", numberedLines("line", 20));
+        writeFile("draft.txt", numberedLines("draft", 20));
+        commit("Add files");
+
+        writeFile("run.c", Arrays.asList("void run() {", "    if (added) {", "        start();", "    }", "",
+                "    if (first) {", "        start();", "    }", "", "    if (changed) {", "        stop();", "    }",
+                "", "    done();", "}"));
+        Files.move(repoPath.resolve("old.txt"), repoPath.resolve("new.txt"));
+        commit("Add and change blocks, rename file");
+
+        List<String> lines = numberedLines("draft", 20);
+        lines.set(10, "final 11");
+        Files.delete(repoPath.resolve("draft.txt"));
+        writeFile("final.txt", lines);
+        commit("Rename and change draft");
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        backend.closeAll();
+        git.close();
+        FileUtil.deleteDirectory(repoPath.toString());
+    }
+
+    @Test
+    public void blame_preparedFiles_sameAsGitBlame() {
+        List<String> filePaths = Arrays.asList("run.c", "new.txt", "final.txt");
+        Map<String, List<LineRange>> lineRangesByFile = new HashMap<>();
+        filePaths.forEach(filePath -> lineRangesByFile.put(filePath, Collections.emptyList()));
+        backend.prepareBlame(repoPath.toString(), lineRangesByFile, "");
+
+        for (String filePath : filePaths) {
+            assertSameAsGitBlame(filePath, Collections.emptyList(), "");
+        }
+    }
+
+    @Test
+    public void blame_preparedLineRangesSinceCommit_sameAsGitBlame() throws Exception {
+        String sinceCommitHash = git.getRepository().resolve("HEAD~2").getName();
+        List<LineRange> lineRanges = Arrays.asList(new LineRange(2, 4), new LineRange(10, 13));
+        backend.prepareBlame(repoPath.toString(), Collections.singletonMap("run.c", lineRanges), sinceCommitHash);
+
+        assertSameAsGitBlame("run.c", lineRanges, sinceCommitHash);
+    }
+
+    @Test
+    public void prepareBlame_validFiles_prepared() {
+        backend.prepareBlame(repoPath.toString(), Collections.singletonMap("run.c", Collections.emptyList()), "");
+
+        Assertions.assertNotNull(backend.takePreparedBlame(repoPath.toString(), "run.c", Collections.emptyList(), ""));
+    }
+
+    @Test
+    public void prepareBlame_repoWithMailmap_notPrepared() throws Exception {
+        writeFile(".mailmap", Collections.singletonList("Main Author <main@example.com> <other@example.com>"));
+        commit("Add mailmap");
+        backend.prepareBlame(repoPath.toString(), Collections.singletonMap("run.c", Collections.emptyList()), "");
+
+        Assertions.assertNull(backend.takePreparedBlame(repoPath.toString(), "run.c", Collections.emptyList(), ""));
+        assertSameAsGitBlame("run.c", Collections.emptyList(), "");
+    }
+
+    @Test
+    public void blame_fileChangedAfterPrepared_sameAsGitBlame() throws Exception {
+        backend.prepareBlame(repoPath.toString(), Collections.singletonMap("new.txt", Collections.emptyList()), "");
+        List<String> lines = numberedLines("line", 20);
+        lines.set(5, "changed");
+        writeFile("new.txt", lines);
+        commit("Change file");
+
+        assertSameAsGitBlame("new.txt", Collections.emptyList(), "");
+    }
+
+    /**
+     * Asserts that {@link CliGitBackend#blame} reports the same blame records for the lines in {@code lineRanges}
+     * of the file at {@code filePath} as "git blame" does, apart from how the lines are split into groups.
+     */
+    private void assertSameAsGitBlame(String filePath, List<LineRange> lineRanges, String sinceCommitHash) {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        GitBlame.blame(repoPath.toString(), filePath, lineRanges, sinceCommitHash,
+                line -> expected.add(stripGroupSize(line)));
+        backend.blame(repoPath.toString(), filePath, lineRanges, sinceCommitHash,
+                line -> actual.add(stripGroupSize(line)));
+        Assertions.assertEquals(expected, actual);
+    }
+
+    private void writeFile(String path, List<String> lines) throws Exception {
+        Files.write(repoPath.resolve(path), lines);
+    }
+
+    /**
+     * Stages every change in the working tree and commits it.
+     */
+    private RevCommit commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.add().addFilepattern(".").setUpdate(true).call();
+        return git.commit().setMessage(message).setAuthor("Main Author", "main@example.com")
+                .setCommitter("Main Author", "main@example.com").call();
+    }
+
+    private static List<String> numberedLines(String prefix, int numLines) {
+        return IntStream.rangeClosed(1, numLines)
+                .mapToObj(lineNumber -> prefix + " " + lineNumber)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Removes the number of lines in the group from the first line of a blame record, as it depends on how the
+     * blame result is split into groups.
+     */
+    private static String stripGroupSize(String blameLine) {
+        return blameLine.replaceFirst("^([0-9a-f]{40} \\d+ \\d+) \\d+$", "$1");
+    }
+}
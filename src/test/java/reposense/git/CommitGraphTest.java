@@ -0,0 +1,111 @@
+package reposense.git;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.model.RepoConfiguration;
+import reposense.template.GitTestTemplate;
+
+public class CommitGraphTest extends GitTestTemplate {
+    private RepoConfiguration config;
+    private CommitGraph graph;
+
+    @BeforeEach
+    public void before() throws Exception {
+        super.before();
+        config = configs.get();
+        graph = CommitGraph.of(config.getRepoRoot());
+    }
+
+    @AfterEach
+    public void after() {
+        CommitGraph.close(config.getRepoRoot());
+        GitCatFileBatch.close(config.getRepoRoot());
+    }
+
+    @Test
+    public void of_sameRepo_returnsSameGraph() {
+        Assertions.assertSame(graph, CommitGraph.of(config.getRepoRoot()));
+    }
+
+    @Test
+    public void indexOf_abbreviatedHash_resolvesToFullHash() {
+        int index = graph.indexOf(TEST_COMMIT_HASH);
+        Assertions.assertNotEquals(CommitGraph.NOT_FOUND, index);
+        Assertions.assertEquals(TEST_COMMIT_HASH_LONG, graph.getHash(index));
+    }
+
+    @Test
+    public void indexOf_nonExistentHash_notFound() {
+        Assertions.assertEquals(CommitGraph.NOT_FOUND, graph.indexOf(NONEXISTENT_COMMIT_HASH));
+    }
+
+    @Test
+    public void getParents_mergeCommit_returnsParentsInOrder() {
+        int[] parents = graph.getParents(graph.indexOf(MERGE_COMMIT_HASH));
+        List<String> parentHashes = Arrays.stream(parents).mapToObj(graph::getHash).collect(Collectors.toList());
+        Assertions.assertEquals(MERGE_COMMIT_PARENTS_HASHES, parentHashes);
+    }
+
+    @Test
+    public void getParents_rootCommit_noParents() {
+        Assertions.assertEquals(0, graph.getParents(graph.indexOf(ROOT_COMMIT_HASH)).length);
+    }
+
+    @Test
+    public void getLatestCommitUntil_commitTimeOfTip_returnsTip() {
+        int tip = graph.indexOfRef(config.getBranch());
+        Assertions.assertEquals(tip, graph.getLatestCommitUntil(tip, graph.getCommitTime(tip)));
+    }
+
+    @Test
+    public void getLatestCommitUntil_beforeRootCommit_notFound() {
+        int tip = graph.indexOfRef(config.getBranch());
+        long beforeRootCommit = graph.getCommitTime(graph.indexOf(ROOT_COMMIT_HASH)) - 1;
+        Assertions.assertEquals(CommitGraph.NOT_FOUND, graph.getLatestCommitUntil(tip, beforeRootCommit));
+    }
+
+    @Test
+    public void getCommitsInRange_parentAndChild_bothIncludedFromNewest() {
+        int child = graph.indexOf(TEST_COMMIT_HASH);
+        int parent = graph.indexOf(TEST_COMMIT_HASH_PARENT);
+        List<String> expected = Arrays.asList(TEST_COMMIT_HASH_LONG, TEST_COMMIT_HASH_PARENT);
+
+        Assertions.assertEquals(expected, graph.getCommitsInRange(parent, child, CommitGraph.NOT_FOUND).stream()
+                .map(graph::getHash).collect(Collectors.toList()));
+        Assertions.assertEquals(expected, graph.getCommitsInRange(child, parent, CommitGraph.NOT_FOUND).stream()
+                .map(graph::getHash).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void getCommitsInRange_sameCommit_singleCommit() {
+        int index = graph.indexOf(LATEST_COMMIT_HASH);
+        Assertions.assertEquals(Collections.singletonList(index),
+                graph.getCommitsInRange(index, index, CommitGraph.NOT_FOUND));
+    }
+
+    @Test
+    public void getPartitionTimes_fewerCommitsThanMinimum_noTimes() {
+        int tip = graph.indexOfRef(config.getBranch());
+        Assertions.assertEquals(0,
+                graph.getPartitionTimes(tip, Long.MIN_VALUE, Long.MAX_VALUE, 4, Integer.MAX_VALUE).length);
+    }
+
+    @Test
+    public void getPartitionTimes_twoParts_singleTimeWithinRange() {
+        int tip = graph.indexOfRef(config.getBranch());
+        long rootCommitTime = graph.getCommitTime(graph.indexOf(ROOT_COMMIT_HASH));
+        long[] partitionTimes = graph.getPartitionTimes(tip, rootCommitTime, graph.getCommitTime(tip), 2, 1);
+
+        Assertions.assertEquals(1, partitionTimes.length);
+        Assertions.assertTrue(partitionTimes[0] > rootCommitTime);
+        Assertions.assertTrue(partitionTimes[0] <= graph.getCommitTime(tip));
+    }
+}
@@ -0,0 +1,61 @@
+package reposense.git;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import reposense.git.model.GitBlameCommit;
+
+public class GitBlameParserTest {
+    private static final String FIRST_COMMIT_HASH = "8d0ac2ee20f04dce8df0591caed460bffacb65a4";
+    private static final String SECOND_COMMIT_HASH = "2fb6b9b2dd9fa40bf0f9815da2cb0ae8731436c7";
+
+    @Test
+    public void accept_commitsOfManyLines_eachCommitProcessedOnce() {
+        List<GitBlameCommit> processedCommits = new ArrayList<>();
+        List<String> blamedLines = new ArrayList<>();
+        GitBlameParser<GitBlameCommit> parser = new GitBlameParser<>(commit -> {
+            processedCommits.add(commit);
+            return commit;
+        }, (commit, lineNumber, content) -> blamedLines.add(lineNumber + ":" + commit.getCommitHash() + ":" + content));
+
+        Arrays.asList(
+                FIRST_COMMIT_HASH + " 1 1 2",
+                "author Main Author",
+                "author-mail <main@example.com>",
+                "author-time 1517863105",
+                "author-tz +0800",
+                "committer-time 1517863200",
+                "\tfirst line",
+                FIRST_COMMIT_HASH + " 2 2",
+                "\tsecond line",
+                SECOND_COMMIT_HASH + " 1 3 1",
+                "author Fake Author",
+                "author-mail <fake@example.com>",
+                "author-time 1518000000",
+                "author-tz +0000",
+                "boundary",
+                "\t",
+                FIRST_COMMIT_HASH + " 3 4 1",
+                "\t\tindented line").forEach(parser);
+
+        Assertions.assertEquals(Arrays.asList("0:" + FIRST_COMMIT_HASH + ":first line",
+                "1:" + FIRST_COMMIT_HASH + ":second line", "2:" + SECOND_COMMIT_HASH + ":",
+                "3:" + FIRST_COMMIT_HASH + ":\tindented line"), blamedLines);
+        Assertions.assertEquals(2, processedCommits.size());
+
+        GitBlameCommit firstCommit = processedCommits.get(0);
+        Assertions.assertEquals("Main Author", firstCommit.getAuthorName());
+        Assertions.assertEquals("main@example.com", firstCommit.getAuthorEmail());
+        Assertions.assertEquals(1517863105, firstCommit.getAuthorTimeSeconds());
+        Assertions.assertEquals(1517863200, firstCommit.getCommitterTimeSeconds());
+        Assertions.assertFalse(firstCommit.isBoundary());
+
+        GitBlameCommit secondCommit = processedCommits.get(1);
+        Assertions.assertEquals("Fake Author", secondCommit.getAuthorName());
+        Assertions.assertTrue(secondCommit.isBoundary());
+    }
+}
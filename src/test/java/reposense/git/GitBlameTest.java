@@ -1,13 +1,20 @@
 package reposense.git;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import reposense.git.model.GitBlameLineInfo;
+import reposense.git.model.LineRange;
 import reposense.model.RepoConfiguration;
 import reposense.template.GitTestTemplate;
 
@@ -33,6 +40,31 @@ public class GitBlameTest extends GitTestTemplate {
         Assertions.assertThrows(RuntimeException.class, () -> GitBlame.blame(config.getRepoRoot(), "nonExistentFile"));
     }
 
+    @Test
+    public void blame_lineRanges_onlyBlamesLinesInRanges() {
+        List<String> blameLines = new ArrayList<>();
+        GitBlame.blame(config.getRepoRoot(), "blameTest.java", Arrays.asList(new LineRange(1, 1),
+                new LineRange(3, 4)), "", blameLines::add);
+
+        List<String> blamedLineNumbers = blameLines.stream()
+                .filter(line -> line.matches("^[0-9a-f]{40} .*"))
+                .map(line -> line.split(" ")[2])
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("1", "3", "4"), blamedLineNumbers);
+    }
+
+    @Test
+    public void blame_sinceCommit_marksLinesOfEarlierCommitsAsBoundary() {
+        List<String> blameLines = new ArrayList<>();
+        GitBlame.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "", blameLines::add);
+        Assertions.assertFalse(blameLines.contains("boundary"));
+
+        blameLines.clear();
+        GitBlame.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, blameLines::add);
+        Assertions.assertTrue(blameLines.contains("boundary"));
+    }
+
     @Test
     public void blameWithPreviousAuthorsRaw_validFile_success() {
         config.setBranch(TEST_REPO_BLAME_WITH_PREVIOUS_AUTHORS_BRANCH);
@@ -61,6 +93,19 @@ public class GitBlameTest extends GitTestTemplate {
         Assertions.assertEquals(expectedLineInfo, actualLineInfo);
     }
 
+    @Test
+    public void blameLines_severalLines_sameAsEachLineBlamedAlone() {
+        Map<Integer, GitBlameLineInfo> actualLineInfos = GitBlame.blameLines(config.getRepoRoot(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, "blameTest.java", Arrays.asList(1, 2, 4));
+
+        Assertions.assertEquals(3, actualLineInfos.size());
+        for (int lineNumber : Arrays.asList(1, 2, 4)) {
+            Assertions.assertEquals(GitBlame.blameLine(config.getRepoRoot(),
+                    FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, "blameTest.java", lineNumber),
+                    actualLineInfos.get(lineNumber));
+        }
+    }
+
     @Test
     public void blameLine_nonExistentCommit_throwsRunTimeException() {
         Assertions.assertThrows(RuntimeException.class, () -> GitBlame.blameLine(config.getRepoRoot(),
@@ -0,0 +1,106 @@
+package reposense.git;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.git.model.GitObject;
+import reposense.model.RepoConfiguration;
+import reposense.template.GitTestTemplate;
+
+public class GitCatFileBatchTest extends GitTestTemplate {
+    private RepoConfiguration config;
+
+    @BeforeEach
+    public void before() throws Exception {
+        super.before();
+        config = configs.get();
+    }
+
+    @AfterEach
+    public void after() {
+        GitCatFileBatch.close(config.getRepoRoot());
+    }
+
+    @Test
+    public void getObject_existingCommit_success() {
+        Optional<GitObject> commit = GitCatFileBatch.getObject(config.getRepoRoot(), TEST_COMMIT_HASH);
+        Assertions.assertTrue(commit.isPresent());
+        Assertions.assertEquals(TEST_COMMIT_HASH_LONG, commit.get().getHash());
+        Assertions.assertEquals("commit", commit.get().getType());
+        Assertions.assertEquals(commit.get().getSize(), commit.get().getContent().length);
+        Assertions.assertEquals(TEST_COMMIT_HASH_PARENT, commit.get().getHeaderValues("parent").get(0));
+    }
+
+    @Test
+    public void getObject_nonExistentCommit_returnsEmpty() {
+        Assertions.assertFalse(GitCatFileBatch.getObject(config.getRepoRoot(), NONEXISTENT_COMMIT_HASH).isPresent());
+    }
+
+    @Test
+    public void getObject_multipleRequests_reusesProcess() {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(GitCatFileBatch.getObject(config.getRepoRoot(), ROOT_COMMIT_HASH).isPresent());
+            Assertions.assertFalse(GitCatFileBatch.getObject(config.getRepoRoot(), NONEXISTENT_COMMIT_HASH)
+                    .isPresent());
+        }
+    }
+
+    @Test
+    public void getObject_moreThreadsThanProcesses_allSucceed() {
+        ExecutorService executor = Executors.newFixedThreadPool(4 * Runtime.getRuntime().availableProcessors() + 4);
+        try {
+            List<CompletableFuture<Optional<GitObject>>> futures = IntStream.range(0, 200)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                            GitCatFileBatch.getObject(config.getRepoRoot(), ROOT_COMMIT_HASH), executor))
+                    .collect(Collectors.toList());
+            futures.forEach(future -> Assertions.assertTrue(future.join().isPresent()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void forEachObject_moreRequestsThanPipelined_sameAsGetObject() {
+        // alternates existing and missing objects, more of them than are written to the process at a time
+        List<String> revisions = IntStream.range(0, 500)
+                .mapToObj(i -> (i % 2 == 0) ? ROOT_COMMIT_HASH : NONEXISTENT_COMMIT_HASH)
+                .collect(Collectors.toList());
+        List<Optional<GitObject>> objects = new ArrayList<>();
+        GitCatFileBatch.forEachObject(config.getRepoRoot(), revisions, objects::add);
+
+        Assertions.assertEquals(revisions.size(), objects.size());
+        Optional<GitObject> rootCommit = GitCatFileBatch.getObject(config.getRepoRoot(), ROOT_COMMIT_HASH);
+        for (int i = 0; i < objects.size(); i++) {
+            Assertions.assertEquals(i % 2 == 0, objects.get(i).isPresent());
+            if (objects.get(i).isPresent()) {
+                Assertions.assertArrayEquals(rootCommit.get().getContent(), objects.get(i).get().getContent());
+            }
+        }
+    }
+
+    @Test
+    public void getObjectInfo_emptyTree_success() {
+        Optional<GitObject> tree = GitCatFileBatch.getObjectInfo(config.getRepoRoot(), EMPTY_TREE_HASH);
+        Assertions.assertTrue(tree.isPresent());
+        Assertions.assertEquals("tree", tree.get().getType());
+        Assertions.assertEquals(0, tree.get().getSize());
+        Assertions.assertNull(tree.get().getContent());
+    }
+
+    @Test
+    public void getObjectInfo_revisionWithNewline_throwsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GitCatFileBatch.getObjectInfo(
+                config.getRepoRoot(), TEST_COMMIT_HASH + "\n" + ROOT_COMMIT_HASH));
+    }
+}
@@ -65,4 +65,35 @@ public class GitCheckoutTest extends GitTestTemplate {
         Assertions.assertThrows(CommitNotFoundException.class, () -> GitCheckout.checkoutDate(config.getRepoRoot(),
                 config.getBranch(), untilDate, config.getZoneId()));
     }
+
+    @Test
+    public void checkoutBranchWithoutFiles_validBranch_filesNotWritten() {
+        Path branchFile = Paths.get(config.getRepoRoot(), "inTestBranch.java");
+
+        GitCheckout.checkoutBranchWithoutFiles(config.getRepoRoot(), "test");
+        Assertions.assertFalse(Files.exists(branchFile));
+        Assertions.assertTrue(GitLsTree.getFileInfo(config.getRepoRoot(), "inTestBranch.java").isPresent());
+
+        GitCheckout.checkoutBranchWithoutFiles(config.getRepoRoot(), config.getBranch());
+        Assertions.assertFalse(GitLsTree.getFileInfo(config.getRepoRoot(), "inTestBranch.java").isPresent());
+    }
+
+    @Test
+    public void checkoutDateWithoutFiles_validDate_filesNotWritten() throws Exception {
+        Path newFile = Paths.get(config.getRepoRoot(), "newFile.java");
+
+        LocalDateTime untilDate = TestUtil.getUntilDate(2018, Month.FEBRUARY.getValue(), 6);
+        GitCheckout.checkoutDateWithoutFiles(config.getRepoRoot(), config.getBranch(), untilDate, config.getZoneId());
+        Assertions.assertTrue(Files.exists(newFile));
+        Assertions.assertFalse(GitLsTree.getFileInfo(config.getRepoRoot(), "newFile.java").isPresent());
+
+        GitCheckout.checkoutBranchWithoutFiles(config.getRepoRoot(), config.getBranch());
+    }
+
+    @Test
+    public void checkoutDateWithoutFiles_invalidDate_throwsEmptyCommitException() {
+        LocalDateTime untilDate = TestUtil.getUntilDate(2015, Month.FEBRUARY.getValue(), 6);
+        Assertions.assertThrows(CommitNotFoundException.class, () -> GitCheckout.checkoutDateWithoutFiles(
+                config.getRepoRoot(), config.getBranch(), untilDate, config.getZoneId()));
+    }
 }
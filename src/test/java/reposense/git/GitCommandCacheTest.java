@@ -0,0 +1,92 @@
+package reposense.git;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.model.RepoConfiguration;
+import reposense.template.GitTestTemplate;
+
+public class GitCommandCacheTest extends GitTestTemplate {
+    private RepoConfiguration config;
+
+    @BeforeEach
+    public void before() throws Exception {
+        super.before();
+        config = configs.get();
+        GitCommandCache.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        GitCommandCache.clear();
+        GitCatFileBatch.close(config.getRepoRoot());
+    }
+
+    @Test
+    public void getOrCompute_sameQuery_computedOnce() {
+        AtomicInteger numComputations = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            String result = GitCommandCache.getOrCompute(config.getRepoRoot(),
+                    Collections.singletonList(TEST_COMMIT_HASH_LONG), Collections.singletonList("query"), () -> {
+                        numComputations.incrementAndGet();
+                        return "result";
+                    });
+            Assertions.assertEquals("result", result);
+        }
+
+        Assertions.assertEquals(1, numComputations.get());
+        Assertions.assertEquals(1, GitCommandCache.getNumMisses());
+        Assertions.assertEquals(2, GitCommandCache.getNumHits());
+    }
+
+    @Test
+    public void getOrCompute_refsResolvingToSameCommit_sharesResult() {
+        GitCommandCache.getOrCompute(config.getRepoRoot(), Collections.singletonList(TEST_COMMIT_HASH),
+                Collections.singletonList("query"), () -> "result");
+        String result = GitCommandCache.getOrCompute(config.getRepoRoot(),
+                Collections.singletonList(TEST_COMMIT_HASH_LONG), Collections.singletonList("query"),
+                () -> "other result");
+
+        Assertions.assertEquals("result", result);
+        Assertions.assertEquals(1, GitCommandCache.getNumHits());
+    }
+
+    @Test
+    public void getOrCompute_differentArgs_computedSeparately() {
+        GitCommandCache.getOrCompute(config.getRepoRoot(), Collections.singletonList(TEST_COMMIT_HASH_LONG),
+                Arrays.asList("query", "one"), () -> "one");
+        String result = GitCommandCache.getOrCompute(config.getRepoRoot(),
+                Collections.singletonList(TEST_COMMIT_HASH_LONG), Arrays.asList("query", "two"), () -> "two");
+
+        Assertions.assertEquals("two", result);
+        Assertions.assertEquals(0, GitCommandCache.getNumHits());
+    }
+
+    @Test
+    public void getOrCompute_unresolvableRef_notCached() {
+        AtomicInteger numComputations = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            GitCommandCache.getOrCompute(config.getRepoRoot(), Collections.singletonList(NONEXISTENT_COMMIT_HASH),
+                    Collections.singletonList("query"), numComputations::incrementAndGet);
+        }
+
+        Assertions.assertEquals(2, numComputations.get());
+        Assertions.assertEquals(0, GitCommandCache.getNumHits());
+    }
+
+    @Test
+    public void getOrCompute_nullResult_notCached() {
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertNull(GitCommandCache.getOrCompute(config.getRepoRoot(),
+                    Collections.singletonList(TEST_COMMIT_HASH_LONG), Collections.singletonList("query"), () -> null));
+        }
+
+        Assertions.assertEquals(0, GitCommandCache.getNumHits());
+    }
+}
@@ -4,11 +4,13 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import reposense.commits.model.CommitInfo;
 import reposense.model.Author;
 import reposense.model.FileType;
 import reposense.model.RepoConfiguration;
@@ -27,46 +29,47 @@ public class GitLogTest extends GitTestTemplate {
 
     @Test
     public void gitLog_existingFormats_hasContent() {
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertFalse(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertFalse(commitInfos.isEmpty());
     }
 
     @Test
     public void gitLog_nonExistingFormats_noContent() {
         config.setFormats(FileType.convertFormatStringsToFileTypes(Collections.singletonList("py")));
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertTrue(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
     public void gitLog_includeAllJavaFiles_success() {
         config.setFormats(FileType.convertFormatStringsToFileTypes(Collections.singletonList("java")));
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertTrue(TestUtil.compareNumberExpectedCommitsToGitLogLines(12, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertEquals(12, commitInfos.size());
     }
 
     @Test
     public void gitLog_fakeAuthorNameOnly_success() {
         Author fakeAuthorName = new Author(FAKE_AUTHOR_NAME);
 
-        String content = GitLog.get(config, fakeAuthorName);
-        Assertions.assertTrue(TestUtil.compareNumberExpectedCommitsToGitLogLines(8, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, fakeAuthorName);
+        Assertions.assertEquals(8, commitInfos.size());
     }
 
     @Test
     public void gitLog_authorNameIncorrectCase_success() {
         Author fakeAuthorName = new Author(FAKE_AUTHOR_NAME.toUpperCase());
 
-        String content = GitLog.get(config, fakeAuthorName);
-        Assertions.assertTrue(TestUtil.compareNumberExpectedCommitsToGitLogLines(8, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, fakeAuthorName);
+        Assertions.assertEquals(8, commitInfos.size());
     }
 
     @Test
-    public void gitLog_fakeAuthorNameWithSpecialCharacter_success() {
+    public void gitLog_fakeAuthorNameWithSpecialCharacter_noContent() {
         Author fakeAuthorWithSpecialCharacter = new Author(FAKE_AUTHOR_NAME.replace("fake", "#()!"));
 
-        String content = GitLog.get(config, fakeAuthorWithSpecialCharacter);
-        Assertions.assertTrue(TestUtil.compareNumberExpectedCommitsToGitLogLines(8, content));
+        // author names are matched as they are, rather than as patterns in which special characters match any
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, fakeAuthorWithSpecialCharacter);
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
@@ -75,8 +78,8 @@ public class GitLogTest extends GitTestTemplate {
         Author ignoreMovedFileAuthor = getAlphaAllAliasAuthor();
         ignoreMovedFileAuthor.setIgnoreGlobList(Collections.singletonList("**movedFile.java"));
 
-        String content = GitLog.getWithFiles(config, ignoreMovedFileAuthor);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(4, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, ignoreMovedFileAuthor);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(4, commitInfos));
     }
 
     @Test
@@ -85,8 +88,8 @@ public class GitLogTest extends GitTestTemplate {
         Author ignoreAllJavaFilesAuthor = getAlphaAllAliasAuthor();
         ignoreAllJavaFilesAuthor.setIgnoreGlobList(Collections.singletonList("*.java"));
 
-        String content = GitLog.getWithFiles(config, ignoreAllJavaFilesAuthor);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(0, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, ignoreAllJavaFilesAuthor);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(0, commitInfos));
     }
 
     @Test
@@ -94,24 +97,24 @@ public class GitLogTest extends GitTestTemplate {
         Author author = getAlphaAllAliasAuthor();
 
         author.setIgnoreGlobList(Collections.singletonList("annotationTest.java"));
-        String content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(6, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(6, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList("**Test**"));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(5, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(5, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList("README.md"));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(6, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(6, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList("**.java"));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(1, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(1, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList("./newPos"));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(6, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(6, commitInfos));
     }
 
     @Test
@@ -119,20 +122,20 @@ public class GitLogTest extends GitTestTemplate {
         Author author = getAlphaAllAliasAuthor();
 
         author.setIgnoreGlobList(Collections.singletonList("../testrepo-Alpha"));
-        String content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList("../*.java"));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList("/newPos"));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, commitInfos));
 
         author.setIgnoreGlobList(Collections.singletonList(".."));
-        content = GitLog.getWithFiles(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, content));
+        commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertTrue(TestUtil.compareNumberFilesChanged(7, commitInfos));
     }
 
     @Test
@@ -140,8 +143,8 @@ public class GitLogTest extends GitTestTemplate {
         Author authorWithAllCharactersRegexAlias = new Author("none");
         authorWithAllCharactersRegexAlias.setAuthorAliases(Collections.singletonList(".*"));
 
-        String content = GitLog.get(config, authorWithAllCharactersRegexAlias);
-        Assertions.assertTrue(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, authorWithAllCharactersRegexAlias);
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
@@ -149,8 +152,8 @@ public class GitLogTest extends GitTestTemplate {
         LocalDateTime date = TimeUtil.getSinceDate(
                 LocalDateTime.of(2050, Month.JANUARY, 1, 0, 0));
         config.setSinceDate(date);
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertTrue(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
@@ -158,8 +161,8 @@ public class GitLogTest extends GitTestTemplate {
         LocalDateTime date = TimeUtil.getSinceDate(
                 LocalDateTime.of(2100, Month.JANUARY, 1, 0, 0));
         config.setSinceDate(date);
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertTrue(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
@@ -168,8 +171,8 @@ public class GitLogTest extends GitTestTemplate {
                 LocalDateTime.of(2010, Month.JANUARY, 1, 0, 0));
         config.setUntilDate(date);
         config.setSinceDate(null);
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertTrue(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
@@ -178,8 +181,8 @@ public class GitLogTest extends GitTestTemplate {
                 LocalDateTime.of(1969, Month.JANUARY, 1, 0, 0));
         config.setUntilDate(date);
         config.setSinceDate(null);
-        String content = GitLog.get(config, getAlphaAllAliasAuthor());
-        Assertions.assertTrue(content.isEmpty());
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, getAlphaAllAliasAuthor());
+        Assertions.assertTrue(commitInfos.isEmpty());
     }
 
     @Test
@@ -189,8 +192,8 @@ public class GitLogTest extends GitTestTemplate {
         Author author = new Author(MINGYI_AUTHOR_NAME);
         config.setAuthorList(Collections.singletonList(author));
 
-        String content = GitLog.get(config, author);
-        Assertions.assertTrue(TestUtil.compareNumberExpectedCommitsToGitLogLines(1, content));
+        List<CommitInfo> commitInfos = TestUtil.getCommitInfos(config, author);
+        Assertions.assertEquals(1, commitInfos.size());
     }
 
     @Test
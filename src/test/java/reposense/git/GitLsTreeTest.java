@@ -0,0 +1,184 @@
+package reposense.git;
+
+import static reposense.util.TestUtil.isWindows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.git.model.GitObject;
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+
+/**
+ * Tests {@link GitLsTree} on a repository built by each test, which holds a text file, a large text file, binary
+ * files, a symbolic link and a submodule.
+ */
+public class GitLsTreeTest {
+    private static final String TEXT_FILE = "text.txt";
+    private static final String LARGE_TEXT_FILE = "dir/large text.txt";
+    private static final String NUL_BYTE_FILE = "nul.dat";
+    private static final String LATE_NUL_BYTE_FILE = "lateNul.txt";
+    private static final String DIFF_UNSET_FILE = "diffUnset.txt";
+    private static final String SYMLINK = "link.txt";
+    private static final String SUBMODULE = "submodule";
+    private static final String TEXT_FILE_CONTENT = "first line\nsecond line\n";
+    private static final String SUBMODULE_COMMIT_HASH = "fd425072e12004b71d733a58d819d845509f8db3";
+
+    private Path repoPath;
+    private String root;
+    private String firstCommitHash;
+
+    @BeforeEach
+    public void before() throws Exception {
+        // symbolic links cannot be created without extra privileges on Windows
+        Assumptions.assumeFalse(isWindows());
+
+        repoPath = Files.createTempDirectory("git-ls-tree-test");
+        root = repoPath.toString();
+        git("init", "-q");
+
+        writeFile(TEXT_FILE, TEXT_FILE_CONTENT.getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(repoPath.resolve("dir"));
+        writeFile(LARGE_TEXT_FILE, "a".repeat(123456).getBytes(StandardCharsets.UTF_8));
+        writeFile(NUL_BYTE_FILE, new byte[] {'a', 0, 'b'});
+        // git only looks for NUL bytes near the start of a file
+        byte[] lateNulBytes = "a".repeat(9000).getBytes(StandardCharsets.UTF_8);
+        lateNulBytes[8500] = 0;
+        writeFile(LATE_NUL_BYTE_FILE, lateNulBytes);
+        writeFile(DIFF_UNSET_FILE, TEXT_FILE_CONTENT.getBytes(StandardCharsets.UTF_8));
+        writeFile(".gitattributes", (DIFF_UNSET_FILE + " -diff\n").getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(repoPath.resolve(SYMLINK), Paths.get(TEXT_FILE));
+        git("add", "-A");
+        // a submodule is listed by git ls-tree as a commit
+        git("update-index", "--add", "--cacheinfo", "160000," + SUBMODULE_COMMIT_HASH + "," + SUBMODULE);
+        git("-c", "user.name=Main Author", "-c", "user.email=main@example.com", "commit", "-q", "-m", "Add files");
+        firstCommitHash = git("rev-parse", "HEAD").trim();
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        if (root != null) {
+            GitLsTree.close(root);
+            GitCatFileBatch.close(root);
+            FileUtil.deleteDirectory(root);
+        }
+    }
+
+    @Test
+    public void getFilePaths_withSubmodule_submoduleSkipped() {
+        List<String> filePaths = GitLsTree.getFilePaths(root);
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(".gitattributes", TEXT_FILE, LARGE_TEXT_FILE,
+                NUL_BYTE_FILE, LATE_NUL_BYTE_FILE, DIFF_UNSET_FILE, SYMLINK)), new HashSet<>(filePaths));
+        Assertions.assertEquals(filePaths.size(), new HashSet<>(filePaths).size());
+    }
+
+    @Test
+    public void getFileInfo_filesOfDifferentSizes_sizesParsed() {
+        // git ls-tree pads the sizes with spaces on their left to the same width
+        Assertions.assertEquals(TEXT_FILE_CONTENT.length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+        Assertions.assertEquals(123456, GitLsTree.getFileInfo(root, LARGE_TEXT_FILE).get().getSize());
+        Assertions.assertEquals(TEXT_FILE.length(), GitLsTree.getFileInfo(root, SYMLINK).get().getSize());
+
+        GitObject textFile = GitLsTree.getFileInfo(root, TEXT_FILE).get();
+        Assertions.assertEquals(git("rev-parse", "HEAD:" + TEXT_FILE).trim(), textFile.getHash());
+        Assertions.assertEquals("blob", textFile.getType());
+    }
+
+    @Test
+    public void getFileInfo_submoduleOrMissingFile_empty() {
+        Assertions.assertFalse(GitLsTree.getFileInfo(root, SUBMODULE).isPresent());
+        Assertions.assertFalse(GitLsTree.getFileInfo(root, "missing.txt").isPresent());
+    }
+
+    @Test
+    public void isSymbolicLink_symlinkAndFile_onlySymlinkDetected() {
+        Assertions.assertTrue(GitLsTree.isSymbolicLink(root, SYMLINK));
+        Assertions.assertFalse(GitLsTree.isSymbolicLink(root, TEXT_FILE));
+    }
+
+    @Test
+    public void getBinaryFilePaths_checkedOutFiles_nulNearStartOrDiffUnset() {
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(NUL_BYTE_FILE, DIFF_UNSET_FILE)),
+                GitLsTree.getBinaryFilePaths(root, GitLsTree.getFilePaths(root)));
+    }
+
+    @Test
+    public void getBinaryFilePaths_filesNotCheckedOut_readFromObjectStore() throws Exception {
+        for (String filePath : GitLsTree.getFilePaths(root)) {
+            Files.delete(repoPath.resolve(filePath));
+        }
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(NUL_BYTE_FILE, DIFF_UNSET_FILE)),
+                GitLsTree.getBinaryFilePaths(root, GitLsTree.getFilePaths(root)));
+    }
+
+    @Test
+    public void getBinaryFilePaths_subsetOfFiles_onlySubsetReturned() {
+        Assertions.assertEquals(Collections.singleton(NUL_BYTE_FILE),
+                GitLsTree.getBinaryFilePaths(root, Arrays.asList(TEXT_FILE, NUL_BYTE_FILE)));
+    }
+
+    @Test
+    public void getFile_changedInWorkingTree_committedContentReturned() throws Exception {
+        writeFile(TEXT_FILE, "changed\n".getBytes(StandardCharsets.UTF_8));
+
+        Optional<GitObject> textFile = GitLsTree.getFile(root, TEXT_FILE);
+        Assertions.assertTrue(textFile.isPresent());
+        Assertions.assertEquals(TEXT_FILE_CONTENT, new String(textFile.get().getContent(), StandardCharsets.UTF_8));
+        Assertions.assertFalse(GitLsTree.getFile(root, "missing.txt").isPresent());
+    }
+
+    @Test
+    public void getFileInfo_afterCheckout_filesOfNewCommitListed() throws Exception {
+        Assertions.assertEquals(TEXT_FILE_CONTENT.length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+
+        writeFile(TEXT_FILE, "changed\n".getBytes(StandardCharsets.UTF_8));
+        git("-c", "user.name=Main Author", "-c", "user.email=main@example.com", "commit", "-q", "-a", "-m",
+                "Change file");
+        GitCheckout.checkout(root, git("rev-parse", "HEAD").trim());
+        Assertions.assertEquals("changed\n".length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+
+        GitCheckout.checkout(root, firstCommitHash);
+        Assertions.assertEquals(TEXT_FILE_CONTENT.length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+    }
+
+    @Test
+    public void getFilePaths_commitMovedOutsideCheckout_filesOfNewCommitListed() throws Exception {
+        Assertions.assertEquals(TEXT_FILE_CONTENT.length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+
+        writeFile(TEXT_FILE, "changed\n".getBytes(StandardCharsets.UTF_8));
+        git("-c", "user.name=Main Author", "-c", "user.email=main@example.com", "commit", "-q", "-a", "-m",
+                "Change file");
+        // the files looked up one at a time are those of the listing kept since the last extraction
+        Assertions.assertEquals(TEXT_FILE_CONTENT.length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+
+        GitLsTree.getFilePaths(root);
+        Assertions.assertEquals("changed\n".length(), GitLsTree.getFileInfo(root, TEXT_FILE).get().getSize());
+    }
+
+    private void writeFile(String filePath, byte[] content) throws Exception {
+        Files.write(repoPath.resolve(filePath), content);
+    }
+
+    private String git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        return CommandRunner.runCommand(repoPath, command);
+    }
+}
@@ -0,0 +1,86 @@
+package reposense.git;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+
+/**
+ * Tests {@link GitMaintenance} on a repository built by each test.
+ */
+public class GitMaintenanceTest {
+    private Path repoPath;
+    private String root;
+
+    @BeforeEach
+    public void before() throws Exception {
+        repoPath = Files.createTempDirectory("git-maintenance-test");
+        root = repoPath.toString();
+        git("init", "-q");
+        commitFile("first.txt");
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        if (root != null) {
+            FileUtil.deleteDirectory(root);
+        }
+    }
+
+    @Test
+    public void optimize_singlePack_commitGraphWithBloomFiltersWritten() throws Exception {
+        git("repack", "-a", "-d", "-q");
+
+        Assertions.assertTrue(GitMaintenance.optimize(root));
+
+        Path commitGraph = repoPath.resolve(".git/objects/info/commit-graph");
+        Assertions.assertTrue(Files.exists(commitGraph));
+        // the chunk of changed-path Bloom filters is named "BIDX" in the commit-graph file
+        Assertions.assertTrue(new String(Files.readAllBytes(commitGraph), StandardCharsets.ISO_8859_1)
+                .contains("BIDX"));
+        Assertions.assertFalse(Files.exists(repoPath.resolve(".git/objects/pack/multi-pack-index")));
+    }
+
+    @Test
+    public void optimize_multiplePacks_multiPackIndexWritten() throws Exception {
+        git("repack", "-q");
+        commitFile("second.txt");
+        git("repack", "-q");
+
+        Assertions.assertTrue(GitMaintenance.optimize(root));
+
+        Assertions.assertTrue(Files.exists(repoPath.resolve(".git/objects/info/commit-graph")));
+        Assertions.assertTrue(Files.exists(repoPath.resolve(".git/objects/pack/multi-pack-index")));
+    }
+
+    @Test
+    public void optimize_notRepository_false() throws Exception {
+        FileUtil.deleteDirectory(repoPath.resolve(".git").toString());
+
+        Assertions.assertFalse(GitMaintenance.optimize(root));
+    }
+
+    private void commitFile(String filePath) throws Exception {
+        Files.write(repoPath.resolve(filePath), (filePath + "\n").getBytes(StandardCharsets.UTF_8));
+        git("add", filePath);
+        git("-c", "user.name=Main Author", "-c", "user.email=main@example.com", "commit", "-q", "-m",
+                "Add " + filePath);
+    }
+
+    private String git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        return CommandRunner.runCommand(repoPath, command);
+    }
+}
@@ -0,0 +1,290 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+
+/**
+ * Compares the results of {@link HistoryBlame} with those of "git blame -w", on a repository built by each test.
+ */
+public class HistoryBlameTest {
+    private static final Pattern BLAME_HEADER_PATTERN =
+            Pattern.compile("^(?<commit>[0-9a-f]{40}) (?<sourceLine>\\d+) (?<line>\\d+)( \\d+)?$");
+    private static final String FILENAME_PREFIX = "filename ";
+    private static final String MAIN_BRANCH = "master";
+    private static final String SIDE_BRANCH = "side";
+    private static final long FIRST_COMMIT_TIME_SECONDS = 1517863105;
+
+    private Path repoPath;
+    private Git git;
+    private int numCommits = 0;
+
+    @BeforeEach
+    public void before() throws Exception {
+        repoPath = Files.createTempDirectory("history-blame-test");
+        git = Git.init().setDirectory(repoPath.toFile()).setInitialBranch(MAIN_BRANCH).call();
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        git.close();
+        FileUtil.deleteDirectory(repoPath.toString());
+    }
+
+    @Test
+    public void blame_fileChangedOnBothSidesOfMerge_sameAsGitBlame() throws Exception {
+        writeFile("merged.txt", numberedLines("base", 10));
+        commit("Add merged file");
+
+        git.checkout().setCreateBranch(true).setName(SIDE_BRANCH).call();
+        writeFile("merged.txt", replaceLines(numberedLines("base", 10), 1, "side", 2));
+        RevCommit sideCommit = commit("Change merged file on side branch");
+
+        git.checkout().setName(MAIN_BRANCH).call();
+        writeFile("merged.txt", replaceLines(numberedLines("base", 10), 7, "main", 2));
+        commit("Change merged file on main branch");
+
+        MergeResult mergeResult = git.merge().include(git.getRepository().resolve(SIDE_BRANCH))
+                .setCommit(false).call();
+        Assertions.assertTrue(mergeResult.getMergeStatus().isSuccessful());
+        RevCommit mergeCommit = commit("Merge side branch");
+        Assertions.assertEquals(2, mergeCommit.getParentCount());
+
+        List<String> lines = Files.readAllLines(repoPath.resolve("merged.txt"));
+        lines.set(4, "after merge");
+        writeFile("merged.txt", lines);
+        commit("Change merged file after merge");
+
+        HistoryBlame.Result result = assertSameAsGitBlame("merged.txt");
+        Assertions.assertEquals(sideCommit, result.getSourceCommit(1));
+    }
+
+    @Test
+    public void blame_renamedAndChangedFile_sameAsGitBlame() throws Exception {
+        writeFile("old.txt", numberedLines("line", 20));
+        commit("Add file");
+
+        writeFile("old.txt", replaceLines(numberedLines("line", 20), 3, "changed", 1));
+        commit("Change file");
+
+        Files.move(repoPath.resolve("old.txt"), repoPath.resolve("new.txt"));
+        commit("Rename file");
+
+        List<String> lines = replaceLines(Files.readAllLines(repoPath.resolve("new.txt")), 10, "moved", 1);
+        lines.add("added after rename");
+        writeFile("new.txt", lines);
+        commit("Change renamed file");
+
+        HistoryBlame.Result result = assertSameAsGitBlame("new.txt");
+        Assertions.assertEquals("old.txt", result.getSourcePath(0));
+        Assertions.assertEquals("new.txt", result.getSourcePath(10));
+    }
+
+    @Test
+    public void blame_fileRenamedWithChanges_uncertain() throws Exception {
+        writeFile("old.txt", numberedLines("line", 20));
+        commit("Add file");
+
+        Files.delete(repoPath.resolve("old.txt"));
+        writeFile("new.txt", replaceLines(numberedLines("line", 20), 10, "moved", 1));
+        commit("Rename and change file");
+
+        RevCommit head = git.getRepository().parseCommit(git.getRepository().resolve(MAIN_BRANCH));
+        Map<String, HistoryBlame.Result> results = HistoryBlame.blame(git.getRepository(),
+                XdiffAlgorithm.forBlame(true, true), head, null,
+                Collections.singletonMap("new.txt", Collections.emptyList()));
+        Assertions.assertTrue(results.get("new.txt").isUncertain());
+    }
+
+    @Test
+    public void blame_fileAddedWithoutDeletions_notUncertain() throws Exception {
+        writeFile("first.txt", numberedLines("line", 20));
+        commit("Add first file");
+
+        writeFile("second.txt", numberedLines("line", 20));
+        commit("Add second file");
+
+        HistoryBlame.Result result = assertSameAsGitBlame("second.txt");
+        Assertions.assertEquals("second.txt", result.getSourcePath(0));
+    }
+
+    @Test
+    public void blame_methodsAddedAroundClosingBraces_sameAsGitBlame() throws Exception {
+        writeFile("A.java", Arrays.asList(
+                "class A {",
+                "    void first() {",
+                "        run();",
+                "    }",
+                "}"));
+        commit("Add class");
+
+        writeFile("A.java", Arrays.asList(
+                "class A {",
+                "    void added() {",
+                "        run();",
+                "    }",
+                "",
+                "    void changed() {",
+                "        if (ready) {",
+                "            run();",
+                "        }",
+                "    }",
+                "}"));
+        commit("Add and change methods");
+
+        assertSameAsGitBlame("A.java");
+        assertSameAsGitBlame("A.java", false);
+    }
+
+    @Test
+    public void blame_blocksAddedAndChangedAroundSimilarBlocks_sameAsGitBlame() throws Exception {
+        writeFile("run.c", Arrays.asList(
+                "void run() {",
+                "    if (first) {",
+                "        start();",
+                "    }",
+                "",
+                "    if (last) {",
+                "        start();",
+                "    }",
+                "",
+                "    done();",
+                "}"));
+        commit("Add function");
+
+        writeFile("run.c", Arrays.asList(
+                "void run() {",
+                "    if (added) {",
+                "        start();",
+                "    }",
+                "",
+                "    if (first) {",
+                "        start();",
+                "    }",
+                "",
+                "    if (changed) {",
+                "        stop();",
+                "    }",
+                "",
+                "    done();",
+                "}"));
+        commit("Add and change blocks");
+
+        assertSameAsGitBlame("run.c");
+        assertSameAsGitBlame("run.c", false);
+    }
+
+    /**
+     * Asserts that each line of the file at {@code path} as of the head commit is attributed to the same commit,
+     * path and line by {@link HistoryBlame} as by "git blame -w", with the indent heuristic used if
+     * {@code isIndentHeuristicUsed}, and returns the result of {@link HistoryBlame}.
+     */
+    private HistoryBlame.Result assertSameAsGitBlame(String path, boolean isIndentHeuristicUsed) throws Exception {
+        RevCommit head = git.getRepository().parseCommit(git.getRepository().resolve(MAIN_BRANCH));
+        List<String[]> expected = gitBlame(path, head, isIndentHeuristicUsed);
+
+        Map<String, HistoryBlame.Result> results = HistoryBlame.blame(git.getRepository(),
+                XdiffAlgorithm.forBlame(true, isIndentHeuristicUsed), head, null,
+                Collections.singletonMap(path, Collections.emptyList()));
+        HistoryBlame.Result actual = results.get(path);
+
+        Assertions.assertFalse(actual.isUncertain());
+        Assertions.assertEquals(expected.size(), actual.getNumLines());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertTrue(actual.isBlamed(i));
+            Assertions.assertEquals(expected.get(i)[0], actual.getSourceCommit(i).getName(), "line " + (i + 1));
+            Assertions.assertEquals(expected.get(i)[1], actual.getSourcePath(i), "line " + (i + 1));
+            Assertions.assertEquals(Integer.parseInt(expected.get(i)[2]) - 1, actual.getSourceLine(i),
+                    "line " + (i + 1));
+        }
+        return actual;
+    }
+
+    private HistoryBlame.Result assertSameAsGitBlame(String path) throws Exception {
+        return assertSameAsGitBlame(path, true);
+    }
+
+    /**
+     * Returns the commit, path and line number (1-indexed) that each line of the file at {@code path} as of
+     * {@code head} is attributed to by "git blame -w".
+     */
+    private List<String[]> gitBlame(String path, RevCommit head, boolean isIndentHeuristicUsed) {
+        String output = CommandRunner.runCommand(repoPath, Arrays.asList("git", "-c",
+                "diff.indentHeuristic=" + isIndentHeuristicUsed, "blame", "-w", "--porcelain", head.getName(), "--",
+                path));
+        // the path is only given for the first group of lines attributed to each commit
+        Map<String, String> paths = new HashMap<>();
+        List<String[]> sources = new ArrayList<>();
+        String[] source = null;
+        for (String line : output.split("\n")) {
+            Matcher matcher = BLAME_HEADER_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                source = new String[] {matcher.group("commit"), null, matcher.group("sourceLine")};
+            } else if (line.startsWith(FILENAME_PREFIX)) {
+                paths.put(source[0], line.substring(FILENAME_PREFIX.length()));
+            } else if (line.startsWith("\t")) {
+                source[1] = paths.get(source[0]);
+                sources.add(source);
+            }
+        }
+        return sources;
+    }
+
+    private void writeFile(String path, List<String> lines) throws IOException {
+        Files.write(repoPath.resolve(path), lines);
+    }
+
+    /**
+     * Stages every change in the working tree and commits it, a minute after the previous commit.
+     */
+    private RevCommit commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.add().addFilepattern(".").setUpdate(true).call();
+
+        Instant time = Instant.ofEpochSecond(FIRST_COMMIT_TIME_SECONDS + 60L * numCommits++);
+        PersonIdent ident = new PersonIdent("Main Author", "main@example.com", time, ZoneOffset.UTC);
+        return git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    private static List<String> numberedLines(String prefix, int numLines) {
+        return IntStream.rangeClosed(1, numLines)
+                .mapToObj(lineNumber -> prefix + " " + lineNumber)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns {@code lines} with the {@code numReplaced} lines from the 0-based {@code start} replaced by lines
+     * prefixed with {@code prefix}.
+     */
+    private static List<String> replaceLines(List<String> lines, int start, String prefix, int numReplaced) {
+        List<String> replaced = new ArrayList<>(lines);
+        IntStream.range(start, start + numReplaced)
+                .forEach(index -> replaced.set(index, prefix + " " + (index + 1)));
+        return replaced;
+    }
+}
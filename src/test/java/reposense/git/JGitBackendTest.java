@@ -0,0 +1,210 @@
+package reposense.git;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.git.exception.CommitNotFoundException;
+import reposense.git.model.GitBlameLineInfo;
+import reposense.git.model.LineRange;
+import reposense.model.RepoConfiguration;
+import reposense.template.GitTestTemplate;
+import reposense.util.TimeUtil;
+
+public class JGitBackendTest extends GitTestTemplate {
+    private final GitBackend cliBackend = new CliGitBackend();
+    private final GitBackend jGitBackend = new JGitBackend();
+
+    private RepoConfiguration config;
+
+    @BeforeEach
+    public void before() throws Exception {
+        super.before();
+        config = configs.get();
+    }
+
+    @AfterEach
+    public void after() {
+        jGitBackend.closeAll();
+        cliBackend.closeAll();
+    }
+
+    @Test
+    public void blameFast_validFile_sameAsCli() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        cliBackend.blameFast(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "",
+                line -> expected.add(stripGroupSize(line)));
+        jGitBackend.blameFast(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "",
+                line -> actual.add(stripGroupSize(line)));
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void blameFast_sinceCommit_sameAsCli() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        cliBackend.blameFast(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, line -> expected.add(stripGroupSize(line)));
+        jGitBackend.blameFast(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, line -> actual.add(stripGroupSize(line)));
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertTrue(actual.contains("boundary"));
+    }
+
+    @Test
+    public void blameFast_lineRanges_sameAsCli() {
+        List<LineRange> lineRanges = Arrays.asList(new LineRange(1, 1), new LineRange(3, 4));
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        cliBackend.blameFast(config.getRepoRoot(), "blameTest.java", lineRanges, "", expected::add);
+        jGitBackend.blameFast(config.getRepoRoot(), "blameTest.java", lineRanges, "", actual::add);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void blame_validFile_sameAsCli() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        cliBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "",
+                line -> expected.add(stripGroupSize(line)));
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "",
+                line -> actual.add(stripGroupSize(line)));
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void blame_sinceCommit_sameAsCli() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        cliBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, line -> expected.add(stripGroupSize(line)));
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, line -> actual.add(stripGroupSize(line)));
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertTrue(actual.contains("boundary"));
+    }
+
+    @Test
+    public void blame_preparedFile_sameAsUnprepared() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "", expected::add);
+        Map<String, List<LineRange>> lineRangesByFile = new HashMap<>();
+        lineRangesByFile.put("blameTest.java", Collections.emptyList());
+        lineRangesByFile.put("README.md", Collections.emptyList());
+        jGitBackend.prepareBlame(config.getRepoRoot(), lineRangesByFile, "");
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(), "", actual::add);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void blame_preparedLineRanges_sameAsUnprepared() {
+        List<LineRange> lineRanges = Arrays.asList(new LineRange(1, 2), new LineRange(4, 4));
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", lineRanges, "", expected::add);
+        jGitBackend.prepareBlame(config.getRepoRoot(), Collections.singletonMap("blameTest.java", lineRanges), "");
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", lineRanges, "", actual::add);
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(3 * 5, actual.size());
+    }
+
+    @Test
+    public void blame_preparedSinceCommit_sameAsCli() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        cliBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, line -> expected.add(stripGroupSize(line)));
+        jGitBackend.prepareBlame(config.getRepoRoot(), Collections.singletonMap("blameTest.java",
+                Collections.emptyList()), FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING);
+        jGitBackend.blame(config.getRepoRoot(), "blameTest.java", Collections.emptyList(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, line -> actual.add(stripGroupSize(line)));
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertTrue(actual.contains("boundary"));
+    }
+
+    @Test
+    public void blame_nonExistentFile_throwsRunTimeException() {
+        Assertions.assertThrows(RuntimeException.class, () ->
+                jGitBackend.blame(config.getRepoRoot(), "nonExistentFile", Collections.emptyList(), "",
+                        line -> { }));
+    }
+
+    @Test
+    public void blameLines_allValidArguments_sameAsCli() {
+        Map<Integer, GitBlameLineInfo> expectedLineInfos = cliBackend.blameLines(config.getRepoRoot(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, "blameTest.java", Arrays.asList(1, 2, 4));
+        Map<Integer, GitBlameLineInfo> actualLineInfos = jGitBackend.blameLines(config.getRepoRoot(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, "blameTest.java", Arrays.asList(1, 2, 4));
+        Assertions.assertEquals(expectedLineInfos, actualLineInfos);
+    }
+
+    @Test
+    public void blameLines_nonExistentLine_throwsRunTimeException() {
+        Assertions.assertThrows(RuntimeException.class, () -> jGitBackend.blameLines(config.getRepoRoot(),
+                FAKE_AUTHOR_BLAME_TEST_FILE_COMMIT_08022018_STRING, "blameTest.java", Arrays.asList(1, 5)));
+    }
+
+    @Test
+    public void getFileAuthors_validFile_sameAsCli() {
+        List<String> filePaths = Arrays.asList("blameTest.java", "annotatorTest.java");
+        Map<String, List<String[]>> expectedFileAuthors = cliBackend.getFileAuthors(config, filePaths);
+        Map<String, List<String[]>> actualFileAuthors = jGitBackend.getFileAuthors(config, filePaths);
+
+        Assertions.assertEquals(expectedFileAuthors.keySet(), actualFileAuthors.keySet());
+        for (String filePath : filePaths) {
+            assertSameFileAuthors(expectedFileAuthors.get(filePath), actualFileAuthors.get(filePath));
+        }
+    }
+
+    @Test
+    public void getFileAuthors_sinceDate_sameAsCli() {
+        config.setSinceDate(TimeUtil.getSinceDate(LocalDateTime.of(2018, Month.FEBRUARY, 9, 0, 0)));
+        List<String> filePaths = Arrays.asList("blameTest.java", "annotatorTest.java", "README.md");
+        Map<String, List<String[]>> expectedFileAuthors = cliBackend.getFileAuthors(config, filePaths);
+        Map<String, List<String[]>> actualFileAuthors = jGitBackend.getFileAuthors(config, filePaths);
+
+        Assertions.assertEquals(expectedFileAuthors.keySet(), actualFileAuthors.keySet());
+        for (String filePath : filePaths) {
+            assertSameFileAuthors(expectedFileAuthors.get(filePath), actualFileAuthors.get(filePath));
+        }
+    }
+
+    @Test
+    public void getExpandedCommitHash_shortHash_success() throws Exception {
+        Assertions.assertEquals(TEST_COMMIT_HASH_LONG,
+                jGitBackend.getExpandedCommitHash(config.getRepoRoot(), TEST_COMMIT_HASH).toString());
+    }
+
+    @Test
+    public void getExpandedCommitHash_nonExistentHash_throwsCommitNotFoundException() {
+        Assertions.assertThrows(CommitNotFoundException.class, () ->
+                jGitBackend.getExpandedCommitHash(config.getRepoRoot(), NONEXISTENT_COMMIT_HASH));
+    }
+
+    private static void assertSameFileAuthors(List<String[]> expected, List<String[]> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    /**
+     * Removes the number of lines in the group from the first line of a blame record, as it depends on how the
+     * blame result is split into groups.
+     */
+    private static String stripGroupSize(String blameLine) {
+        return blameLine.replaceFirst("^([0-9a-f]{40} \\d+ \\d+) \\d+$", "$1");
+    }
+}
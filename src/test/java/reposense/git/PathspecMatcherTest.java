@@ -0,0 +1,68 @@
+package reposense.git;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PathspecMatcherTest {
+    @Test
+    public void test_formatPathspecs_wildcardMatchesAcrossDirectories() {
+        PathspecMatcher matcher = new PathspecMatcher(Arrays.asList("*.java", "*.md"));
+
+        Assertions.assertTrue(matcher.test("Main.java"));
+        Assertions.assertTrue(matcher.test("src/main/Main.java"));
+        Assertions.assertTrue(matcher.test("docs/README.md"));
+        Assertions.assertFalse(matcher.test("src/Main.JAVA"));
+        Assertions.assertFalse(matcher.test("foojava"));
+        Assertions.assertFalse(matcher.test("Main.java.bak"));
+    }
+
+    @Test
+    public void test_literalPathspec_matchesFileOrDirectory() {
+        PathspecMatcher matcher = new PathspecMatcher(Collections.singletonList(":(exclude)./newPos"));
+
+        Assertions.assertFalse(matcher.test("newPos"));
+        Assertions.assertFalse(matcher.test("newPos/movedFile.java"));
+        Assertions.assertTrue(matcher.test("newPosition/file.java"));
+        Assertions.assertTrue(matcher.test("src/newPos"));
+    }
+
+    @Test
+    public void test_excludePathspecsOnly_everyOtherPathMatched() {
+        PathspecMatcher matcher = new PathspecMatcher(Arrays.asList(":(exclude)**Test**", ":(exclude)docs/"));
+
+        Assertions.assertTrue(matcher.test("src/Main.java"));
+        Assertions.assertFalse(matcher.test("src/test/MainTest.java"));
+        Assertions.assertFalse(matcher.test("docs/guide.md"));
+        Assertions.assertTrue(matcher.test("docs"));
+    }
+
+    @Test
+    public void test_formatAndExcludePathspecs_excludeTakesPrecedence() {
+        PathspecMatcher matcher = new PathspecMatcher(Arrays.asList("*.java", ":(exclude)src/*"));
+
+        Assertions.assertTrue(matcher.test("Main.java"));
+        Assertions.assertFalse(matcher.test("src/main/Main.java"));
+        Assertions.assertFalse(matcher.test("README.md"));
+    }
+
+    @Test
+    public void test_bracketsAndEscapes_matchedAsGitDoes() {
+        Assertions.assertFalse(new PathspecMatcher(Collections.singletonList(":(exclude)file[0-9].txt"))
+                .test("file1.txt"));
+        Assertions.assertTrue(new PathspecMatcher(Collections.singletonList(":(exclude)file[!0-9].txt"))
+                .test("file1.txt"));
+        Assertions.assertFalse(new PathspecMatcher(Collections.singletonList(":(exclude)[[:upper:]]*"))
+                .test("README.md"));
+        Assertions.assertTrue(new PathspecMatcher(Collections.singletonList(":(exclude)[[:upper:]]*"))
+                .test("readme.md"));
+        Assertions.assertFalse(new PathspecMatcher(Collections.singletonList(":(exclude)file\\[1].txt"))
+                .test("file[1].txt"));
+        Assertions.assertTrue(new PathspecMatcher(Collections.singletonList(":(exclude)file\\[1].txt"))
+                .test("file1.txt"));
+        Assertions.assertFalse(new PathspecMatcher(Collections.singletonList(":(exclude)q?.txt"))
+                .test("q/.txt"));
+    }
+}
@@ -0,0 +1,143 @@
+package reposense.git;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+
+/**
+ * Compares the diffs written by {@link UnifiedDiffWriter} with those of "git diff", on a repository built by each test.
+ */
+public class UnifiedDiffWriterTest {
+    private Path repoPath;
+    private Git git;
+
+    @BeforeEach
+    public void before() throws Exception {
+        repoPath = Files.createTempDirectory("unified-diff-writer-test");
+        git = Git.init().setDirectory(repoPath.toFile()).call();
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        git.close();
+        FileUtil.deleteDirectory(repoPath.toString());
+    }
+
+    @Test
+    public void write_changesInFunctionsAndFileAdded_sameAsGitDiff() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("public class Functions {");
+        for (int i = 0; i < 5; i++) {
+            lines.add("private void function" + i + "WithANameThatGitCutsOffAtEightyBytes(int first, int second, "
+                    + "int third) {");
+            lines.addAll(numberedLines("    run", 10));
+            lines.add("}");
+            lines.add("");
+        }
+        lines.add("}");
+        writeFile("Functions.java", lines);
+        RevCommit before = commit("Add functions");
+
+        lines.set(5, "    changed();");
+        lines.set(20, "    changed();");
+        lines.set(24, "    changed();");
+        lines.remove(50);
+        writeFile("Functions.java", lines);
+        writeFile("empty.txt", new ArrayList<>());
+        RevCommit after = commit("Change functions");
+
+        assertSameAsGitDiff(before, after);
+    }
+
+    @Test
+    public void write_blocksAddedAndChangedAroundSimilarBlocks_sameAsGitDiff() throws Exception {
+        writeFile("run.c", Arrays.asList("void run() {", "    if (first) {", "        start();", "    }", "",
+                "    if (last) {", "        start();", "    }", "", "    done();", "}"));
+        RevCommit before = commit("Add function");
+
+        writeFile("run.c", Arrays.asList("void run() {", "    if (added) {", "        start();", "    }", "",
+                "    if (first) {", "        start();", "    }", "", "    if (changed) {", "        stop();", "    }",
+                "", "    done();", "}"));
+        RevCommit after = commit("Add and change blocks");
+
+        assertSameAsGitDiff(before, after);
+    }
+
+    @Test
+    public void write_filesDeletedAndRenamed_sameAsGitDiff() throws Exception {
+        writeFile("deleted.txt", numberedLines("deleted", 5));
+        writeFile("old.txt", numberedLines("renamed", 5));
+        Files.write(repoPath.resolve("unterminated.txt"), "first\nlast".getBytes(StandardCharsets.UTF_8));
+        RevCommit before = commit("Add files");
+
+        Files.delete(repoPath.resolve("deleted.txt"));
+        Files.move(repoPath.resolve("old.txt"), repoPath.resolve("new.txt"));
+        Files.write(repoPath.resolve("unterminated.txt"), "first\nchanged".getBytes(StandardCharsets.UTF_8));
+        RevCommit after = commit("Delete and rename files");
+
+        assertSameAsGitDiff(before, after);
+    }
+
+    @Test
+    public void write_fileRenamedWithChanges_notWritten() throws Exception {
+        writeFile("old.txt", numberedLines("line", 20));
+        RevCommit before = commit("Add file");
+
+        Files.delete(repoPath.resolve("old.txt"));
+        List<String> lines = numberedLines("line", 20);
+        lines.set(10, "changed");
+        writeFile("new.txt", lines);
+        RevCommit after = commit("Rename and change file");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Assertions.assertFalse(new UnifiedDiffWriter(git.getRepository(), XdiffAlgorithm.forDiff(true))
+                .write(before.getTree(), after.getTree(), output));
+        Assertions.assertEquals(0, output.size());
+    }
+
+    private void assertSameAsGitDiff(RevCommit before, RevCommit after) throws Exception {
+        String expected = CommandRunner.runCommand(repoPath,
+                Arrays.asList("git", "diff", before.getName(), after.getName()));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Assertions.assertTrue(new UnifiedDiffWriter(git.getRepository(), XdiffAlgorithm.forDiff(true))
+                .write(before.getTree(), after.getTree(), output));
+        Assertions.assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private void writeFile(String path, List<String> lines) throws Exception {
+        Files.write(repoPath.resolve(path), lines);
+    }
+
+    /**
+     * Stages every change in the working tree and commits it.
+     */
+    private RevCommit commit(String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.add().addFilepattern(".").setUpdate(true).call();
+        return git.commit().setMessage(message).setAuthor("Main Author", "main@example.com")
+                .setCommitter("Main Author", "main@example.com").call();
+    }
+
+    private static List<String> numberedLines(String prefix, int numLines) {
+        return IntStream.rangeClosed(1, numLines)
+                .mapToObj(lineNumber -> prefix + " " + lineNumber)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,153 @@
+package reposense.git;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+
+/**
+ * Compares the changed lines found by {@link XdiffAlgorithm} with those of "git diff -U0".
+ */
+public class XdiffAlgorithmTest {
+    private static final Pattern HUNK_HEADER_PATTERN =
+            Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*$");
+    private static final String[] RANDOM_LINES = {"", "{", "}", "    }", "        run();", "    if (ready) {",
+        "\tstop();", "  a  b ", "a b", "void run() {"};
+
+    private Path repoPath;
+
+    @BeforeEach
+    public void before() throws Exception {
+        repoPath = Files.createTempDirectory("xdiff-algorithm-test");
+        CommandRunner.runCommand(repoPath, Arrays.asList("git", "init", "-q"));
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        FileUtil.deleteDirectory(repoPath.toString());
+    }
+
+    @Test
+    public void diff_repeatedLinesInserted_sameAsGitDiff() throws Exception {
+        String before = "1\n2\na\n\nb\n3\n4\n";
+        String after = "1\n2\na\n\nb\na\n\nb\n3\n4\n";
+
+        assertSameAsGitDiff(before, after, false, true);
+        assertSameAsGitDiff(before, after, false, false);
+        Assertions.assertNotEquals(XdiffAlgorithm.forBlame(false, true).diff(toText(before), toText(after)),
+                XdiffAlgorithm.forBlame(false, false).diff(toText(before), toText(after)));
+    }
+
+    @Test
+    public void diff_blocksAddedAndChangedAroundSimilarBlocks_sameAsGitDiff() throws Exception {
+        String before = String.join("\n", "void run() {", "    if (first) {", "        start();", "    }", "",
+                "    if (last) {", "        start();", "    }", "", "    done();", "}", "");
+        String after = String.join("\n", "void run() {", "    if (added) {", "        start();", "    }", "",
+                "    if (first) {", "        start();", "    }", "", "    if (changed) {", "        stop();", "    }",
+                "", "    done();", "}", "");
+
+        assertSameAsGitDiff(before, after, true, true);
+        assertSameAsGitDiff(before, after, false, true);
+    }
+
+    @Test
+    public void diff_whitespaceChanged_ignoredOnlyIfWhitespaceIgnored() throws Exception {
+        String before = "a b\nc\n";
+        String after = "  a  b \nc\n";
+
+        assertSameAsGitDiff(before, after, true, true);
+        assertSameAsGitDiff(before, after, false, true);
+        Assertions.assertTrue(XdiffAlgorithm.forBlame(true, true).diff(toText(before), toText(after)).isEmpty());
+    }
+
+    @Test
+    public void diff_randomEdits_sameAsGitDiff() throws Exception {
+        Random random = new Random(11);
+        for (int i = 0; i < 20; i++) {
+            List<String> lines = new ArrayList<>();
+            for (int j = random.nextInt(60); j > 0; j--) {
+                lines.add(RANDOM_LINES[random.nextInt(RANDOM_LINES.length)]);
+            }
+            String before = String.join("\n", lines);
+
+            for (int j = 1 + random.nextInt(5); j > 0; j--) {
+                int index = random.nextInt(lines.size() + 1);
+                if (random.nextBoolean() || index == lines.size()) {
+                    lines.add(index, RANDOM_LINES[random.nextInt(RANDOM_LINES.length)]);
+                } else {
+                    lines.remove(index);
+                }
+            }
+            String after = String.join("\n", lines);
+
+            assertSameAsGitDiff(before, after, random.nextBoolean(), random.nextBoolean());
+        }
+    }
+
+    /**
+     * Asserts that {@link XdiffAlgorithm} finds the same changed lines from {@code before} to {@code after} as
+     * "git diff -U0", ignoring whitespace changes if {@code isWhitespaceIgnored}, with the indent heuristic used if
+     * {@code isIndentHeuristicUsed}.
+     */
+    private void assertSameAsGitDiff(String before, String after, boolean isWhitespaceIgnored,
+            boolean isIndentHeuristicUsed) throws Exception {
+        List<String> diffCommand = new ArrayList<>(Arrays.asList("git", "-c",
+                "diff.indentHeuristic=" + isIndentHeuristicUsed, "diff", "-U0"));
+        if (isWhitespaceIgnored) {
+            diffCommand.add("-w");
+        }
+        diffCommand.addAll(Arrays.asList(writeBlob(before), writeBlob(after)));
+
+        EditList expected = new EditList();
+        for (String line : CommandRunner.runCommand(repoPath, diffCommand).split("\n")) {
+            Matcher matcher = HUNK_HEADER_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                expected.add(toEdit(matcher));
+            }
+        }
+
+        EditList actual = XdiffAlgorithm.forBlame(isWhitespaceIgnored, isIndentHeuristicUsed)
+                .diff(toText(before), toText(after));
+        Assertions.assertEquals(expected, actual, before + "\n=>\n" + after);
+    }
+
+    /**
+     * Returns the lines changed by the hunk whose header is matched by {@code matcher}. A range of no lines starts
+     * after the line given in the header, while any other range starts at that line.
+     */
+    private static Edit toEdit(Matcher matcher) {
+        int startA = Integer.parseInt(matcher.group(1));
+        int countA = (matcher.group(2) == null) ? 1 : Integer.parseInt(matcher.group(2));
+        int startB = Integer.parseInt(matcher.group(3));
+        int countB = (matcher.group(4) == null) ? 1 : Integer.parseInt(matcher.group(4));
+        int beginA = (countA == 0) ? startA : startA - 1;
+        int beginB = (countB == 0) ? startB : startB - 1;
+        return new Edit(beginA, beginA + countA, beginB, beginB + countB);
+    }
+
+    private String writeBlob(String content) throws Exception {
+        Path file = Files.createTempFile(repoPath, "blob", ".txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return CommandRunner.runCommand(repoPath, Arrays.asList("git", "hash-object", "-w", file.toString())).trim();
+    }
+
+    private static RawText toText(String content) {
+        return new RawText(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
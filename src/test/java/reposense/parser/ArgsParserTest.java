@@ -8,12 +8,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -21,6 +24,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import net.sourceforge.argparse4j.helper.HelpScreenException;
+import reposense.git.GitBackendType;
 import reposense.model.CliArguments;
 import reposense.model.FileType;
 import reposense.model.FileTypeTest;
@@ -28,6 +32,7 @@ import reposense.model.RepoConfiguration;
 import reposense.model.RunConfigurationDecider;
 import reposense.parser.exceptions.ParseException;
 import reposense.parser.types.SinceDateArgumentType;
+import reposense.system.CommandClass;
 import reposense.util.FileUtil;
 import reposense.util.InputBuilder;
 import reposense.util.TestUtil;
@@ -466,6 +471,105 @@ public class ArgsParserTest {
         Assertions.assertEquals(expectedNumThreads, cliArguments.getNumAnalysisThreads());
     }
 
+    @Test
+    public void gitTimeouts_default_noTimeouts() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertTrue(cliArguments.getGitTimeouts().isEmpty());
+    }
+
+    @Test
+    public void gitTimeouts_validTimeouts_success() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER
+                .addGitTimeouts("blame=300,LOG=1800")
+                .build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Map<CommandClass, Duration> expectedTimeouts = new EnumMap<>(CommandClass.class);
+        expectedTimeouts.put(CommandClass.BLAME, Duration.ofSeconds(300));
+        expectedTimeouts.put(CommandClass.LOG, Duration.ofSeconds(1800));
+        Assertions.assertEquals(expectedTimeouts, cliArguments.getGitTimeouts());
+    }
+
+    @Test
+    public void gitTimeouts_invalidTimeouts_throwsParseException() {
+        for (String timeouts : Arrays.asList("blame", "fetch=10", "blame=-1", "blame=ten")) {
+            String input = new InputBuilder().addGitTimeouts(timeouts).build();
+            Assertions.assertThrows(ParseException.class, () -> ArgsParser.parse(translateCommandline(input)));
+        }
+    }
+
+    @Test
+    public void logSlowestCommands_default_false() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertFalse(cliArguments.isSlowestCommandsLogged());
+    }
+
+    @Test
+    public void logSlowestCommands_withFlag_true() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.addLogSlowestCommands().build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertTrue(cliArguments.isSlowestCommandsLogged());
+    }
+
+    @Test
+    public void gitBackend_default_cli() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertEquals(GitBackendType.CLI, cliArguments.getGitBackendType());
+    }
+
+    @Test
+    public void gitBackend_jgit_success() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.addGitBackend("JGit").build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertEquals(GitBackendType.JGIT, cliArguments.getGitBackendType());
+    }
+
+    @Test
+    public void gitBackend_invalidBackend_throwsParseException() {
+        String input = new InputBuilder().addGitBackend("libgit2").build();
+        Assertions.assertThrows(ParseException.class, () -> ArgsParser.parse(translateCommandline(input)));
+    }
+
+    @Test
+    public void optimizeRepos_default_false() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertFalse(cliArguments.isRepoOptimizationPerformed());
+    }
+
+    @Test
+    public void optimizeRepos_withFlag_true() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.addOptimizeRepos().build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertTrue(cliArguments.isRepoOptimizationPerformed());
+    }
+
+    @Test
+    public void checkoutFree_default_false() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertFalse(cliArguments.isCheckoutFree());
+    }
+
+    @Test
+    public void checkoutFree_withFlag_true() throws Exception {
+        String input = DEFAULT_INPUT_BUILDER.addCheckoutFree().build();
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+
+        Assertions.assertTrue(cliArguments.isCheckoutFree());
+    }
+
     @Test
     public void parse_validGitRepoLocations_repoConfigurationListCorrectSize() throws Exception {
         String input = new InputBuilder().addRepos(TEST_REPO_REPOSENSE, TEST_REPO_DELTA).build();
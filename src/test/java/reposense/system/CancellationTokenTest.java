@@ -0,0 +1,52 @@
+package reposense.system;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CancellationTokenTest {
+    @Test
+    public void isCancelled_noDeadline_notCancelledUntilCancel() throws Exception {
+        CancellationToken token = new CancellationToken();
+        Thread.sleep(20);
+        Assertions.assertFalse(token.isCancelled());
+        token.throwIfCancelled();
+
+        token.cancel();
+        Assertions.assertTrue(token.isCancelled());
+        CancellationException exception = Assertions.assertThrows(CancellationException.class,
+                token::throwIfCancelled);
+        Assertions.assertEquals("Operation was cancelled.", exception.getMessage());
+    }
+
+    @Test
+    public void isCancelled_zeroOrNegativeTimeout_noDeadline() throws Exception {
+        CancellationToken zeroToken = new CancellationToken(Duration.ZERO);
+        CancellationToken negativeToken = new CancellationToken(Duration.ofSeconds(-1));
+        Thread.sleep(20);
+
+        Assertions.assertFalse(zeroToken.isCancelled());
+        Assertions.assertFalse(negativeToken.isCancelled());
+    }
+
+    @Test
+    public void isCancelled_deadlinePassed_cancelledWithTimeoutMessage() throws Exception {
+        CancellationToken token = new CancellationToken(Duration.ofMillis(50));
+        Thread.sleep(200);
+
+        Assertions.assertTrue(token.isCancelled());
+        CancellationException exception = Assertions.assertThrows(CancellationException.class,
+                token::throwIfCancelled);
+        Assertions.assertEquals("Operation did not complete within 0 seconds.", exception.getMessage());
+    }
+
+    @Test
+    public void isCancelled_beforeDeadline_notCancelled() {
+        CancellationToken token = new CancellationToken(Duration.ofHours(1));
+
+        Assertions.assertFalse(token.isCancelled());
+        token.throwIfCancelled();
+    }
+}
@@ -0,0 +1,27 @@
+package reposense.system;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CommandClassTest {
+    @Test
+    public void of_gitCommands_success() {
+        Assertions.assertEquals(CommandClass.BLAME, CommandClass.of(Arrays.asList("git", "blame", "-w", "file")));
+        Assertions.assertEquals(CommandClass.LOG, CommandClass.of(Arrays.asList("git", "log", "--numstat")));
+        Assertions.assertEquals(CommandClass.LOG, CommandClass.of(Arrays.asList("git", "rev-list", "HEAD")));
+        Assertions.assertEquals(CommandClass.DIFF, CommandClass.of(Arrays.asList("git", "diff", "-U0")));
+        Assertions.assertEquals(CommandClass.CLONE, CommandClass.of(Arrays.asList("git", "clone", "--bare", "url")));
+        Assertions.assertEquals(CommandClass.MAINTENANCE,
+                CommandClass.of(Arrays.asList("git", "commit-graph", "write", "--reachable")));
+        Assertions.assertEquals(CommandClass.LIGHT, CommandClass.of(Arrays.asList("git", "rev-parse", "HEAD")));
+    }
+
+    @Test
+    public void of_nonGitCommands_returnsLight() {
+        Assertions.assertEquals(CommandClass.LIGHT, CommandClass.of(Arrays.asList("echo", "blame")));
+        Assertions.assertEquals(CommandClass.LIGHT, CommandClass.of(Collections.singletonList("git")));
+    }
+}
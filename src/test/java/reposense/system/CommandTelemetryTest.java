@@ -0,0 +1,97 @@
+package reposense.system;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CommandTelemetryTest {
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    @BeforeEach
+    public void before() {
+        CommandTelemetry.reset();
+    }
+
+    @AfterEach
+    public void after() {
+        CommandTelemetry.reset();
+    }
+
+    @Test
+    public void record_multipleRepos_aggregatesPerRepoAndClass() {
+        CommandTelemetry.record("repoA", CommandClass.BLAME, "git blame a", 30 * NANOS_PER_MILLI,
+                createResult(0, 100, 0, false), 0);
+        CommandTelemetry.record("repoA", CommandClass.BLAME, "git blame b", 10 * NANOS_PER_MILLI,
+                createResult(128, 0, 20, false), 0);
+        CommandTelemetry.record("repoB", CommandClass.BLAME, "git blame c", 50 * NANOS_PER_MILLI,
+                createResult(137, 0, 0, true), 0);
+        CommandTelemetry.record("repoB", CommandClass.LOG, "git log", 20 * NANOS_PER_MILLI,
+                createResult(0, 0, 0, false), 500);
+
+        Map<String, Map<CommandClass, CommandStatistics>> statisticsByRepo = CommandTelemetry.getStatisticsByRepo();
+        CommandStatistics repoABlame = statisticsByRepo.get("repoA").get(CommandClass.BLAME);
+        Assertions.assertEquals(2, repoABlame.getNumInvocations());
+        Assertions.assertEquals(1, repoABlame.getNumFailures());
+        Assertions.assertEquals(0, repoABlame.getNumTimeouts());
+        Assertions.assertEquals(40, repoABlame.getTotalWallTimeMillis(), 1e-9);
+        Assertions.assertEquals(30, repoABlame.getMaxWallTimeMillis(), 1e-9);
+        Assertions.assertEquals(100, repoABlame.getOutputBytes());
+        Assertions.assertEquals(20, repoABlame.getErrorOutputBytes());
+        Assertions.assertEquals(500, statisticsByRepo.get("repoB").get(CommandClass.LOG).getOutputBytes());
+
+        CommandStatistics totalBlame = CommandTelemetry.getTotalStatistics().get(CommandClass.BLAME);
+        Assertions.assertEquals(3, totalBlame.getNumInvocations());
+        Assertions.assertEquals(2, totalBlame.getNumFailures());
+        Assertions.assertEquals(1, totalBlame.getNumTimeouts());
+        Assertions.assertEquals(50, totalBlame.getMaxWallTimeMillis(), 1e-9);
+    }
+
+    @Test
+    public void getSlowestCommands_manyCommands_keepsSlowestInDescendingOrder() {
+        for (int i = 1; i <= 25; i++) {
+            CommandTelemetry.record("repo", CommandClass.LIGHT, "command " + i, i * NANOS_PER_MILLI,
+                    createResult(0, 0, 0, false), 0);
+        }
+
+        List<CommandRecord> slowestCommands = CommandTelemetry.getSlowestCommands();
+        Assertions.assertEquals(10, slowestCommands.size());
+        Assertions.assertEquals("command 25", slowestCommands.get(0).getCommand());
+        Assertions.assertEquals("command 16", slowestCommands.get(9).getCommand());
+        Assertions.assertEquals(25, CommandTelemetry.getTotalStatistics().get(CommandClass.LIGHT).getNumInvocations());
+    }
+
+    @Test
+    public void record_unreadableOutput_countedAsFailure() {
+        CommandTelemetry.record("repo", CommandClass.DIFF, "git diff", NANOS_PER_MILLI, null, 0);
+
+        Assertions.assertEquals(1, CommandTelemetry.getTotalStatistics().get(CommandClass.DIFF).getNumFailures());
+        Assertions.assertEquals(-1, CommandTelemetry.getSlowestCommands().get(0).getExitCode());
+    }
+
+    @Test
+    public void recordOptimization_multipleRepos_durationAndOutcomePerRepo() {
+        CommandTelemetry.recordOptimization("repoB", 20 * NANOS_PER_MILLI, false);
+        CommandTelemetry.recordOptimization("repoA", 30 * NANOS_PER_MILLI, true);
+
+        Map<String, OptimizationRecord> optimizations = CommandTelemetry.getOptimizationsByRepo();
+        Assertions.assertEquals(Arrays.asList("repoA", "repoB"), new ArrayList<>(optimizations.keySet()));
+        Assertions.assertEquals(30, optimizations.get("repoA").getWallTimeMillis(), 1e-9);
+        Assertions.assertTrue(optimizations.get("repoA").isSuccessful());
+        Assertions.assertFalse(optimizations.get("repoB").isSuccessful());
+
+        CommandTelemetry.reset();
+        Assertions.assertTrue(CommandTelemetry.getOptimizationsByRepo().isEmpty());
+    }
+
+    private static ProcessResult createResult(int exitCode, long outputSize, long errorOutputSize,
+            boolean isTimedOut) {
+        return new ProcessResult(Paths.get("."), "", exitCode, "", "", outputSize, errorOutputSize, isTimedOut);
+    }
+}
@@ -0,0 +1,82 @@
+package reposense.system;
+
+import static reposense.util.TestUtil.isWindows;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InteractiveProcessTest {
+    private static final Path WORKING_DIRECTORY = Paths.get(".");
+    private static final String REPO = "repo";
+    private static final long MAX_WAIT_SECONDS = 10;
+
+    @BeforeEach
+    public void before() {
+        // the commands are POSIX utilities
+        Assumptions.assumeFalse(isWindows());
+        CommandTelemetry.reset();
+        CommandTelemetry.setCurrentRepo(REPO);
+    }
+
+    @AfterEach
+    public void after() {
+        CommandTelemetry.clearCurrentRepo();
+        CommandTelemetry.reset();
+    }
+
+    @Test
+    public void startInteractiveCommand_requestsAndResponses_recordedOnceClosed() throws Exception {
+        InteractiveProcess process = CommandRunner.startInteractiveCommand(WORKING_DIRECTORY, Arrays.asList("cat"));
+        BufferedReader responses = new BufferedReader(
+                new InputStreamReader(process.getResponses(), StandardCharsets.UTF_8));
+        for (String request : Arrays.asList("first", "second")) {
+            process.getRequests().write((request + "\n").getBytes(StandardCharsets.UTF_8));
+            process.getRequests().flush();
+            Assertions.assertEquals(request, responses.readLine());
+        }
+        // the process is only recorded once it exits
+        Assertions.assertTrue(CommandTelemetry.getStatisticsByRepo().isEmpty());
+
+        process.close();
+
+        CommandStatistics statistics = waitForStatistics();
+        Assertions.assertEquals(1, statistics.getNumInvocations());
+        Assertions.assertEquals(0, statistics.getNumFailures());
+        Assertions.assertEquals("first\nsecond\n".length(), statistics.getOutputBytes());
+        Assertions.assertEquals("cat", CommandTelemetry.getSlowestCommands().get(0).getCommand());
+    }
+
+    @Test
+    public void close_processIgnoringInput_processTerminated() throws Exception {
+        InteractiveProcess process = CommandRunner.startInteractiveCommand(WORKING_DIRECTORY,
+                Arrays.asList("sleep", "60"));
+
+        process.close();
+
+        Assertions.assertEquals(1, waitForStatistics().getNumFailures());
+        Assertions.assertTrue(process.getResult().isDone());
+    }
+
+    /**
+     * Returns the statistics recorded for the {@link CommandClass#LIGHT} commands of the repo, waiting for the
+     * process to be recorded as it is recorded asynchronously once it exits.
+     */
+    private static CommandStatistics waitForStatistics() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(MAX_WAIT_SECONDS);
+        while (!CommandTelemetry.getStatisticsByRepo().containsKey(REPO) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return CommandTelemetry.getStatisticsByRepo().get(REPO).get(CommandClass.LIGHT);
+    }
+}
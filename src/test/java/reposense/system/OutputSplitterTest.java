@@ -0,0 +1,85 @@
+package reposense.system;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class OutputSplitterTest {
+    @Test
+    public void accept_delimiterAtChunkBoundary_tokensSplitAtDelimiter() {
+        List<String> tokens = new ArrayList<>();
+        OutputSplitter splitter = new OutputSplitter((byte) '\n', tokens::add);
+
+        acceptChunk(splitter, "first\n");
+        acceptChunk(splitter, "second");
+        acceptChunk(splitter, "\nthird");
+        acceptChunk(splitter, "\n");
+        splitter.finish();
+
+        Assertions.assertEquals(Arrays.asList("first", "second", "third"), tokens);
+    }
+
+    @Test
+    public void accept_multiByteCharacterSplitAcrossChunks_decodedWhole() {
+        List<String> tokens = new ArrayList<>();
+        OutputSplitter splitter = new OutputSplitter((byte) 0, tokens::add);
+
+        byte[] bytes = "aé中\0b".getBytes(StandardCharsets.UTF_8);
+        // splits the two bytes of the first character, and then the three bytes of the second
+        int[] chunkEnds = {2, 4, 5, bytes.length};
+        int chunkStart = 0;
+        for (int chunkEnd : chunkEnds) {
+            splitter.accept(bytes, chunkStart, chunkEnd - chunkStart);
+            chunkStart = chunkEnd;
+        }
+        splitter.finish();
+
+        Assertions.assertEquals(Arrays.asList("aé中", "b"), tokens);
+    }
+
+    @Test
+    public void accept_offsetIntoChunk_onlyGivenBytesSplit() {
+        List<String> tokens = new ArrayList<>();
+        OutputSplitter splitter = new OutputSplitter((byte) '\n', tokens::add);
+
+        byte[] bytes = "skipped\nkept\nskipped".getBytes(StandardCharsets.UTF_8);
+        splitter.accept(bytes, 8, 5);
+        splitter.finish();
+
+        Assertions.assertEquals(Collections.singletonList("kept"), tokens);
+    }
+
+    @Test
+    public void finish_trailingTokenWithoutDelimiter_emitted() {
+        List<String> tokens = new ArrayList<>();
+        OutputSplitter splitter = new OutputSplitter((byte) '\n', tokens::add);
+
+        acceptChunk(splitter, "line\r\nlast");
+        Assertions.assertEquals(Collections.singletonList("line\r"), tokens);
+
+        splitter.finish();
+        Assertions.assertEquals(Arrays.asList("line\r", "last"), tokens);
+    }
+
+    @Test
+    public void finish_noTrailingToken_nothingMoreEmitted() {
+        List<String> tokens = new ArrayList<>();
+        OutputSplitter splitter = new OutputSplitter((byte) 0, tokens::add);
+
+        acceptChunk(splitter, "first\0\0");
+        splitter.finish();
+
+        // an empty token between two delimiters is still a token
+        Assertions.assertEquals(Arrays.asList("first", ""), tokens);
+    }
+
+    private static void acceptChunk(OutputSplitter splitter, String chunk) {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        splitter.accept(bytes, 0, bytes.length);
+    }
+}
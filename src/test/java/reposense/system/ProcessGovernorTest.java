@@ -0,0 +1,38 @@
+package reposense.system;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProcessGovernorTest {
+    @Test
+    public void acquire_whileConsumingOutput_admittedBeyondBudget() throws Exception {
+        // more than the largest budget that the governor can grow to
+        int numProcesses = 8 * Runtime.getRuntime().availableProcessors() + 2;
+        AtomicInteger numAdmitted = new AtomicInteger();
+
+        Thread consumer = new Thread(() -> {
+            ProcessGovernor.startConsuming();
+            try {
+                for (int i = 0; i < numProcesses; i++) {
+                    ProcessGovernor.acquire(CommandClass.CLONE);
+                    numAdmitted.incrementAndGet();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                ProcessGovernor.endConsuming();
+            }
+        });
+        consumer.start();
+        consumer.join(10_000);
+        consumer.interrupt();
+        consumer.join();
+
+        for (int i = 0; i < numAdmitted.get(); i++) {
+            ProcessGovernor.cancel(CommandClass.CLONE);
+        }
+        Assertions.assertEquals(numProcesses, numAdmitted.get());
+    }
+}
@@ -0,0 +1,92 @@
+package reposense.system;
+
+import static reposense.util.TestUtil.isWindows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProcessReaperTest {
+    private static final Path WORKING_DIRECTORY = Paths.get(".");
+    private static final long MAX_WAIT_SECONDS = 10;
+
+    @BeforeEach
+    public void before() {
+        // the commands are run with a POSIX shell
+        Assumptions.assumeFalse(isWindows());
+    }
+
+    @Test
+    public void register_processPastDeadline_processTreeTerminated() throws Exception {
+        Process process = start("sleep 60 & sleep 60");
+        // waits for the shell to start its children, so that they are part of its tree
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(MAX_WAIT_SECONDS);
+        while (process.descendants().count() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+        Assertions.assertEquals(2, descendants.size());
+
+        ProcessResult result = ProcessReaper.register(process, WORKING_DIRECTORY, "sleep", true,
+                Duration.ofMillis(200)).get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(result.isTimedOut());
+        Assertions.assertFalse(result.isSuccessful());
+        for (ProcessHandle descendant : descendants) {
+            descendant.onExit().get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertFalse(descendant.isAlive());
+        }
+    }
+
+    @Test
+    public void register_outputLargerThanPipe_drainedWhileRunning() throws Exception {
+        // writes more than a pipe holds, so the process only exits if its output is read while it runs
+        Process process = start("head -c 1000000 /dev/zero | tr '\\0' a");
+
+        ProcessResult result = ProcessReaper.register(process, WORKING_DIRECTORY, "head", true, Duration.ZERO)
+                .get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(result.isSuccessful());
+        Assertions.assertEquals(1000000, result.getOutputSize());
+        Assertions.assertEquals(1000000, result.getOutput().length());
+    }
+
+    @Test
+    public void register_streamHeldOpenByDescendant_completedOnceProcessExits() throws Exception {
+        // the background sleep keeps the output streams open for longer than the result is waited for
+        Process process = start("sleep 30 & echo $!");
+
+        ProcessResult result = ProcessReaper.register(process, WORKING_DIRECTORY, "echo", true, Duration.ZERO)
+                .get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(result.isSuccessful());
+        ProcessHandle.of(Long.parseLong(result.getOutput().trim())).ifPresent(ProcessHandle::destroyForcibly);
+    }
+
+    @Test
+    public void register_multiByteCharactersAcrossReads_decodedAfterExit() throws Exception {
+        // the odd leading byte puts the end of every read of an even number of bytes in the middle of a character
+        String expected = "a" + "é".repeat(200000);
+        Process process = start("printf a; i=0; while [ $i -lt 2000 ]; do printf '"
+                + "\\303\\251".repeat(100) + "'; i=$((i+1)); done");
+
+        ProcessResult result = ProcessReaper.register(process, WORKING_DIRECTORY, "printf", true, Duration.ZERO)
+                .get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(result.isSuccessful());
+        Assertions.assertEquals(expected.length() * 2 - 1, result.getOutputSize());
+        Assertions.assertEquals(expected, result.getOutput());
+    }
+
+    private static Process start(String shellCommand) throws Exception {
+        return new ProcessBuilder("sh", "-c", shellCommand).directory(WORKING_DIRECTORY.toFile()).start();
+    }
+}
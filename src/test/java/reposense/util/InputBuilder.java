@@ -204,6 +204,55 @@ public class InputBuilder {
         return this;
     }
 
+    /**
+     * Adds the git timeouts flag with the {@code timeouts} as argument to the input.
+     * This method should only be called once in one build.
+     *
+     * @param timeouts The comma-separated timeouts of each class of git commands.
+     */
+    public InputBuilder addGitTimeouts(String timeouts) {
+        input.append(ArgsParser.GIT_TIMEOUTS_FLAG[0] + WHITESPACE + timeouts + WHITESPACE);
+        return this;
+    }
+
+    /**
+     * Adds the git backend flag with the {@code backend} as argument to the input.
+     * This method should only be called once in one build.
+     *
+     * @param backend The name of the git backend to run the git operations with.
+     */
+    public InputBuilder addGitBackend(String backend) {
+        input.append(ArgsParser.GIT_BACKEND_FLAG[0] + WHITESPACE + backend + WHITESPACE);
+        return this;
+    }
+
+    /**
+     * Adds the flag to log the slowest git commands.
+     * This method should only be called once in one build.
+     */
+    public InputBuilder addLogSlowestCommands() {
+        input.append(ArgsParser.LOG_SLOWEST_COMMANDS_FLAG[0] + WHITESPACE);
+        return this;
+    }
+
+    /**
+     * Adds the flag to optimize each repo after it is cloned.
+     * This method should only be called once in one build.
+     */
+    public InputBuilder addOptimizeRepos() {
+        input.append(ArgsParser.OPTIMIZE_REPOS_FLAG[0] + WHITESPACE);
+        return this;
+    }
+
+    /**
+     * Adds the flag to analyze each repo without checking out its files.
+     * This method should only be called once in one build.
+     */
+    public InputBuilder addCheckoutFree() {
+        input.append(ArgsParser.CHECKOUT_FREE_FLAG[0] + WHITESPACE);
+        return this;
+    }
+
     /**
      * Adds the flag to enable shallow cloning.
      * This method should only be called once in one build.
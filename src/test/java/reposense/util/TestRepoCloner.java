@@ -1,12 +1,13 @@
 package reposense.util;
 
 import static reposense.system.CommandRunner.runCommand;
-import static reposense.util.StringsUtil.addQuotesForFilePath;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 import reposense.git.GitCheckout;
@@ -53,7 +54,7 @@ public class TestRepoCloner {
             logger.info("Skipped cloning from " + config.getLocation() + " as it was cloned before.");
         } else {
             logger.info("Cloning from " + config.getLocation() + "...");
-            String command = getCloneCommand(config, outputFolderName);
+            List<String> command = getCloneCommand(config, outputFolderName);
             runCommand(rootPath, command);
             logger.info("Cloning completed!");
         }
@@ -70,26 +71,22 @@ public class TestRepoCloner {
         if (Files.exists(outputFolderPath)) {
             return;
         }
-        String command = getCloneBareCommand(config, outputFolderName);
+        List<String> command = getCloneBareCommand(config, outputFolderName);
         runCommand(rootPath, command);
     }
 
     /**
      * Constructs the command to clone a repo specified in the {@code config} into the folder {@code outputFolderName}.
      */
-    private static String getCloneCommand(RepoConfiguration config, String outputFolderName) {
-        return "git clone " + addQuotesForFilePath(config.getLocation().toString()) + " "
-                + addQuotesForFilePath(outputFolderName);
+    private static List<String> getCloneCommand(RepoConfiguration config, String outputFolderName) {
+        return Arrays.asList("git", "clone", config.getLocation().toString(), outputFolderName);
     }
 
     /**
      * Constructs the command to clone a bare repo specified in the {@code config}
      * into the folder {@code outputFolderName}.
      */
-    private static String getCloneBareCommand(RepoConfiguration config, String outputFolderName) {
-        String output = "git clone --bare "
-                + addQuotesForFilePath(config.getLocation().toString()) + " "
-                + addQuotesForFilePath(outputFolderName);
-        return output;
+    private static List<String> getCloneBareCommand(RepoConfiguration config, String outputFolderName) {
+        return Arrays.asList("git", "clone", "--bare", config.getLocation().toString(), outputFolderName);
     }
 }
@@ -7,15 +7,20 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Assertions;
 
+import reposense.commits.CommitInfoParser;
+import reposense.commits.model.CommitInfo;
+import reposense.commits.model.FileChange;
 import reposense.git.GitLog;
 import reposense.model.Author;
+import reposense.model.AuthorConfiguration;
 import reposense.model.RepoConfiguration;
 
 /**
@@ -31,8 +36,6 @@ public class TestUtil {
             + ">> %s\n";
 
     private static final String MESSAGE_LINES_LENGTH_DIFFERENT = "The files' lines count do not match.";
-    private static final String MOVED_FILE_INDICATION = "=> ";
-    private static final int STAT_FILE_PATH_INDEX = 2;
 
     /**
      * Returns true if the contents of the files at {@code expected} and {@code actual} are the same.
@@ -159,63 +162,38 @@ public class TestUtil {
     }
 
     /**
-     * Returns true if the {@code expectedNumberCommits} is equal to the expected number of commits captured in
-     * {@code gitLogResult}.
+     * Returns the commits of {@code author} in the repository specified in {@code config}, with the files changed
+     * other than those ignored by {@code author}, as parsed from the git log result streamed by
+     * {@link GitLog#getWithFiles}. The author of each commit is looked up as it is when commits are extracted.
      */
-    public static boolean compareNumberExpectedCommitsToGitLogLines(int expectedNumberCommits, String gitLogResult) {
-        // if git log result is empty, then there are no commits
-        if (gitLogResult.isEmpty()) {
-            return expectedNumberCommits == 0;
-        }
-
-        // (actualSplitGitLogResilt - 1) as the 1st token is always empty.
-        return expectedNumberCommits == (gitLogResult.split(GitLog.COMMIT_INFO_DELIMITER).length - 1);
+    public static List<CommitInfo> getCommitInfos(RepoConfiguration config, Author author) {
+        AuthorConfiguration authorConfig = new AuthorConfiguration(config.getLocation(), config.getBranch());
+        authorConfig.setAuthorList(Collections.singletonList(author));
+        authorConfig.buildFromAuthorList();
+
+        List<CommitInfo> commitInfos = new ArrayList<>();
+        CommitInfoParser parser = new CommitInfoParser(commitInfo -> {
+            if (authorConfig.getAuthor(commitInfo.getAuthorName(), commitInfo.getAuthorEmail()).equals(author)) {
+                commitInfos.add(commitInfo);
+            }
+        });
+        GitLog.getWithFiles(config, author.getIgnoreGlobList(), parser);
+        parser.finish();
+        return commitInfos;
     }
 
     /**
-     * Returns true if the {@code expectedNumberFilesChanged} is equal to the actual number of files changed in
-     * {@code gitLogResult}.
+     * Returns true if the {@code expectedNumberFilesChanged} is equal to the number of distinct files changed in
+     * {@code commitInfos}.
      */
-    public static boolean compareNumberFilesChanged(int expectedNumberFilesChanged, String gitLogResult) {
-        // if git log result is empty, then there are no files changed
-        if (gitLogResult.isEmpty()) {
-            return expectedNumberFilesChanged == 0;
-        }
-        String[] changesLogged = gitLogResult.split(GitLog.COMMIT_INFO_DELIMITER);
-        HashSet<String> filesChanged = new HashSet<>();
-
-        // start from index 1 as index 0 is always empty.
-        for (int i = 1; i < changesLogged.length; i++) {
-            filesChanged.addAll(getFilesChangedInCommit(changesLogged[i]));
-        }
+    public static boolean compareNumberFilesChanged(int expectedNumberFilesChanged, List<CommitInfo> commitInfos) {
+        Set<String> filesChanged = commitInfos.stream()
+                .flatMap(commitInfo -> commitInfo.getFileChanges().stream())
+                .map(FileChange::getFilePath)
+                .collect(Collectors.toSet());
         return filesChanged.size() == expectedNumberFilesChanged;
     }
 
-    /**
-     * Returns the {@link Set} of files changed in the commit {@code rawCommitInfo}.
-     */
-    private static Set<String> getFilesChangedInCommit(String rawCommitInfo) {
-        Set<String> filesChanged = new HashSet<>();
-        String[] commitInfo = StringsUtil.NEWLINE.split(rawCommitInfo.replaceAll("\n+$", ""));
-        int fileChangedNum = Integer.parseInt(commitInfo[commitInfo.length - 1].trim().split(" ")[0]);
-        for (int fileNum = 0; fileNum < fileChangedNum; fileNum++) {
-            filesChanged.add(getFileChanged(commitInfo[commitInfo.length - 2 - fileNum]));
-        }
-        return filesChanged;
-    }
-
-    /**
-     * Returns the file changed given a {@code rawFileChangedString}.
-     */
-    private static String getFileChanged(String rawFileChangedString) {
-        String fileChanged = StringsUtil.TAB.split(rawFileChangedString)[STAT_FILE_PATH_INDEX].trim();
-        if (fileChanged.contains(MOVED_FILE_INDICATION)) {
-            fileChanged = fileChanged.substring(fileChanged.indexOf(MOVED_FILE_INDICATION)
-                    + MOVED_FILE_INDICATION.length());
-        }
-        return fileChanged;
-    }
-
     /**
      * Returns true if the test environment is on Windows OS.
      */